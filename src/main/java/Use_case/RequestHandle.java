@@ -0,0 +1,76 @@
+package Use_case;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Lets whoever started a use case give up on it, e.g. when a newer search replaces it or its window
+ * is closed. Interactors attach every request they start; cancelling the handle cancels those
+ * futures, which the asynchronous repositories turn into cancelled HTTP calls and Firestore RPCs, and
+ * interactors present nothing for a cancelled handle.
+ */
+public final class RequestHandle {
+
+    private final Set<CompletableFuture<?>> attached = new LinkedHashSet<>();
+    private boolean cancelled;
+
+    /**
+     * Tie a request to this handle.
+     * @param request the future of a request the interactor started
+     * @param <T> the result type
+     * @return the same future; already cancelled if the handle is.
+     */
+    public <T> CompletableFuture<T> attach(CompletableFuture<T> request) {
+        final boolean accepted;
+        synchronized (this) {
+            accepted = !cancelled;
+            if (accepted) {
+                attached.add(request);
+            }
+        }
+        if (!accepted) {
+            request.cancel(true);
+            return request;
+        }
+        request.whenComplete((value, error) -> detach(request));
+        return request;
+    }
+
+    /**
+     * Give up on the use case and cancel every request still attached. Safe to call more than once.
+     */
+    public void cancel() {
+        final List<CompletableFuture<?>> outstanding;
+        synchronized (this) {
+            cancelled = true;
+            outstanding = new ArrayList<>(attached);
+            attached.clear();
+        }
+        for (CompletableFuture<?> request : outstanding) {
+            request.cancel(true);
+        }
+    }
+
+    /**
+     * Return whether the use case was given up on.
+     * @return true once {@link #cancel()} has been called.
+     */
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Return how many attached requests are still running.
+     * @return the outstanding request count.
+     */
+    public synchronized int outstanding() {
+        return attached.size();
+    }
+
+    private synchronized void detach(CompletableFuture<?> request) {
+        attached.remove(request);
+    }
+}
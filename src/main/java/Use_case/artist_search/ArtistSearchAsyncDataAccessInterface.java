@@ -0,0 +1,41 @@
+package Use_case.artist_search;
+
+import java.util.concurrent.CompletableFuture;
+
+import data_transfer_object.Artist;
+
+/**
+ * Non-blocking twin of the artist search DAI.
+ * Cancelling or timing out the returned future must abandon the underlying request.
+ */
+public interface ArtistSearchAsyncDataAccessInterface {
+
+    /**
+     * Search artists without blocking the calling thread.
+     * @param artistName artist name
+     * @param country country of interest
+     * @param type artist type such as "Group" or "Person"; blank for any type
+     * @param limit limit
+     * @param offset offset
+     * @return a future of the array of artists.
+     */
+    CompletableFuture<Artist[]> getArtistsAsync(String artistName, String country, String type, int limit,
+                                                int offset);
+
+    /**
+     * Adapt a blocking repository; the search runs on the calling thread.
+     * @param repository the blocking repository
+     * @return an already-completed view of the blocking call.
+     */
+    static ArtistSearchAsyncDataAccessInterface fromBlocking(ArtistSearchDataAccessInterface repository) {
+        return (artistName, country, type, limit, offset) -> {
+            try {
+                return CompletableFuture.completedFuture(
+                        repository.getArtists(artistName, country, type, limit, offset));
+            }
+            catch (RuntimeException ex) {
+                return CompletableFuture.failedFuture(ex);
+            }
+        };
+    }
+}
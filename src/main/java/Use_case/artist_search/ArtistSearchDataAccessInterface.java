@@ -11,9 +11,10 @@ public interface ArtistSearchDataAccessInterface {
      * Return a list of artists.
      * @param artistName artist name
      * @param country country of interest
+     * @param type artist type such as "Group" or "Person"; blank for any type
      * @param limit limit
      * @param offset offset
      * @return an array of artists.
      */
-    Artist[] getArtists(String artistName, String country, int limit, int offset);
+    Artist[] getArtists(String artistName, String country, String type, int limit, int offset);
 }
@@ -1,5 +1,7 @@
 package Use_case.artist_search;
 
+import Use_case.RequestHandle;
+
 /**
  * Artist search input boundary.
  */
@@ -9,5 +11,14 @@ public interface ArtistSearchInputBoundary {
      * Execute user command.
      * @param inputData the input data.
      */
-    void execute(ArtistSearchInputData inputData);
+    default void execute(ArtistSearchInputData inputData) {
+        execute(inputData, new RequestHandle());
+    }
+
+    /**
+     * Execute user command on behalf of a caller that may give up on it.
+     * @param inputData the input data.
+     * @param handle cancelled when the results are no longer wanted
+     */
+    void execute(ArtistSearchInputData inputData, RequestHandle handle);
 }
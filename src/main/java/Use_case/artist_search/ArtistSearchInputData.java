@@ -6,12 +6,26 @@ package Use_case.artist_search;
 public class ArtistSearchInputData {
     private final String artistName;
     private final String country;
+    private final String type;
     private final int limit;
     private final int offset;
 
     public ArtistSearchInputData(String artistName, String country, int limit, int offset) {
+        this(artistName, country, "", limit, offset);
+    }
+
+    /**
+     * Constructor.
+     * @param artistName artist name
+     * @param country country of interest
+     * @param type artist type such as "Group" or "Person"; blank for any type
+     * @param limit page size
+     * @param offset page start
+     */
+    public ArtistSearchInputData(String artistName, String country, String type, int limit, int offset) {
         this.artistName = artistName;
         this.country = country;
+        this.type = type;
         this.limit = limit;
         this.offset = offset;
     }
@@ -24,6 +38,10 @@ public class ArtistSearchInputData {
         return country;
     }
 
+    public String getType() {
+        return type;
+    }
+
     public int getLimit() {
         return limit;
     }
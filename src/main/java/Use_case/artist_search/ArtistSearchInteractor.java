@@ -1,13 +1,25 @@
 package Use_case.artist_search;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import Use_case.RequestHandle;
+import Use_case.spelling_correction.NameMatch;
+import Use_case.spelling_correction.SpellingCorrectionDataAccessInterface;
 import data_transfer_object.Artist;
 
 /**
  * Arist search interactor.
  */
 public class ArtistSearchInteractor implements ArtistSearchInputBoundary {
-    private final ArtistSearchDataAccessInterface repository;
+    private static final long DEFAULT_TIMEOUT_MILLIS = 30_000;
+
+    private final ArtistSearchAsyncDataAccessInterface repository;
     private final ArtistSearchOutputBoundary presenter;
+    private final long timeoutMillis;
+    private final SpellingCorrectionDataAccessInterface corrector;
 
     /**
      * Constructer.
@@ -16,20 +28,113 @@ public class ArtistSearchInteractor implements ArtistSearchInputBoundary {
      */
     public ArtistSearchInteractor(ArtistSearchDataAccessInterface repository,
                                   ArtistSearchOutputBoundary outputBoundary) {
+        this(ArtistSearchAsyncDataAccessInterface.fromBlocking(repository), outputBoundary, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Constructer for a non-blocking repository.
+     * @param repository the asynchronous repository.
+     * @param outputBoundary the output boundary.
+     * @param timeoutMillis how long a search may take before it is abandoned.
+     */
+    public ArtistSearchInteractor(ArtistSearchAsyncDataAccessInterface repository,
+                                  ArtistSearchOutputBoundary outputBoundary, long timeoutMillis) {
+        this(repository, outputBoundary, timeoutMillis, null);
+    }
+
+    /**
+     * Constructer with spelling correction.
+     * @param repository the asynchronous repository.
+     * @param outputBoundary the output boundary.
+     * @param timeoutMillis how long a search may take before it is abandoned.
+     * @param corrector consulted when a first page finds nothing or a top hit far from the query; null for none.
+     */
+    public ArtistSearchInteractor(ArtistSearchAsyncDataAccessInterface repository,
+                                  ArtistSearchOutputBoundary outputBoundary, long timeoutMillis,
+                                  SpellingCorrectionDataAccessInterface corrector) {
         this.repository = repository;
         this.presenter = outputBoundary;
+        this.timeoutMillis = timeoutMillis;
+        this.corrector = corrector;
     }
 
     @Override
-    public void execute(ArtistSearchInputData inputData) {
-        final Artist[] artists = repository.getArtists(
-                inputData.getArtistName(),
+    public void execute(ArtistSearchInputData inputData, RequestHandle handle) {
+        if (handle.isCancelled()) {
+            return;
+        }
+        search(inputData, inputData.getArtistName(), handle).whenComplete((artists, error) -> {
+            // a newer search or a closed window replaced this one, so nobody wants the outcome
+            if (handle.isCancelled()) {
+                return;
+            }
+            if (error != null) {
+                presenter.prepareFailView("Artist search failed: " + describe(error), handle);
+                return;
+            }
+            final String correction = correctionFor(inputData, artists);
+            if (correction == null) {
+                presenter.presentResults(new ArtistSearchOutputData(artists, null, null, handle));
+            }
+            else if (artists.length > 0) {
+                presenter.presentResults(new ArtistSearchOutputData(artists, null, correction, handle));
+            }
+            else {
+                // nothing matched as typed, so show what the correction finds instead
+                search(inputData, correction, handle).whenComplete((corrected, retryError) -> {
+                    if (handle.isCancelled()) {
+                        return;
+                    }
+                    if (retryError != null || corrected.length == 0) {
+                        presenter.presentResults(new ArtistSearchOutputData(artists, null, null, handle));
+                        return;
+                    }
+                    learn(corrected);
+                    presenter.presentResults(new ArtistSearchOutputData(corrected, correction, null, handle));
+                });
+            }
+        });
+    }
+
+    private CompletableFuture<Artist[]> search(ArtistSearchInputData inputData, String artistName,
+                                               RequestHandle handle) {
+        return handle.attach(repository.getArtistsAsync(
+                artistName,
                 inputData.getCountry(),
+                inputData.getType(),
                 inputData.getLimit(),
                 inputData.getOffset()
-        );
+        )).orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Return a correction of the query if its first page looks like a misspelling: it found nothing,
+     * or its top hit's name is far from what was typed.
+     */
+    private String correctionFor(ArtistSearchInputData inputData, Artist[] artists) {
+        final String artistName = inputData.getArtistName();
+        if (corrector == null || inputData.getOffset() != 0 || artistName == null || artistName.isBlank()) {
+            return null;
+        }
+        if (artists.length > 0 && NameMatch.isClose(artistName, artists[0].getArtistName())) {
+            learn(artists);
+            return null;
+        }
+        return corrector.correct(artistName);
+    }
+
+    private void learn(Artist[] artists) {
+        for (Artist artist : artists) {
+            corrector.learn(artist.getArtistName());
+        }
+    }
 
-        final ArtistSearchOutputData outputData = new ArtistSearchOutputData(artists);
-        presenter.presentResults(outputData);
+    private static String describe(Throwable error) {
+        final Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+        if (cause instanceof TimeoutException) {
+            return "the request timed out.";
+        }
+        return cause.getMessage();
     }
 }
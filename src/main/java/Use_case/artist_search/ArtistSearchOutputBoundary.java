@@ -1,13 +1,23 @@
 package Use_case.artist_search;
 
+import Use_case.RequestHandle;
+
 /**
  * Artist Search Output Boundary.
  */
 public interface ArtistSearchOutputBoundary {
 
     /**
-     * Present results.
+     * Present results. The search may be given up on before they are shown, see
+     * {@link ArtistSearchOutputData#isCancelled()}.
      * @param outputData outputdata
      */
     void presentResults(ArtistSearchOutputData outputData);
+
+    /**
+     * Present a failed search.
+     * @param errorMessage the reason
+     * @param handle the handle the search ran under; nothing is shown if it is cancelled by then
+     */
+    void prepareFailView(String errorMessage, RequestHandle handle);
 }
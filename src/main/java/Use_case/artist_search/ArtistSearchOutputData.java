@@ -1,5 +1,6 @@
 package Use_case.artist_search;
 
+import Use_case.RequestHandle;
 import data_transfer_object.Artist;
 
 /**
@@ -7,12 +8,56 @@ import data_transfer_object.Artist;
  */
 public class ArtistSearchOutputData {
     private final Artist[] artists;
+    private final String correctedQuery;
+    private final String suggestedQuery;
+    private final RequestHandle handle;
 
     public ArtistSearchOutputData(Artist[] artists) {
+        this(artists, null, null);
+    }
+
+    /**
+     * Constructor.
+     * @param artists the results
+     * @param correctedQuery the corrected query the results were found with, or null if the query ran as typed
+     * @param suggestedQuery a likely correction of the query as typed, or null
+     */
+    public ArtistSearchOutputData(Artist[] artists, String correctedQuery, String suggestedQuery) {
+        this(artists, correctedQuery, suggestedQuery, new RequestHandle());
+    }
+
+    /**
+     * Constructor for results of a search that may be superseded before they are shown.
+     * @param artists the results
+     * @param correctedQuery the corrected query the results were found with, or null if the query ran as typed
+     * @param suggestedQuery a likely correction of the query as typed, or null
+     * @param handle the handle the search ran under
+     */
+    public ArtistSearchOutputData(Artist[] artists, String correctedQuery, String suggestedQuery,
+                                  RequestHandle handle) {
         this.artists = artists;
+        this.correctedQuery = correctedQuery;
+        this.suggestedQuery = suggestedQuery;
+        this.handle = handle;
     }
 
     public Artist[] getArtists() {
         return artists;
     }
+
+    public String getCorrectedQuery() {
+        return correctedQuery;
+    }
+
+    public String getSuggestedQuery() {
+        return suggestedQuery;
+    }
+
+    /**
+     * Return whether the search was given up on, e.g. replaced by a newer one, since it found these results.
+     * @return true if nobody wants the results any more.
+     */
+    public boolean isCancelled() {
+        return handle.isCancelled();
+    }
 }
@@ -0,0 +1,20 @@
+package Use_case.autocomplete;
+
+import java.util.concurrent.CompletableFuture;
+
+import data_transfer_object.Artist;
+
+/**
+ * Artist name completion DAI.
+ * Cancelling the returned future must abandon the lookup.
+ */
+public interface AutocompleteDataAccessInterface {
+
+    /**
+     * Suggest artists whose name or alias has a word starting with the prefix.
+     * @param prefix what has been typed so far
+     * @param limit maximum number of suggestions
+     * @return a future of the suggestions, most popular first.
+     */
+    CompletableFuture<Artist[]> suggestArtistsAsync(String prefix, int limit);
+}
@@ -0,0 +1,13 @@
+package Use_case.autocomplete;
+
+/**
+ * Autocomplete input boundary.
+ */
+public interface AutocompleteInputBoundary {
+
+    /**
+     * Look up suggestions for the latest keystroke, abandoning any earlier lookup still running.
+     * @param inputData the input data
+     */
+    void execute(AutocompleteInputData inputData);
+}
@@ -0,0 +1,27 @@
+package Use_case.autocomplete;
+
+/**
+ * Autocomplete input data.
+ */
+public class AutocompleteInputData {
+    private final String prefix;
+    private final int limit;
+
+    /**
+     * Constructor.
+     * @param prefix what has been typed so far
+     * @param limit maximum number of suggestions
+     */
+    public AutocompleteInputData(String prefix, int limit) {
+        this.prefix = prefix;
+        this.limit = limit;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
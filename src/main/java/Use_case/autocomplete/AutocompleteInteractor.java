@@ -0,0 +1,50 @@
+package Use_case.autocomplete;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import data_transfer_object.Artist;
+
+/**
+ * Autocomplete interactor. Only the latest keystroke matters: a new lookup cancels the previous one,
+ * and results that arrive after a newer keystroke are dropped rather than presented.
+ */
+public class AutocompleteInteractor implements AutocompleteInputBoundary {
+
+    private final AutocompleteDataAccessInterface repository;
+    private final AutocompleteOutputBoundary presenter;
+    private final AtomicLong latest = new AtomicLong();
+    private final AtomicReference<CompletableFuture<Artist[]>> inFlight = new AtomicReference<>();
+
+    /**
+     * Constructor.
+     * @param repository the completion source
+     * @param outputBoundary the output boundary
+     */
+    public AutocompleteInteractor(AutocompleteDataAccessInterface repository,
+                                  AutocompleteOutputBoundary outputBoundary) {
+        this.repository = repository;
+        this.presenter = outputBoundary;
+    }
+
+    @Override
+    public void execute(AutocompleteInputData inputData) {
+        final long generation = latest.incrementAndGet();
+        final String prefix = inputData.getPrefix() == null ? "" : inputData.getPrefix();
+        final CompletableFuture<Artist[]> lookup = prefix.isBlank()
+                ? CompletableFuture.completedFuture(new Artist[0])
+                : repository.suggestArtistsAsync(prefix, inputData.getLimit());
+        final CompletableFuture<Artist[]> previous = inFlight.getAndSet(lookup);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+        lookup.whenComplete((artists, error) -> {
+            if (generation != latest.get()) {
+                return;
+            }
+            // a failed lookup just means no suggestions; the search button still works
+            presenter.presentSuggestions(new AutocompleteOutputData(prefix, error == null ? artists : new Artist[0]));
+        });
+    }
+}
@@ -0,0 +1,13 @@
+package Use_case.autocomplete;
+
+/**
+ * Autocomplete output boundary.
+ */
+public interface AutocompleteOutputBoundary {
+
+    /**
+     * Present suggestions; an empty list means there is nothing to suggest.
+     * @param outputData the output data
+     */
+    void presentSuggestions(AutocompleteOutputData outputData);
+}
@@ -0,0 +1,29 @@
+package Use_case.autocomplete;
+
+import data_transfer_object.Artist;
+
+/**
+ * Autocomplete output data.
+ */
+public class AutocompleteOutputData {
+    private final String prefix;
+    private final Artist[] suggestions;
+
+    /**
+     * Constructor.
+     * @param prefix the prefix the suggestions are for
+     * @param suggestions the suggested artists
+     */
+    public AutocompleteOutputData(String prefix, Artist[] suggestions) {
+        this.prefix = prefix;
+        this.suggestions = suggestions;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public Artist[] getSuggestions() {
+        return suggestions;
+    }
+}
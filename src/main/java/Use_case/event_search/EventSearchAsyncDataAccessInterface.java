@@ -0,0 +1,38 @@
+package Use_case.event_search;
+
+import java.util.concurrent.CompletableFuture;
+
+import data_transfer_object.Event;
+
+/**
+ * Non-blocking twin of the event search DAI.
+ * Cancelling or timing out the returned future must abandon the underlying request.
+ */
+public interface EventSearchAsyncDataAccessInterface {
+
+    /**
+     * Search events without blocking the calling thread.
+     * @param eventName event name
+     * @param location location of interest
+     * @param limit limit
+     * @param offset offset
+     * @return a future of the array of events.
+     */
+    CompletableFuture<Event[]> getEventsAsync(String eventName, String location, int limit, int offset);
+
+    /**
+     * Adapt a blocking repository; the search runs on the calling thread.
+     * @param repository the blocking repository
+     * @return an already-completed view of the blocking call.
+     */
+    static EventSearchAsyncDataAccessInterface fromBlocking(EventSearchDataAccessInterface repository) {
+        return (eventName, location, limit, offset) -> {
+            try {
+                return CompletableFuture.completedFuture(repository.getEvents(eventName, location, limit, offset));
+            }
+            catch (RuntimeException ex) {
+                return CompletableFuture.failedFuture(ex);
+            }
+        };
+    }
+}
@@ -1,5 +1,7 @@
 package Use_case.event_search;
 
+import Use_case.RequestHandle;
+
 /**
  * Event Search Iutput Boundary.
  */
@@ -9,5 +11,14 @@ public interface EventSearchInputBoundary {
      * Execute user command.
      * @param inputData input data
      */
-    void execute(EventSearchInputData inputData);
+    default void execute(EventSearchInputData inputData) {
+        execute(inputData, new RequestHandle());
+    }
+
+    /**
+     * Execute user command on behalf of a caller that may give up on it.
+     * @param inputData input data
+     * @param handle cancelled when the results are no longer wanted
+     */
+    void execute(EventSearchInputData inputData, RequestHandle handle);
 }
\ No newline at end of file
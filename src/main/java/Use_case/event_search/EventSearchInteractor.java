@@ -1,30 +1,128 @@
 package Use_case.event_search;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import Use_case.RequestHandle;
+import Use_case.spelling_correction.NameMatch;
+import Use_case.spelling_correction.SpellingCorrectionDataAccessInterface;
 import data_transfer_object.Event;
 
 /**
  * Event Search interactor.
  */
 public class EventSearchInteractor implements EventSearchInputBoundary {
-    private final EventSearchDataAccessInterface repository;
+    private static final long DEFAULT_TIMEOUT_MILLIS = 30_000;
+
+    private final EventSearchAsyncDataAccessInterface repository;
     private final EventSearchOutputBoundary presenter;
+    private final long timeoutMillis;
+    private final SpellingCorrectionDataAccessInterface corrector;
 
     public EventSearchInteractor(EventSearchDataAccessInterface repository,
                                  EventSearchOutputBoundary outputBoundary) {
+        this(EventSearchAsyncDataAccessInterface.fromBlocking(repository), outputBoundary, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    public EventSearchInteractor(EventSearchAsyncDataAccessInterface repository,
+                                 EventSearchOutputBoundary outputBoundary, long timeoutMillis) {
+        this(repository, outputBoundary, timeoutMillis, null);
+    }
+
+    /**
+     * Constructor with spelling correction.
+     * @param repository the asynchronous repository
+     * @param outputBoundary the output boundary
+     * @param timeoutMillis how long a search may take before it is abandoned
+     * @param corrector consulted when a first page finds nothing or a top hit far from the query; null for none
+     */
+    public EventSearchInteractor(EventSearchAsyncDataAccessInterface repository,
+                                 EventSearchOutputBoundary outputBoundary, long timeoutMillis,
+                                 SpellingCorrectionDataAccessInterface corrector) {
         this.repository = repository;
         this.presenter = outputBoundary;
+        this.timeoutMillis = timeoutMillis;
+        this.corrector = corrector;
     }
 
     @Override
-    public void execute(EventSearchInputData inputData) {
-        final Event[] events = repository.getEvents(
-                inputData.getEventName(),
+    public void execute(EventSearchInputData inputData, RequestHandle handle) {
+        if (handle.isCancelled()) {
+            return;
+        }
+        search(inputData, inputData.getEventName(), handle).whenComplete((events, error) -> {
+            // a newer search or a closed window replaced this one, so nobody wants the outcome
+            if (handle.isCancelled()) {
+                return;
+            }
+            if (error != null) {
+                presenter.prepareFailView("Event search failed: " + describe(error));
+                return;
+            }
+            final String correction = correctionFor(inputData, events);
+            if (correction == null) {
+                presenter.presentResults(new EventSearchOutputData(events));
+            }
+            else if (events.length > 0) {
+                presenter.presentResults(new EventSearchOutputData(events, null, correction));
+            }
+            else {
+                // nothing matched as typed, so show what the correction finds instead
+                search(inputData, correction, handle).whenComplete((corrected, retryError) -> {
+                    if (handle.isCancelled()) {
+                        return;
+                    }
+                    if (retryError != null || corrected.length == 0) {
+                        presenter.presentResults(new EventSearchOutputData(events));
+                        return;
+                    }
+                    learn(corrected);
+                    presenter.presentResults(new EventSearchOutputData(corrected, correction, null));
+                });
+            }
+        });
+    }
+
+    private CompletableFuture<Event[]> search(EventSearchInputData inputData, String eventName,
+                                              RequestHandle handle) {
+        return handle.attach(repository.getEventsAsync(
+                eventName,
                 inputData.getLocation(),
                 inputData.getLimit(),
                 inputData.getOffset()
-        );
+        )).orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Return a correction of the query if its first page looks like a misspelling: it found nothing,
+     * or its top hit's name is far from what was typed.
+     */
+    private String correctionFor(EventSearchInputData inputData, Event[] events) {
+        final String eventName = inputData.getEventName();
+        if (corrector == null || inputData.getOffset() != 0 || eventName == null || eventName.isBlank()) {
+            return null;
+        }
+        if (events.length > 0 && NameMatch.isClose(eventName, events[0].getName())) {
+            learn(events);
+            return null;
+        }
+        return corrector.correct(eventName);
+    }
+
+    private void learn(Event[] events) {
+        for (Event event : events) {
+            corrector.learn(event.getName());
+        }
+    }
 
-        final EventSearchOutputData outputData = new EventSearchOutputData(events);
-        presenter.presentResults(outputData);
+    private static String describe(Throwable error) {
+        final Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+        if (cause instanceof TimeoutException) {
+            return "the request timed out.";
+        }
+        return cause.getMessage();
     }
 }
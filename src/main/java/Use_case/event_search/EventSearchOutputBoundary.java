@@ -12,4 +12,10 @@ public interface EventSearchOutputBoundary {
      * @param outputData output data
      */
     void presentResults(EventSearchOutputData outputData);
+
+    /**
+     * Present a failed search.
+     * @param errorMessage the reason
+     */
+    void prepareFailView(String errorMessage);
 }
\ No newline at end of file
@@ -7,12 +7,34 @@ import data_transfer_object.Event;
  */
 public class EventSearchOutputData {
     private final Event[] events;
+    private final String correctedQuery;
+    private final String suggestedQuery;
 
     public EventSearchOutputData(Event[] events) {
+        this(events, null, null);
+    }
+
+    /**
+     * Constructor.
+     * @param events the results
+     * @param correctedQuery the corrected query the results were found with, or null if the query ran as typed
+     * @param suggestedQuery a likely correction of the query as typed, or null
+     */
+    public EventSearchOutputData(Event[] events, String correctedQuery, String suggestedQuery) {
         this.events = events;
+        this.correctedQuery = correctedQuery;
+        this.suggestedQuery = suggestedQuery;
     }
 
     public Event[] getEvents() {
         return events;
     }
-}
\ No newline at end of file
+
+    public String getCorrectedQuery() {
+        return correctedQuery;
+    }
+
+    public String getSuggestedQuery() {
+        return suggestedQuery;
+    }
+}
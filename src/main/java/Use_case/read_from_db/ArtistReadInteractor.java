@@ -1,52 +1,275 @@
 package Use_case.read_from_db;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+import Use_case.RequestHandle;
+import data_transfer_object.Artist;
+import data_transfer_object.CommentPage;
+import data_transfer_object.RatingAggregate;
 import data_transfer_object.Recording;
-import entity.content.Content;
-import entity.content.ContentFactory;
+import data_transfer_object.Review;
 
 /**
- * Artist read interaction.
+ * Artist read interaction. Ratings and comments come from Firestore and top songs from MusicBrainz;
+ * all are asked for at once, each under its own deadline. Only the newest page of comments is read
+ * up front; older pages are read as the user scrolls to them. The detailed view is prepared as soon as
+ * the rating totals are in, or the first comments page if there are no totals, and the rest follows if
+ * still on its way. Both reads can be started ahead of a click; the repositories then hand the
+ * prefetched reads over.
  */
 public class ArtistReadInteractor implements ReadInputBoundary {
+    private static final long DEFAULT_TIMEOUT_MILLIS = 30_000;
 
     private final ReadOutputBoundary readPresenter;
-    private final ReadDataAccessInterface readDataAccessObject;
-    private final ReadSongDataAccessInterface readSongDataAccessObject;
+    private final ReadAsyncDataAccessInterface readDataAccessObject;
+    private final ReadSongAsyncDataAccessInterface readSongDataAccessObject;
+    private final long contentsTimeoutMillis;
+    private final long topSongsTimeoutMillis;
+    private final ReadPrefetchDataAccessInterface prefetcher;
+    private final ReadRatingAsyncDataAccessInterface ratingDataAccessObject;
     // private globalStorage
 
     public ArtistReadInteractor(ReadOutputBoundary readPresenter, ReadDataAccessInterface readDataAccessObject,
                                 ReadSongDataAccessInterface musicBrainzApi) {
+        this(readPresenter, readDataAccessObject, ReadSongAsyncDataAccessInterface.fromBlocking(musicBrainzApi),
+                DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    public ArtistReadInteractor(ReadOutputBoundary readPresenter, ReadDataAccessInterface readDataAccessObject,
+                                ReadSongAsyncDataAccessInterface musicBrainzApi, long timeoutMillis) {
+        this(readPresenter, ReadAsyncDataAccessInterface.fromBlocking(readDataAccessObject), musicBrainzApi,
+                timeoutMillis, timeoutMillis);
+    }
+
+    /**
+     * Constructor for non-blocking sources with a deadline each.
+     * @param readPresenter the presenter
+     * @param readDataAccessObject ratings and comments
+     * @param musicBrainzApi top songs
+     * @param contentsTimeoutMillis how long ratings and comments may take before the view goes without them
+     * @param topSongsTimeoutMillis how long top songs may take before the view goes without them
+     */
+    public ArtistReadInteractor(ReadOutputBoundary readPresenter, ReadAsyncDataAccessInterface readDataAccessObject,
+                                ReadSongAsyncDataAccessInterface musicBrainzApi, long contentsTimeoutMillis,
+                                long topSongsTimeoutMillis) {
+        this(readPresenter, readDataAccessObject, musicBrainzApi, contentsTimeoutMillis, topSongsTimeoutMillis, null);
+    }
+
+    /**
+     * Constructor with prefetching.
+     * @param readPresenter the presenter
+     * @param readDataAccessObject ratings and comments
+     * @param musicBrainzApi top songs
+     * @param contentsTimeoutMillis how long ratings and comments may take before the view goes without them
+     * @param topSongsTimeoutMillis how long top songs may take before the view goes without them
+     * @param prefetcher starts both reads ahead of a click; null for none
+     */
+    public ArtistReadInteractor(ReadOutputBoundary readPresenter, ReadAsyncDataAccessInterface readDataAccessObject,
+                                ReadSongAsyncDataAccessInterface musicBrainzApi, long contentsTimeoutMillis,
+                                long topSongsTimeoutMillis, ReadPrefetchDataAccessInterface prefetcher) {
+        this(readPresenter, readDataAccessObject, musicBrainzApi, contentsTimeoutMillis, topSongsTimeoutMillis,
+                prefetcher, null);
+    }
+
+    /**
+     * Constructor with prefetching and rating totals.
+     * @param readPresenter the presenter
+     * @param readDataAccessObject ratings and comments
+     * @param musicBrainzApi top songs
+     * @param contentsTimeoutMillis how long ratings and comments may take before the view goes without them
+     * @param topSongsTimeoutMillis how long top songs may take before the view goes without them
+     * @param prefetcher starts both reads ahead of a click; null for none
+     * @param ratingDataAccessObject the rating totals, which let the view open before the comments arrive;
+     *                               null to average the reviews instead
+     */
+    public ArtistReadInteractor(ReadOutputBoundary readPresenter, ReadAsyncDataAccessInterface readDataAccessObject,
+                                ReadSongAsyncDataAccessInterface musicBrainzApi, long contentsTimeoutMillis,
+                                long topSongsTimeoutMillis, ReadPrefetchDataAccessInterface prefetcher,
+                                ReadRatingAsyncDataAccessInterface ratingDataAccessObject) {
         this.readPresenter = readPresenter;
         this.readDataAccessObject = readDataAccessObject;
         this.readSongDataAccessObject = musicBrainzApi;
+        this.contentsTimeoutMillis = contentsTimeoutMillis;
+        this.topSongsTimeoutMillis = topSongsTimeoutMillis;
+        this.prefetcher = prefetcher;
+        this.ratingDataAccessObject = ratingDataAccessObject;
     }
 
     @Override
-    public void execute(ReadInputData readInputData) {
-        Map<String, String> comments = new HashMap<>();
-        double averageRating = 0.0;
+    public void prefetch(ReadInputData readInputData) {
+        if (prefetcher != null) {
+            prefetcher.prefetch(readInputData.getDocumentID(), readInputData.getCommentsPageSize());
+        }
+    }
+
+    @Override
+    public void execute(ReadInputData readInputData, RequestHandle handle) {
+        if (handle.isCancelled()) {
+            return;
+        }
         final String documentID = readInputData.getDocumentID();
+        final long started = System.nanoTime();
+        final DetailAssembly assembly = new DetailAssembly(readInputData.getArtist(), handle,
+                ratingDataAccessObject != null);
+
+        // Songs are asked for first, so a blocking contents read overlaps them rather than delaying them.
+        handle.attach(readSongDataAccessObject.readTopSongsAsync(documentID))
+                .orTimeout(topSongsTimeoutMillis, TimeUnit.MILLISECONDS)
+                // Ratings and comments are still worth showing when MusicBrainz fails.
+                .handle((songs, error) -> new Timed<>(error != null ? new Recording[0] : songs, started))
+                .thenAccept(assembly::songsArrived);
+        if (ratingDataAccessObject != null) {
+            handle.attach(ratingDataAccessObject.readRatingAsync(documentID))
+                    .orTimeout(contentsTimeoutMillis, TimeUnit.MILLISECONDS)
+                    // without the totals the average is computed from the reviews instead
+                    .handle((aggregate, error) -> error != null ? null : aggregate)
+                    .thenAccept(assembly::ratingArrived);
+        }
+        handle.attach(readDataAccessObject.readCommentsAsync(documentID, null, readInputData.getCommentsPageSize()))
+                .orTimeout(contentsTimeoutMillis, TimeUnit.MILLISECONDS)
+                // Songs are still worth showing when Firestore fails; the view then has no ratings or comments.
+                .handle((page, error) -> new Timed<>(error != null ? null : page, started))
+                .thenAccept(assembly::commentsArrived);
+    }
+
+    @Override
+    public void readOlderComments(ReadInputData readInputData, RequestHandle handle) {
+        if (handle.isCancelled()) {
+            return;
+        }
+        final String cursor = readInputData.getCommentsCursor();
+        final long started = System.nanoTime();
+        handle.attach(readDataAccessObject.readCommentsAsync(readInputData.getDocumentID(), cursor,
+                        readInputData.getCommentsPageSize()))
+                .orTimeout(contentsTimeoutMillis, TimeUnit.MILLISECONDS)
+                .handle((page, error) -> {
+                    // the detailed view was closed while the page was being read
+                    if (handle.isCancelled()) {
+                        return null;
+                    }
+                    final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                    // a page that failed keeps the cursor, so scrolling on asks for it again
+                    readPresenter.presentOlderComments(error != null || page == null
+                            ? new ReadOutputData(null, new LinkedHashMap<>(), 0.0, -1, readInputData.getArtist(),
+                                    millis, -1, cursor)
+                            : new ReadOutputData(null, page.getComments(), 0.0, -1, readInputData.getArtist(),
+                                    millis, -1, page.getNextCursor()));
+                    return null;
+                });
+    }
+
+    /**
+     * Average the ratings on a page, for items that have no rating totals yet. Those were all
+     * reviewed before comments were paged, so their reviews are read as a single page.
+     */
+    private static RatingAggregate aggregateOf(CommentPage page) {
+        RatingAggregate aggregate = RatingAggregate.empty();
+        for (Review review : page.getReviews()) {
+            aggregate = aggregate.replace(null, review.getRating());
+        }
+        return aggregate;
+    }
+
+    /**
+     * Puts the detailed view together from whichever reads arrive first. The view is prepared as soon
+     * as there is a rating to show, and whatever is still missing is filled in when it arrives. The
+     * rating comes from the totals while they are being read; the first page of reviews only covers
+     * the newest ones, so it is averaged only once the totals turn out missing or fail. The reads
+     * complete on different threads, hence the locking.
+     */
+    private final class DetailAssembly {
+        private final Artist artist;
+        private final RequestHandle handle;
+        private boolean totalsPending;
+        private boolean prepared;
+        private boolean ratingKnown;
+        private double averageRating;
+        private long ratingCount = -1;
+        private CommentPage page;
+        private Map<String, String> comments;
+        private String commentsCursor;
+        private long contentsMillis = -1;
+        private Timed<Recording[]> songs;
+
+        DetailAssembly(Artist artist, RequestHandle handle, boolean totalsPending) {
+            this.artist = artist;
+            this.handle = handle;
+            this.totalsPending = totalsPending;
+        }
+
+        synchronized void songsArrived(Timed<Recording[]> arrived) {
+            songs = arrived;
+            // the detailed view was closed before the songs arrived
+            if (prepared && !handle.isCancelled()) {
+                readPresenter.presentTopSongs(output());
+            }
+        }
 
-        final Map<String, Map<String, Object>> contentInfo = new HashMap<>();
-        final Map<String, Object> document = readDataAccessObject.readContents(documentID);
-        if (document != null) {
-            for (String key : document.keySet()) {
-                final Map<String, Object> value = (Map<String, Object>) document.get(key);
-                contentInfo.put(key, value);
+        synchronized void ratingArrived(RatingAggregate aggregate) {
+            totalsPending = false;
+            if (aggregate != null) {
+                ratingKnown = true;
+                averageRating = aggregate.getAverage();
+                ratingCount = aggregate.getCount();
+            }
+            else if (page != null) {
+                ratingKnown = true;
+                averageRating = aggregateOf(page).getAverage();
+            }
+            // without totals the view waits for the reviews to average
+            if (ratingKnown && !prepared) {
+                prepare();
             }
-            final ContentFactory contentFactory = new ContentFactory();
-            final Content content = contentFactory.create(documentID);
-            content.setContentInfo(contentInfo);
-            comments = content.getComments();
-            averageRating = content.getAverageRating();
         }
-        final Recording[] topSongs = readSongDataAccessObject.readTopSongs(documentID);
-        final ReadOutputData readOutputData = new ReadOutputData(topSongs,
-                comments, averageRating, readInputData.getArtist());
-        readPresenter.prepareArtistDetailedView(readOutputData);
 
+        synchronized void commentsArrived(Timed<CommentPage> arrived) {
+            page = arrived.value == null ? CommentPage.empty() : arrived.value;
+            comments = page.getComments();
+            commentsCursor = page.getNextCursor();
+            contentsMillis = arrived.millis;
+            if (!ratingKnown && !totalsPending) {
+                ratingKnown = true;
+                averageRating = aggregateOf(page).getAverage();
+            }
+            // the totals are still being read and will prepare the view with these comments
+            if (!ratingKnown) {
+                return;
+            }
+            if (!prepared) {
+                prepare();
+            }
+            else if (!handle.isCancelled()) {
+                readPresenter.presentComments(output());
+            }
+        }
+
+        private void prepare() {
+            // the user went elsewhere before the details arrived
+            if (handle.isCancelled()) {
+                return;
+            }
+            prepared = true;
+            readPresenter.prepareArtistDetailedView(output());
+        }
+
+        private ReadOutputData output() {
+            return new ReadOutputData(songs == null ? null : songs.value, comments, averageRating, ratingCount,
+                    artist, contentsMillis, songs == null ? -1 : songs.millis, commentsCursor);
+        }
+    }
+
+    /**
+     * A branch result and how long the branch took.
+     */
+    private static final class Timed<T> {
+        private final T value;
+        private final long millis;
+
+        Timed(T value, long startedNanos) {
+            this.value = value;
+            this.millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+        }
     }
 }
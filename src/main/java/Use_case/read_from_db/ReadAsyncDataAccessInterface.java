@@ -0,0 +1,37 @@
+package Use_case.read_from_db;
+
+import java.util.concurrent.CompletableFuture;
+
+import data_transfer_object.CommentPage;
+
+/**
+ * Non-blocking twin of the read DAI.
+ * Cancelling or timing out the returned future must abandon the underlying read.
+ */
+public interface ReadAsyncDataAccessInterface {
+
+    /**
+     * Read one page of the reviews of a content item without blocking the calling thread.
+     * @param documentID document ID
+     * @param cursor where the page starts, from the previous page; null for the newest page
+     * @param pageSize most reviews on the page
+     * @return a future of the page, empty if there are no reviews.
+     */
+    CompletableFuture<CommentPage> readCommentsAsync(String documentID, String cursor, int pageSize);
+
+    /**
+     * Adapt a blocking repository; the read runs on the calling thread.
+     * @param repository the blocking repository
+     * @return an already-completed view of the blocking call.
+     */
+    static ReadAsyncDataAccessInterface fromBlocking(ReadDataAccessInterface repository) {
+        return (documentID, cursor, pageSize) -> {
+            try {
+                return CompletableFuture.completedFuture(repository.readComments(documentID, cursor, pageSize));
+            }
+            catch (RuntimeException ex) {
+                return CompletableFuture.failedFuture(ex);
+            }
+        };
+    }
+}
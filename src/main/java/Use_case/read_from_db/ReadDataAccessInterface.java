@@ -1,6 +1,6 @@
 package Use_case.read_from_db;
 
-import java.util.Map;
+import data_transfer_object.CommentPage;
 
 /**
  * Read Data Access Interface.
@@ -8,10 +8,12 @@ import java.util.Map;
 public interface ReadDataAccessInterface {
 
     /**
-     * Read contents.
+     * Read one page of the reviews of a content item, newest first.
      * @param documentID document ID
-     * @return a map of content.
+     * @param cursor where the page starts, from the previous page; null for the newest page
+     * @param pageSize most reviews on the page
+     * @return the page, empty if there are no reviews, or null if it could not be read.
      */
-    Map<String, Object> readContents(String documentID);
+    CommentPage readComments(String documentID, String cursor, int pageSize);
 
 }
@@ -1,5 +1,7 @@
 package Use_case.read_from_db;
 
+import Use_case.RequestHandle;
+
 /**
  * Read input boundary.
  */
@@ -9,6 +11,28 @@ public interface ReadInputBoundary {
      * Execute command.
      * @param readInputData input data.
      */
-    void execute(ReadInputData readInputData);
+    default void execute(ReadInputData readInputData) {
+        execute(readInputData, new RequestHandle());
+    }
+
+    /**
+     * Execute command on behalf of a caller that may give up on it, e.g. by closing the detailed view.
+     * @param readInputData input data.
+     * @param handle cancelled when the details are no longer wanted
+     */
+    void execute(ReadInputData readInputData, RequestHandle handle);
+
+    /**
+     * Start reading details the user is likely to ask for next, e.g. while hovering over an artist.
+     * @param readInputData input data.
+     */
+    void prefetch(ReadInputData readInputData);
+
+    /**
+     * Read the next older page of comments of a detailed view that is open.
+     * @param readInputData input data with the cursor the previous page ended at.
+     * @param handle cancelled when the detailed view is closed
+     */
+    void readOlderComments(ReadInputData readInputData, RequestHandle handle);
 
 }
@@ -7,12 +7,29 @@ import data_transfer_object.Artist;
  */
 public class ReadInputData {
 
+    public static final int DEFAULT_COMMENTS_PAGE_SIZE = 20;
+
     private final String documentID;
     private final Artist artist;
+    private final String commentsCursor;
+    private final int commentsPageSize;
 
     public ReadInputData(String documentID, Artist artist) {
+        this(documentID, artist, null, DEFAULT_COMMENTS_PAGE_SIZE);
+    }
+
+    /**
+     * Constructor for a page of comments.
+     * @param documentID document ID
+     * @param artist the artist
+     * @param commentsCursor where the comments page starts; null for the newest comments
+     * @param commentsPageSize most comments per page
+     */
+    public ReadInputData(String documentID, Artist artist, String commentsCursor, int commentsPageSize) {
         this.artist = artist;
         this.documentID = documentID;
+        this.commentsCursor = commentsCursor;
+        this.commentsPageSize = commentsPageSize;
     }
 
     String getDocumentID() {
@@ -22,4 +39,12 @@ public class ReadInputData {
     Artist getArtist() {
         return artist;
     }
+
+    String getCommentsCursor() {
+        return commentsCursor;
+    }
+
+    int getCommentsPageSize() {
+        return commentsPageSize;
+    }
 }
@@ -7,7 +7,25 @@ public interface ReadOutputBoundary {
 
     /**
      * Prepare artist detailed view.
-     * @param readOutputData the output data.
+     * @param readOutputData the output data; its top songs and comments are null if they are still being read.
      */
     void prepareArtistDetailedView(ReadOutputData readOutputData);
+
+    /**
+     * Fill in the top songs of a detailed view that was prepared without them.
+     * @param readOutputData the output data with the top songs.
+     */
+    void presentTopSongs(ReadOutputData readOutputData);
+
+    /**
+     * Fill in the comments of a detailed view that was prepared from the rating totals alone.
+     * @param readOutputData the output data with the comments.
+     */
+    void presentComments(ReadOutputData readOutputData);
+
+    /**
+     * Add an older page of comments to a detailed view.
+     * @param readOutputData the output data with the page's comments and where the next page starts.
+     */
+    void presentOlderComments(ReadOutputData readOutputData);
 }
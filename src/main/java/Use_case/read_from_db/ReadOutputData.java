@@ -12,31 +12,132 @@ public class ReadOutputData {
 
     private final Map<String, String> comments;
     private final double averageRating;
+    private final long ratingCount;
     private final Artist artist;
 
     private final Recording[] recording;
+    private final long contentsMillis;
+    private final long topSongsMillis;
+    private final String commentsCursor;
 
     public ReadOutputData(Recording[] topSongs, Map<String, String> comments, double averageRating, Artist artist) {
+        this(topSongs, comments, averageRating, artist, -1, -1);
+    }
+
+    /**
+     * Constructor with the time spent on each source.
+     * @param topSongs the top songs, or null while they are still being read
+     * @param comments the comments by username
+     * @param averageRating the average rating
+     * @param artist the artist
+     * @param contentsMillis time spent reading ratings and comments
+     * @param topSongsMillis time spent reading top songs; -1 while they are still being read
+     */
+    public ReadOutputData(Recording[] topSongs, Map<String, String> comments, double averageRating, Artist artist,
+                          long contentsMillis, long topSongsMillis) {
+        this(topSongs, comments, averageRating, -1, artist, contentsMillis, topSongsMillis);
+    }
+
+    /**
+     * Constructor with the number of ratings.
+     * @param topSongs the top songs, or null while they are still being read
+     * @param comments the comments by username, or null while they are still being read
+     * @param averageRating the average rating
+     * @param ratingCount how many ratings the average is over; -1 if unknown
+     * @param artist the artist
+     * @param contentsMillis time spent reading ratings and comments; -1 while the comments are still being read
+     * @param topSongsMillis time spent reading top songs; -1 while they are still being read
+     */
+    public ReadOutputData(Recording[] topSongs, Map<String, String> comments, double averageRating, long ratingCount,
+                          Artist artist, long contentsMillis, long topSongsMillis) {
+        this(topSongs, comments, averageRating, ratingCount, artist, contentsMillis, topSongsMillis, null);
+    }
+
+    /**
+     * Constructor with where the next page of comments starts.
+     * @param topSongs the top songs, or null while they are still being read
+     * @param comments one page of comments by username, newest first, or null while they are still being read
+     * @param averageRating the average rating
+     * @param ratingCount how many ratings the average is over; -1 if unknown
+     * @param artist the artist
+     * @param contentsMillis time spent reading ratings and comments; -1 while the comments are still being read
+     * @param topSongsMillis time spent reading top songs; -1 while they are still being read
+     * @param commentsCursor where the next older page of comments starts; null if there are no more
+     */
+    public ReadOutputData(Recording[] topSongs, Map<String, String> comments, double averageRating, long ratingCount,
+                          Artist artist, long contentsMillis, long topSongsMillis, String commentsCursor) {
 
         this.comments = comments;
         this.averageRating = averageRating;
+        this.ratingCount = ratingCount;
         this.artist = artist;
         this.recording = topSongs;
+        this.contentsMillis = contentsMillis;
+        this.topSongsMillis = topSongsMillis;
+        this.commentsCursor = commentsCursor;
     }
 
+    /**
+     * Return the comments.
+     * @return the comments by username, or null if they are still being read.
+     */
     public Map<String, String> getComments() {
         return comments;
     }
 
+    public boolean isCommentsPending() {
+        return comments == null;
+    }
+
     public double getAverageRating() {
         return averageRating;
     }
 
+    /**
+     * Return how many ratings the average is over.
+     * @return the count, or -1 if unknown.
+     */
+    public long getRatingCount() {
+        return ratingCount;
+    }
+
+    /**
+     * Return the top songs.
+     * @return the songs, empty if they could not be read, or null if they are still being read.
+     */
     public Recording[] getRecording() {
         return recording;
     }
 
+    public boolean isTopSongsPending() {
+        return recording == null;
+    }
+
     public Artist getArtist() {
         return artist;
     }
+
+    /**
+     * Return the time spent reading ratings and comments.
+     * @return milliseconds, or -1 if not measured.
+     */
+    public long getContentsMillis() {
+        return contentsMillis;
+    }
+
+    /**
+     * Return the time spent reading top songs.
+     * @return milliseconds, or -1 if not measured or still being read.
+     */
+    public long getTopSongsMillis() {
+        return topSongsMillis;
+    }
+
+    /**
+     * Return where the next older page of comments starts.
+     * @return a cursor to read it with, or null if there are no more comments.
+     */
+    public String getCommentsCursor() {
+        return commentsCursor;
+    }
 }
@@ -0,0 +1,15 @@
+package Use_case.read_from_db;
+
+/**
+ * Speculative reads of an artist's details, ahead of a likely click.
+ */
+public interface ReadPrefetchDataAccessInterface {
+
+    /**
+     * Start reading the newest comments and the top songs of an artist in the background, so a read
+     * shortly after finds them loaded or in flight. Must not block.
+     * @param documentID document ID
+     * @param commentsPageSize most reviews on the first comments page
+     */
+    void prefetch(String documentID, int commentsPageSize);
+}
@@ -0,0 +1,19 @@
+package Use_case.read_from_db;
+
+import java.util.concurrent.CompletableFuture;
+
+import data_transfer_object.RatingAggregate;
+
+/**
+ * Reads the precomputed rating totals of a content item, which are a few bytes however many reviews it has.
+ * Cancelling or timing out the returned future must abandon the underlying read.
+ */
+public interface ReadRatingAsyncDataAccessInterface {
+
+    /**
+     * Read the rating totals without blocking the calling thread.
+     * @param documentID document ID
+     * @return a future of the totals, or of null if none have been kept for the item yet.
+     */
+    CompletableFuture<RatingAggregate> readRatingAsync(String documentID);
+}
@@ -0,0 +1,56 @@
+package Use_case.read_from_db;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import data_transfer_object.Recording;
+
+/**
+ * Non-blocking twin of the read song DAI.
+ * Cancelling or timing out the returned future must abandon the underlying request.
+ */
+public interface ReadSongAsyncDataAccessInterface {
+
+    /**
+     * Read top songs without blocking the calling thread.
+     * @param documentID document ID
+     * @return a future of the array of recordings.
+     */
+    CompletableFuture<Recording[]> readTopSongsAsync(String documentID);
+
+    /**
+     * Read the top songs of several artists without blocking the calling thread.
+     * Repositories that can should answer with one request; this default issues one read per artist.
+     * @param artistIDs the artist MBIDs
+     * @return a future of the recordings of each artist, keyed by MBID in request order.
+     */
+    default CompletableFuture<Map<String, Recording[]>> readTopSongsAsync(List<String> artistIDs) {
+        final Map<String, CompletableFuture<Recording[]>> reads = new LinkedHashMap<>();
+        for (String artistID : artistIDs) {
+            reads.put(artistID, readTopSongsAsync(artistID));
+        }
+        return CompletableFuture.allOf(reads.values().toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            final Map<String, Recording[]> result = new LinkedHashMap<>();
+            reads.forEach((artistID, read) -> result.put(artistID, read.join()));
+            return result;
+        });
+    }
+
+    /**
+     * Adapt a blocking repository; the read runs on the calling thread.
+     * @param repository the blocking repository
+     * @return an already-completed view of the blocking call.
+     */
+    static ReadSongAsyncDataAccessInterface fromBlocking(ReadSongDataAccessInterface repository) {
+        return documentID -> {
+            try {
+                return CompletableFuture.completedFuture(repository.readTopSongs(documentID));
+            }
+            catch (RuntimeException ex) {
+                return CompletableFuture.failedFuture(ex);
+            }
+        };
+    }
+}
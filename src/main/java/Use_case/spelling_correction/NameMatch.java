@@ -0,0 +1,55 @@
+package Use_case.spelling_correction;
+
+import java.util.Locale;
+
+/**
+ * Decides whether a result's name answers the query that found it. MusicBrainz scores are relative to
+ * the query, so the top hit scores 100 even when it is a poor fuzzy match; the names themselves are compared.
+ */
+public final class NameMatch {
+
+    private NameMatch() {
+    }
+
+    /**
+     * Return whether a name is close to a query: one contains the other, ignoring case, or they differ by at
+     * most one edit per four characters of the query.
+     * @param query the query as typed
+     * @param name the name of a result
+     * @return true if the name looks like what was asked for.
+     */
+    public static boolean isClose(String query, String name) {
+        if (query == null || name == null) {
+            return false;
+        }
+        final String typed = query.trim().toLowerCase(Locale.ROOT);
+        final String found = name.trim().toLowerCase(Locale.ROOT);
+        if (found.contains(typed) || typed.contains(found)) {
+            return true;
+        }
+        final int limit = Math.max(1, typed.length() / 4);
+        return Math.abs(typed.length() - found.length()) <= limit && distance(typed, found) <= limit;
+    }
+
+    /**
+     * Levenshtein distance of two strings, keeping two rows of the table.
+     */
+    private static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                final int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+            }
+            final int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
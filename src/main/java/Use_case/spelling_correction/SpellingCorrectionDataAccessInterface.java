@@ -0,0 +1,20 @@
+package Use_case.spelling_correction;
+
+/**
+ * Spelling correction DAI over names the application knows. Lookups are answered from memory.
+ */
+public interface SpellingCorrectionDataAccessInterface {
+
+    /**
+     * Correct a misspelled query.
+     * @param query the query as typed
+     * @return the corrected query, or null if it looks right or no correction is known.
+     */
+    String correct(String query);
+
+    /**
+     * Remember a name that appeared in good search results, so later misspellings of it can be corrected.
+     * @param name the name
+     */
+    void learn(String name);
+}
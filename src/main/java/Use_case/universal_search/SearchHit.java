@@ -0,0 +1,74 @@
+package Use_case.universal_search;
+
+import data_transfer_object.Artist;
+import data_transfer_object.Event;
+
+/**
+ * One entry of the combined ranking: an artist or an event with its score normalised to [0, 1].
+ */
+public final class SearchHit {
+
+    /**
+     * What a hit refers to.
+     */
+    public enum Kind { ARTIST, EVENT }
+
+    // MusicBrainz and the local index both score on a 0-100 scale
+    private static final double MAX_SOURCE_SCORE = 100.0;
+
+    private final Kind kind;
+    private final Artist artist;
+    private final Event event;
+    private final double score;
+
+    private SearchHit(Kind kind, Artist artist, Event event, int sourceScore) {
+        this.kind = kind;
+        this.artist = artist;
+        this.event = event;
+        this.score = Math.max(0.0, Math.min(1.0, sourceScore / MAX_SOURCE_SCORE));
+    }
+
+    public static SearchHit of(Artist artist) {
+        return new SearchHit(Kind.ARTIST, artist, null, artist.getScore());
+    }
+
+    public static SearchHit of(Event event) {
+        return new SearchHit(Kind.EVENT, null, event, event.getScore());
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Return the artist.
+     * @return the artist, or null for an event hit.
+     */
+    public Artist getArtist() {
+        return artist;
+    }
+
+    /**
+     * Return the event.
+     * @return the event, or null for an artist hit.
+     */
+    public Event getEvent() {
+        return event;
+    }
+
+    /**
+     * Return the normalised score.
+     * @return the score in [0, 1].
+     */
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * Return the name to list the hit under.
+     * @return the artist or event name.
+     */
+    public String getName() {
+        return kind == Kind.ARTIST ? artist.getArtistName() : event.getName();
+    }
+}
@@ -0,0 +1,99 @@
+package Use_case.universal_search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * K-way merge of ranked lists that arrive one at a time. The heads of the lists that have arrived sit
+ * in a heap; a head is released once no list still awaited could outrank it, which, with scores
+ * normalised to at most 1, is when it scores 1 or every list is in. Released hits therefore never move,
+ * so a view can append them as they come and the best matches of the faster source appear before the
+ * slower one answers. Not thread-safe; the interactor serialises access.
+ */
+final class StreamingMerge {
+
+    private static final double MAX_SCORE = 1.0;
+
+    private final PriorityQueue<Cursor> heads = new PriorityQueue<>(
+            Comparator.comparingDouble(Cursor::score).reversed().thenComparingInt(Cursor::source));
+    private int pending;
+
+    /**
+     * Constructor.
+     * @param sources how many lists will be offered
+     */
+    StreamingMerge(int sources) {
+        this.pending = sources;
+    }
+
+    /**
+     * Add the list of one source, empty if the source failed.
+     * @param source index of the source, used to break ties
+     * @param hits the hits of the source
+     * @return the hits released by this list, best first.
+     */
+    List<SearchHit> offer(int source, List<SearchHit> hits) {
+        pending--;
+        if (!hits.isEmpty()) {
+            final List<SearchHit> ranked = new ArrayList<>(hits);
+            // sources rank by their own score, but do not rely on it
+            ranked.sort(Comparator.comparingDouble(SearchHit::getScore).reversed());
+            heads.add(new Cursor(source, ranked));
+        }
+        return release();
+    }
+
+    /**
+     * Return whether every source has been offered.
+     * @return true once nothing more can be released.
+     */
+    boolean isComplete() {
+        return pending <= 0;
+    }
+
+    private List<SearchHit> release() {
+        final double bound = pending > 0 ? MAX_SCORE : Double.NEGATIVE_INFINITY;
+        final List<SearchHit> released = new ArrayList<>();
+        while (!heads.isEmpty() && heads.peek().score() >= bound) {
+            final Cursor cursor = heads.poll();
+            released.add(cursor.next());
+            if (cursor.hasNext()) {
+                heads.add(cursor);
+            }
+        }
+        return released.isEmpty() ? Collections.emptyList() : released;
+    }
+
+    /**
+     * Position in the ranked list of one source.
+     */
+    private static final class Cursor {
+        private final int source;
+        private final List<SearchHit> hits;
+        private int position;
+
+        Cursor(int source, List<SearchHit> hits) {
+            this.source = source;
+            this.hits = hits;
+        }
+
+        int source() {
+            return source;
+        }
+
+        double score() {
+            return hits.get(position).getScore();
+        }
+
+        SearchHit next() {
+            return hits.get(position++);
+        }
+
+        boolean hasNext() {
+            return position < hits.size();
+        }
+    }
+}
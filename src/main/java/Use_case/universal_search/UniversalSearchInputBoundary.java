@@ -0,0 +1,24 @@
+package Use_case.universal_search;
+
+import Use_case.RequestHandle;
+
+/**
+ * Universal Search Input Boundary.
+ */
+public interface UniversalSearchInputBoundary {
+
+    /**
+     * Execute user command.
+     * @param inputData input data
+     */
+    default void execute(UniversalSearchInputData inputData) {
+        execute(inputData, new RequestHandle());
+    }
+
+    /**
+     * Execute user command on behalf of a caller that may give up on it.
+     * @param inputData input data
+     * @param handle cancelled when the results are no longer wanted
+     */
+    void execute(UniversalSearchInputData inputData, RequestHandle handle);
+}
@@ -0,0 +1,27 @@
+package Use_case.universal_search;
+
+/**
+ * Universal Search Input Data.
+ */
+public class UniversalSearchInputData {
+    private final String query;
+    private final int limit;
+
+    /**
+     * Constructor.
+     * @param query free text matched against artist and event names
+     * @param limit how many results to ask each source for
+     */
+    public UniversalSearchInputData(String query, int limit) {
+        this.query = query;
+        this.limit = limit;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,111 @@
+package Use_case.universal_search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import Use_case.RequestHandle;
+import Use_case.artist_search.ArtistSearchAsyncDataAccessInterface;
+import Use_case.event_search.EventSearchAsyncDataAccessInterface;
+import data_transfer_object.Artist;
+import data_transfer_object.Event;
+
+/**
+ * Universal Search interactor. Searches artists and events for the same text at once and merges both
+ * into one ranking as the results come in, rather than waiting for the slower source.
+ */
+public class UniversalSearchInteractor implements UniversalSearchInputBoundary {
+    private static final int ARTISTS = 0;
+    private static final int EVENTS = 1;
+
+    private final ArtistSearchAsyncDataAccessInterface artistRepository;
+    private final EventSearchAsyncDataAccessInterface eventRepository;
+    private final UniversalSearchOutputBoundary presenter;
+    private final long timeoutMillis;
+
+    /**
+     * Constructor.
+     * @param artistRepository the asynchronous artist repository
+     * @param eventRepository the asynchronous event repository
+     * @param outputBoundary the output boundary
+     * @param timeoutMillis how long each source may take before it is left out
+     */
+    public UniversalSearchInteractor(ArtistSearchAsyncDataAccessInterface artistRepository,
+                                     EventSearchAsyncDataAccessInterface eventRepository,
+                                     UniversalSearchOutputBoundary outputBoundary, long timeoutMillis) {
+        this.artistRepository = artistRepository;
+        this.eventRepository = eventRepository;
+        this.presenter = outputBoundary;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public void execute(UniversalSearchInputData inputData, RequestHandle handle) {
+        if (handle.isCancelled()) {
+            return;
+        }
+        final StreamingMerge merge = new StreamingMerge(2);
+        final List<String> unavailable = new ArrayList<>();
+        final List<String> errors = new ArrayList<>();
+
+        final CompletableFuture<Artist[]> artists = handle.attach(artistRepository.getArtistsAsync(
+                inputData.getQuery(), "", "", inputData.getLimit(), 0));
+        final CompletableFuture<Event[]> events = handle.attach(eventRepository.getEventsAsync(
+                inputData.getQuery(), "", inputData.getLimit(), 0));
+
+        collect(artists, ARTISTS, "artists", SearchHit::of, merge, unavailable, errors, handle);
+        collect(events, EVENTS, "events", SearchHit::of, merge, unavailable, errors, handle);
+    }
+
+    private <T> void collect(CompletableFuture<T[]> source, int index, String name, Function<T, SearchHit> toHit,
+                             StreamingMerge merge, List<String> unavailable, List<String> errors,
+                             RequestHandle handle) {
+        source.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).whenComplete((results, error) -> {
+            // a newer search or a closed window replaced this one, so nobody wants the outcome
+            if (handle.isCancelled()) {
+                return;
+            }
+            final List<SearchHit> hits = new ArrayList<>();
+            if (error == null) {
+                for (T result : results) {
+                    hits.add(toHit.apply(result));
+                }
+            }
+            // the two sources complete on different threads; hits must reach the presenter in rank order
+            synchronized (merge) {
+                if (error != null) {
+                    unavailable.add(name);
+                    errors.add(describe(error));
+                }
+                final List<SearchHit> released = merge.offer(index, hits);
+                if (!merge.isComplete()) {
+                    if (!released.isEmpty()) {
+                        presenter.presentResults(new UniversalSearchOutputData(released, false,
+                                Collections.emptyList()));
+                    }
+                }
+                else if (errors.size() == 2) {
+                    presenter.prepareFailView("Search failed: " + errors.get(0));
+                }
+                else {
+                    presenter.presentResults(new UniversalSearchOutputData(released, true,
+                            new ArrayList<>(unavailable)));
+                }
+            }
+        });
+    }
+
+    private static String describe(Throwable error) {
+        final Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+        if (cause instanceof TimeoutException) {
+            return "the request timed out.";
+        }
+        return cause.getMessage();
+    }
+}
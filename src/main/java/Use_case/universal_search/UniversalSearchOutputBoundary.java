@@ -0,0 +1,20 @@
+package Use_case.universal_search;
+
+/**
+ * Universal Search Output Boundary.
+ */
+public interface UniversalSearchOutputBoundary {
+
+    /**
+     * Present the next results of the ranked list. Called once when the faster source has results whose
+     * rank is settled and once more when every source has answered.
+     * @param outputData output data
+     */
+    void presentResults(UniversalSearchOutputData outputData);
+
+    /**
+     * Present a search that no source could answer.
+     * @param errorMessage the reason
+     */
+    void prepareFailView(String errorMessage);
+}
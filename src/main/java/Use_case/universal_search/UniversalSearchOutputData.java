@@ -0,0 +1,36 @@
+package Use_case.universal_search;
+
+import java.util.List;
+
+/**
+ * Universal Search Output Data.
+ */
+public class UniversalSearchOutputData {
+    private final List<SearchHit> hits;
+    private final boolean complete;
+    private final List<String> unavailableSources;
+
+    /**
+     * Constructor.
+     * @param hits results that follow those already presented, best first
+     * @param complete whether every source has answered, so no more results follow
+     * @param unavailableSources sources that failed or timed out, e.g. "events"
+     */
+    public UniversalSearchOutputData(List<SearchHit> hits, boolean complete, List<String> unavailableSources) {
+        this.hits = hits;
+        this.complete = complete;
+        this.unavailableSources = unavailableSources;
+    }
+
+    public List<SearchHit> getHits() {
+        return hits;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public List<String> getUnavailableSources() {
+        return unavailableSources;
+    }
+}
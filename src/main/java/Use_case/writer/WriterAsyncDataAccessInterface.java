@@ -0,0 +1,37 @@
+package Use_case.writer;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking twin of the writer DAI.
+ */
+public interface WriterAsyncDataAccessInterface {
+
+    /**
+     * Submit a review without waiting for it to be stored.
+     * @param artistId the reviewed item
+     * @param username who wrote the review
+     * @param rating the rating
+     * @param comment the comment
+     * @return a future completed once the review is stored, failed if storing it failed, or cancelled if
+     *         the same user's next review replaced it before it was stored.
+     */
+    CompletableFuture<Void> addCommentAsync(String artistId, String username, double rating, String comment);
+
+    /**
+     * Adapt a blocking repository; the write runs on the calling thread.
+     * @param repository the blocking repository
+     * @return an already-completed view of the blocking call.
+     */
+    static WriterAsyncDataAccessInterface fromBlocking(WriterDataAccessInterface repository) {
+        return (artistId, username, rating, comment) -> {
+            try {
+                repository.addComment(artistId, username, rating, comment);
+                return CompletableFuture.completedFuture(null);
+            }
+            catch (RuntimeException ex) {
+                return CompletableFuture.failedFuture(ex);
+            }
+        };
+    }
+}
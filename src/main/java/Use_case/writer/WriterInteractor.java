@@ -1,10 +1,25 @@
 package Use_case.writer;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Comment interaction. With a write-behind repository the success view is prepared as soon as the
+ * review is accepted, before it is stored; once it is stored the view is told so, and if storing it
+ * fails later, the view is told to take the success back. A review replaced by the user's next one
+ * before it was stored reports neither; the next one does.
+ */
 public class WriterInteractor implements WriterInputBoundary {
-    private final WriterDataAccessInterface writerDataAccess;
+    private static final String SUCCESS_MESSAGE = "Comment successfully added!";
+
+    private final WriterAsyncDataAccessInterface writerDataAccess;
     private final WriterOutputBoundary writerPresenter;
 
     public WriterInteractor(WriterDataAccessInterface writerDataAccess, WriterOutputBoundary writerPresenter) {
+        this(WriterAsyncDataAccessInterface.fromBlocking(writerDataAccess), writerPresenter);
+    }
+
+    public WriterInteractor(WriterAsyncDataAccessInterface writerDataAccess, WriterOutputBoundary writerPresenter) {
         this.writerDataAccess = writerDataAccess;
         this.writerPresenter = writerPresenter;
     }
@@ -13,15 +28,35 @@ public class WriterInteractor implements WriterInputBoundary {
     public void executeComment(WriterInputData inputData) {
         try {
             validateInput(inputData);
-            writerDataAccess.addComment(inputData.getArtistId(), inputData.getUsername(), inputData.getRating(), inputData.getComment());
-            writerPresenter.prepareSuccessView("Comment successfully added!");
+            final CompletableFuture<Void> write = writerDataAccess.addCommentAsync(inputData.getArtistId(),
+                    inputData.getUsername(), inputData.getRating(), inputData.getComment());
+            if (write.isCompletedExceptionally()) {
+                // failed before anything was shown, e.g. a blocking repository
+                write.join();
+            }
+            writerPresenter.prepareSuccessView(SUCCESS_MESSAGE);
+            write.whenComplete((ignored, error) -> {
+                if (write.isCancelled()) {
+                    return;
+                }
+                if (error != null) {
+                    writerPresenter.prepareReconcileView("Failed to add comment: " + causeOf(error).getMessage());
+                }
+                else {
+                    writerPresenter.prepareStoredView(inputData.getComment());
+                }
+            });
         } catch (IllegalArgumentException e) {
             writerPresenter.prepareFailView("Invalid input: " + e.getMessage());
         } catch (Exception e) {
-            writerPresenter.prepareFailView("Failed to add comment: " + e.getMessage());
+            writerPresenter.prepareFailView("Failed to add comment: " + causeOf(e).getMessage());
         }
     }
 
+    private static Throwable causeOf(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
     private void validateInput(WriterInputData inputData) {
         if (inputData.getArtistId() == null || inputData.getArtistId().trim().isEmpty()) {
             throw new IllegalArgumentException("Artist ID cannot be null or empty.");
@@ -3,4 +3,16 @@ package Use_case.writer;
 public interface WriterOutputBoundary {
     void prepareSuccessView(String message);
     void prepareFailView(String errorMessage);
+
+    /**
+     * Confirm that a review already shown as saved is now stored.
+     * @param comment the stored comment
+     */
+    void prepareStoredView(String comment);
+
+    /**
+     * Take back a success already shown, because the write behind it failed later.
+     * @param errorMessage why the write failed
+     */
+    void prepareReconcileView(String errorMessage);
 }
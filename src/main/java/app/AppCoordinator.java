@@ -2,40 +2,72 @@ package app;
 
 
 import Use_case.read_from_db.*;
-import Use_case.writer.WriterDataAccessInterface;
 import Use_case.writer.WriterInputBoundary;
 import Use_case.writer.WriterInteractor;
 import Use_case.writer.WriterOutputBoundary;
+import config.ApplicationConfig;
+import data_access.CachingArtistRepository;
+import data_access.CachingEventRepository;
+import data_access.CoalescingArtistRepository;
+import data_access.CoalescingEventRepository;
+import data_access.ArtistDetailCache;
 import data_access.DBPublicAccessObject;
+import data_access.LocalArtistAutocompleteRepository;
+import data_access.LocalArtistSearchRepository;
 import data_transfer_object.Artist;
+import data_transfer_object.Event;
 import data_transfer_object.Recording;
+import interface_adapter.UseCaseExecutor;
 import interface_adapter.read_from_db.ArtistReadPresenter;
 import interface_adapter.read_from_db.ReadController;
 import interface_adapter.writer.WriterController;
 import interface_adapter.writer.WriterPresenter;
 import view.*;
+import search_index.ArtistIndexReplicator;
+import search_index.LiveArtistIndex;
+import search_index.ReplicationStatus;
 
 import data_access.MusicBrainzEventRepository;
 import data_access.MusicBrainzArtistRepository;
+import data_access.MusicBrainzHttpClient;
+import data_access.PrefetchStats;
+import data_access.PrefetchingArtistDetailRepository;
+import data_access.PrefetchingArtistRepository;
+import data_access.PrefetchingEventRepository;
+import data_access.WriteBehindCommentQueue;
+import data_access.RequestPriority;
+import data_access.SearchPagePrefetcher;
+import data_access.SearchQueryKey;
+import data_access.SingleFlight;
+import data_access.SymSpellSpellingCorrector;
+import data_access.WTinyLfuCache;
 import data_access.DBUserAccessObject;
 
 import interface_adapter.event_search.EventSearchController;
+import interface_adapter.universal_search.UniversalSearchController;
+import interface_adapter.universal_search.UniversalSearchPresenter;
 import interface_adapter.event_search.EventSearchPresenter;
 import interface_adapter.artist_search.ArtistSearchController;
 import interface_adapter.artist_search.ArtistSearchPresenter;
+import interface_adapter.autocomplete.AutocompleteController;
+import interface_adapter.autocomplete.AutocompletePresenter;
 import interface_adapter.login.LoginController;
 import interface_adapter.login.LoginPresenter;
 import interface_adapter.signup.SignupController;
 import interface_adapter.signup.SignupPresenter;
 
-import Use_case.event_search.EventSearchDataAccessInterface;
+import Use_case.universal_search.UniversalSearchInputBoundary;
+import Use_case.universal_search.UniversalSearchInteractor;
+import Use_case.event_search.EventSearchAsyncDataAccessInterface;
 import Use_case.event_search.EventSearchInputBoundary;
 import Use_case.event_search.EventSearchInteractor;
 import Use_case.event_search.EventSearchOutputBoundary;
-import Use_case.artist_search.ArtistSearchDataAccessInterface;
+import Use_case.artist_search.ArtistSearchAsyncDataAccessInterface;
 import Use_case.artist_search.ArtistSearchInputBoundary;
 import Use_case.artist_search.ArtistSearchInteractor;
 import Use_case.artist_search.ArtistSearchOutputBoundary;
+import Use_case.autocomplete.AutocompleteDataAccessInterface;
+import Use_case.autocomplete.AutocompleteInteractor;
 import Use_case.login.LoginDataAccessInterface;
 import Use_case.login.LoginInputBoundary;
 import Use_case.login.LoginInteractor;
@@ -47,16 +79,83 @@ import Use_case.signup.SignupInteractor;
 import Use_case.signup.SignupOutputBoundary;
 
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 /**
  * The App coordinator class.
  */
 public final class AppCoordinator {
     // use singleton pattern to save view info.
     private static AppCoordinator instance;
+    // a pointer crosses only a few cards before settling on one
+    private static final int ARTIST_DETAIL_PREFETCH_CAPACITY = 16;
 
-    private AppCoordinator() {
+    // one pooled, rate-governed client shared by every MusicBrainz repository.
+    private final MusicBrainzHttpClient musicBrainzHttpClient;
+    // runs every blocking interactor off the EDT, shared by every window.
+    private final UseCaseExecutor useCaseExecutor = new UseCaseExecutor();
+    private final AtomicInteger viewSequence = new AtomicInteger();
+    // identical searches from any window share one in-flight request, within a scheduling lane, so a
+    // search the user waits on never joins a prefetch queued behind every interactive request.
+    private final Map<RequestPriority, SingleFlight<SearchQueryKey, Artist[]>> artistSearchFlights =
+            new EnumMap<>(Map.of(RequestPriority.INTERACTIVE, new SingleFlight<>(),
+                    RequestPriority.PREFETCH, new SingleFlight<>()));
+    private final Map<RequestPriority, SingleFlight<SearchQueryKey, Event[]>> eventSearchFlights =
+            new EnumMap<>(Map.of(RequestPriority.INTERACTIVE, new SingleFlight<>(),
+                    RequestPriority.PREFETCH, new SingleFlight<>()));
+    // decoded search pages, shared by every window.
+    private final WTinyLfuCache<SearchQueryKey, Artist[]> artistSearchCache;
+    private final WTinyLfuCache<SearchQueryKey, Event[]> eventSearchCache;
+    private final PrefetchStats artistPrefetchStats = new PrefetchStats();
+    private final PrefetchStats eventPrefetchStats = new PrefetchStats();
+    private final PrefetchStats artistDetailPrefetchStats = new PrefetchStats();
+    // artist details read on hover, waiting for a click in any window.
+    private final ArtistDetailCache artistDetailCache = new ArtistDetailCache(
+            ApplicationConfig.getDetailPrefetchTtlMillis(), ARTIST_DETAIL_PREFETCH_CAPACITY, artistDetailPrefetchStats);
+    // comments and rating totals; one instance, so every window shares its cached totals and write rates.
+    private final DBPublicAccessObject publicAccessObject;
+    // reviews from every detail view, written behind in batches.
+    private final WriteBehindCommentQueue commentQueue;
+    // users read on demand, shared by the login and signup views.
+    private final DBUserAccessObject userAccessObject = new DBUserAccessObject();
+    // the local dump index, when artist searches are configured to use it; null otherwise.
+    private final LiveArtistIndex localArtistIndex;
+    // "did you mean" dictionaries of names seen in good results, shared by every window; the artist one is
+    // seeded from the local dump index when there is one.
+    private final SymSpellSpellingCorrector artistSpelling =
+            new SymSpellSpellingCorrector(ApplicationConfig.getSpellingMaxWords());
+    private final SymSpellSpellingCorrector eventSpelling =
+            new SymSpellSpellingCorrector(ApplicationConfig.getSpellingMaxWords());
+    // name completion over the local index, shared by every window; null without a local index.
+    private final AutocompleteDataAccessInterface artistAutocomplete;
 
+    private AppCoordinator() {
+        musicBrainzHttpClient = new MusicBrainzHttpClient();
+        localArtistIndex = openLocalArtistIndex();
+        if (localArtistIndex != null) {
+            new ArtistIndexReplicator(localArtistIndex, Paths.get(ApplicationConfig.getLocalArtistReplicationDir()))
+                    .start(ApplicationConfig.getLocalArtistReplicationPollSeconds());
+            artistAutocomplete = new LocalArtistAutocompleteRepository(localArtistIndex);
+            artistSpelling.seedInBackground(localArtistIndex.searcher());
+        }
+        else {
+            artistAutocomplete = null;
+            seedArtistSpellingFromDump();
+        }
+        artistSearchCache = new WTinyLfuCache<>(ApplicationConfig.getSearchCacheMaxBytes(),
+                CachingArtistRepository::weigh);
+        eventSearchCache = new WTinyLfuCache<>(ApplicationConfig.getSearchCacheMaxBytes(),
+                CachingEventRepository::weigh);
+        publicAccessObject = new DBPublicAccessObject();
+        commentQueue = new WriteBehindCommentQueue(publicAccessObject, ApplicationConfig.getCommentBatchSize(),
+                ApplicationConfig.getCommentFlushMillis());
+        // reviews still waiting when the last window closes are written before the JVM exits
+        Runtime.getRuntime().addShutdownHook(new Thread(commentQueue::close, "comment-write-behind-flush"));
     }
 
     /**
@@ -76,11 +175,11 @@ public final class AppCoordinator {
     public void createLoginView() {
         final LoginView loginView = new LoginView();
         final LoginOutputBoundary loginOutputBoundary = new LoginPresenter(loginView);
-        final LoginDataAccessInterface loginDataAccessInterface = new DBUserAccessObject();
+        final LoginDataAccessInterface loginDataAccessInterface = userAccessObject;
         final LoginInputBoundary loginInteractor = new LoginInteractor(
                 loginDataAccessInterface, loginOutputBoundary);
 
-        final LoginController loginController = new LoginController(loginInteractor);
+        final LoginController loginController = new LoginController(loginInteractor, useCaseExecutor);
         loginView.setLoginController(loginController);
     }
 
@@ -90,10 +189,10 @@ public final class AppCoordinator {
     public void createSignUpView() {
         final SignupView signupView = new SignupView();
         final SignupOutputBoundary signupOutputBoundary = new SignupPresenter(signupView);
-        final SignupDataAccessInterface signupDataAccessInterface = new DBUserAccessObject();
+        final SignupDataAccessInterface signupDataAccessInterface = userAccessObject;
         final SignupInputBoundary signupInteractor = new SignupInteractor(
                 signupDataAccessInterface, signupOutputBoundary);
-        final SignupController signupController = new SignupController(signupInteractor);
+        final SignupController signupController = new SignupController(signupInteractor, useCaseExecutor);
 
         signupView.setSignupController(signupController);
     }
@@ -110,20 +209,44 @@ public final class AppCoordinator {
      */
     public void createArtistListingView() {
         final ArtistListingView artistListingView = new ArtistListingView();
+        final String callerId = "artist-listing#" + viewSequence.incrementAndGet();
         final ArtistSearchOutputBoundary artistSearchOutputBoundary = new ArtistSearchPresenter(artistListingView);
-        final ArtistSearchDataAccessInterface artistSearchDataAccessInterface = new MusicBrainzArtistRepository();
+        final ArtistSearchAsyncDataAccessInterface artistSearchDataAccessInterface;
+        if (localArtistIndex != null) {
+            artistSearchDataAccessInterface = new LocalArtistSearchRepository(localArtistIndex);
+        }
+        else {
+            artistSearchDataAccessInterface = new PrefetchingArtistRepository(
+                    artistSearchRepository(RequestPriority.INTERACTIVE, callerId),
+                    artistSearchRepository(RequestPriority.PREFETCH, callerId),
+                    new SearchPagePrefetcher<>(ApplicationConfig.getSearchPrefetchDepth(), artistPrefetchStats));
+        }
         final ArtistSearchInputBoundary artistSearchInteractor = new ArtistSearchInteractor(
-                artistSearchDataAccessInterface, artistSearchOutputBoundary);
-        final ArtistSearchController artistSearchController = new ArtistSearchController(artistSearchInteractor);
+                artistSearchDataAccessInterface, artistSearchOutputBoundary,
+                ApplicationConfig.getUseCaseTimeoutMillis(), artistSpelling);
+        final ArtistSearchController artistSearchController = new ArtistSearchController(artistSearchInteractor,
+                useCaseExecutor);
 
         artistListingView.setArtistSearchController(artistSearchController);
 
+        if (artistAutocomplete != null) {
+            artistListingView.setAutocompleteController(new AutocompleteController(new AutocompleteInteractor(
+                    artistAutocomplete, new AutocompletePresenter(artistListingView))));
+        }
+
         final ReadOutputBoundary readOutputBoundary = new ArtistReadPresenter(artistListingView);
-        final ReadDataAccessInterface readDataAccessInterface = new DBPublicAccessObject();
-        final ReadSongDataAccessInterface musicBrianzApi = new MusicBrainzArtistRepository();
+        // hovering over an artist starts its reads early; MusicBrainz serves those in the prefetch lane
+        final PrefetchingArtistDetailRepository artistDetails = new PrefetchingArtistDetailRepository(
+                publicAccessObject,
+                new MusicBrainzArtistRepository(musicBrainzHttpClient, RequestPriority.INTERACTIVE, callerId),
+                publicAccessObject,
+                new MusicBrainzArtistRepository(musicBrainzHttpClient, RequestPriority.PREFETCH, callerId),
+                artistDetailCache);
         final ReadInputBoundary readInteractor = new ArtistReadInteractor(
-                readOutputBoundary, readDataAccessInterface, musicBrianzApi);
-        final ReadController readController = new ReadController(readInteractor);
+                readOutputBoundary, artistDetails, artistDetails,
+                ApplicationConfig.getDetailContentsTimeoutMillis(), ApplicationConfig.getDetailTopSongsTimeoutMillis(),
+                artistDetails, publicAccessObject);
+        final ReadController readController = new ReadController(readInteractor, useCaseExecutor);
 
         artistListingView.setReadController(readController);
     }
@@ -131,22 +254,25 @@ public final class AppCoordinator {
     /**
      * Create the artist detail view.
      * @param topSongs the top songs of the artist
-     * @param comments the list of comments
+     * @param comments the newest page of comments, or null while they are still being read
+     * @param commentsCursor where the next older page of comments starts; null if there are no more
      * @param artist the artist
      * @param averageRating the average rating
+     * @param ratingCount how many ratings the average is over; -1 if unknown
+     * @return the view, e.g. to fill in top songs or comments that arrive later.
      */
-    public void createArtistDetailView(Recording[] topSongs,
-                                       Map<String, String> comments, Artist artist,
-                                       Double averageRating) {
+    public ArtistDetailView createArtistDetailView(Recording[] topSongs,
+                                       Map<String, String> comments, String commentsCursor, Artist artist,
+                                       Double averageRating, long ratingCount) {
 
-        ArtistDetailView artistDetailView = new ArtistDetailView(topSongs, comments, artist, averageRating);
+        ArtistDetailView artistDetailView = new ArtistDetailView(topSongs, comments, commentsCursor, artist,
+                averageRating, ratingCount);
         final WriterOutputBoundary writerPresenter = new WriterPresenter(artistDetailView);
-        final WriterDataAccessInterface writerDataAccessInterface = new DBPublicAccessObject();
-        final WriterInputBoundary writerInteractor = new WriterInteractor(
-                writerDataAccessInterface, writerPresenter);
-        final WriterController writerController = new WriterController(writerInteractor);
+        final WriterInputBoundary writerInteractor = new WriterInteractor(commentQueue, writerPresenter);
+        final WriterController writerController = new WriterController(writerInteractor, useCaseExecutor);
 
         artistDetailView.setWriterController(writerController);
+        return artistDetailView;
     }
 
     /**
@@ -154,15 +280,99 @@ public final class AppCoordinator {
      */
     public void createEventListingView() {
         EventListingView eventListingView = new EventListingView();
+        final String callerId = "event-listing#" + viewSequence.incrementAndGet();
 
         final EventSearchOutputBoundary eventSearchOutputBoundary = new EventSearchPresenter(eventListingView);
-        final EventSearchDataAccessInterface eventSearchDataAccessInterface = new MusicBrainzEventRepository();
+        final EventSearchAsyncDataAccessInterface eventSearchDataAccessInterface = new PrefetchingEventRepository(
+                eventSearchRepository(RequestPriority.INTERACTIVE, callerId),
+                eventSearchRepository(RequestPriority.PREFETCH, callerId),
+                new SearchPagePrefetcher<>(ApplicationConfig.getSearchPrefetchDepth(), eventPrefetchStats));
         final EventSearchInputBoundary eventSearchInteractor = new EventSearchInteractor(
-                eventSearchDataAccessInterface, eventSearchOutputBoundary);
-        final EventSearchController eventSearchController = new EventSearchController(eventSearchInteractor);
+                eventSearchDataAccessInterface, eventSearchOutputBoundary, ApplicationConfig.getUseCaseTimeoutMillis(),
+                eventSpelling);
+        final EventSearchController eventSearchController = new EventSearchController(eventSearchInteractor,
+                useCaseExecutor);
 
         eventListingView.setEventSearchController(eventSearchController);
     }
+
+    /**
+     * Create the view that searches artists and events together.
+     */
+    public void createUniversalSearchView() {
+        final UniversalSearchView universalSearchView = new UniversalSearchView();
+        final String callerId = "universal-search#" + viewSequence.incrementAndGet();
+        final ArtistSearchAsyncDataAccessInterface artistSearchDataAccessInterface = localArtistIndex != null
+                ? new LocalArtistSearchRepository(localArtistIndex)
+                : artistSearchRepository(RequestPriority.INTERACTIVE, callerId);
+        final UniversalSearchInputBoundary universalSearchInteractor = new UniversalSearchInteractor(
+                artistSearchDataAccessInterface, eventSearchRepository(RequestPriority.INTERACTIVE, callerId),
+                new UniversalSearchPresenter(universalSearchView), ApplicationConfig.getUseCaseTimeoutMillis());
+
+        universalSearchView.setUniversalSearchController(new UniversalSearchController(universalSearchInteractor,
+                useCaseExecutor));
+    }
+
+    /**
+     * Build the cached, coalescing artist search stack for one window and scheduling lane.
+     */
+    private ArtistSearchAsyncDataAccessInterface artistSearchRepository(RequestPriority priority, String callerId) {
+        return new CachingArtistRepository(
+                new CoalescingArtistRepository(
+                        new MusicBrainzArtistRepository(musicBrainzHttpClient, priority, callerId),
+                        artistSearchFlights.get(priority)),
+                artistSearchCache, ApplicationConfig.getSearchCacheTtlMillis(),
+                ApplicationConfig.getSearchCacheEmptyTtlMillis());
+    }
+
+    /**
+     * Open the local artist index if artist searches are configured to use it.
+     * A missing or unreadable index falls back to MusicBrainz rather than leaving search broken.
+     */
+    private static LiveArtistIndex openLocalArtistIndex() {
+        if (!"local".equalsIgnoreCase(ApplicationConfig.getArtistSearchBackend())) {
+            return null;
+        }
+        try {
+            return LiveArtistIndex.open(Paths.get(ApplicationConfig.getLocalArtistIndexDir()),
+                    ApplicationConfig.getLocalArtistIndexMaxSegments());
+        }
+        catch (IOException ex) {
+            System.err.println("Local artist index unavailable, searching MusicBrainz instead: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Seed the artist "did you mean" dictionary from a local dump index, when one is on disk, even though
+     * searches go to MusicBrainz; otherwise a misspelled first search would have no names to correct against.
+     */
+    private void seedArtistSpellingFromDump() {
+        final Path directory = Paths.get(ApplicationConfig.getLocalArtistIndexDir());
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try {
+            artistSpelling.seedInBackground(
+                    LiveArtistIndex.open(directory, ApplicationConfig.getLocalArtistIndexMaxSegments()).searcher());
+        }
+        catch (IOException ex) {
+            System.err.println("Local artist index unavailable for spelling suggestions: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Build the cached, coalescing event search stack for one window and scheduling lane.
+     */
+    private EventSearchAsyncDataAccessInterface eventSearchRepository(RequestPriority priority, String callerId) {
+        return new CachingEventRepository(
+                new CoalescingEventRepository(
+                        new MusicBrainzEventRepository(musicBrainzHttpClient, priority, callerId),
+                        eventSearchFlights.get(priority)),
+                eventSearchCache, ApplicationConfig.getSearchCacheTtlMillis(),
+                ApplicationConfig.getSearchCacheEmptyTtlMillis());
+    }
+
     /**
      * Create the search selection view.
      */
@@ -170,6 +380,88 @@ public final class AppCoordinator {
         final SearchSelection searchSelection = new SearchSelection();
     }
 
+    /**
+     * Return the HTTP client shared by the MusicBrainz repositories.
+     * @return the shared client, e.g. to read its pool statistics.
+     */
+    public MusicBrainzHttpClient getMusicBrainzHttpClient() {
+        return musicBrainzHttpClient;
+    }
+
+    /**
+     * Return the executor that runs interactors off the EDT.
+     * @return the shared executor, e.g. to read its per-use-case in-flight counts.
+     */
+    public UseCaseExecutor getUseCaseExecutor() {
+        return useCaseExecutor;
+    }
+
+    /**
+     * Return the in-flight table shared by artist searches in one scheduling lane.
+     * @param priority the lane
+     * @return the single-flight layer, e.g. to read its coalesced hit count.
+     */
+    public SingleFlight<SearchQueryKey, Artist[]> getArtistSearchFlights(RequestPriority priority) {
+        return artistSearchFlights.get(priority);
+    }
+
+    /**
+     * Return the in-flight table shared by event searches in one scheduling lane.
+     * @param priority the lane
+     * @return the single-flight layer, e.g. to read its coalesced hit count.
+     */
+    public SingleFlight<SearchQueryKey, Event[]> getEventSearchFlights(RequestPriority priority) {
+        return eventSearchFlights.get(priority);
+    }
+
+    /**
+     * Return the artist search page cache.
+     * @return the shared cache, e.g. to read its hit rate.
+     */
+    public WTinyLfuCache<SearchQueryKey, Artist[]> getArtistSearchCache() {
+        return artistSearchCache;
+    }
+
+    /**
+     * Return the event search page cache.
+     * @return the shared cache, e.g. to read its hit rate.
+     */
+    public WTinyLfuCache<SearchQueryKey, Event[]> getEventSearchCache() {
+        return eventSearchCache;
+    }
+
+    /**
+     * Return the artist listing prefetch counters.
+     * @return the shared counters, e.g. to read the prefetch hit rate.
+     */
+    public PrefetchStats getArtistPrefetchStats() {
+        return artistPrefetchStats;
+    }
+
+    /**
+     * Return the event listing prefetch counters.
+     * @return the shared counters, e.g. to read the prefetch hit rate.
+     */
+    public PrefetchStats getEventPrefetchStats() {
+        return eventPrefetchStats;
+    }
+
+    /**
+     * Return the artist detail prefetch counters.
+     * @return the shared counters, e.g. to read how many clicks found their details prefetched.
+     */
+    public PrefetchStats getArtistDetailPrefetchStats() {
+        return artistDetailPrefetchStats;
+    }
+
+    /**
+     * Return the replication state of the local artist index.
+     * @return the lag, segment count and artist counts, or null if searches go to MusicBrainz.
+     */
+    public ReplicationStatus getLocalArtistIndexStatus() {
+        return localArtistIndex == null ? null : localArtistIndex.status();
+    }
+
     /**
      * Create the user account view.
      */
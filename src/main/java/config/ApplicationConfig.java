@@ -1,5 +1,7 @@
 package config;
 
+import java.nio.file.Paths;
+
 /**
  * Centralized application configuration.
  * Reads from environment variables with fallbacks so behaviour can change
@@ -10,18 +12,275 @@ public final class ApplicationConfig {
     private static final String DEFAULT_CREDENTIALS_PATH =
             "src/main/java/database/csc207musicapp-firebase-adminsdk-gzeyt-8c0d614d66.json";
     private static final String DEFAULT_PROJECT_ID = "csc207musicapp";
+    private static final String DEFAULT_MUSICBRAINZ_BASE_URL = "https://musicbrainz.org/ws/2";
+    private static final String DEFAULT_MUSICBRAINZ_USER_AGENT = "MusicRating/1.0.0 (delfen.gamma@gmail.com)";
 
     private ApplicationConfig() {}
 
     /** Path to Firebase service account JSON. Override with env var FIREBASE_CREDENTIALS_PATH. */
     public static String getFirebaseCredentialsPath() {
-        String env = System.getenv("FIREBASE_CREDENTIALS_PATH");
-        return env != null && !env.isBlank() ? env.trim() : DEFAULT_CREDENTIALS_PATH;
+        return stringEnv("FIREBASE_CREDENTIALS_PATH", DEFAULT_CREDENTIALS_PATH);
     }
 
     /** Firestore project ID. Override with env var FIRESTORE_PROJECT_ID. */
     public static String getFirestoreProjectId() {
-        String env = System.getenv("FIRESTORE_PROJECT_ID");
-        return env != null && !env.isBlank() ? env.trim() : DEFAULT_PROJECT_ID;
+        return stringEnv("FIRESTORE_PROJECT_ID", DEFAULT_PROJECT_ID);
+    }
+
+    /** Root of the MusicBrainz web service. Override with env var MUSICBRAINZ_BASE_URL. */
+    public static String getMusicBrainzBaseUrl() {
+        return stringEnv("MUSICBRAINZ_BASE_URL", DEFAULT_MUSICBRAINZ_BASE_URL);
+    }
+
+    /** User-Agent sent to MusicBrainz, which requires a contact. Override with env var MUSICBRAINZ_USER_AGENT. */
+    public static String getMusicBrainzUserAgent() {
+        return stringEnv("MUSICBRAINZ_USER_AGENT", DEFAULT_MUSICBRAINZ_USER_AGENT);
+    }
+
+    /** Idle keep-alive connections kept in the shared pool. Override with env var MUSICBRAINZ_MAX_IDLE_CONNECTIONS. */
+    public static int getMusicBrainzMaxIdleConnections() {
+        return intEnv("MUSICBRAINZ_MAX_IDLE_CONNECTIONS", 5);
+    }
+
+    /** How long an idle pooled connection stays open. Override with env var MUSICBRAINZ_KEEP_ALIVE_SECONDS. */
+    public static int getMusicBrainzKeepAliveSeconds() {
+        return intEnv("MUSICBRAINZ_KEEP_ALIVE_SECONDS", 300);
+    }
+
+    /** Connect/read timeout for MusicBrainz calls. Override with env var MUSICBRAINZ_TIMEOUT_SECONDS. */
+    public static int getMusicBrainzTimeoutSeconds() {
+        return intEnv("MUSICBRAINZ_TIMEOUT_SECONDS", 15);
+    }
+
+    /** Sustained MusicBrainz request rate. Override with env var MUSICBRAINZ_REQUESTS_PER_SECOND. */
+    public static double getMusicBrainzRequestsPerSecond() {
+        return doubleEnv("MUSICBRAINZ_REQUESTS_PER_SECOND", 1.0);
+    }
+
+    /** Requests that may be sent back to back after an idle period. Override with env var MUSICBRAINZ_BURST. */
+    public static int getMusicBrainzBurst() {
+        return intEnv("MUSICBRAINZ_BURST", 1);
+    }
+
+    /** Requests allowed to wait for a permit at once. Override with env var MUSICBRAINZ_QUEUE_CAPACITY. */
+    public static int getMusicBrainzQueueCapacity() {
+        return intEnv("MUSICBRAINZ_QUEUE_CAPACITY", 64);
+    }
+
+    /** Retries after MusicBrainz answers 503. Override with env var MUSICBRAINZ_MAX_RETRIES. */
+    public static int getMusicBrainzMaxRetries() {
+        return intEnv("MUSICBRAINZ_MAX_RETRIES", 2);
+    }
+
+    /**
+     * How long a search or detail read may run before it is abandoned.
+     * Override with env var USE_CASE_TIMEOUT_MILLIS.
+     */
+    public static long getUseCaseTimeoutMillis() {
+        return intEnv("USE_CASE_TIMEOUT_MILLIS", 30_000);
+    }
+
+    /**
+     * How long the detail view waits for ratings and comments.
+     * Override with env var DETAIL_CONTENTS_TIMEOUT_MILLIS.
+     */
+    public static long getDetailContentsTimeoutMillis() {
+        return intEnv("DETAIL_CONTENTS_TIMEOUT_MILLIS", 5_000);
+    }
+
+    /** How long the detail view waits for top songs. Override with env var DETAIL_TOP_SONGS_TIMEOUT_MILLIS. */
+    public static long getDetailTopSongsTimeoutMillis() {
+        return intEnv("DETAIL_TOP_SONGS_TIMEOUT_MILLIS", (int) getUseCaseTimeoutMillis());
+    }
+
+    /**
+     * How long artist details prefetched on hover are kept for a click.
+     * Override with env var DETAIL_PREFETCH_TTL_SECONDS.
+     */
+    public static long getDetailPrefetchTtlMillis() {
+        return intEnv("DETAIL_PREFETCH_TTL_SECONDS", 30) * 1000L;
+    }
+
+    /**
+     * Result pages fetched ahead of "Load more"; 0 disables prefetching.
+     * Override with env var SEARCH_PREFETCH_DEPTH.
+     */
+    public static int getSearchPrefetchDepth() {
+        return intEnv("SEARCH_PREFETCH_DEPTH", 1);
+    }
+
+    /**
+     * Directory of the durable MusicBrainz response store, or "none" to disable it.
+     * Override with env var MUSICBRAINZ_STORE_DIR.
+     */
+    public static String getMusicBrainzStoreDir() {
+        return stringEnv("MUSICBRAINZ_STORE_DIR",
+                Paths.get(System.getProperty("user.home"), ".musicrating", "musicbrainz").toString());
+    }
+
+    /** Size of the response store data file, in bytes. Override with env var MUSICBRAINZ_STORE_MAX_BYTES. */
+    public static int getMusicBrainzStoreMaxBytes() {
+        return intEnv("MUSICBRAINZ_STORE_MAX_BYTES", 64 * 1024 * 1024);
+    }
+
+    /**
+     * How long a stored response is served before revalidation, unless MusicBrainz sends max-age.
+     * Override with env var MUSICBRAINZ_STORE_FRESH_SECONDS.
+     */
+    public static int getMusicBrainzStoreFreshSeconds() {
+        return intEnv("MUSICBRAINZ_STORE_FRESH_SECONDS", 6 * 60 * 60);
+    }
+
+    /** Serve only stored MusicBrainz responses, without network. Override with env var MUSICBRAINZ_OFFLINE=true. */
+    public static boolean isMusicBrainzOffline() {
+        return Boolean.parseBoolean(stringEnv("MUSICBRAINZ_OFFLINE", "false"));
+    }
+
+    /**
+     * Where artist searches are answered: "musicbrainz" (default) or "local" for the dump index.
+     * Override with env var ARTIST_SEARCH_BACKEND.
+     */
+    public static String getArtistSearchBackend() {
+        return stringEnv("ARTIST_SEARCH_BACKEND", "musicbrainz");
+    }
+
+    /** Directory of the local artist index (manifest and segments). Override with env var LOCAL_ARTIST_INDEX_DIR. */
+    public static String getLocalArtistIndexDir() {
+        return stringEnv("LOCAL_ARTIST_INDEX_DIR",
+                Paths.get(System.getProperty("user.home"), ".musicrating", "artist-index").toString());
+    }
+
+    /**
+     * Where replication packets for the local artist index are picked up.
+     * Override with env var LOCAL_ARTIST_REPLICATION_DIR.
+     */
+    public static String getLocalArtistReplicationDir() {
+        return stringEnv("LOCAL_ARTIST_REPLICATION_DIR",
+                Paths.get(getLocalArtistIndexDir(), "replication").toString());
+    }
+
+    /** Seconds between polls for replication packets. Override with env var LOCAL_ARTIST_REPLICATION_POLL_SECONDS. */
+    public static int getLocalArtistReplicationPollSeconds() {
+        return intEnv("LOCAL_ARTIST_REPLICATION_POLL_SECONDS", 60);
+    }
+
+    /**
+     * Segment count above which replication segments are merged.
+     * Override with env var LOCAL_ARTIST_INDEX_MAX_SEGMENTS.
+     */
+    public static int getLocalArtistIndexMaxSegments() {
+        return intEnv("LOCAL_ARTIST_INDEX_MAX_SEGMENTS", 8);
+    }
+
+    /** Most words each "did you mean" dictionary holds. Override with env var SPELLING_MAX_WORDS. */
+    public static int getSpellingMaxWords() {
+        return intEnv("SPELLING_MAX_WORDS", 200_000);
+    }
+
+    /** Memory budget of the cache of recently read users, in bytes. Override with env var USER_CACHE_MAX_BYTES. */
+    public static long getUserCacheMaxBytes() {
+        return intEnv("USER_CACHE_MAX_BYTES", 256 * 1024);
+    }
+
+    /** How long a read user is trusted before it is read again. Override with env var USER_CACHE_TTL_SECONDS. */
+    public static long getUserCacheTtlMillis() {
+        return intEnv("USER_CACHE_TTL_SECONDS", 60) * 1000L;
+    }
+
+    /** Memory budget of each search page cache, in bytes. Override with env var SEARCH_CACHE_MAX_BYTES. */
+    public static long getSearchCacheMaxBytes() {
+        return intEnv("SEARCH_CACHE_MAX_BYTES", 8 * 1024 * 1024);
+    }
+
+    /** How long a cached search page is served. Override with env var SEARCH_CACHE_TTL_SECONDS. */
+    public static long getSearchCacheTtlMillis() {
+        return intEnv("SEARCH_CACHE_TTL_SECONDS", 600) * 1000L;
+    }
+
+    /**
+     * How long a cached search page without results is served.
+     * Override with env var SEARCH_CACHE_EMPTY_TTL_SECONDS.
+     */
+    public static long getSearchCacheEmptyTtlMillis() {
+        return intEnv("SEARCH_CACHE_EMPTY_TTL_SECONDS", 60) * 1000L;
+    }
+
+    /** Most reviews written in one batch. Override with env var COMMENT_BATCH_SIZE. */
+    public static int getCommentBatchSize() {
+        return intEnv("COMMENT_BATCH_SIZE", 200);
+    }
+
+    /** Longest a review waits for its batch to fill. Override with env var COMMENT_FLUSH_MILLIS. */
+    public static long getCommentFlushMillis() {
+        return intEnv("COMMENT_FLUSH_MILLIS", 250);
+    }
+
+    /** Most shard documents the rating totals of one item are spread over. Override with env var RATING_SHARDS_MAX. */
+    public static int getRatingShardsMax() {
+        return intEnv("RATING_SHARDS_MAX", 16);
+    }
+
+    /**
+     * Rating writes per second one shard of an item's totals takes before another is added.
+     * Override with env var RATING_SHARD_WRITES_PER_SECOND.
+     */
+    public static double getRatingShardWritesPerSecond() {
+        return doubleEnv("RATING_SHARD_WRITES_PER_SECOND", 1.0);
+    }
+
+    /**
+     * Memory budget of the cache of added-up rating totals, in bytes.
+     * Override with env var RATING_TOTALS_CACHE_MAX_BYTES.
+     */
+    public static long getRatingTotalsCacheMaxBytes() {
+        return intEnv("RATING_TOTALS_CACHE_MAX_BYTES", 256 * 1024);
+    }
+
+    /**
+     * How long added-up rating totals are served before the shards are read again.
+     * Override with env var RATING_TOTALS_CACHE_TTL_SECONDS.
+     */
+    public static long getRatingTotalsCacheTtlMillis() {
+        return intEnv("RATING_TOTALS_CACHE_TTL_SECONDS", 5) * 1000L;
+    }
+
+    /**
+     * Response decoder for one MusicBrainz repository: "streaming" (default) or "tree" for org.json.
+     * Override per repository with MUSICBRAINZ_ARTIST_DECODER / MUSICBRAINZ_EVENT_DECODER,
+     * or for all of them with MUSICBRAINZ_DECODER.
+     */
+    public static String getMusicBrainzDecoder(String repository) {
+        return stringEnv("MUSICBRAINZ_" + repository + "_DECODER", stringEnv("MUSICBRAINZ_DECODER", "streaming"));
+    }
+
+    private static String stringEnv(String name, String fallback) {
+        String env = System.getenv(name);
+        return env != null && !env.isBlank() ? env.trim() : fallback;
+    }
+
+    private static int intEnv(String name, int fallback) {
+        String env = System.getenv(name);
+        if (env == null || env.isBlank()) {
+            return fallback;
+        }
+        try {
+            return Integer.parseInt(env.trim());
+        } catch (NumberFormatException ex) {
+            System.err.println("Ignoring invalid " + name + ": " + env);
+            return fallback;
+        }
+    }
+
+    private static double doubleEnv(String name, double fallback) {
+        String env = System.getenv(name);
+        if (env == null || env.isBlank()) {
+            return fallback;
+        }
+        try {
+            return Double.parseDouble(env.trim());
+        } catch (NumberFormatException ex) {
+            System.err.println("Ignoring invalid " + name + ": " + env);
+            return fallback;
+        }
     }
 }
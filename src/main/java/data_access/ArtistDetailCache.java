@@ -0,0 +1,150 @@
+package data_access;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import data_transfer_object.CommentPage;
+import data_transfer_object.Recording;
+
+/**
+ * Short-lived store of artist detail reads started before the user asked for them, e.g. on hover.
+ * Each prefetched read is handed out once: a click takes it, so a later visit reads afresh and sees
+ * comments written in between. Reads that fail, expire or are pushed out by newer ones are dropped;
+ * dropping a read that is still in flight cancels it.
+ */
+public class ArtistDetailCache {
+
+    private final long ttlMillis;
+    private final int capacity;
+    private final PrefetchStats stats;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Entry<CommentPage>> comments = new LinkedHashMap<>();
+    private final LinkedHashMap<String, Entry<Recording[]>> topSongs = new LinkedHashMap<>();
+
+    /**
+     * Constructor.
+     * @param ttlMillis how long a prefetched read may be handed out after it was started
+     * @param capacity most artists held at once
+     * @param stats the counters to report into; hits and misses are counted per source read
+     */
+    public ArtistDetailCache(long ttlMillis, int capacity, PrefetchStats stats) {
+        this(ttlMillis, capacity, stats, System::currentTimeMillis);
+    }
+
+    ArtistDetailCache(long ttlMillis, int capacity, PrefetchStats stats, LongSupplier clock) {
+        this.ttlMillis = ttlMillis;
+        this.capacity = Math.max(1, capacity);
+        this.stats = stats;
+        this.clock = clock;
+    }
+
+    /**
+     * Start both reads of an artist unless they are already held.
+     * @param documentID document ID
+     * @param commentsLoader starts the read of the newest comments page
+     * @param topSongsLoader starts the top songs read
+     */
+    public synchronized void prefetch(String documentID,
+                                      Supplier<CompletableFuture<CommentPage>> commentsLoader,
+                                      Supplier<CompletableFuture<Recording[]>> topSongsLoader) {
+        put(comments, documentID, commentsLoader);
+        put(topSongs, documentID, topSongsLoader);
+    }
+
+    /**
+     * Hand over the prefetched read of the newest comments page, if there is a usable one.
+     * @param documentID document ID
+     * @return the read, or null if it must be started on demand.
+     */
+    public synchronized CompletableFuture<CommentPage> takeComments(String documentID) {
+        return take(comments, documentID);
+    }
+
+    /**
+     * Hand over the prefetched top songs read, if there is a usable one.
+     * @param documentID document ID
+     * @return the read, or null if it must be started on demand.
+     */
+    public synchronized CompletableFuture<Recording[]> takeTopSongs(String documentID) {
+        return take(topSongs, documentID);
+    }
+
+    private <V> void put(LinkedHashMap<String, Entry<V>> reads, String documentID,
+                         Supplier<CompletableFuture<V>> loader) {
+        final long now = clock.getAsLong();
+        expire(reads, now);
+        final Entry<V> held = reads.get(documentID);
+        if (held != null && !held.read.isCompletedExceptionally()) {
+            return;
+        }
+        // re-inserted rather than replaced, so the map stays in expiry order
+        reads.remove(documentID);
+        final CompletableFuture<V> read = loader.get();
+        stats.recordIssued();
+        final Entry<V> entry = new Entry<>(read, now + ttlMillis);
+        reads.put(documentID, entry);
+        read.whenComplete((value, ex) -> {
+            if (ex != null) {
+                forget(reads, documentID, entry);
+            }
+        });
+        final Iterator<Entry<V>> eldest = reads.values().iterator();
+        while (reads.size() > capacity && eldest.hasNext()) {
+            final Entry<V> evicted = eldest.next();
+            eldest.remove();
+            discard(evicted);
+        }
+    }
+
+    private <V> CompletableFuture<V> take(LinkedHashMap<String, Entry<V>> reads, String documentID) {
+        expire(reads, clock.getAsLong());
+        final Entry<V> entry = reads.remove(documentID);
+        if (entry == null || entry.read.isCompletedExceptionally()) {
+            stats.recordMiss();
+            return null;
+        }
+        stats.recordHit();
+        return entry.read;
+    }
+
+    private synchronized <V> void forget(LinkedHashMap<String, Entry<V>> reads, String documentID, Entry<V> entry) {
+        reads.remove(documentID, entry);
+    }
+
+    private <V> void expire(LinkedHashMap<String, Entry<V>> reads, long now) {
+        // entries are in insertion order, so the expired ones come first
+        final Iterator<Entry<V>> eldest = reads.values().iterator();
+        while (eldest.hasNext()) {
+            final Entry<V> entry = eldest.next();
+            if (entry.expiresAt > now) {
+                return;
+            }
+            eldest.remove();
+            discard(entry);
+        }
+    }
+
+    /**
+     * Cancel a read that was removed from its map; its failure callback then finds nothing to forget.
+     */
+    private void discard(Entry<?> entry) {
+        stats.recordDiscarded();
+        entry.read.cancel(true);
+    }
+
+    /**
+     * One prefetched read and when it stops being handed out.
+     */
+    private static final class Entry<V> {
+        private final CompletableFuture<V> read;
+        private final long expiresAt;
+
+        Entry(CompletableFuture<V> read, long expiresAt) {
+            this.read = read;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package data_access;
+
+import java.util.concurrent.CompletableFuture;
+
+import Use_case.artist_search.ArtistSearchAsyncDataAccessInterface;
+import Use_case.artist_search.ArtistSearchDataAccessInterface;
+import data_transfer_object.Artist;
+
+/**
+ * Artist search decorator that serves repeated searches from a shared in-memory cache of decoded pages.
+ */
+public class CachingArtistRepository implements ArtistSearchDataAccessInterface,
+        ArtistSearchAsyncDataAccessInterface {
+
+    private final ArtistSearchAsyncDataAccessInterface delegate;
+    private final WTinyLfuCache<SearchQueryKey, Artist[]> cache;
+    private final long ttlMillis;
+    private final long emptyTtlMillis;
+
+    /**
+     * Constructor.
+     * @param delegate the repository consulted on a miss
+     * @param cache the page cache, shared by every window
+     * @param ttlMillis how long a page with results is served
+     * @param emptyTtlMillis how long a page without results is served
+     */
+    public CachingArtistRepository(ArtistSearchAsyncDataAccessInterface delegate,
+                                   WTinyLfuCache<SearchQueryKey, Artist[]> cache,
+                                   long ttlMillis, long emptyTtlMillis) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.ttlMillis = ttlMillis;
+        this.emptyTtlMillis = emptyTtlMillis;
+    }
+
+    @Override
+    public Artist[] getArtists(String artistName, String country, String type, int limit, int offset) {
+        return Futures.await(getArtistsAsync(artistName, country, type, limit, offset), "Error fetching artists");
+    }
+
+    @Override
+    public CompletableFuture<Artist[]> getArtistsAsync(String artistName, String country, String type, int limit,
+                                                       int offset) {
+        final SearchQueryKey key = new SearchQueryKey("artist", artistName, country, type, limit, offset);
+        final Artist[] cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        final CompletableFuture<Artist[]> source = delegate.getArtistsAsync(artistName, country, type, limit, offset);
+        final CompletableFuture<Artist[]> result = source.thenApply(artists -> {
+            cache.put(key, artists, artists.length == 0 ? emptyTtlMillis : ttlMillis);
+            return artists;
+        });
+        Futures.propagateCancellation(result, source);
+        return result;
+    }
+
+    /**
+     * Estimate the retained size of one cached page.
+     * @param key the page key
+     * @param artists the page
+     * @return the approximate size in bytes.
+     */
+    public static long weigh(SearchQueryKey key, Artist[] artists) {
+        long bytes = 64 + 2L * (key.getQuery().length() + key.getArea().length() + key.getType().length())
+                + 16L + 4L * artists.length;
+        for (Artist artist : artists) {
+            bytes += 48 + chars(artist.getId()) + chars(artist.getArtistName()) + chars(artist.getCountry())
+                    + chars(artist.getType());
+        }
+        return bytes;
+    }
+
+    private static long chars(String value) {
+        return value == null ? 0 : 40 + 2L * value.length();
+    }
+}
@@ -0,0 +1,77 @@
+package data_access;
+
+import java.util.concurrent.CompletableFuture;
+
+import Use_case.event_search.EventSearchAsyncDataAccessInterface;
+import Use_case.event_search.EventSearchDataAccessInterface;
+import data_transfer_object.Event;
+
+/**
+ * Event search decorator that serves repeated searches from a shared in-memory cache of decoded pages.
+ */
+public class CachingEventRepository implements EventSearchDataAccessInterface,
+        EventSearchAsyncDataAccessInterface {
+
+    private final EventSearchAsyncDataAccessInterface delegate;
+    private final WTinyLfuCache<SearchQueryKey, Event[]> cache;
+    private final long ttlMillis;
+    private final long emptyTtlMillis;
+
+    /**
+     * Constructor.
+     * @param delegate the repository consulted on a miss
+     * @param cache the page cache, shared by every window
+     * @param ttlMillis how long a page with results is served
+     * @param emptyTtlMillis how long a page without results is served
+     */
+    public CachingEventRepository(EventSearchAsyncDataAccessInterface delegate,
+                                  WTinyLfuCache<SearchQueryKey, Event[]> cache,
+                                  long ttlMillis, long emptyTtlMillis) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.ttlMillis = ttlMillis;
+        this.emptyTtlMillis = emptyTtlMillis;
+    }
+
+    @Override
+    public Event[] getEvents(String eventName, String location, int limit, int offset) {
+        return Futures.await(getEventsAsync(eventName, location, limit, offset), "Error fetching events");
+    }
+
+    @Override
+    public CompletableFuture<Event[]> getEventsAsync(String eventName, String location, int limit, int offset) {
+        final SearchQueryKey key = new SearchQueryKey("event", eventName, location, limit, offset);
+        final Event[] cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        final CompletableFuture<Event[]> source = delegate.getEventsAsync(eventName, location, limit, offset);
+        final CompletableFuture<Event[]> result = source.thenApply(events -> {
+            cache.put(key, events, events.length == 0 ? emptyTtlMillis : ttlMillis);
+            return events;
+        });
+        Futures.propagateCancellation(result, source);
+        return result;
+    }
+
+    /**
+     * Estimate the retained size of one cached page.
+     * @param key the page key
+     * @param events the page
+     * @return the approximate size in bytes.
+     */
+    public static long weigh(SearchQueryKey key, Event[] events) {
+        long bytes = 64 + 2L * (key.getQuery().length() + key.getArea().length()) + 16L + 4L * events.length;
+        for (Event event : events) {
+            bytes += 64 + chars(event.getId()) + chars(event.getName()) + chars(event.getType())
+                    + chars(event.getBeginDate()) + chars(event.getEndDate()) + chars(event.getTime())
+                    + chars(event.getPlaceName()) + chars(event.getPlaceId()) + chars(event.getArtistName())
+                    + chars(event.getArtistId());
+        }
+        return bytes;
+    }
+
+    private static long chars(String value) {
+        return value == null ? 0 : 40 + 2L * value.length();
+    }
+}
@@ -0,0 +1,41 @@
+package data_access;
+
+import java.util.concurrent.CompletableFuture;
+
+import Use_case.artist_search.ArtistSearchAsyncDataAccessInterface;
+import Use_case.artist_search.ArtistSearchDataAccessInterface;
+import data_transfer_object.Artist;
+
+/**
+ * Artist search decorator that shares one in-flight MusicBrainz request between identical searches.
+ */
+public class CoalescingArtistRepository implements ArtistSearchDataAccessInterface,
+        ArtistSearchAsyncDataAccessInterface {
+
+    private final ArtistSearchAsyncDataAccessInterface delegate;
+    private final SingleFlight<SearchQueryKey, Artist[]> singleFlight;
+
+    /**
+     * Constructor.
+     * @param delegate the repository that performs the request
+     * @param singleFlight the in-flight table, shared by every window that should coalesce
+     */
+    public CoalescingArtistRepository(ArtistSearchAsyncDataAccessInterface delegate,
+                                      SingleFlight<SearchQueryKey, Artist[]> singleFlight) {
+        this.delegate = delegate;
+        this.singleFlight = singleFlight;
+    }
+
+    @Override
+    public Artist[] getArtists(String artistName, String country, String type, int limit, int offset) {
+        return Futures.await(getArtistsAsync(artistName, country, type, limit, offset), "Error fetching artists");
+    }
+
+    @Override
+    public CompletableFuture<Artist[]> getArtistsAsync(String artistName, String country, String type, int limit,
+                                                       int offset) {
+        final SearchQueryKey key = new SearchQueryKey("artist", artistName, country, type, limit, offset);
+        return singleFlight.execute(key,
+                () -> delegate.getArtistsAsync(artistName, country, type, limit, offset));
+    }
+}
@@ -0,0 +1,40 @@
+package data_access;
+
+import java.util.concurrent.CompletableFuture;
+
+import Use_case.event_search.EventSearchAsyncDataAccessInterface;
+import Use_case.event_search.EventSearchDataAccessInterface;
+import data_transfer_object.Event;
+
+/**
+ * Event search decorator that shares one in-flight MusicBrainz request between identical searches.
+ */
+public class CoalescingEventRepository implements EventSearchDataAccessInterface,
+        EventSearchAsyncDataAccessInterface {
+
+    private final EventSearchAsyncDataAccessInterface delegate;
+    private final SingleFlight<SearchQueryKey, Event[]> singleFlight;
+
+    /**
+     * Constructor.
+     * @param delegate the repository that performs the request
+     * @param singleFlight the in-flight table, shared by every window that should coalesce
+     */
+    public CoalescingEventRepository(EventSearchAsyncDataAccessInterface delegate,
+                                     SingleFlight<SearchQueryKey, Event[]> singleFlight) {
+        this.delegate = delegate;
+        this.singleFlight = singleFlight;
+    }
+
+    @Override
+    public Event[] getEvents(String eventName, String location, int limit, int offset) {
+        return Futures.await(getEventsAsync(eventName, location, limit, offset), "Error fetching events");
+    }
+
+    @Override
+    public CompletableFuture<Event[]> getEventsAsync(String eventName, String location, int limit, int offset) {
+        final SearchQueryKey key = new SearchQueryKey("event", eventName, location, limit, offset);
+        return singleFlight.execute(key,
+                () -> delegate.getEventsAsync(eventName, location, limit, offset));
+    }
+}
@@ -0,0 +1,16 @@
+package data_access;
+
+import java.util.List;
+
+/**
+ * Stores many reviews at once, e.g. in one Firestore write batch.
+ */
+public interface CommentBatchWriter {
+
+    /**
+     * Store reviews, all or none of them. Blocks until they are stored.
+     * @param writes at most one review per user and item
+     * @throws RuntimeException if they could not be stored.
+     */
+    void writeComments(List<CommentWrite> writes);
+}
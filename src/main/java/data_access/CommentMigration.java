@@ -0,0 +1,118 @@
+package data_access;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.WriteBatch;
+import data_transfer_object.RatingAggregate;
+import global_storage.CurrentUser;
+
+/**
+ * Moves reviews stored the old way, as fields of {@code Public/{id}}, to one document each in the
+ * item's {@code Comments} subcollection. Each batch writes the moved reviews and deletes their fields
+ * together, so a review is never in both places or in neither. Items without rating totals get them
+ * in the first batch, from all their old reviews. Running it again moves only what is left.
+ * Run {@link #main} once to move every item; until then items move on their next review.
+ */
+public class CommentMigration {
+
+    /**
+     * When moved reviews were posted as far as the paging order is concerned: before anything since.
+     */
+    static final Timestamp LEGACY_TIMESTAMP = Timestamp.ofTimeSecondsAndNanos(0, 0);
+    // Firestore's limit, less the field deletes and the rating totals written alongside the reviews
+    private static final int REVIEWS_PER_BATCH = 500 - 2;
+
+    private final Firestore db;
+
+    public CommentMigration(Firestore db) {
+        this.db = db;
+    }
+
+    /**
+     * Move the old reviews of one item.
+     * @param contentID the item's document ID
+     * @return how many reviews were moved.
+     * @throws InterruptedException if interrupted while waiting for Firestore
+     * @throws ExecutionException if a read or write failed
+     */
+    public int migrate(String contentID) throws InterruptedException, ExecutionException {
+        try {
+            return moveReviews(contentID);
+        }
+        catch (ExecutionException ex) {
+            // someone else moved or reviewed the item meanwhile, e.g. the totals now exist; start over from there
+            return moveReviews(contentID);
+        }
+    }
+
+    /**
+     * Move the old reviews of every item.
+     * @return how many reviews were moved.
+     * @throws InterruptedException if interrupted while waiting for Firestore
+     * @throws ExecutionException if a read or write failed
+     */
+    public int migrateAll() throws InterruptedException, ExecutionException {
+        int moved = 0;
+        for (DocumentReference content : db.collection(DBPublicAccessObject.PUBLIC).listDocuments()) {
+            moved += migrate(content.getId());
+        }
+        return moved;
+    }
+
+    private int moveReviews(String contentID) throws InterruptedException, ExecutionException {
+        final DocumentReference contentReference = db.collection(DBPublicAccessObject.PUBLIC).document(contentID);
+        final Map<String, Map<String, Object>> reviews =
+                DBPublicAccessObject.legacyReviews(contentReference.get().get());
+        if (reviews.isEmpty()) {
+            return 0;
+        }
+        final DocumentReference aggregateReference =
+                db.collection(DBPublicAccessObject.RATING_AGGREGATES).document(contentID);
+        final boolean needsAggregate = !aggregateReference.get().get().exists();
+
+        final List<String> usernames = new ArrayList<>(reviews.keySet());
+        for (int start = 0; start < usernames.size(); start += REVIEWS_PER_BATCH) {
+            final List<String> chunk = usernames.subList(start, Math.min(usernames.size(), start + REVIEWS_PER_BATCH));
+            final WriteBatch batch = db.batch();
+            if (start == 0 && needsAggregate) {
+                // create rather than set, so totals a concurrent review wrote are not overwritten
+                batch.create(aggregateReference, DBPublicAccessObject.toDocument(RatingAggregate.of(reviews)));
+            }
+            final Object[] deletes = new Object[2 * (chunk.size() - 1)];
+            for (int i = 0; i < chunk.size(); i++) {
+                final String username = chunk.get(i);
+                final Map<String, Object> review = reviews.get(username);
+                batch.set(DBPublicAccessObject.comments(db, contentID).document(username),
+                        DBPublicAccessObject.toDocument(username, ((Number) review.get("rating")).doubleValue(),
+                                (String) review.get("comment"), LEGACY_TIMESTAMP));
+                if (i > 0) {
+                    deletes[2 * (i - 1)] = FieldPath.of(username);
+                    deletes[2 * (i - 1) + 1] = FieldValue.delete();
+                }
+            }
+            batch.update(contentReference, FieldPath.of(chunk.get(0)), FieldValue.delete(), deletes);
+            batch.commit().get();
+        }
+        return reviews.size();
+    }
+
+    /**
+     * Move the old reviews of every item in the configured Firestore project.
+     * @param args unused
+     * @throws Exception if the migration stopped; running it again carries on where it stopped.
+     */
+    public static void main(String[] args) throws Exception {
+        new CurrentUser().initialize();
+        final int moved = new CommentMigration(CurrentUser.db).migrateAll();
+        System.out.println("Moved " + moved + " reviews to comment subcollections.");
+    }
+}
@@ -0,0 +1,35 @@
+package data_access;
+
+/**
+ * One review waiting to be written: who rated which item, and how.
+ */
+public final class CommentWrite {
+
+    private final String contentID;
+    private final String username;
+    private final double rating;
+    private final String comment;
+
+    public CommentWrite(String contentID, String username, double rating, String comment) {
+        this.contentID = contentID;
+        this.username = username;
+        this.rating = rating;
+        this.comment = comment;
+    }
+
+    public String getContentID() {
+        return contentID;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public double getRating() {
+        return rating;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+}
@@ -1,14 +1,38 @@
 package data_access;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 
+import Use_case.read_from_db.ReadAsyncDataAccessInterface;
 import Use_case.read_from_db.ReadDataAccessInterface;
+import Use_case.read_from_db.ReadRatingAsyncDataAccessInterface;
 import Use_case.writer.WriterDataAccessInterface;
+import com.google.api.gax.rpc.ApiException;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
 import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.FieldValue;
 import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.WriteResult;
+import com.google.cloud.firestore.FirestoreException;
+import com.google.cloud.firestore.Precondition;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
 import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.WriteBatch;
+import config.ApplicationConfig;
+import data_transfer_object.CommentPage;
+import data_transfer_object.RatingAggregate;
+import data_transfer_object.Review;
 import global_storage.CurrentUser;
 
 
@@ -16,51 +40,375 @@ import java.util.HashMap;
 
 /**
  * The data access object of public information.
+ * Each review is its own document, {@code Public/{id}/Comments/{username}}, read newest first a page at
+ * a time. Items reviewed before that still hold their reviews as fields of {@code Public/{id}}; they
+ * are read from there as a single page until {@link CommentMigration} moves them, which happens on
+ * the item's next review at the latest. Reviews can also be written many at a time, as the batches
+ * of a {@link WriteBehindCommentQueue}.
  */
-public class DBPublicAccessObject implements ReadDataAccessInterface,
-        WriterDataAccessInterface {
+public class DBPublicAccessObject implements ReadDataAccessInterface, ReadAsyncDataAccessInterface,
+        ReadRatingAsyncDataAccessInterface, WriterDataAccessInterface, CommentBatchWriter {
 
 
-    private final Firestore db = CurrentUser.db;
+    static final String PUBLIC = "Public";
+    static final String COMMENTS = "Comments";
+    static final String RATING_AGGREGATES = "RatingAggregates";
+    static final String TIMESTAMP = "timestamp";
+    // each review is one write and each item's totals one more, within Firestore's 500 per batch
+    private static final int REVIEWS_PER_BATCH = 250;
+    // how a batch fails when a review it replaces changed after it was read, or one it creates was
+    // created meanwhile; any other failure is not worth sending the batch again
+    private static final Set<String> CONFLICTS = Set.of("FAILED_PRECONDITION", "ALREADY_EXISTS");
+
+    private final Firestore db;
+    // items known to have no reviews stored the old way, so batches need not check them again
+    private final Set<String> migrated = ConcurrentHashMap.newKeySet();
+    private final ShardedRatingCounter ratings;
+
+    public DBPublicAccessObject() {
+        this(CurrentUser.db);
+    }
+
+    /**
+     * Constructor; does no I/O.
+     * @param db the database
+     */
+    public DBPublicAccessObject(Firestore db) {
+        this.db = db;
+        this.ratings = new ShardedRatingCounter(db, ApplicationConfig.getRatingShardsMax(),
+                ApplicationConfig.getRatingShardWritesPerSecond(),
+                new WTinyLfuCache<>(ApplicationConfig.getRatingTotalsCacheMaxBytes(), ShardedRatingCounter::weigh),
+                ApplicationConfig.getRatingTotalsCacheTtlMillis());
+    }
 
     @Override
-    public Map<String, Object> readContents(String documentID) {
+    public CommentPage readComments(String documentID, String cursor, int pageSize) {
         try {
-            // Get the comments collection under the artist document
-            final DocumentSnapshot document = db.collection("Public").document(documentID).get().get();
-            // Fetch the documents in the comments collection
-            if (document.exists()) {
-                return document.getData();
+            return readCommentsAsync(documentID, cursor, pageSize).get();
+        }
+        catch (InterruptedException | ExecutionException ex) {
+            System.err.println("Error reading comments: " + ex.getMessage());
+        }
+        return null;
+    }
 
+    @Override
+    public CompletableFuture<CommentPage> readCommentsAsync(String documentID, String cursor, int pageSize) {
+        final CompletableFuture<CommentPage> result = new CompletableFuture<>();
+        final CompletableFuture<QuerySnapshot> page =
+                Futures.toCompletable(pageQuery(documentID, cursor, pageSize).get());
+        Futures.propagateCancellation(result, page);
+        page.whenComplete((snapshot, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+            }
+            else if (cursor != null || !snapshot.isEmpty()) {
+                complete(result, () -> toPage(snapshot.getDocuments(), pageSize));
+            }
+            else {
+                // nothing in the subcollection: the item may not have been migrated yet
+                final CompletableFuture<DocumentSnapshot> legacy = Futures.toCompletable(
+                        db.collection(PUBLIC).document(documentID).get());
+                Futures.propagateCancellation(result, legacy);
+                legacy.whenComplete((document, legacyError) -> {
+                    if (legacyError != null) {
+                        result.completeExceptionally(legacyError);
+                    }
+                    else {
+                        complete(result, () -> toLegacyPage(document));
+                    }
+                });
             }
+        });
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<RatingAggregate> readRatingAsync(String documentID) {
+        return ratings.readAsync(documentID);
+    }
 
+    private Query pageQuery(String documentID, String cursor, int pageSize) {
+        // one more than asked for, to tell whether there is a next page
+        Query query = comments(db, documentID)
+                .orderBy(TIMESTAMP, Query.Direction.DESCENDING)
+                .orderBy(FieldPath.documentId(), Query.Direction.DESCENDING)
+                .limit(pageSize + 1);
+        if (cursor != null) {
+            final int timestampEnd = cursor.indexOf(':', cursor.indexOf(':') + 1);
+            query = query.startAfter(toTimestamp(cursor.substring(0, timestampEnd)),
+                    cursor.substring(timestampEnd + 1));
         }
-        catch (InterruptedException | ExecutionException ex) {
-            System.err.println("Error reading document: " + ex.getMessage());
+        return query;
+    }
+
+    private static <T> void complete(CompletableFuture<T> result, Supplier<T> value) {
+        try {
+            result.complete(value.get());
+        }
+        catch (RuntimeException ex) {
+            result.completeExceptionally(ex);
         }
-        return null;
     }
 
+    /**
+     * Save a review and update the item's rating totals in one transaction, so the totals always match
+     * the reviews. A user who reviews again replaces their earlier review and rating. Reviews still
+     * stored the old way are moved first, so the item's comments are all in one place. The totals are
+     * moved by an increment to one of the item's shards, whose count is read beforehand, so the
+     * transaction does not read the totals or contend on them.
+     */
     @Override
     public void addComment(String contentID, String username, double rating, String comment) {
         try {
-            // Prepare the data to save
-            Map<String, Object> commentData = new HashMap<>();
-            commentData.put("rating", rating);
-            commentData.put("comment", comment);
-            Map<String, Map<String, Object>> data = new HashMap<>();
-            data.put(username, commentData);
-            // Add the data under the artist's comments collection
-            WriteResult result = db.collection("Public")
-                    .document(contentID)
-                    .set(data, SetOptions.merge())
-                    .get();
-
-            System.out.println("Comment added successfully at: " + result.getUpdateTime());
+            new CommentMigration(db).migrate(contentID);
+
+            final DocumentReference commentReference = comments(db, contentID).document(username);
+            final int shardCount = ShardedRatingCounter.shardCount(ratings.totalsDocument(contentID).get().get());
+            db.runTransaction(transaction -> {
+                // every read comes before the first write, as transactions require
+                final DocumentSnapshot previous = transaction.get(commentReference).get();
+                final Double previousRating = previous.exists() ? previous.getDouble("rating") : null;
+
+                transaction.set(commentReference, toDocument(username, rating, comment, FieldValue.serverTimestamp()));
+                final RatingDelta delta = new RatingDelta();
+                delta.replace(previousRating, rating);
+                transaction.set(ratings.shard(contentID, shardCount), delta.toIncrements(), SetOptions.merge());
+                return null;
+            }).get();
+            ratings.recordCommitted(contentID, shardCount);
         } catch (InterruptedException | ExecutionException e) {
             System.err.println("Error adding comment: " + e.getMessage());
         }
     }
 
+    /**
+     * Save many reviews in write batches. The rating totals are moved by increments to the items' shards
+     * rather than read and rewritten, so batches from many clients do not contend on them. Each batch
+     * first reads the reviews it replaces, for the ratings to take back out; a review that changed or
+     * appeared since then fails the batch on its precondition, and only then is the batch read and
+     * tried once more.
+     */
+    @Override
+    public void writeComments(List<CommentWrite> writes) {
+        try {
+            for (CommentWrite write : writes) {
+                if (!migrated.contains(write.getContentID())) {
+                    new CommentMigration(db).migrate(write.getContentID());
+                    migrated.add(write.getContentID());
+                }
+            }
+            for (int start = 0; start < writes.size(); start += REVIEWS_PER_BATCH) {
+                final List<CommentWrite> chunk =
+                        writes.subList(start, Math.min(writes.size(), start + REVIEWS_PER_BATCH));
+                try {
+                    commitBatch(chunk);
+                }
+                catch (ExecutionException ex) {
+                    if (!isConflict(ex)) {
+                        throw ex;
+                    }
+                    // someone changed one of the reviews between the read and the commit
+                    commitBatch(chunk);
+                }
+            }
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while adding comments", ex);
+        }
+        catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+            throw new RuntimeException("Error adding comments: " + cause.getMessage(), cause);
+        }
+    }
+
+    private void commitBatch(List<CommentWrite> writes) throws InterruptedException, ExecutionException {
+        // the replaced reviews, then the totals documents with each item's shard count, in one read
+        final List<String> contentIDs = new ArrayList<>();
+        final List<DocumentReference> references = new ArrayList<>();
+        for (CommentWrite write : writes) {
+            references.add(comments(db, write.getContentID()).document(write.getUsername()));
+            if (!contentIDs.contains(write.getContentID())) {
+                contentIDs.add(write.getContentID());
+            }
+        }
+        for (String contentID : contentIDs) {
+            references.add(ratings.totalsDocument(contentID));
+        }
+        final List<DocumentSnapshot> previous = db.getAll(references.toArray(new DocumentReference[0])).get();
+
+        final WriteBatch batch = db.batch();
+        final Map<String, RatingDelta> deltas = new LinkedHashMap<>();
+        final int[] shardCounts = new int[contentIDs.size()];
+        for (int i = 0; i < writes.size(); i++) {
+            final CommentWrite write = writes.get(i);
+            final DocumentSnapshot earlier = previous.get(i);
+            final Map<String, Object> document = toDocument(write.getUsername(), write.getRating(), write.getComment(),
+                    FieldValue.serverTimestamp());
+            final Double previousRating = earlier.exists() ? earlier.getDouble("rating") : null;
+            if (earlier.exists()) {
+                batch.update(references.get(i), document, Precondition.updatedAt(earlier.getUpdateTime()));
+            }
+            else {
+                batch.create(references.get(i), document);
+            }
+            deltas.computeIfAbsent(write.getContentID(), contentID -> new RatingDelta())
+                    .replace(previousRating, write.getRating());
+        }
+        for (int i = 0; i < contentIDs.size(); i++) {
+            shardCounts[i] = ShardedRatingCounter.shardCount(previous.get(writes.size() + i));
+            batch.set(ratings.shard(contentIDs.get(i), shardCounts[i]), deltas.get(contentIDs.get(i)).toIncrements(),
+                    SetOptions.merge());
+        }
+        batch.commit().get();
+        for (int i = 0; i < contentIDs.size(); i++) {
+            ratings.recordCommitted(contentIDs.get(i), shardCounts[i]);
+        }
+    }
+
+    /**
+     * Return whether a write failed on a precondition, i.e. raced with another write to the same review.
+     */
+    static boolean isConflict(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof FirestoreException && ((FirestoreException) cause).getStatus() != null) {
+                return CONFLICTS.contains(((FirestoreException) cause).getStatus().getCode().name());
+            }
+            if (cause instanceof ApiException) {
+                return CONFLICTS.contains(((ApiException) cause).getStatusCode().getCode().name());
+            }
+        }
+        return false;
+    }
+
+    static CollectionReference comments(Firestore db, String contentID) {
+        return db.collection(PUBLIC).document(contentID).collection(COMMENTS);
+    }
+
+    /**
+     * Return the reviews stored the old way, as username to {rating, comment} fields of the item's document.
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Map<String, Object>> legacyReviews(DocumentSnapshot content) {
+        final Map<String, Map<String, Object>> reviews = new HashMap<>();
+        if (content.exists() && content.getData() != null) {
+            content.getData().forEach((username, review) -> {
+                if (review instanceof Map && ((Map<String, Object>) review).get("rating") instanceof Number) {
+                    reviews.put(username, (Map<String, Object>) review);
+                }
+            });
+        }
+        return reviews;
+    }
+
+    private static CommentPage toLegacyPage(DocumentSnapshot content) {
+        final List<Review> reviews = new ArrayList<>();
+        legacyReviews(content).forEach((username, review) -> reviews.add(new Review(username,
+                (String) review.get("comment"), ((Number) review.get("rating")).doubleValue(), 0)));
+        return new CommentPage(reviews, null);
+    }
+
+    static CommentPage toPage(List<QueryDocumentSnapshot> documents, int pageSize) {
+        final List<Review> reviews = new ArrayList<>();
+        for (QueryDocumentSnapshot document : documents.subList(0, Math.min(pageSize, documents.size()))) {
+            final Double rating = document.getDouble("rating");
+            final Timestamp postedAt = document.getTimestamp(TIMESTAMP);
+            reviews.add(new Review(document.getId(), document.getString("comment"), rating == null ? 0.0 : rating,
+                    postedAt == null ? 0 : postedAt.toDate().getTime()));
+        }
+        String nextCursor = null;
+        if (documents.size() > pageSize && pageSize > 0) {
+            final QueryDocumentSnapshot last = documents.get(pageSize - 1);
+            nextCursor = toCursor(last.getTimestamp(TIMESTAMP), last.getId());
+        }
+        return new CommentPage(reviews, nextCursor);
+    }
+
+    /**
+     * Encode where a page ended as "seconds:nanos:username"; usernames may contain colons, the numbers
+     * cannot.
+     */
+    static String toCursor(Timestamp timestamp, String username) {
+        final Timestamp at = timestamp == null ? CommentMigration.LEGACY_TIMESTAMP : timestamp;
+        return at.getSeconds() + ":" + at.getNanos() + ":" + username;
+    }
+
+    private static Timestamp toTimestamp(String secondsAndNanos) {
+        final int separator = secondsAndNanos.indexOf(':');
+        return Timestamp.ofTimeSecondsAndNanos(Long.parseLong(secondsAndNanos.substring(0, separator)),
+                Integer.parseInt(secondsAndNanos.substring(separator + 1)));
+    }
+
+    static Map<String, Object> toDocument(String username, double rating, String comment, Object timestamp) {
+        final Map<String, Object> document = new HashMap<>();
+        document.put("username", username);
+        document.put("rating", rating);
+        document.put("comment", comment);
+        document.put(TIMESTAMP, timestamp);
+        return document;
+    }
+
+    static RatingAggregate toAggregate(DocumentSnapshot document) {
+        final long[] histogram = new long[RatingAggregate.MAX_SCORE + 1];
+        final Object buckets = document.get("histogram");
+        if (buckets instanceof Map) {
+            for (Map.Entry<?, ?> bucket : ((Map<?, ?>) buckets).entrySet()) {
+                final int score = Integer.parseInt(String.valueOf(bucket.getKey()));
+                if (score >= 0 && score <= RatingAggregate.MAX_SCORE && bucket.getValue() instanceof Number) {
+                    histogram[score] = ((Number) bucket.getValue()).longValue();
+                }
+            }
+        }
+        final Double sum = document.getDouble("sum");
+        final Long count = document.getLong("count");
+        return new RatingAggregate(sum == null ? 0.0 : sum, count == null ? 0 : count, histogram);
+    }
+
+    static Map<String, Object> toDocument(RatingAggregate aggregate) {
+        final Map<String, Long> histogram = new HashMap<>();
+        final long[] buckets = aggregate.getHistogram();
+        for (int score = 0; score < buckets.length; score++) {
+            histogram.put(String.valueOf(score), buckets[score]);
+        }
+        final Map<String, Object> document = new HashMap<>();
+        document.put("sum", aggregate.getSum());
+        document.put("count", aggregate.getCount());
+        document.put("histogram", histogram);
+        return document;
+    }
+
+    /**
+     * How one batch moves an item's rating totals.
+     */
+    private static final class RatingDelta {
+        private double sum;
+        private long count;
+        private final long[] histogram = new long[RatingAggregate.MAX_SCORE + 1];
+
+        void replace(Double previous, double rating) {
+            sum += rating;
+            count++;
+            histogram[RatingAggregate.bucket(rating)]++;
+            if (previous != null) {
+                sum -= previous;
+                count--;
+                histogram[RatingAggregate.bucket(previous)]--;
+            }
+        }
 
+        Map<String, Object> toIncrements() {
+            final Map<String, Object> buckets = new HashMap<>();
+            for (int score = 0; score < histogram.length; score++) {
+                if (histogram[score] != 0) {
+                    buckets.put(String.valueOf(score), FieldValue.increment(histogram[score]));
+                }
+            }
+            final Map<String, Object> increments = new HashMap<>();
+            increments.put("sum", FieldValue.increment(sum));
+            increments.put("count", FieldValue.increment(count));
+            increments.put("histogram", buckets);
+            return increments;
+        }
+    }
 }
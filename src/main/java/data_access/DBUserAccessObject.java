@@ -1,65 +1,62 @@
 package data_access;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 
 import Use_case.login.LoginDataAccessInterface;
 import Use_case.signup.SignupDataAccessInterface;
-import com.google.api.core.ApiFuture;
-import com.google.cloud.firestore.QueryDocumentSnapshot;
-import com.google.cloud.firestore.QuerySnapshot;
-import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import config.ApplicationConfig;
 import entity.User;
 import global_storage.CurrentUser;
 
 /**
  * The data access object of user information.
+ * Users are read one at a time from {@code Users/{username}} when they are asked for, so a login costs
+ * the same whatever the number of users, and users who signed up elsewhere are found. Users that were
+ * found are kept in a small expiring cache; absent ones are not, so a signup elsewhere shows up at once.
  */
 public class DBUserAccessObject implements LoginDataAccessInterface,
         SignupDataAccessInterface {
-    private final Map<String, User> allUsers = new HashMap<>();
+    private static final String USERS = "Users";
+
+    private final Firestore db;
+    private final WTinyLfuCache<String, User> cache;
+    private final long ttlMillis;
 
     public DBUserAccessObject() {
-        try {
-            final ApiFuture<QuerySnapshot> data = CurrentUser.db.collection("Users").get();
-            for (QueryDocumentSnapshot document : data.get().getDocuments()) {
-                final String password = document.getString("password");
-                final String username = document.getString("username");
-                final User user = new User(username, password);
-                allUsers.put(username, user);
-            }
-        }
+        this(null, new WTinyLfuCache<>(ApplicationConfig.getUserCacheMaxBytes(), DBUserAccessObject::weigh),
+                ApplicationConfig.getUserCacheTtlMillis());
+    }
 
-        catch (InterruptedException | ExecutionException ex) {
-            System.err.println("Error loading userInfo: " + ex.getMessage());
-        }
+    /**
+     * Constructor; does no I/O.
+     * @param db the database, or null for the application's shared one
+     * @param cache recently read users by username
+     * @param ttlMillis how long a read user is trusted
+     */
+    public DBUserAccessObject(Firestore db, WTinyLfuCache<String, User> cache, long ttlMillis) {
+        this.db = db;
+        this.cache = cache;
+        this.ttlMillis = ttlMillis;
     }
 
     @Override
     public boolean userExists(String username) {
-
-        return allUsers.containsKey(username);
+        return findUser(username, true) != null;
     }
 
     @Override
     public void addUser(String username, String password) {
         try {
-            if (allUsers.containsKey(username)) {
-                // Username already exists
-                return;
-            }
             final User newUser = new User(username, password);
-
-            // Update to local usermanager
-            allUsers.put(username, newUser);
-
             final Map<String, String> data = newUser.getSignInInfo();
 
-            // SetOption to merge so that it would not override previous data.
-            CurrentUser.db.collection("Users")
-                    .document(username).set(data, SetOptions.merge()).get();
-
+            // create rather than set, so a user who signed up elsewhere in the meantime is not overwritten
+            users().document(username).create(data).get();
+            cache.put(username, newUser, ttlMillis);
         }
 
         catch (InterruptedException | ExecutionException ex) {
@@ -69,7 +66,68 @@ public class DBUserAccessObject implements LoginDataAccessInterface,
 
     @Override
     public boolean validateLogin(String username, String password) {
-        final User user = allUsers.get(username);
-        return user != null && user.getPassword().equals(password);
+        final User cached = findUser(username, true);
+        if (cached == null) {
+            return false;
+        }
+        if (cached.getPassword().equals(password)) {
+            return true;
+        }
+        // the password may have changed since the user was cached
+        final User current = findUser(username, false);
+        return current != null && current.getPassword().equals(password);
+    }
+
+    /**
+     * Return the user stored under a username.
+     * @param username the username
+     * @param useCache whether a cached copy will do
+     * @return the user, or null if there is none or it could not be read.
+     */
+    private User findUser(String username, boolean useCache) {
+        if (username == null || username.isEmpty()) {
+            return null;
+        }
+        if (useCache) {
+            final User cached = cache.getIfPresent(username);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        try {
+            final DocumentSnapshot document = users().document(username).get().get();
+            final User user = document.exists() ? toUser(document) : null;
+            if (user == null) {
+                cache.invalidate(username);
+            }
+            else {
+                cache.put(username, user, ttlMillis);
+            }
+            return user;
+        }
+        catch (InterruptedException | ExecutionException ex) {
+            System.err.println("Error loading userInfo: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    private static User toUser(DocumentSnapshot document) {
+        final String password = document.getString("password");
+        final String username = document.getString("username");
+        return password == null || username == null ? null : new User(username, password);
+    }
+
+    private CollectionReference users() {
+        return (db != null ? db : CurrentUser.db).collection(USERS);
+    }
+
+    /**
+     * Estimate the retained size of a cached user in bytes.
+     * @param username the key
+     * @param user the value
+     * @return the weight.
+     */
+    public static long weigh(String username, User user) {
+        return 96 + 2L * (username.length() + user.getUsername().length() + user.getPassword().length());
     }
 }
@@ -0,0 +1,444 @@
+package data_access;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable store of MusicBrainz response bodies, keyed by request url.
+ * Records are appended to one memory-mapped data file and never rewritten in place; the newest record
+ * for a url wins. A compact open-addressing index from the 64-bit url hash to the record offset lives
+ * in memory and is rebuilt by one sequential scan when the store is opened. When the file is full,
+ * the live records are copied into a fresh file that then replaces the data file, so a crash part-way
+ * through leaves the old file as it was.
+ */
+public class DiskResponseStore implements AutoCloseable {
+
+    private static final String DATA_FILE = "responses.dat";
+    private static final String COMPACTED_FILE = "responses.dat.compact";
+    private static final int MAGIC = 0x4d425253;
+    private static final int VERSION = 1;
+    // magic, version, end of the last committed record
+    private static final int HEADER_SIZE = 16;
+    private static final int END_OFFSET = 8;
+    private static final long DROP_AFTER_MILLIS = TimeUnit.DAYS.toMillis(30);
+
+    private final Path directory;
+    private final int capacity;
+    private final OffsetIndex index = new OffsetIndex();
+    private RandomAccessFile file;
+    private MappedByteBuffer buffer;
+    private int end;
+
+    private DiskResponseStore(Path directory, RandomAccessFile file, MappedByteBuffer buffer, int capacity) {
+        this.directory = directory;
+        this.file = file;
+        this.buffer = buffer;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Open the store in the given directory, creating it if needed, and index the existing records.
+     * @param directory where the data file lives
+     * @param capacityBytes the size of the data file
+     * @return the opened store.
+     * @throws IOException if the file cannot be created or mapped.
+     */
+    public static DiskResponseStore open(Path directory, int capacityBytes) throws IOException {
+        Files.createDirectories(directory);
+        // left behind by a compaction that did not finish; the data file is still whole
+        Files.deleteIfExists(directory.resolve(COMPACTED_FILE));
+        final RandomAccessFile file = new RandomAccessFile(directory.resolve(DATA_FILE).toFile(), "rw");
+        try {
+            final MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacityBytes);
+            final DiskResponseStore store = new DiskResponseStore(directory, file, buffer, capacityBytes);
+            store.load();
+            return store;
+        }
+        catch (IOException | RuntimeException ex) {
+            file.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Return the newest stored response for the url.
+     * @param url the request url
+     * @return the entry, or null if none is stored.
+     */
+    public synchronized Entry get(String url) {
+        final byte[] key = url.getBytes(StandardCharsets.UTF_8);
+        final int offset = index.get(hash(key));
+        if (offset < 0) {
+            return null;
+        }
+        return read(offset, key);
+    }
+
+    /**
+     * Append a response for the url, replacing any earlier one.
+     * Bodies too large for the store are not kept.
+     * @param url the request url
+     * @param body the response body
+     * @param etag the ETag validator, or null
+     * @param lastModified the Last-Modified validator, or null
+     * @param expiresAtMillis until when the response may be served without revalidation
+     */
+    public synchronized void put(String url, byte[] body, String etag, String lastModified, long expiresAtMillis) {
+        final byte[] key = url.getBytes(StandardCharsets.UTF_8);
+        final byte[] etagBytes = bytesOf(etag);
+        final byte[] lastModifiedBytes = bytesOf(lastModified);
+        final int length = 4 + 8 + 8 + 8 + lengthOf(key) + lengthOf(etagBytes) + lengthOf(lastModifiedBytes)
+                + lengthOf(body);
+        if (length > capacity - HEADER_SIZE) {
+            return;
+        }
+        if (end + length > capacity) {
+            compact();
+            if (end + length > capacity) {
+                clear();
+            }
+        }
+        final long keyHash = hash(key);
+        final int offset = end;
+        buffer.position(offset);
+        buffer.putInt(length);
+        buffer.putLong(keyHash);
+        buffer.putLong(System.currentTimeMillis());
+        buffer.putLong(expiresAtMillis);
+        putBytes(key);
+        putBytes(etagBytes);
+        putBytes(lastModifiedBytes);
+        putBytes(body);
+        // publish the record only once it is fully written
+        end = offset + length;
+        buffer.putInt(END_OFFSET, end);
+        index.put(keyHash, offset);
+    }
+
+    /**
+     * Return the number of urls with a stored response.
+     * @return the entry count.
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Return how much of the data file is in use, including superseded records.
+     * @return the used bytes.
+     */
+    public synchronized int usedBytes() {
+        return end;
+    }
+
+    /**
+     * Return the size of the data file.
+     * @return the capacity in bytes.
+     */
+    public int capacityBytes() {
+        return capacity;
+    }
+
+    /**
+     * Flush the mapped file to disk and release it.
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        file.close();
+    }
+
+    private void load() {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            clear();
+            return;
+        }
+        end = buffer.getInt(END_OFFSET);
+        if (end < HEADER_SIZE || end > capacity) {
+            clear();
+            return;
+        }
+        int offset = HEADER_SIZE;
+        while (offset < end) {
+            final int length = buffer.getInt(offset);
+            if (length <= 0 || offset + length > end) {
+                // a torn write; keep everything before it
+                end = offset;
+                buffer.putInt(END_OFFSET, end);
+                break;
+            }
+            index.put(buffer.getLong(offset + 4), offset);
+            offset += length;
+        }
+    }
+
+    private void clear() {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        end = HEADER_SIZE;
+        buffer.putInt(END_OFFSET, end);
+        index.clear();
+    }
+
+    /**
+     * Copy the newest record of every url into a fresh file, dropping superseded records and records
+     * that expired long ago, and replace the data file with it. The fresh file is flushed before the
+     * swap, so the data file is always either the old one or the complete new one. If the copy cannot
+     * be made, the store starts over empty instead.
+     */
+    private void compact() {
+        final int[] live = index.offsets();
+        Arrays.sort(live);
+        final long dropBefore = System.currentTimeMillis() - DROP_AFTER_MILLIS;
+        final Path compacted = directory.resolve(COMPACTED_FILE);
+        final RandomAccessFile target;
+        final MappedByteBuffer copy;
+        try {
+            Files.deleteIfExists(compacted);
+            target = new RandomAccessFile(compacted.toFile(), "rw");
+        }
+        catch (IOException ex) {
+            System.err.println("Could not compact MusicBrainz response store: " + ex.getMessage());
+            clear();
+            return;
+        }
+        try {
+            copy = target.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            int copied = HEADER_SIZE;
+            for (int offset : live) {
+                if (buffer.getLong(offset + 20) < dropBefore) {
+                    continue;
+                }
+                final int length = buffer.getInt(offset);
+                final ByteBuffer record = buffer.duplicate();
+                record.position(offset).limit(offset + length);
+                copy.position(copied);
+                copy.put(record);
+                copied += length;
+            }
+            copy.putInt(0, MAGIC);
+            copy.putInt(4, VERSION);
+            copy.putInt(END_OFFSET, copied);
+            copy.force();
+            Files.move(compacted, directory.resolve(DATA_FILE), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException | RuntimeException ex) {
+            System.err.println("Could not compact MusicBrainz response store: " + ex.getMessage());
+            closeQuietly(target);
+            clear();
+            return;
+        }
+        closeQuietly(file);
+        file = target;
+        buffer = copy;
+        index.clear();
+        end = buffer.getInt(END_OFFSET);
+        for (int offset = HEADER_SIZE; offset < end; offset += buffer.getInt(offset)) {
+            index.put(buffer.getLong(offset + 4), offset);
+        }
+    }
+
+    private static void closeQuietly(RandomAccessFile closing) {
+        try {
+            closing.close();
+        }
+        catch (IOException ex) {
+            // the mapping stays valid; nothing else holds the file
+        }
+    }
+
+    private Entry read(int offset, byte[] key) {
+        buffer.position(offset + 12);
+        final long storedAt = buffer.getLong();
+        final long expiresAt = buffer.getLong();
+        final byte[] storedKey = getBytes();
+        if (!Arrays.equals(storedKey, key)) {
+            // a different url with the same hash
+            return null;
+        }
+        final byte[] etag = getBytes();
+        final byte[] lastModified = getBytes();
+        final byte[] body = getBytes();
+        return new Entry(body, stringOf(etag), stringOf(lastModified), storedAt, expiresAt);
+    }
+
+    private void putBytes(byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private byte[] getBytes() {
+        final int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static int lengthOf(byte[] bytes) {
+        return 4 + (bytes == null ? 0 : bytes.length);
+    }
+
+    private static byte[] bytesOf(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String stringOf(byte[] bytes) {
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 64-bit FNV-1a.
+     */
+    private static long hash(byte[] key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * One stored response.
+     */
+    public static final class Entry {
+        private final byte[] body;
+        private final String etag;
+        private final String lastModified;
+        private final long storedAtMillis;
+        private final long expiresAtMillis;
+
+        Entry(byte[] body, String etag, String lastModified, long storedAtMillis, long expiresAtMillis) {
+            this.body = body;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.storedAtMillis = storedAtMillis;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        public long getStoredAtMillis() {
+            return storedAtMillis;
+        }
+
+        public long getExpiresAtMillis() {
+            return expiresAtMillis;
+        }
+
+        /**
+         * Return whether the response may still be served without asking MusicBrainz.
+         * @param nowMillis the current time
+         * @return true if the entry has not expired.
+         */
+        public boolean isFresh(long nowMillis) {
+            return nowMillis < expiresAtMillis;
+        }
+    }
+
+    /**
+     * Open-addressing map from url hash to record offset, linear probing, kept at most half full.
+     */
+    private static final class OffsetIndex {
+        private long[] hashes = new long[1024];
+        private int[] offsets = new int[1024];
+        private boolean[] used = new boolean[1024];
+        private int size;
+
+        int get(long hash) {
+            final int mask = hashes.length - 1;
+            for (int slot = spread(hash) & mask; used[slot]; slot = (slot + 1) & mask) {
+                if (hashes[slot] == hash) {
+                    return offsets[slot];
+                }
+            }
+            return -1;
+        }
+
+        void put(long hash, int offset) {
+            if ((size + 1) * 2 > hashes.length) {
+                resize();
+            }
+            final int mask = hashes.length - 1;
+            int slot = spread(hash) & mask;
+            while (used[slot]) {
+                if (hashes[slot] == hash) {
+                    offsets[slot] = offset;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            used[slot] = true;
+            hashes[slot] = hash;
+            offsets[slot] = offset;
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] offsets() {
+            final int[] result = new int[size];
+            int next = 0;
+            for (int slot = 0; slot < used.length; slot++) {
+                if (used[slot]) {
+                    result[next++] = offsets[slot];
+                }
+            }
+            return result;
+        }
+
+        void clear() {
+            Arrays.fill(used, false);
+            size = 0;
+        }
+
+        private void resize() {
+            final long[] oldHashes = hashes;
+            final int[] oldOffsets = offsets;
+            final boolean[] oldUsed = used;
+            hashes = new long[oldHashes.length * 2];
+            offsets = new int[oldHashes.length * 2];
+            used = new boolean[oldHashes.length * 2];
+            size = 0;
+            for (int slot = 0; slot < oldUsed.length; slot++) {
+                if (oldUsed[slot]) {
+                    put(oldHashes[slot], oldOffsets[slot]);
+                }
+            }
+        }
+
+        private static int spread(long hash) {
+            return (int) (hash ^ (hash >>> 32)) * 0x9e3779b9;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package data_access;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CancellationException;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Helpers shared by the asynchronous repository decorators.
+ */
+final class Futures {
+
+    private Futures() {
+    }
+
+    /**
+     * Wait for a future, reporting failures the way the blocking repositories always have.
+     * @param future the pending result
+     * @param errorPrefix e.g. "Error fetching artists"
+     * @param <T> the result type
+     * @return the result.
+     * @throws RuntimeException if the future failed or was cancelled.
+     */
+    static <T> T await(CompletableFuture<T> future, String errorPrefix) {
+        try {
+            return future.join();
+        }
+        catch (CompletionException ex) {
+            final Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+            throw new RuntimeException(errorPrefix + ": " + cause.getMessage(), cause);
+        }
+        catch (CancellationException ex) {
+            throw new RuntimeException(errorPrefix + ": cancelled", ex);
+        }
+    }
+
+    /**
+     * Cancel the source when a future derived from it fails, is cancelled or times out, so giving up
+     * on a decorated result also releases the request underneath.
+     * @param derived the future handed to the caller
+     * @param source the future it was derived from
+     */
+    static void propagateCancellation(CompletableFuture<?> derived, CompletableFuture<?> source) {
+        derived.whenComplete((value, ex) -> {
+            if (ex != null) {
+                source.cancel(true);
+            }
+        });
+    }
+
+    /**
+     * Adapt a Firestore future; giving up on the result, e.g. at the deadline, also cancels the RPC.
+     * @param rpc the pending Firestore call
+     * @param <T> the result type
+     * @return a future completed with the call.
+     */
+    static <T> CompletableFuture<T> toCompletable(ApiFuture<T> rpc) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        ApiFutures.addCallback(rpc, new ApiFutureCallback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                result.complete(value);
+            }
+
+            @Override
+            public void onFailure(Throwable error) {
+                result.completeExceptionally(error);
+            }
+        }, MoreExecutors.directExecutor());
+        result.whenComplete((value, error) -> {
+            if (error != null) {
+                rpc.cancel(true);
+            }
+        });
+        return result;
+    }
+}
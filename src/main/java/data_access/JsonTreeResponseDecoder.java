@@ -0,0 +1,172 @@
+package data_access;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.UUID;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import data_transfer_object.Artist;
+import data_transfer_object.Event;
+import data_transfer_object.Recording;
+
+/**
+ * Decodes MusicBrainz responses by building the full org.json tree first.
+ * Kept as the reference path to compare the streaming decoder against.
+ */
+public class JsonTreeResponseDecoder implements MusicBrainzResponseDecoder {
+
+    @Override
+    public Artist[] decodeArtists(InputStream body) throws IOException {
+        try {
+            final JSONArray artists = parse(body).getJSONArray("artists");
+
+            final Artist[] result = new Artist[artists.length()];
+            for (int i = 0; i < artists.length(); i++) {
+                final JSONObject artist = artists.getJSONObject(i);
+
+                // Extract artist ID from the response or generate one if not available
+                final String id = artist.optString("id", UUID.randomUUID().toString());
+
+                result[i] = Artist.builder()
+                        .id(id)
+                        .artistName(artist.getString("name"))
+                        .type(artist.optString("type", "N/A"))
+                        .score(artist.optInt("score", 0))
+                        .country(artist.optString("country", "Unknown"))
+                        .build();
+            }
+            return result;
+        }
+        catch (JSONException ex) {
+            throw new IOException(ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public Event[] decodeEvents(InputStream body) throws IOException {
+        try {
+            final JSONArray eventsArray = parse(body).getJSONArray("events");
+
+            final Event[] result = new Event[eventsArray.length()];
+            for (int i = 0; i < eventsArray.length(); i++) {
+                final JSONObject eventJson = eventsArray.getJSONObject(i);
+
+                String beginDate = "Unknown Begin Date";
+                String endDate = "Unknown End Date";
+                String placeName = "Unknown Place";
+                String placeId = UUID.randomUUID().toString();
+                String artistName = "Unknown Artist";
+                String artistId = UUID.randomUUID().toString();
+
+                final JSONObject lifeSpan = eventJson.optJSONObject("life-span");
+                if (lifeSpan != null) {
+                    beginDate = lifeSpan.optString("begin", beginDate);
+                    endDate = lifeSpan.optString("end", endDate);
+                }
+
+                // Get place information if available
+                if (eventJson.has("place")) {
+                    final JSONObject placeJson = eventJson.getJSONObject("place");
+                    placeName = placeJson.optString("name", placeName);
+                    placeId = placeJson.optString("id", placeId);
+                }
+
+                // Get artist information if available
+                if (eventJson.has("relations")) {
+                    final JSONArray relations = eventJson.getJSONArray("relations");
+                    for (int j = 0; j < relations.length(); j++) {
+                        final JSONObject relation = relations.getJSONObject(j);
+                        if ("artist".equals(relation.optString("type"))) {
+                            final JSONObject artist = relation.getJSONObject("artist");
+                            artistName = artist.optString("name", artistName);
+                            artistId = artist.optString("id", artistId);
+                            break;
+                        }
+                    }
+                }
+
+                result[i] = Event.builder()
+                        .id(eventJson.optString("id", UUID.randomUUID().toString()))
+                        .name(eventJson.optString("name", "Unknown Event"))
+                        .type(eventJson.optString("type", "Unknown Type"))
+                        .beginDate(beginDate)
+                        .endDate(endDate)
+                        .time(eventJson.optString("time", "Unknown Time"))
+                        .placeName(placeName)
+                        .placeId(placeId)
+                        .artistName(artistName)
+                        .artistId(artistId)
+                        .score(eventJson.optInt("score", 0))
+                        .build();
+            }
+            return result;
+        }
+        catch (JSONException ex) {
+            throw new IOException(ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public Recording[] decodeRecordings(InputStream body) throws IOException {
+        try {
+            final JSONArray recordings = parse(body).getJSONArray("recordings");
+
+            final Recording[] result = new Recording[recordings.length()];
+            for (int i = 0; i < recordings.length(); i++) {
+                final JSONObject recording = recordings.getJSONObject(i);
+                result[i] = Recording.builder()
+                        .id(recording.getString("id"))
+                        .title(recording.getString("title"))
+                        .length(recording.optInt("length", 0))
+                        .build();
+            }
+            return result;
+        }
+        catch (JSONException ex) {
+            throw new IOException(ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public RecordingGroups decodeRecordingsByArtist(InputStream body, Collection<String> artistIds,
+                                                    int perArtist) throws IOException {
+        try {
+            final RecordingGroups groups = new RecordingGroups(artistIds, perArtist);
+            final JSONArray recordings = parse(body).getJSONArray("recordings");
+            for (int i = 0; i < recordings.length(); i++) {
+                final JSONObject recording = recordings.getJSONObject(i);
+                groups.countRow();
+                final JSONArray credits = recording.optJSONArray("artist-credit");
+                if (credits == null) {
+                    continue;
+                }
+                final Recording song = Recording.builder()
+                        .id(recording.getString("id"))
+                        .title(recording.getString("title"))
+                        .length(recording.optInt("length", 0))
+                        .build();
+                for (int j = 0; j < credits.length(); j++) {
+                    final JSONObject artist = credits.getJSONObject(j).optJSONObject("artist");
+                    if (artist != null) {
+                        groups.add(artist.optString("id"), song);
+                    }
+                }
+            }
+            return groups;
+        }
+        catch (JSONException ex) {
+            throw new IOException(ex.getMessage(), ex);
+        }
+    }
+
+    private static JSONObject parse(InputStream body) {
+        return new JSONObject(new JSONTokener(new InputStreamReader(body, StandardCharsets.UTF_8)));
+    }
+}
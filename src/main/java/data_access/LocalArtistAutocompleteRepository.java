@@ -0,0 +1,88 @@
+package data_access;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import Use_case.autocomplete.AutocompleteDataAccessInterface;
+import data_transfer_object.Artist;
+import search_index.ArtistCompletionTrie;
+import search_index.ArtistSearcher;
+import search_index.LiveArtistIndex;
+
+/**
+ * Artist name completion from an in-memory trie over the local index. The trie is built in the background
+ * and rebuilt whenever replication has published a newer index snapshot; lookups keep using the previous
+ * trie meanwhile, so they never wait. Until the first trie is ready there are no suggestions.
+ */
+public class LocalArtistAutocompleteRepository implements AutocompleteDataAccessInterface {
+
+    private final LiveArtistIndex index;
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "artist-autocomplete-builder");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private final AtomicBoolean building = new AtomicBoolean();
+    private volatile Built built;
+
+    /**
+     * Constructor; starts building the trie at once.
+     * @param index the local index
+     */
+    public LocalArtistAutocompleteRepository(LiveArtistIndex index) {
+        this.index = index;
+        rebuildIfStale();
+    }
+
+    @Override
+    public CompletableFuture<Artist[]> suggestArtistsAsync(String prefix, int limit) {
+        rebuildIfStale();
+        final Built current = built;
+        if (current == null) {
+            return CompletableFuture.completedFuture(new Artist[0]);
+        }
+        // a trie lookup takes microseconds, so it runs on the caller's thread
+        final List<ArtistCompletionTrie.Completion> completions = current.trie.complete(prefix, limit);
+        final Artist[] artists = new Artist[completions.size()];
+        for (int i = 0; i < completions.size(); i++) {
+            final ArtistCompletionTrie.Completion completion = completions.get(i);
+            artists[i] = new Artist(completion.getId(), completion.getName(),
+                    completion.getCountry().isEmpty() ? "Unknown" : completion.getCountry(), 100,
+                    completion.getType().isEmpty() ? "N/A" : completion.getType(), false);
+        }
+        return CompletableFuture.completedFuture(artists);
+    }
+
+    private void rebuildIfStale() {
+        final ArtistSearcher snapshot = index.searcher();
+        final Built current = built;
+        if (current != null && current.source == snapshot || !building.compareAndSet(false, true)) {
+            return;
+        }
+        builder.execute(() -> {
+            try {
+                built = new Built(snapshot, ArtistCompletionTrie.build(snapshot));
+            }
+            finally {
+                building.set(false);
+            }
+        });
+    }
+
+    /**
+     * A trie and the index snapshot it was built from.
+     */
+    private static final class Built {
+        private final ArtistSearcher source;
+        private final ArtistCompletionTrie trie;
+
+        Built(ArtistSearcher source, ArtistCompletionTrie trie) {
+            this.source = source;
+            this.trie = trie;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package data_access;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import Use_case.artist_search.ArtistSearchAsyncDataAccessInterface;
+import Use_case.artist_search.ArtistSearchDataAccessInterface;
+import data_transfer_object.Artist;
+import search_index.ArtistSearcher;
+import search_index.LiveArtistIndex;
+
+/**
+ * Artist search served from the local index built from the MusicBrainz dump, without any network request.
+ * Each search runs against the index snapshot current when it starts, so replication never blocks it.
+ */
+public class LocalArtistSearchRepository implements ArtistSearchDataAccessInterface,
+        ArtistSearchAsyncDataAccessInterface {
+
+    private final LiveArtistIndex index;
+
+    /**
+     * Constructor.
+     * @param index the opened local index
+     */
+    public LocalArtistSearchRepository(LiveArtistIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public Artist[] getArtists(String artistName, String country, String type, int limit, int offset) {
+        final List<ArtistSearcher.Hit> hits = index.searcher().search(artistName, country, type, limit, offset);
+        final Artist[] artists = new Artist[hits.size()];
+        for (int i = 0; i < hits.size(); i++) {
+            final ArtistSearcher.Hit hit = hits.get(i);
+            artists[i] = new Artist(hit.getId(), hit.getName(),
+                    hit.getCountry().isEmpty() ? "Unknown" : hit.getCountry(), hit.getScore(),
+                    hit.getType().isEmpty() ? "N/A" : hit.getType(), false);
+        }
+        return artists;
+    }
+
+    @Override
+    public CompletableFuture<Artist[]> getArtistsAsync(String artistName, String country, String type, int limit,
+                                                       int offset) {
+        // the index is in memory, so searching on the caller's thread is cheaper than a hand-off
+        return ArtistSearchAsyncDataAccessInterface.fromBlocking(this)
+                .getArtistsAsync(artistName, country, type, limit, offset);
+    }
+}
@@ -1,78 +1,82 @@
 package data_access;
 
 import java.io.IOException;
-import java.util.UUID;
-
-import org.json.JSONArray;
-import org.json.JSONObject;
-
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import Use_case.artist_search.ArtistSearchAsyncDataAccessInterface;
 import Use_case.artist_search.ArtistSearchDataAccessInterface;
+import Use_case.read_from_db.ReadSongAsyncDataAccessInterface;
 import Use_case.read_from_db.ReadSongDataAccessInterface;
+import config.ApplicationConfig;
 import data_transfer_object.Artist;
 import data_transfer_object.Recording;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
+import okhttp3.HttpUrl;
 import okhttp3.Response;
 
 /**
  * The data access object of musicBrainz artist repository.
  */
 public class MusicBrainzArtistRepository implements ArtistSearchDataAccessInterface,
-        ReadSongDataAccessInterface {
+        ArtistSearchAsyncDataAccessInterface, ReadSongDataAccessInterface, ReadSongAsyncDataAccessInterface {
+
+    private static final int TOP_SONGS = 10;
+    // the search endpoint returns at most 100 results, room for ten artists' top songs
+    private static final int BATCH_ARTISTS = 10;
+    private static final int BATCH_LIMIT = TOP_SONGS * BATCH_ARTISTS;
+
+    private final MusicBrainzHttpClient client;
+    private final RequestPriority priority;
+    private final String callerId;
+    private final MusicBrainzResponseDecoder decoder;
 
-    private static final String BASE_URL = "https://musicbrainz.org/ws/2";
-    private static final String FORMAT = "fmt=json";
+    public MusicBrainzArtistRepository(MusicBrainzHttpClient client) {
+        this(client, RequestPriority.INTERACTIVE, "artist-search");
+    }
+
+    public MusicBrainzArtistRepository(MusicBrainzHttpClient client, RequestPriority priority, String callerId) {
+        this(client, priority, callerId,
+                MusicBrainzResponseDecoder.named(ApplicationConfig.getMusicBrainzDecoder("ARTIST")));
+    }
+
+    /**
+     * Constructor.
+     * @param client the shared MusicBrainz client
+     * @param priority the governor lane this repository's requests use
+     * @param callerId identifies the owner of this repository for fair scheduling
+     * @param decoder turns response bodies into artists and recordings
+     */
+    public MusicBrainzArtistRepository(MusicBrainzHttpClient client, RequestPriority priority, String callerId,
+                                       MusicBrainzResponseDecoder decoder) {
+        this.client = client;
+        this.priority = priority;
+        this.callerId = callerId;
+        this.decoder = decoder;
+    }
 
     /**
      * Return the list of artists.
      * @param artistName artist name
      * @param country country of interest
+     * @param type artist type such as "Group" or "Person"; blank for any type
      * @param limit limit
      * @param offset offset
      * @return the list of artists.
      * @throws RuntimeException if there is error fetching artists.
      */
-    public Artist[] getArtists(String artistName, String country, int limit, int offset) {
-        final OkHttpClient client = new OkHttpClient();
-        final StringBuilder queryBuilder = new StringBuilder(BASE_URL + "/artist/?query=");
-
-        if (artistName != null && !artistName.isEmpty()) {
-            queryBuilder.append("artist:").append(artistName).append(" ");
-        }
-        if (country != null && !country.isEmpty()) {
-            queryBuilder.append("AND country:").append(country).append(" ");
-        }
+    public Artist[] getArtists(String artistName, String country, String type, int limit, int offset) {
+        final HttpUrl url = artistSearchUrl(artistName, country, type, limit, offset);
 
-        queryBuilder.append(String.format("&%s&limit=%d&offset=%d", FORMAT, limit, offset));
-
-        try {
-            final Request request = new Request.Builder()
-                    .url(queryBuilder.toString())
-                    .addHeader("User-Agent", "MusicRating/1.0.0 (delfen.gamma@gmail.com)")
-                    .build();
-
-            final Response response = client.newCall(request).execute();
-            final JSONObject responseBody = new JSONObject(response.body().string());
-            final JSONArray artists = responseBody.getJSONArray("artists");
-
-            final Artist[] result = new Artist[artists.length()];
-            for (int i = 0; i < artists.length(); i++) {
-                final JSONObject artist = artists.getJSONObject(i);
-
-                // Extract artist ID from the response or generate one if not available
-                final String id = artist.optString("id", UUID.randomUUID().toString());
-
-                result[i] = Artist.builder()
-                        // Use the extracted or generated ID
-                        .id(id)
-                        .artistName(artist.getString("name"))
-                        .type(artist.optString("type", "N/A"))
-                        .score(artist.optInt("score", 0))
-                        .country(artist.optString("country", "Unknown"))
-                        .build();
+        try (Response response = client.get(url, priority, callerId)) {
+            if (!response.isSuccessful()) {
+                throw new IOException("MusicBrainz answered HTTP " + response.code());
             }
-
-            return result;
+            return decoder.decodeArtists(response.body().byteStream());
         }
 
         catch (Exception ex) {
@@ -80,45 +84,141 @@ public class MusicBrainzArtistRepository implements ArtistSearchDataAccessInterf
         }
     }
 
+    @Override
+    public CompletableFuture<Artist[]> getArtistsAsync(String artistName, String country, String type, int limit,
+                                                       int offset) {
+        return client.getAsync(artistSearchUrl(artistName, country, type, limit, offset), priority, callerId,
+                response -> decoder.decodeArtists(response.body().byteStream()));
+    }
+
     @Override
     public Recording[] readTopSongs(String artistID) {
-        final OkHttpClient client = new OkHttpClient();
-        final String queryUrl = String.format("%s/recording?artist=%s&limit=10&%s", BASE_URL, artistID, FORMAT);
-
-        try {
-            final Request request = new Request.Builder()
-                    .url(queryUrl)
-                    .addHeader("User-Agent", "MusicRating/1.0.0 (delfen.gamma@gmail.com)")
-                    .build();
-
-            final Response response = client.newCall(request).execute();
-            final JSONObject responseBody = new JSONObject(response.body().string());
-
-            final JSONArray recordings = responseBody.getJSONArray("recordings");
-            final Recording[] result = new Recording[recordings.length()];
-
-            for (int i = 0; i < recordings.length(); i++) {
-                final JSONObject recording = recordings.getJSONObject(i);
-
-                // Extract the recording details
-                final String title = recording.getString("title");
-                final String id = recording.getString("id");
-                final int length = recording.optInt("length", 0);
-
-                // Assuming Recording is an entity with a builder pattern
-                result[i] = Recording.builder()
-                        .id(id)
-                        .title(title)
-                        .length(length)
-                        .build();
+        try (Response response = client.get(topSongsUrl(artistID), priority, callerId)) {
+            if (!response.isSuccessful()) {
+                throw new IOException("MusicBrainz answered HTTP " + response.code());
+            }
+            return decoder.decodeRecordings(response.body().byteStream());
+        }
+
+        catch (IOException ex) {
+            throw new RuntimeException("Error fetching songs: " + ex.getMessage());
+        }
+    }
+
+    @Override
+    public CompletableFuture<Recording[]> readTopSongsAsync(String artistID) {
+        return client.getAsync(topSongsUrl(artistID), priority, callerId,
+                response -> decoder.decodeRecordings(response.body().byteStream()));
+    }
+
+    /**
+     * Read the top songs of several artists with one recording search per ten artists.
+     * When a shared page comes back full, an artist it holds fewer than ten songs for may have been crowded
+     * out by a prolific neighbour, so that artist is read on its own.
+     * @param artistIDs the artist MBIDs
+     * @return a future of the recordings of each artist, keyed by MBID in request order.
+     */
+    @Override
+    public CompletableFuture<Map<String, Recording[]>> readTopSongsAsync(List<String> artistIDs) {
+        final List<String> distinct = new ArrayList<>(new LinkedHashSet<>(artistIDs));
+        final List<CompletableFuture<Map<String, Recording[]>>> batches = new ArrayList<>();
+        for (int start = 0; start < distinct.size(); start += BATCH_ARTISTS) {
+            batches.add(readBatch(distinct.subList(start, Math.min(start + BATCH_ARTISTS, distinct.size()))));
+        }
+        final CompletableFuture<Map<String, Recording[]>> result = CompletableFuture
+                .allOf(batches.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> {
+                    final Map<String, Recording[]> merged = new LinkedHashMap<>();
+                    batches.forEach(batch -> merged.putAll(batch.join()));
+                    return merged;
+                });
+        result.whenComplete((value, ex) -> {
+            if (ex != null) {
+                batches.forEach(batch -> batch.cancel(true));
             }
+        });
+        return result;
+    }
 
+    private CompletableFuture<Map<String, Recording[]>> readBatch(List<String> artistIDs) {
+        if (artistIDs.size() == 1) {
+            final String artistID = artistIDs.get(0);
+            final CompletableFuture<Recording[]> songs = readTopSongsAsync(artistID);
+            final CompletableFuture<Map<String, Recording[]>> result = songs.thenApply(
+                    recordings -> Map.of(artistID, recordings));
+            Futures.propagateCancellation(result, songs);
             return result;
+        }
+        final List<String> batch = List.copyOf(artistIDs);
+        final CompletableFuture<RecordingGroups> page = client.getAsync(topSongsUrl(batch, BATCH_LIMIT), priority,
+                callerId, response -> decoder.decodeRecordingsByArtist(response.body().byteStream(), batch, TOP_SONGS));
+        final CompletableFuture<Map<String, Recording[]>> result = page.thenCompose(this::fillCrowdedOut);
+        Futures.propagateCancellation(result, page);
+        return result;
+    }
+
+    private CompletableFuture<Map<String, Recording[]>> fillCrowdedOut(RecordingGroups page) {
+        final Map<String, Recording[]> grouped = page.toMap();
+        // a page short of the limit holds every match, so its short lists are complete
+        if (page.rows() < BATCH_LIMIT) {
+            return CompletableFuture.completedFuture(grouped);
+        }
+        final Map<String, CompletableFuture<Recording[]>> retries = new LinkedHashMap<>();
+        grouped.forEach((artistID, songs) -> {
+            if (songs.length < TOP_SONGS) {
+                retries.put(artistID, readTopSongsAsync(artistID));
+            }
+        });
+        if (retries.isEmpty()) {
+            return CompletableFuture.completedFuture(grouped);
+        }
+        return CompletableFuture.allOf(retries.values().toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            final Map<String, Recording[]> filled = new LinkedHashMap<>(grouped);
+            retries.forEach((artistID, read) -> filled.put(artistID, read.join()));
+            return filled;
+        });
+    }
 
+    private HttpUrl artistSearchUrl(String artistName, String country, String type, int limit, int offset) {
+        final List<String> clauses = new ArrayList<>();
+
+        if (artistName != null && !artistName.isBlank()) {
+            clauses.add("artist:" + artistName.trim());
+        }
+        if (country != null && !country.isBlank()) {
+            clauses.add("country:" + country.trim());
+        }
+        // filter on the server so every fetched row matches and offsets stay aligned with MusicBrainz
+        if (type != null && !type.isBlank() && !"Any".equalsIgnoreCase(type.trim())) {
+            clauses.add("type:" + type.trim().toLowerCase(Locale.ROOT));
         }
 
-        catch (IOException | org.json.JSONException ex) {
-            throw new RuntimeException("Error fetching songs: " + ex.getMessage());
+        return client.url("artist/")
+                .addQueryParameter("query", String.join(" AND ", clauses))
+                .addQueryParameter("limit", String.valueOf(limit))
+                .addQueryParameter("offset", String.valueOf(offset))
+                .build();
+    }
+
+    /**
+     * Search recordings by artist MBID, for one artist as for a batch, so an artist's top songs come back
+     * in the same relevance order whichever way it was read.
+     */
+    private HttpUrl topSongsUrl(String artistID) {
+        return topSongsUrl(List.of(artistID), TOP_SONGS);
+    }
+
+    private HttpUrl topSongsUrl(List<String> artistIDs, int limit) {
+        final StringBuilder query = new StringBuilder();
+        for (String artistID : artistIDs) {
+            if (query.length() > 0) {
+                query.append(" OR ");
+            }
+            query.append("arid:\"").append(artistID).append('"');
         }
+        return client.url("recording")
+                .addQueryParameter("query", query.toString())
+                .addQueryParameter("limit", String.valueOf(limit))
+                .build();
     }
 }
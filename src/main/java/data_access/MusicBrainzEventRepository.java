@@ -1,24 +1,69 @@
 package data_access;
 
+import Use_case.event_search.EventSearchAsyncDataAccessInterface;
 import Use_case.event_search.EventSearchDataAccessInterface;
+import config.ApplicationConfig;
 import data_transfer_object.Event;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
+import okhttp3.HttpUrl;
 import okhttp3.Response;
-import org.json.JSONArray;
-import org.json.JSONObject;
 
-import java.util.UUID;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
-public class MusicBrainzEventRepository implements EventSearchDataAccessInterface {
+public class MusicBrainzEventRepository implements EventSearchDataAccessInterface,
+        EventSearchAsyncDataAccessInterface {
 
-    private static final String BASE_URL = "https://musicbrainz.org/ws/2";
-    private static final String FORMAT = "fmt=json";
+    private final MusicBrainzHttpClient client;
+    private final RequestPriority priority;
+    private final String callerId;
+    private final MusicBrainzResponseDecoder decoder;
+
+    public MusicBrainzEventRepository(MusicBrainzHttpClient client) {
+        this(client, RequestPriority.INTERACTIVE, "event-search");
+    }
+
+    public MusicBrainzEventRepository(MusicBrainzHttpClient client, RequestPriority priority, String callerId) {
+        this(client, priority, callerId,
+                MusicBrainzResponseDecoder.named(ApplicationConfig.getMusicBrainzDecoder("EVENT")));
+    }
+
+    /**
+     * Constructor.
+     * @param client the shared MusicBrainz client
+     * @param priority the governor lane this repository's requests use
+     * @param callerId identifies the owner of this repository for fair scheduling
+     * @param decoder turns response bodies into events
+     */
+    public MusicBrainzEventRepository(MusicBrainzHttpClient client, RequestPriority priority, String callerId,
+                                      MusicBrainzResponseDecoder decoder) {
+        this.client = client;
+        this.priority = priority;
+        this.callerId = callerId;
+        this.decoder = decoder;
+    }
 
     @Override
     public Event[] getEvents(String eventName, String location, int limit, int offset) {
-        OkHttpClient client = new OkHttpClient();
-        StringBuilder queryBuilder = new StringBuilder(BASE_URL + "/event/?query=");
+        HttpUrl url = eventSearchUrl(eventName, location, limit, offset);
+
+        try (Response response = client.get(url, priority, callerId)) {
+            if (!response.isSuccessful()) {
+                throw new IOException("MusicBrainz answered HTTP " + response.code());
+            }
+            return decoder.decodeEvents(response.body().byteStream());
+        } catch (Exception e) {
+            throw new RuntimeException("Error fetching events: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public CompletableFuture<Event[]> getEventsAsync(String eventName, String location, int limit, int offset) {
+        return client.getAsync(eventSearchUrl(eventName, location, limit, offset), priority, callerId,
+                response -> decoder.decodeEvents(response.body().byteStream()));
+    }
+
+    private HttpUrl eventSearchUrl(String eventName, String location, int limit, int offset) {
+        StringBuilder queryBuilder = new StringBuilder();
 
         if (eventName != null && !eventName.isEmpty()) {
             queryBuilder.append("event:").append(eventName).append(" ");
@@ -27,77 +72,10 @@ public class MusicBrainzEventRepository implements EventSearchDataAccessInterfac
             queryBuilder.append("AND area:").append(location).append(" ");
         }
 
-        queryBuilder.append(String.format("&%s&limit=%d&offset=%d", FORMAT, limit, offset));
-
-        try {
-
-            Request request = new Request.Builder()
-                    .url(queryBuilder.toString())
-                    .addHeader("User-Agent", "MusicRating/1.0.0 (your-email@example.com)")
-                    .build();
-
-            Response response = client.newCall(request).execute();
-            String responseBodyString = response.body().string();
-
-            JSONObject responseBody = new JSONObject(responseBodyString);
-
-            JSONArray eventsArray = responseBody.getJSONArray("events");
-
-            Event[] result = new Event[eventsArray.length()];
-            for (int i = 0; i < eventsArray.length(); i++) {
-                JSONObject eventJson = eventsArray.getJSONObject(i);
-
-                String id = eventJson.optString("id", UUID.randomUUID().toString());
-                String name = eventJson.optString("name", "Unknown Event");
-                String type = eventJson.optString("type", "Unknown Type");
-                String beginDate = eventJson.optString("life-span.begin", "Unknown Begin Date");
-                String endDate = eventJson.optString("life-span.end", "Unknown End Date");
-                String time = eventJson.optString("time", "Unknown Time");
-                String placeName = "Unknown Place";
-                String placeId = UUID.randomUUID().toString();
-                String artistName = "Unknown Artist";
-                String artistId = UUID.randomUUID().toString();
-                int score = eventJson.optInt("score", 0);
-
-                // Get place information if available
-                if (eventJson.has("place")) {
-                    JSONObject placeJson = eventJson.getJSONObject("place");
-                    placeName = placeJson.optString("name", placeName);
-                    placeId = placeJson.optString("id", placeId);
-                }
-
-                // Get artist information if available
-                if (eventJson.has("relations")) {
-                    JSONArray relations = eventJson.getJSONArray("relations");
-                    for (int j = 0; j < relations.length(); j++) {
-                        JSONObject relation = relations.getJSONObject(j);
-                        if ("artist".equals(relation.optString("type"))) {
-                            JSONObject artist = relation.getJSONObject("artist");
-                            artistName = artist.optString("name", artistName);
-                            artistId = artist.optString("id", artistId);
-                            break;
-                        }
-                    }
-                }
-
-                result[i] = Event.builder()
-                        .id(id)
-                        .name(name)
-                        .type(type)
-                        .beginDate(beginDate)
-                        .endDate(endDate)
-                        .time(time)
-                        .placeName(placeName)
-                        .placeId(placeId)
-                        .artistName(artistName)
-                        .artistId(artistId)
-                        .score(score)
-                        .build();
-            }
-
-            return result;
-        } catch (Exception e) {
-            throw new RuntimeException("Error fetching events: " + e.getMessage());
-        }
+        return client.url("event/")
+                .addQueryParameter("query", queryBuilder.toString().trim())
+                .addQueryParameter("limit", String.valueOf(limit))
+                .addQueryParameter("offset", String.valueOf(offset))
+                .build();
     }
 }
@@ -0,0 +1,542 @@
+package data_access;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import config.ApplicationConfig;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Okio;
+
+/**
+ * The HTTP client shared by every MusicBrainz repository.
+ * One instance owns the connection pool and dispatcher threads, so repeated
+ * searches reuse warm keep-alive (or HTTP/2) connections instead of paying for
+ * a new pool and TLS handshake on every call. Every call first takes a permit
+ * from the {@link MusicBrainzRateGovernor}, and throttled (503) answers are
+ * retried after backing the whole governor off.
+ * When a {@link DiskResponseStore} is attached, fresh stored responses are served without touching
+ * the network or the governor, stale ones are revalidated with If-None-Match/If-Modified-Since, and
+ * a stored response is served whenever the network fails or the client is offline.
+ */
+public class MusicBrainzHttpClient {
+
+    // larger bodies are streamed to the caller without being kept, so storing never buffers them whole
+    private static final long MAX_STORED_BODY_BYTES = 1024 * 1024;
+
+    private final OkHttpClient client;
+    private final ConnectionPool connectionPool;
+    private final HttpUrl baseUrl;
+    private final String userAgent;
+    private final MusicBrainzRateGovernor governor;
+    private final int maxRetries;
+    private final DiskResponseStore store;
+    private final boolean offline;
+    private final long defaultFreshMillis;
+
+    private final AtomicLong handshakeCount = new AtomicLong();
+    private final AtomicLong connectionsOpened = new AtomicLong();
+    private final AtomicLong callCount = new AtomicLong();
+    private final AtomicLong storeHits = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+    private final AtomicLong staleServed = new AtomicLong();
+
+    public MusicBrainzHttpClient() {
+        this(ApplicationConfig.getMusicBrainzBaseUrl(), ApplicationConfig.getMusicBrainzUserAgent(),
+                new MusicBrainzRateGovernor(), openStore(), ApplicationConfig.isMusicBrainzOffline());
+    }
+
+    public MusicBrainzHttpClient(String baseUrl, String userAgent, MusicBrainzRateGovernor governor) {
+        this(baseUrl, userAgent, governor, null, false);
+    }
+
+    /**
+     * Constructor.
+     * @param baseUrl the web service root
+     * @param userAgent the User-Agent MusicBrainz requires
+     * @param governor the rate governor every network call goes through
+     * @param store the durable response store, or null to always use the network
+     * @param offline if true, only stored responses are served
+     */
+    public MusicBrainzHttpClient(String baseUrl, String userAgent, MusicBrainzRateGovernor governor,
+                                 DiskResponseStore store, boolean offline) {
+        this.baseUrl = HttpUrl.get(baseUrl);
+        this.userAgent = userAgent;
+        this.governor = governor;
+        this.store = store;
+        this.offline = offline;
+        this.defaultFreshMillis = TimeUnit.SECONDS.toMillis(ApplicationConfig.getMusicBrainzStoreFreshSeconds());
+        this.maxRetries = ApplicationConfig.getMusicBrainzMaxRetries();
+        this.connectionPool = new ConnectionPool(ApplicationConfig.getMusicBrainzMaxIdleConnections(),
+                ApplicationConfig.getMusicBrainzKeepAliveSeconds(), TimeUnit.SECONDS);
+        final int timeout = ApplicationConfig.getMusicBrainzTimeoutSeconds();
+        this.client = new OkHttpClient.Builder()
+                .connectionPool(connectionPool)
+                .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .retryOnConnectionFailure(true)
+                .connectTimeout(timeout, TimeUnit.SECONDS)
+                .readTimeout(timeout, TimeUnit.SECONDS)
+                .eventListener(new StatisticsListener())
+                .build();
+    }
+
+    /**
+     * Start a URL under the MusicBrainz web service root, asking for JSON.
+     * @param path the resource path, e.g. "artist/"
+     * @return a url builder with the format parameter already set.
+     */
+    public HttpUrl.Builder url(String path) {
+        return baseUrl.newBuilder()
+                .addPathSegments(path)
+                .addQueryParameter("fmt", "json");
+    }
+
+    /**
+     * Execute a GET against MusicBrainz on the shared connection pool, once the rate governor allows it.
+     * The caller owns the returned response and must close it.
+     * @param url the full request url
+     * @param priority the scheduling lane
+     * @param callerId identifies the caller for fair scheduling
+     * @return the response.
+     * @throws IOException if the call fails or is rejected by the governor.
+     */
+    public Response get(HttpUrl url, RequestPriority priority, String callerId) throws IOException {
+        final Request request = newRequest(url);
+        final DiskResponseStore.Entry stored = lookup(url);
+        if (stored != null && (offline || stored.isFresh(System.currentTimeMillis()))) {
+            storeHits.incrementAndGet();
+            return storedResponse(request, stored);
+        }
+        if (offline) {
+            throw new IOException("Offline and no stored response for " + url);
+        }
+        try {
+            return remember(request, stored, send(conditional(request, stored), priority, callerId));
+        }
+        catch (IOException ex) {
+            if (stored == null) {
+                throw ex;
+            }
+            staleServed.incrementAndGet();
+            return storedResponse(request, stored);
+        }
+    }
+
+    private Response send(Request request, RequestPriority priority, String callerId) throws IOException {
+        int attempt = 0;
+        while (true) {
+            try {
+                governor.acquire(priority, callerId);
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for a MusicBrainz permit.");
+            }
+            catch (RejectedExecutionException ex) {
+                throw new IOException(ex.getMessage(), ex);
+            }
+            callCount.incrementAndGet();
+            final Response response = client.newCall(request).execute();
+            if (!isThrottled(response) || attempt++ >= maxRetries) {
+                return response;
+            }
+            governor.backOff(retryAfterMillis(response));
+            response.close();
+        }
+    }
+
+    /**
+     * Execute a GET without blocking: the permit is awaited in the governor queue and the call is
+     * enqueued on OkHttp's dispatcher. Completing the returned future early (cancel, or a timeout
+     * via {@link CompletableFuture#orTimeout}) gives up the queue slot or cancels the in-flight call.
+     * @param url the full request url
+     * @param priority the scheduling lane
+     * @param callerId identifies the caller for fair scheduling
+     * @param handler turns a successful response into the result; the client closes the response
+     * @param <T> the result type
+     * @return a future of the handled response.
+     */
+    public <T> CompletableFuture<T> getAsync(HttpUrl url, RequestPriority priority, String callerId,
+                                             ResponseHandler<T> handler) {
+        final Request request = newRequest(url);
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final DiskResponseStore.Entry stored = lookup(url);
+        if (stored != null && (offline || stored.isFresh(System.currentTimeMillis()))) {
+            storeHits.incrementAndGet();
+            handleStored(request, stored, handler, result);
+            return result;
+        }
+        if (offline) {
+            result.completeExceptionally(new IOException("Offline and no stored response for " + url));
+            return result;
+        }
+        sendAsync(request, stored, priority, callerId, handler, 0, result);
+        return result;
+    }
+
+    private <T> void sendAsync(Request request, DiskResponseStore.Entry stored, RequestPriority priority,
+                               String callerId, ResponseHandler<T> handler, int attempt,
+                               CompletableFuture<T> result) {
+        final CompletableFuture<Long> permit = governor.schedule(priority, callerId);
+        result.whenComplete((value, ex) -> permit.cancel(false));
+        permit.whenComplete((waited, permitError) -> {
+            if (permitError != null) {
+                fallBack(request, stored, handler, result, permitError);
+                return;
+            }
+            if (result.isDone()) {
+                return;
+            }
+            callCount.incrementAndGet();
+            final Call call = client.newCall(conditional(request, stored));
+            result.whenComplete((value, ex) -> {
+                if (ex != null) {
+                    call.cancel();
+                }
+            });
+            call.enqueue(new Callback() {
+                @Override
+                public void onFailure(Call failed, IOException ex) {
+                    fallBack(request, stored, handler, result, ex);
+                }
+
+                @Override
+                public void onResponse(Call succeeded, Response response) {
+                    try (response) {
+                        if (isThrottled(response) && attempt < maxRetries && !result.isDone()) {
+                            governor.backOff(retryAfterMillis(response));
+                            sendAsync(request, stored, priority, callerId, handler, attempt + 1, result);
+                            return;
+                        }
+                        try (Response usable = remember(request, stored, response)) {
+                            if (!usable.isSuccessful()) {
+                                throw new IOException("MusicBrainz answered HTTP " + usable.code());
+                            }
+                            result.complete(handler.handle(usable));
+                        }
+                    }
+                    catch (IOException | RuntimeException ex) {
+                        result.completeExceptionally(ex);
+                    }
+                }
+            });
+        });
+    }
+
+    private <T> void fallBack(Request request, DiskResponseStore.Entry stored, ResponseHandler<T> handler,
+                              CompletableFuture<T> result, Throwable error) {
+        if (stored == null || result.isDone()) {
+            result.completeExceptionally(error);
+            return;
+        }
+        staleServed.incrementAndGet();
+        handleStored(request, stored, handler, result);
+    }
+
+    private <T> void handleStored(Request request, DiskResponseStore.Entry stored, ResponseHandler<T> handler,
+                                  CompletableFuture<T> result) {
+        try (Response response = storedResponse(request, stored)) {
+            result.complete(handler.handle(response));
+        }
+        catch (IOException | RuntimeException ex) {
+            result.completeExceptionally(ex);
+        }
+    }
+
+    private Request newRequest(HttpUrl url) {
+        return new Request.Builder()
+                .url(url)
+                .header("User-Agent", userAgent)
+                .header("Accept", "application/json")
+                .build();
+    }
+
+    private DiskResponseStore.Entry lookup(HttpUrl url) {
+        return store == null ? null : store.get(url.toString());
+    }
+
+    private static Request conditional(Request request, DiskResponseStore.Entry stored) {
+        if (stored == null) {
+            return request;
+        }
+        final Request.Builder builder = request.newBuilder();
+        if (stored.getEtag() != null) {
+            builder.header("If-None-Match", stored.getEtag());
+        }
+        if (stored.getLastModified() != null) {
+            builder.header("If-Modified-Since", stored.getLastModified());
+        }
+        return builder.build();
+    }
+
+    private static Response storedResponse(Request request, DiskResponseStore.Entry stored) {
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .body(ResponseBody.create(stored.getBody(), MediaType.get("application/json")))
+                .build();
+    }
+
+    /**
+     * Record a network response in the store and return the response the caller should read.
+     * A 304 refreshes the stored entry, a server error falls back to it, and a 2xx body is stored once
+     * the caller has read it, unless the server forbids it or it is over the size limit.
+     */
+    private Response remember(Request request, DiskResponseStore.Entry stored, Response response)
+            throws IOException {
+        if (store == null) {
+            return response;
+        }
+        final String key = request.url().toString();
+        if (response.code() == 304 && stored != null) {
+            response.close();
+            revalidations.incrementAndGet();
+            final String etag = response.header("ETag", stored.getEtag());
+            final String lastModified = response.header("Last-Modified", stored.getLastModified());
+            store.put(key, stored.getBody(), etag, lastModified, freshUntil(response));
+            return storedResponse(request, stored);
+        }
+        if (!response.isSuccessful()) {
+            if (stored != null && response.code() >= 500) {
+                response.close();
+                staleServed.incrementAndGet();
+                return storedResponse(request, stored);
+            }
+            return response;
+        }
+        if (response.cacheControl().noStore()) {
+            return response;
+        }
+        final ResponseBody body = response.body();
+        final String etag = response.header("ETag");
+        final String lastModified = response.header("Last-Modified");
+        final long expiresAtMillis = freshUntil(response);
+        // the caller's decoder streams the body while a copy is taken for the store
+        final StoringSource storing = new StoringSource(body.source(), MAX_STORED_BODY_BYTES,
+                copy -> store.put(key, copy, etag, lastModified, expiresAtMillis));
+        return response.newBuilder()
+                .body(ResponseBody.create(Okio.buffer(storing), body.contentType(), body.contentLength()))
+                .build();
+    }
+
+    private long freshUntil(Response response) {
+        final int maxAge = response.cacheControl().maxAgeSeconds();
+        final long freshFor = maxAge >= 0 ? TimeUnit.SECONDS.toMillis(maxAge) : defaultFreshMillis;
+        return System.currentTimeMillis() + freshFor;
+    }
+
+    private static DiskResponseStore openStore() {
+        final String directory = ApplicationConfig.getMusicBrainzStoreDir();
+        if ("none".equalsIgnoreCase(directory)) {
+            return null;
+        }
+        try {
+            return DiskResponseStore.open(Paths.get(directory), ApplicationConfig.getMusicBrainzStoreMaxBytes());
+        }
+        catch (IOException ex) {
+            System.err.println("MusicBrainz response store unavailable: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Return the rate governor every call goes through.
+     * @return the governor, e.g. to read its queue metrics.
+     */
+    public MusicBrainzRateGovernor getGovernor() {
+        return governor;
+    }
+
+    private static boolean isThrottled(Response response) {
+        return response.code() == 503 || response.code() == 429;
+    }
+
+    private static long retryAfterMillis(Response response) {
+        final String retryAfter = response.header("Retry-After");
+        if (retryAfter != null) {
+            try {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+            }
+            catch (NumberFormatException ex) {
+                // An HTTP-date is allowed too; fall back to the default pause.
+            }
+        }
+        return TimeUnit.SECONDS.toMillis(1);
+    }
+
+    /**
+     * Return a snapshot of the connection pool, to confirm connections are being reused.
+     * @return the pool statistics.
+     */
+    public PoolStats getPoolStats() {
+        final int total = connectionPool.connectionCount();
+        final int idle = connectionPool.idleConnectionCount();
+        return new PoolStats(idle, total - idle, connectionsOpened.get(), handshakeCount.get(), callCount.get());
+    }
+
+    /**
+     * Return how often the response store saved or rescued a call.
+     * @return the store statistics.
+     */
+    public StoreStats getStoreStats() {
+        return new StoreStats(storeHits.get(), revalidations.get(), staleServed.get(),
+                store == null ? 0 : store.size(), store == null ? 0 : store.usedBytes());
+    }
+
+    /**
+     * Release pooled connections and dispatcher threads, and flush the response store.
+     */
+    public void shutdown() {
+        governor.shutdown();
+        client.dispatcher().executorService().shutdown();
+        connectionPool.evictAll();
+        if (store != null) {
+            try {
+                store.close();
+            }
+            catch (IOException ex) {
+                System.err.println("Could not close MusicBrainz response store: " + ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Turns a successful MusicBrainz response into a result.
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    public interface ResponseHandler<T> {
+        /**
+         * Handle the response.
+         * @param response a 2xx response; closed by the client afterwards
+         * @return the result.
+         * @throws IOException if the body cannot be read or decoded.
+         */
+        T handle(Response response) throws IOException;
+    }
+
+    /**
+     * Counts new connections and TLS handshakes; a reused connection triggers neither.
+     */
+    private class StatisticsListener extends EventListener {
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+            connectionsOpened.incrementAndGet();
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            handshakeCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Connection pool statistics.
+     */
+    public static final class PoolStats {
+        private final int idleConnections;
+        private final int activeConnections;
+        private final long connectionsOpened;
+        private final long handshakes;
+        private final long calls;
+
+        PoolStats(int idleConnections, int activeConnections, long connectionsOpened, long handshakes, long calls) {
+            this.idleConnections = idleConnections;
+            this.activeConnections = activeConnections;
+            this.connectionsOpened = connectionsOpened;
+            this.handshakes = handshakes;
+            this.calls = calls;
+        }
+
+        public int getIdleConnections() {
+            return idleConnections;
+        }
+
+        public int getActiveConnections() {
+            return activeConnections;
+        }
+
+        public long getConnectionsOpened() {
+            return connectionsOpened;
+        }
+
+        public long getHandshakes() {
+            return handshakes;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("idle=%d active=%d opened=%d handshakes=%d calls=%d",
+                    idleConnections, activeConnections, connectionsOpened, handshakes, calls);
+        }
+    }
+
+    /**
+     * Response store statistics.
+     */
+    public static final class StoreStats {
+        private final long freshHits;
+        private final long revalidations;
+        private final long staleServed;
+        private final int entries;
+        private final int usedBytes;
+
+        StoreStats(long freshHits, long revalidations, long staleServed, int entries, int usedBytes) {
+            this.freshHits = freshHits;
+            this.revalidations = revalidations;
+            this.staleServed = staleServed;
+            this.entries = entries;
+            this.usedBytes = usedBytes;
+        }
+
+        public long getFreshHits() {
+            return freshHits;
+        }
+
+        public long getRevalidations() {
+            return revalidations;
+        }
+
+        public long getStaleServed() {
+            return staleServed;
+        }
+
+        public int getEntries() {
+            return entries;
+        }
+
+        public int getUsedBytes() {
+            return usedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("fresh=%d revalidated=%d stale=%d entries=%d used=%d",
+                    freshHits, revalidations, staleServed, entries, usedBytes);
+        }
+    }
+}
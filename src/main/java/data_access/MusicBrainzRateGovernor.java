@@ -0,0 +1,346 @@
+package data_access;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import config.ApplicationConfig;
+
+/**
+ * Central token-bucket scheduler for MusicBrainz, which allows about one request per second per client.
+ * Callers queue for a permit in a bounded priority queue: interactive requests go ahead of prefetches,
+ * and within a lane callers are served round-robin (start-time fair queuing) so one busy window
+ * cannot starve the others. A single dispatcher thread hands out permits as tokens refill.
+ */
+public class MusicBrainzRateGovernor {
+
+    private static final Comparator<Ticket> ORDER = Comparator
+            .comparing((Ticket ticket) -> ticket.priority)
+            .thenComparingLong(ticket -> ticket.tag)
+            .thenComparingLong(ticket -> ticket.sequence);
+
+    private final double permitsPerNano;
+    private final double burst;
+    private final int queueCapacity;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final TreeSet<Ticket> queue = new TreeSet<>(ORDER);
+    private final Map<String, Long> callerTags = new HashMap<>();
+    private final Thread dispatcher;
+
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil;
+    private long virtualTime;
+    private long sequence;
+    private volatile boolean running = true;
+
+    // metrics, guarded by lock.
+    private long granted;
+    private long rejected;
+    private long throttled;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+    private int maxQueueDepth;
+
+    public MusicBrainzRateGovernor() {
+        this(ApplicationConfig.getMusicBrainzRequestsPerSecond(), ApplicationConfig.getMusicBrainzBurst(),
+                ApplicationConfig.getMusicBrainzQueueCapacity());
+    }
+
+    /**
+     * Constructor.
+     * @param permitsPerSecond sustained request rate
+     * @param burst how many permits may accumulate while idle
+     * @param queueCapacity how many callers may wait at once
+     */
+    public MusicBrainzRateGovernor(double permitsPerSecond, int burst, int queueCapacity) {
+        if (permitsPerSecond <= 0 || burst < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Rate, burst and queue capacity must be positive.");
+        }
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.queueCapacity = queueCapacity;
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+        this.dispatcher = new Thread(this::dispatchLoop, "musicbrainz-rate-governor");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * Queue for a permit. The returned future completes when the caller may send its request;
+     * cancelling it gives up the place in the queue.
+     * @param priority the scheduling lane
+     * @param callerId identifies the caller for fairness, e.g. one id per window
+     * @return a future completed with the time spent waiting, in nanoseconds.
+     */
+    public CompletableFuture<Long> schedule(RequestPriority priority, String callerId) {
+        final Ticket ticket;
+        Ticket evicted = null;
+        lock.lock();
+        try {
+            if (!running) {
+                return CompletableFuture.failedFuture(new RejectedExecutionException("Rate governor is shut down."));
+            }
+            if (queue.size() >= queueCapacity) {
+                final Ticket last = queue.last();
+                if (priority.compareTo(last.priority) >= 0) {
+                    rejected++;
+                    return CompletableFuture.failedFuture(
+                            new RejectedExecutionException("MusicBrainz request queue is full."));
+                }
+                // A waiting user outranks a speculative request: drop the lowest-priority ticket.
+                queue.remove(last);
+                rejected++;
+                evicted = last;
+            }
+            final long tag = Math.max(virtualTime, callerTags.getOrDefault(callerId, 0L)) + 1;
+            callerTags.put(callerId, tag);
+            ticket = new Ticket(priority, tag, sequence++);
+            queue.add(ticket);
+            maxQueueDepth = Math.max(maxQueueDepth, queue.size());
+            changed.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+        if (evicted != null) {
+            evicted.future.completeExceptionally(
+                    new RejectedExecutionException("Dropped in favour of an interactive MusicBrainz request."));
+        }
+        ticket.future.whenComplete((waited, ex) -> {
+            if (ticket.future.isCancelled()) {
+                remove(ticket);
+            }
+        });
+        return ticket.future;
+    }
+
+    /**
+     * Block until a permit is granted.
+     * @param priority the scheduling lane
+     * @param callerId identifies the caller for fairness
+     * @throws InterruptedException if interrupted while waiting.
+     * @throws RejectedExecutionException if the queue is full.
+     */
+    public void acquire(RequestPriority priority, String callerId) throws InterruptedException {
+        final CompletableFuture<Long> permit = schedule(priority, callerId);
+        try {
+            permit.get();
+        }
+        catch (InterruptedException ex) {
+            permit.cancel(false);
+            throw ex;
+        }
+        catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new RejectedExecutionException(ex.getCause());
+        }
+    }
+
+    /**
+     * Pause all dispatching after MusicBrainz signalled throttling (503 or Retry-After).
+     * @param delayMillis how long to hold back every caller
+     */
+    public void backOff(long delayMillis) {
+        lock.lock();
+        try {
+            throttled++;
+            pausedUntil = Math.max(pausedUntil, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis));
+            tokens = 0;
+            changed.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Return the queue and wait-time metrics.
+     * @return a snapshot of the metrics.
+     */
+    public Stats getStats() {
+        lock.lock();
+        try {
+            final long averageWait = granted == 0 ? 0 : totalWaitNanos / granted;
+            return new Stats(queue.size(), maxQueueDepth, granted, rejected, throttled,
+                    TimeUnit.NANOSECONDS.toMillis(averageWait), TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop dispatching and fail every waiting caller.
+     */
+    public void shutdown() {
+        lock.lock();
+        try {
+            running = false;
+            for (Ticket ticket : queue) {
+                ticket.future.completeExceptionally(new RejectedExecutionException("Rate governor is shut down."));
+            }
+            queue.clear();
+            changed.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(Ticket ticket) {
+        lock.lock();
+        try {
+            queue.remove(ticket);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            final Ticket next;
+            try {
+                next = takeNext();
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (next != null) {
+                // Complete outside the lock: dependants may run inline on this thread.
+                next.future.complete(next.waitedNanos);
+            }
+        }
+    }
+
+    private Ticket takeNext() throws InterruptedException {
+        lock.lock();
+        try {
+            while (running) {
+                if (queue.isEmpty()) {
+                    changed.await();
+                    continue;
+                }
+                final long now = System.nanoTime();
+                if (now < pausedUntil) {
+                    changed.awaitNanos(pausedUntil - now);
+                    continue;
+                }
+                tokens = Math.min(burst, tokens + (now - lastRefill) * permitsPerNano);
+                lastRefill = now;
+                if (tokens < 1) {
+                    changed.awaitNanos((long) Math.ceil((1 - tokens) / permitsPerNano));
+                    continue;
+                }
+                final Ticket ticket = queue.pollFirst();
+                if (ticket.future.isDone()) {
+                    continue;
+                }
+                tokens -= 1;
+                virtualTime = ticket.tag;
+                if (callerTags.size() > queueCapacity * 4) {
+                    callerTags.values().removeIf(tag -> tag <= virtualTime);
+                }
+                ticket.waitedNanos = now - ticket.enqueuedAt;
+                granted++;
+                totalWaitNanos += ticket.waitedNanos;
+                maxWaitNanos = Math.max(maxWaitNanos, ticket.waitedNanos);
+                return ticket;
+            }
+            return null;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A caller waiting for a permit.
+     */
+    private static final class Ticket {
+        private final RequestPriority priority;
+        private final long tag;
+        private final long sequence;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+        private long waitedNanos;
+
+        Ticket(RequestPriority priority, long tag, long sequence) {
+            this.priority = priority;
+            this.tag = tag;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Governor metrics.
+     */
+    public static final class Stats {
+        private final int queueDepth;
+        private final int maxQueueDepth;
+        private final long granted;
+        private final long rejected;
+        private final long throttled;
+        private final long averageWaitMillis;
+        private final long maxWaitMillis;
+
+        Stats(int queueDepth, int maxQueueDepth, long granted, long rejected, long throttled,
+              long averageWaitMillis, long maxWaitMillis) {
+            this.queueDepth = queueDepth;
+            this.maxQueueDepth = maxQueueDepth;
+            this.granted = granted;
+            this.rejected = rejected;
+            this.throttled = throttled;
+            this.averageWaitMillis = averageWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+        }
+
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        public int getMaxQueueDepth() {
+            return maxQueueDepth;
+        }
+
+        public long getGranted() {
+            return granted;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public long getThrottled() {
+            return throttled;
+        }
+
+        public long getAverageWaitMillis() {
+            return averageWaitMillis;
+        }
+
+        public long getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("queued=%d maxQueued=%d granted=%d rejected=%d throttled=%d avgWait=%dms maxWait=%dms",
+                    queueDepth, maxQueueDepth, granted, rejected, throttled, averageWaitMillis, maxWaitMillis);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package data_access;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+
+import data_transfer_object.Artist;
+import data_transfer_object.Event;
+import data_transfer_object.Recording;
+
+/**
+ * Turns a MusicBrainz JSON response body into data transfer objects.
+ * Implementations are interchangeable per repository so they can be compared in production.
+ */
+public interface MusicBrainzResponseDecoder {
+
+    /**
+     * Decode an artist search page.
+     * @param body the response body; the decoder does not close it
+     * @return the artists, in response order.
+     * @throws IOException if the body cannot be read or parsed.
+     */
+    Artist[] decodeArtists(InputStream body) throws IOException;
+
+    /**
+     * Decode an event search page.
+     * @param body the response body; the decoder does not close it
+     * @return the events, in response order.
+     * @throws IOException if the body cannot be read or parsed.
+     */
+    Event[] decodeEvents(InputStream body) throws IOException;
+
+    /**
+     * Decode a recording browse or search page.
+     * @param body the response body; the decoder does not close it
+     * @return the recordings, in response order.
+     * @throws IOException if the body cannot be read or parsed.
+     */
+    Recording[] decodeRecordings(InputStream body) throws IOException;
+
+    /**
+     * Decode a recording search page that mixes several artists and group it by credited artist.
+     * @param body the response body; the decoder does not close it
+     * @param artistIds the artists to group by; credits of other artists are ignored
+     * @param perArtist the most recordings kept per artist
+     * @return the recordings of each requested artist in response order, and the size of the page.
+     * @throws IOException if the body cannot be read or parsed.
+     */
+    RecordingGroups decodeRecordingsByArtist(InputStream body, Collection<String> artistIds, int perArtist)
+            throws IOException;
+
+    /**
+     * Return the decoder with the given name.
+     * @param name "tree" for the org.json path, anything else for the streaming decoder
+     * @return the decoder.
+     */
+    static MusicBrainzResponseDecoder named(String name) {
+        if ("tree".equalsIgnoreCase(name)) {
+            return new JsonTreeResponseDecoder();
+        }
+        return new StreamingResponseDecoder();
+    }
+}
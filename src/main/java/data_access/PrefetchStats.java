@@ -0,0 +1,78 @@
+package data_access;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of the next-page prefetch policy, shared by every listing window of one kind.
+ */
+public class PrefetchStats {
+
+    private final AtomicLong issued = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+
+    void recordIssued() {
+        issued.incrementAndGet();
+    }
+
+    void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    void recordDiscarded() {
+        discarded.incrementAndGet();
+    }
+
+    /**
+     * Return how many pages were fetched ahead of time.
+     * @return the prefetch count.
+     */
+    public long getIssued() {
+        return issued.get();
+    }
+
+    /**
+     * Return how many "Load more" pages were already prefetched.
+     * @return the hit count.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Return how many "Load more" pages had to be fetched on demand.
+     * @return the miss count.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Return how many prefetched pages were thrown away unused.
+     * @return the discarded count.
+     */
+    public long getDiscarded() {
+        return discarded.get();
+    }
+
+    /**
+     * Return the share of "Load more" pages served by a prefetch.
+     * @return the hit rate between 0 and 1.
+     */
+    public double getHitRate() {
+        final long hitCount = hits.get();
+        final long requests = hitCount + misses.get();
+        return requests == 0 ? 0 : (double) hitCount / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("issued=%d hits=%d misses=%d hitRate=%.2f discarded=%d",
+                getIssued(), getHits(), getMisses(), getHitRate(), getDiscarded());
+    }
+}
@@ -0,0 +1,66 @@
+package data_access;
+
+import java.util.concurrent.CompletableFuture;
+
+import Use_case.read_from_db.ReadAsyncDataAccessInterface;
+import Use_case.read_from_db.ReadPrefetchDataAccessInterface;
+import Use_case.read_from_db.ReadSongAsyncDataAccessInterface;
+import data_transfer_object.CommentPage;
+import data_transfer_object.Recording;
+
+/**
+ * Artist detail decorator that serves reads from the detail cache when a prefetch has already started
+ * them, and otherwise reads on demand. Only the newest comments page is prefetched; older pages are
+ * always read on demand. Prefetches go through their own repositories, e.g. the
+ * low-priority MusicBrainz lane, so they never hold up what a user is waiting on.
+ */
+public class PrefetchingArtistDetailRepository implements ReadAsyncDataAccessInterface,
+        ReadSongAsyncDataAccessInterface, ReadPrefetchDataAccessInterface {
+
+    private final ReadAsyncDataAccessInterface contents;
+    private final ReadSongAsyncDataAccessInterface topSongs;
+    private final ReadAsyncDataAccessInterface prefetchContents;
+    private final ReadSongAsyncDataAccessInterface prefetchTopSongs;
+    private final ArtistDetailCache cache;
+
+    /**
+     * Constructor.
+     * @param contents the ratings and comments repository for reads a user asked for
+     * @param topSongs the top songs repository for reads a user asked for
+     * @param prefetchContents the ratings and comments repository for prefetches
+     * @param prefetchTopSongs the low-priority top songs repository for prefetches
+     * @param cache where prefetched reads wait to be taken
+     */
+    public PrefetchingArtistDetailRepository(ReadAsyncDataAccessInterface contents,
+                                             ReadSongAsyncDataAccessInterface topSongs,
+                                             ReadAsyncDataAccessInterface prefetchContents,
+                                             ReadSongAsyncDataAccessInterface prefetchTopSongs,
+                                             ArtistDetailCache cache) {
+        this.contents = contents;
+        this.topSongs = topSongs;
+        this.prefetchContents = prefetchContents;
+        this.prefetchTopSongs = prefetchTopSongs;
+        this.cache = cache;
+    }
+
+    @Override
+    public void prefetch(String documentID, int commentsPageSize) {
+        cache.prefetch(documentID, () -> prefetchContents.readCommentsAsync(documentID, null, commentsPageSize),
+                () -> prefetchTopSongs.readTopSongsAsync(documentID));
+    }
+
+    @Override
+    public CompletableFuture<CommentPage> readCommentsAsync(String documentID, String cursor, int pageSize) {
+        if (cursor != null) {
+            return contents.readCommentsAsync(documentID, cursor, pageSize);
+        }
+        final CompletableFuture<CommentPage> prefetched = cache.takeComments(documentID);
+        return prefetched != null ? prefetched : contents.readCommentsAsync(documentID, null, pageSize);
+    }
+
+    @Override
+    public CompletableFuture<Recording[]> readTopSongsAsync(String documentID) {
+        final CompletableFuture<Recording[]> prefetched = cache.takeTopSongs(documentID);
+        return prefetched != null ? prefetched : topSongs.readTopSongsAsync(documentID);
+    }
+}
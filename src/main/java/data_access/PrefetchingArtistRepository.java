@@ -0,0 +1,48 @@
+package data_access;
+
+import java.util.concurrent.CompletableFuture;
+
+import Use_case.artist_search.ArtistSearchAsyncDataAccessInterface;
+import Use_case.artist_search.ArtistSearchDataAccessInterface;
+import data_transfer_object.Artist;
+
+/**
+ * Artist search decorator that fetches the next result pages in the background once a page arrives.
+ */
+public class PrefetchingArtistRepository implements ArtistSearchDataAccessInterface,
+        ArtistSearchAsyncDataAccessInterface {
+
+    private final ArtistSearchAsyncDataAccessInterface delegate;
+    private final ArtistSearchAsyncDataAccessInterface prefetchDelegate;
+    private final SearchPagePrefetcher<Artist[]> prefetcher;
+
+    /**
+     * Constructor.
+     * @param delegate the repository for pages the user asked for
+     * @param prefetchDelegate the low-priority repository for pages fetched ahead
+     * @param prefetcher the prefetch buffer of this window
+     */
+    public PrefetchingArtistRepository(ArtistSearchAsyncDataAccessInterface delegate,
+                                       ArtistSearchAsyncDataAccessInterface prefetchDelegate,
+                                       SearchPagePrefetcher<Artist[]> prefetcher) {
+        this.delegate = delegate;
+        this.prefetchDelegate = prefetchDelegate;
+        this.prefetcher = prefetcher;
+    }
+
+    @Override
+    public Artist[] getArtists(String artistName, String country, String type, int limit, int offset) {
+        return Futures.await(getArtistsAsync(artistName, country, type, limit, offset), "Error fetching artists");
+    }
+
+    @Override
+    public CompletableFuture<Artist[]> getArtistsAsync(String artistName, String country, String type, int limit,
+                                                       int offset) {
+        final SearchQueryKey key = new SearchQueryKey("artist", artistName, country, type, limit, offset);
+        final CompletableFuture<Artist[]> page = prefetcher.take(key,
+                () -> delegate.getArtistsAsync(artistName, country, type, limit, offset));
+        page.thenAccept(artists -> prefetcher.prefetchAfter(key, artists.length,
+                nextOffset -> prefetchDelegate.getArtistsAsync(artistName, country, type, limit, nextOffset)));
+        return page;
+    }
+}
@@ -0,0 +1,47 @@
+package data_access;
+
+import java.util.concurrent.CompletableFuture;
+
+import Use_case.event_search.EventSearchAsyncDataAccessInterface;
+import Use_case.event_search.EventSearchDataAccessInterface;
+import data_transfer_object.Event;
+
+/**
+ * Event search decorator that fetches the next result pages in the background once a page arrives.
+ */
+public class PrefetchingEventRepository implements EventSearchDataAccessInterface,
+        EventSearchAsyncDataAccessInterface {
+
+    private final EventSearchAsyncDataAccessInterface delegate;
+    private final EventSearchAsyncDataAccessInterface prefetchDelegate;
+    private final SearchPagePrefetcher<Event[]> prefetcher;
+
+    /**
+     * Constructor.
+     * @param delegate the repository for pages the user asked for
+     * @param prefetchDelegate the low-priority repository for pages fetched ahead
+     * @param prefetcher the prefetch buffer of this window
+     */
+    public PrefetchingEventRepository(EventSearchAsyncDataAccessInterface delegate,
+                                      EventSearchAsyncDataAccessInterface prefetchDelegate,
+                                      SearchPagePrefetcher<Event[]> prefetcher) {
+        this.delegate = delegate;
+        this.prefetchDelegate = prefetchDelegate;
+        this.prefetcher = prefetcher;
+    }
+
+    @Override
+    public Event[] getEvents(String eventName, String location, int limit, int offset) {
+        return Futures.await(getEventsAsync(eventName, location, limit, offset), "Error fetching events");
+    }
+
+    @Override
+    public CompletableFuture<Event[]> getEventsAsync(String eventName, String location, int limit, int offset) {
+        final SearchQueryKey key = new SearchQueryKey("event", eventName, location, limit, offset);
+        final CompletableFuture<Event[]> page = prefetcher.take(key,
+                () -> delegate.getEventsAsync(eventName, location, limit, offset));
+        page.thenAccept(events -> prefetcher.prefetchAfter(key, events.length,
+                nextOffset -> prefetchDelegate.getEventsAsync(eventName, location, limit, nextOffset)));
+        return page;
+    }
+}
@@ -0,0 +1,62 @@
+package data_access;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import data_transfer_object.Recording;
+
+/**
+ * Splits one combined recording page into per-artist top lists, keeping response order.
+ */
+public final class RecordingGroups {
+
+    private final Map<String, List<Recording>> groups = new LinkedHashMap<>();
+    private final int perArtist;
+    private int rows;
+
+    RecordingGroups(Collection<String> artistIds, int perArtist) {
+        this.perArtist = perArtist;
+        for (String artistId : artistIds) {
+            groups.put(artistId, new ArrayList<>());
+        }
+    }
+
+    /**
+     * Count one recording of the page, whoever it is credited to.
+     */
+    void countRow() {
+        rows++;
+    }
+
+    /**
+     * Credit a recording to an artist; ignored if the artist was not asked for or its list is full.
+     */
+    void add(String artistId, Recording recording) {
+        final List<Recording> group = groups.get(artistId);
+        if (group == null || group.size() >= perArtist || group.contains(recording)) {
+            return;
+        }
+        group.add(recording);
+    }
+
+    /**
+     * Return the number of recordings on the page, including those credited to no requested artist.
+     * @return the page size.
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * Return the recordings of each requested artist.
+     * @return the top lists keyed by artist MBID, in request order; empty if none were credited.
+     */
+    public Map<String, Recording[]> toMap() {
+        final Map<String, Recording[]> result = new LinkedHashMap<>();
+        groups.forEach((artistId, group) -> result.put(artistId, group.toArray(new Recording[0])));
+        return result;
+    }
+}
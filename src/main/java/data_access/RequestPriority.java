@@ -0,0 +1,12 @@
+package data_access;
+
+/**
+ * Scheduling lane of a MusicBrainz request.
+ * Requests a user is actively waiting on are always served before speculative ones.
+ */
+public enum RequestPriority {
+    /** A user is waiting on the result, e.g. a search or a detail click. */
+    INTERACTIVE,
+    /** Speculative work such as prefetching the next page; dropped first under load. */
+    PREFETCH
+}
@@ -0,0 +1,154 @@
+package data_access;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Next-page prefetch policy of one listing window.
+ * Once a full page has arrived, the following pages are requested in the background and parked in a
+ * small buffer, so "Load more" finds its page already loaded or in flight. A page still in flight when
+ * it is asked for is also requested in the user's lane, since a prefetch may wait behind every interactive
+ * request or be dropped for one; whichever arrives first is used. Starting a different search discards
+ * the pages buffered for the previous one.
+ * @param <V> the page type
+ */
+public class SearchPagePrefetcher<V> {
+
+    private final int depth;
+    private final int capacity;
+    private final PrefetchStats stats;
+    private final LinkedHashMap<SearchQueryKey, CompletableFuture<V>> buffer = new LinkedHashMap<>();
+
+    /**
+     * Constructor.
+     * @param depth how many pages to fetch ahead; 0 disables prefetching
+     * @param stats the counters to report into
+     */
+    public SearchPagePrefetcher(int depth, PrefetchStats stats) {
+        this.depth = Math.max(0, depth);
+        this.capacity = Math.max(1, 2 * this.depth);
+        this.stats = stats;
+    }
+
+    /**
+     * Hand over the buffered page for the key if one was prefetched, or load it on demand.
+     * @param key the requested page
+     * @param onDemand requests the page in the user's lane
+     * @return the prefetched page, or the page loaded on demand if it was not prefetched, or whichever
+     *         arrives first if the prefetch is still in flight.
+     */
+    public CompletableFuture<V> take(SearchQueryKey key, Supplier<CompletableFuture<V>> onDemand) {
+        final CompletableFuture<V> prefetched = takeBuffered(key);
+        if (prefetched == null) {
+            return onDemand.get();
+        }
+        if (prefetched.isDone()) {
+            return prefetched;
+        }
+        return firstOf(prefetched, onDemand.get());
+    }
+
+    private synchronized CompletableFuture<V> takeBuffered(SearchQueryKey key) {
+        if (key.getOffset() == 0) {
+            discardOtherSearches(key);
+            return null;
+        }
+        final CompletableFuture<V> page = buffer.remove(key);
+        if (page == null || page.isCompletedExceptionally()) {
+            stats.recordMiss();
+            return null;
+        }
+        stats.recordHit();
+        return page;
+    }
+
+    /**
+     * Return the page that loads first and cancel the other; fail only if both fail.
+     */
+    private static <V> CompletableFuture<V> firstOf(CompletableFuture<V> prefetched, CompletableFuture<V> onDemand) {
+        final CompletableFuture<V> page = new CompletableFuture<>();
+        final AtomicInteger failures = new AtomicInteger();
+        race(prefetched, onDemand, page, failures);
+        race(onDemand, prefetched, page, failures);
+        Futures.propagateCancellation(page, prefetched);
+        Futures.propagateCancellation(page, onDemand);
+        return page;
+    }
+
+    private static <V> void race(CompletableFuture<V> runner, CompletableFuture<V> other, CompletableFuture<V> page,
+                                 AtomicInteger failures) {
+        runner.whenComplete((value, ex) -> {
+            if (ex == null) {
+                if (page.complete(value)) {
+                    other.cancel(true);
+                }
+            }
+            else if (failures.incrementAndGet() == 2) {
+                page.completeExceptionally(ex);
+            }
+        });
+    }
+
+    /**
+     * Prefetch the pages after one that has just arrived.
+     * @param key the page that arrived
+     * @param pageLength how many results it held; a short page is the last one
+     * @param loader requests the page at the given offset in the background
+     */
+    public synchronized void prefetchAfter(SearchQueryKey key, int pageLength,
+                                           IntFunction<CompletableFuture<V>> loader) {
+        if (pageLength < key.getLimit()) {
+            return;
+        }
+        for (int ahead = 1; ahead <= depth; ahead++) {
+            final SearchQueryKey next = key.pagesAhead(ahead);
+            if (buffer.containsKey(next)) {
+                continue;
+            }
+            final CompletableFuture<V> page = loader.apply(next.getOffset());
+            stats.recordIssued();
+            buffer.put(next, page);
+            page.whenComplete((value, ex) -> {
+                if (ex != null) {
+                    forget(next, page);
+                }
+            });
+        }
+        evictOverflow();
+    }
+
+    private synchronized void forget(SearchQueryKey key, CompletableFuture<V> page) {
+        buffer.remove(key, page);
+    }
+
+    private void discardOtherSearches(SearchQueryKey key) {
+        final SearchQueryKey search = key.firstPage();
+        final Iterator<Map.Entry<SearchQueryKey, CompletableFuture<V>>> entries = buffer.entrySet().iterator();
+        while (entries.hasNext()) {
+            final Map.Entry<SearchQueryKey, CompletableFuture<V>> entry = entries.next();
+            if (!entry.getKey().firstPage().equals(search)) {
+                entries.remove();
+                discard(entry.getValue());
+            }
+        }
+    }
+
+    private void evictOverflow() {
+        final Iterator<CompletableFuture<V>> eldest = buffer.values().iterator();
+        while (buffer.size() > capacity && eldest.hasNext()) {
+            final CompletableFuture<V> page = eldest.next();
+            eldest.remove();
+            discard(page);
+        }
+    }
+
+    private void discard(CompletableFuture<V> page) {
+        stats.recordDiscarded();
+        page.cancel(true);
+    }
+}
@@ -0,0 +1,127 @@
+package data_access;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Normalised identity of one MusicBrainz search page.
+ * Two searches that differ only in case or surrounding whitespace map to the same key.
+ */
+public final class SearchQueryKey {
+
+    private final String kind;
+    private final String query;
+    private final String area;
+    private final String type;
+    private final int limit;
+    private final int offset;
+
+    /**
+     * Constructor.
+     * @param kind the searched entity, e.g. "artist" or "event"
+     * @param query the searched name
+     * @param area the country or location filter
+     * @param limit page size
+     * @param offset page start
+     */
+    public SearchQueryKey(String kind, String query, String area, int limit, int offset) {
+        this(kind, query, area, "", limit, offset);
+    }
+
+    /**
+     * Constructor.
+     * @param kind the searched entity, e.g. "artist" or "event"
+     * @param query the searched name
+     * @param area the country or location filter
+     * @param type the entity type filter; blank or "Any" for none
+     * @param limit page size
+     * @param offset page start
+     */
+    public SearchQueryKey(String kind, String query, String area, String type, int limit, int offset) {
+        this.kind = kind;
+        this.query = normalise(query);
+        this.area = normalise(area);
+        this.type = "any".equals(normalise(type)) ? "" : normalise(type);
+        this.limit = limit;
+        this.offset = offset;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public String getArea() {
+        return area;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Return the key of the page after this one.
+     * @return the next page key.
+     */
+    public SearchQueryKey nextPage() {
+        return new SearchQueryKey(kind, query, area, type, limit, offset + limit);
+    }
+
+    /**
+     * Return the key of the first page of the same search.
+     * @return the first page key.
+     */
+    public SearchQueryKey firstPage() {
+        return new SearchQueryKey(kind, query, area, type, limit, 0);
+    }
+
+    /**
+     * Return the key of the page a given number of pages after this one.
+     * @param pages how many pages ahead
+     * @return the later page key.
+     */
+    public SearchQueryKey pagesAhead(int pages) {
+        return new SearchQueryKey(kind, query, area, type, limit, offset + pages * limit);
+    }
+
+    private static String normalise(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof SearchQueryKey)) {
+            return false;
+        }
+        final SearchQueryKey that = (SearchQueryKey) other;
+        return limit == that.limit && offset == that.offset && kind.equals(that.kind)
+                && query.equals(that.query) && area.equals(that.area) && type.equals(that.type);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, query, area, type, limit, offset);
+    }
+
+    @Override
+    public String toString() {
+        return kind + "[" + query + "|" + area + "|" + type + "|" + limit + "@" + offset + "]";
+    }
+}
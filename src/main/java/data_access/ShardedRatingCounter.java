@@ -0,0 +1,234 @@
+package data_access;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.SetOptions;
+import data_transfer_object.RatingAggregate;
+
+/**
+ * Rating totals of each item spread over shard documents, {@code RatingAggregates/{id}/Shards/{n}}, so
+ * ratings of a popular item land on different documents rather than queueing on one; Firestore sustains
+ * about one write per second per document. A write increments one shard picked at random among the
+ * item's shard count, kept in the {@code shards} field of {@code RatingAggregates/{id}}. A read adds up
+ * every shard and the totals kept on that document from before sharding, so the count can grow at any
+ * time without moving anything. It grows with the write rate this client sees for the item, counted once
+ * per committed write, and is only ever raised, in a transaction of its own, so clients that see different
+ * rates never lower each other's count. Added-up totals are cached briefly so a burst of detail views does
+ * not read every shard each time.
+ */
+public class ShardedRatingCounter {
+
+    static final String SHARDS = "Shards";
+    static final String SHARD_COUNT = "shards";
+    // writes older than this many seconds hardly count toward an item's write rate any more
+    private static final double RATE_WINDOW_SECONDS = 10.0;
+    private static final int MAX_TRACKED_ITEMS = 10_000;
+    // write versions are kept per stripe of items; items sharing a stripe only skip caching more often
+    private static final int VERSION_STRIPES = 1024;
+
+    private final Firestore db;
+    private final int maxShards;
+    private final double writesPerShardPerSecond;
+    private final WTinyLfuCache<String, RatingAggregate> totals;
+    private final long totalsTtlMillis;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, WriteRate> writeRates = new ConcurrentHashMap<>();
+    private final AtomicLongArray writeVersions = new AtomicLongArray(VERSION_STRIPES);
+
+    /**
+     * Constructor.
+     * @param db the database
+     * @param maxShards most shards per item
+     * @param writesPerShardPerSecond the write rate one shard is given before another is added
+     * @param totals recently added-up totals by item
+     * @param totalsTtlMillis how long added-up totals are served from the cache
+     */
+    public ShardedRatingCounter(Firestore db, int maxShards, double writesPerShardPerSecond,
+                                WTinyLfuCache<String, RatingAggregate> totals, long totalsTtlMillis) {
+        this(db, maxShards, writesPerShardPerSecond, totals, totalsTtlMillis, System::currentTimeMillis);
+    }
+
+    ShardedRatingCounter(Firestore db, int maxShards, double writesPerShardPerSecond,
+                         WTinyLfuCache<String, RatingAggregate> totals, long totalsTtlMillis, LongSupplier clock) {
+        this.db = db;
+        this.maxShards = Math.max(1, maxShards);
+        this.writesPerShardPerSecond = writesPerShardPerSecond;
+        this.totals = totals;
+        this.totalsTtlMillis = totalsTtlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Return the document holding an item's shard count and its totals from before sharding.
+     * @param contentID the item's document ID
+     * @return the reference.
+     */
+    DocumentReference totalsDocument(String contentID) {
+        return db.collection(DBPublicAccessObject.RATING_AGGREGATES).document(contentID);
+    }
+
+    /**
+     * Pick the shard one write goes to.
+     * @param contentID the item's document ID
+     * @param shardCount how many shards the item has
+     * @return a shard picked at random.
+     */
+    DocumentReference shard(String contentID, int shardCount) {
+        final int shard = ThreadLocalRandom.current().nextInt(Math.max(1, shardCount));
+        return totalsDocument(contentID).collection(SHARDS).document(String.valueOf(shard));
+    }
+
+    /**
+     * Return an item's shard count as stored on its totals document.
+     * @param totalsDocument the totals document as read
+     * @return the count; 1 if none is stored.
+     */
+    static int shardCount(DocumentSnapshot totalsDocument) {
+        final Long count = totalsDocument != null && totalsDocument.exists()
+                ? totalsDocument.getLong(SHARD_COUNT) : null;
+        return count == null || count < 1 ? 1 : (int) Math.min(Integer.MAX_VALUE, count);
+    }
+
+    /**
+     * Record a committed write to an item's totals, drop its cached totals, and add shards if its write
+     * rate now calls for more than it had. A failure to add them is only reported; the write stands.
+     * @param contentID the item's document ID
+     * @param shardCount how many shards the item had when the write was made
+     */
+    void recordCommitted(String contentID, int shardCount) {
+        final int wanted = recordWrite(contentID);
+        if (wanted <= shardCount) {
+            return;
+        }
+        try {
+            grow(contentID, wanted);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException ex) {
+            System.err.println("Error adding rating shards: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Record one write to an item's totals and drop its cached totals.
+     * @param contentID the item's document ID
+     * @return how many shards the item's write rate calls for, from 1 to the maximum.
+     */
+    int recordWrite(String contentID) {
+        // bump first, so a read already in flight does not cache the totals from before this write
+        writeVersions.incrementAndGet(stripe(contentID));
+        totals.invalidate(contentID);
+        final long now = clock.getAsLong();
+        if (writeRates.size() > MAX_TRACKED_ITEMS) {
+            // items not written for a few windows would call for a single shard anyway
+            final long idleSince = now - (long) (6 * RATE_WINDOW_SECONDS * 1000);
+            writeRates.values().removeIf(rate -> rate.lastMillis() < idleSince);
+        }
+        final double perSecond = writeRates.computeIfAbsent(contentID, id -> new WriteRate()).record(now);
+        final long wanted = (long) Math.ceil(perSecond / writesPerShardPerSecond);
+        return (int) Math.max(1, Math.min(maxShards, wanted));
+    }
+
+    /**
+     * Raise an item's shard count to at least the given count; a higher count stays as it is.
+     * @param contentID the item's document ID
+     * @param wanted the shard count
+     * @throws InterruptedException if interrupted while waiting for Firestore
+     * @throws ExecutionException if the transaction failed
+     */
+    void grow(String contentID, int wanted) throws InterruptedException, ExecutionException {
+        final DocumentReference totalsReference = totalsDocument(contentID);
+        db.runTransaction(transaction -> {
+            if (shardCount(transaction.get(totalsReference).get()) < wanted) {
+                transaction.set(totalsReference, Map.of(SHARD_COUNT, wanted), SetOptions.merge());
+            }
+            return null;
+        }).get();
+    }
+
+    /**
+     * Read an item's totals without blocking, from the cache if they were added up recently.
+     * Totals are only cached if no write to the item was recorded while they were read.
+     * Cancelling or timing out the returned future abandons the reads.
+     * @param contentID the item's document ID
+     * @return a future of the totals, or of null if none have been kept for the item yet.
+     */
+    CompletableFuture<RatingAggregate> readAsync(String contentID) {
+        final RatingAggregate cached = totals.getIfPresent(contentID);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        final int stripe = stripe(contentID);
+        final long version = writeVersions.get(stripe);
+        final CompletableFuture<DocumentSnapshot> base = Futures.toCompletable(totalsDocument(contentID).get());
+        final CompletableFuture<QuerySnapshot> shards = Futures.toCompletable(
+                totalsDocument(contentID).collection(SHARDS).get());
+        final CompletableFuture<RatingAggregate> result = base.thenCombine(shards, (document, shardDocuments) -> {
+            if (!document.exists() && shardDocuments.isEmpty()) {
+                return null;
+            }
+            RatingAggregate total = document.exists()
+                    ? DBPublicAccessObject.toAggregate(document) : RatingAggregate.empty();
+            for (QueryDocumentSnapshot shard : shardDocuments) {
+                total = total.plus(DBPublicAccessObject.toAggregate(shard));
+            }
+            if (writeVersions.get(stripe) == version) {
+                totals.put(contentID, total, totalsTtlMillis);
+                // a write recorded between the check and the put must not leave these totals behind
+                if (writeVersions.get(stripe) != version) {
+                    totals.invalidate(contentID);
+                }
+            }
+            return total;
+        });
+        Futures.propagateCancellation(result, base);
+        Futures.propagateCancellation(result, shards);
+        return result;
+    }
+
+    private static int stripe(String contentID) {
+        return Math.floorMod(contentID.hashCode(), VERSION_STRIPES);
+    }
+
+    /**
+     * Estimate the retained size of cached totals in bytes.
+     * @param contentID the key
+     * @param aggregate the value
+     * @return the weight.
+     */
+    public static long weigh(String contentID, RatingAggregate aggregate) {
+        return 200 + 2L * contentID.length();
+    }
+
+    /**
+     * An item's write rate, decaying exponentially so recent writes count most.
+     */
+    private static final class WriteRate {
+        private double perSecond;
+        private long lastMillis;
+
+        synchronized double record(long nowMillis) {
+            final double elapsedSeconds = Math.max(0, nowMillis - lastMillis) / 1000.0;
+            perSecond = perSecond * Math.exp(-elapsedSeconds / RATE_WINDOW_SECONDS) + 1 / RATE_WINDOW_SECONDS;
+            lastMillis = nowMillis;
+            return perSecond;
+        }
+
+        synchronized long lastMillis() {
+            return lastMillis;
+        }
+    }
+}
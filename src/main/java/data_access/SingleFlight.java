@@ -0,0 +1,150 @@
+package data_access;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent identical requests into one.
+ * The first caller for a key starts the load; callers arriving while it is in flight wait on the
+ * same result instead of issuing their own request. Each caller gets its own future, so one caller
+ * cancelling or timing out does not affect the others; the shared load is only cancelled once
+ * every caller has given up.
+ * @param <K> the request key
+ * @param <V> the result type
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong leaders = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Return the shared result for the key, starting the load only if none is in flight.
+     * @param key the normalised request key
+     * @param loader starts the real request
+     * @return this caller's view of the shared result.
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> loader) {
+        while (true) {
+            final Flight<V> existing = inFlight.get(key);
+            if (existing != null) {
+                final CompletableFuture<V> view = existing.join();
+                if (view != null) {
+                    coalesced.incrementAndGet();
+                    return view;
+                }
+                // Every waiter gave up on that flight; replace it.
+                inFlight.remove(key, existing);
+                continue;
+            }
+            final Flight<V> created = new Flight<>();
+            if (inFlight.putIfAbsent(key, created) != null) {
+                continue;
+            }
+            leaders.incrementAndGet();
+            final CompletableFuture<V> view = created.join();
+            created.source.whenComplete((value, ex) -> inFlight.remove(key, created));
+            created.start(loader);
+            return view;
+        }
+    }
+
+    /**
+     * Return how many callers were served by another caller's request.
+     * @return the coalesced hit count.
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * Return how many requests were actually started.
+     * @return the leader count.
+     */
+    public long getLeaderCount() {
+        return leaders.get();
+    }
+
+    /**
+     * Return how many distinct requests are in flight right now.
+     * @return the in-flight count.
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * One shared load and the callers waiting on it.
+     */
+    private static final class Flight<V> {
+        private final CompletableFuture<V> source = new CompletableFuture<>();
+        private CompletableFuture<V> upstream;
+        private int waiters;
+        private boolean abandoned;
+
+        synchronized CompletableFuture<V> join() {
+            if (abandoned) {
+                return null;
+            }
+            waiters++;
+            final CompletableFuture<V> view = new CompletableFuture<>();
+            source.whenComplete((value, ex) -> {
+                if (ex != null) {
+                    view.completeExceptionally(ex);
+                }
+                else {
+                    view.complete(value);
+                }
+            });
+            view.whenComplete((value, ex) -> {
+                if (ex != null && !source.isDone()) {
+                    leave();
+                }
+            });
+            return view;
+        }
+
+        void start(Supplier<CompletableFuture<V>> loader) {
+            final CompletableFuture<V> started;
+            try {
+                started = loader.get();
+            }
+            catch (RuntimeException ex) {
+                source.completeExceptionally(ex);
+                return;
+            }
+            synchronized (this) {
+                upstream = started;
+                if (abandoned) {
+                    started.cancel(true);
+                }
+            }
+            started.whenComplete((value, ex) -> {
+                if (ex != null) {
+                    source.completeExceptionally(ex);
+                }
+                else {
+                    source.complete(value);
+                }
+            });
+        }
+
+        private void leave() {
+            final CompletableFuture<V> toCancel;
+            synchronized (this) {
+                waiters--;
+                if (waiters > 0 || abandoned) {
+                    return;
+                }
+                abandoned = true;
+                toCancel = upstream;
+            }
+            source.cancel(true);
+            if (toCancel != null) {
+                toCancel.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package data_access;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.Source;
+
+/**
+ * Copies a response body aside while its reader streams through it, and hands the copy over once the
+ * body has been read to the end. Bodies longer than the limit are not copied past it and never handed over,
+ * so storing a response costs at most the limit in memory.
+ */
+final class StoringSource extends ForwardingSource {
+
+    private static final long DRAIN_CHUNK = 8192;
+
+    private final Buffer copy = new Buffer();
+    private final long limitBytes;
+    private final Consumer<byte[]> onComplete;
+    private boolean copying = true;
+    private boolean exhausted;
+
+    StoringSource(Source delegate, long limitBytes, Consumer<byte[]> onComplete) {
+        super(delegate);
+        this.limitBytes = limitBytes;
+        this.onComplete = onComplete;
+    }
+
+    @Override
+    public long read(Buffer sink, long byteCount) throws IOException {
+        final long read;
+        try {
+            read = super.read(sink, byteCount);
+        }
+        catch (IOException ex) {
+            stopCopying();
+            throw ex;
+        }
+        if (read == -1) {
+            finish();
+        }
+        else if (copying) {
+            if (copy.size() + read > limitBytes) {
+                stopCopying();
+            }
+            else {
+                sink.copyTo(copy, sink.size() - read, read);
+            }
+        }
+        return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            // a decoder stops at the end of the document, so read what little is left for a complete copy
+            final Buffer discard = new Buffer();
+            while (copying && !exhausted && read(discard, DRAIN_CHUNK) != -1) {
+                discard.clear();
+            }
+        }
+        catch (IOException ex) {
+            // the reader already has what it wanted; only the copy is lost
+        }
+        finally {
+            super.close();
+        }
+    }
+
+    private void finish() {
+        if (!exhausted && copying) {
+            onComplete.accept(copy.readByteArray());
+        }
+        exhausted = true;
+    }
+
+    private void stopCopying() {
+        copying = false;
+        copy.clear();
+    }
+}
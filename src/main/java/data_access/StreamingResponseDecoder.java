@@ -0,0 +1,439 @@
+package data_access;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import data_transfer_object.Artist;
+import data_transfer_object.Event;
+import data_transfer_object.Recording;
+
+/**
+ * Decodes MusicBrainz responses token by token, straight from the body stream into the builders.
+ * Fields we never display (aliases, tags, areas, ...) are skipped without being materialised,
+ * so a page costs one pass over the bytes and no intermediate object tree.
+ */
+public class StreamingResponseDecoder implements MusicBrainzResponseDecoder {
+
+    @Override
+    public Artist[] decodeArtists(InputStream body) throws IOException {
+        final List<Artist> result = new ArrayList<>();
+        final JsonReader reader = open(body);
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("artists".equals(reader.nextName())) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        result.add(readArtist(reader));
+                    }
+                    reader.endArray();
+                }
+                else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        catch (IllegalStateException ex) {
+            throw new IOException("Malformed artist response: " + ex.getMessage(), ex);
+        }
+        return result.toArray(new Artist[0]);
+    }
+
+    @Override
+    public Event[] decodeEvents(InputStream body) throws IOException {
+        final List<Event> result = new ArrayList<>();
+        final JsonReader reader = open(body);
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("events".equals(reader.nextName())) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        result.add(readEvent(reader));
+                    }
+                    reader.endArray();
+                }
+                else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        catch (IllegalStateException ex) {
+            throw new IOException("Malformed event response: " + ex.getMessage(), ex);
+        }
+        return result.toArray(new Event[0]);
+    }
+
+    @Override
+    public Recording[] decodeRecordings(InputStream body) throws IOException {
+        final List<Recording> result = new ArrayList<>();
+        final JsonReader reader = open(body);
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("recordings".equals(reader.nextName())) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        result.add(readRecording(reader, null));
+                    }
+                    reader.endArray();
+                }
+                else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        catch (IllegalStateException ex) {
+            throw new IOException("Malformed recording response: " + ex.getMessage(), ex);
+        }
+        return result.toArray(new Recording[0]);
+    }
+
+    @Override
+    public RecordingGroups decodeRecordingsByArtist(InputStream body, Collection<String> artistIds,
+                                                    int perArtist) throws IOException {
+        final RecordingGroups groups = new RecordingGroups(artistIds, perArtist);
+        final JsonReader reader = open(body);
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("recordings".equals(reader.nextName())) {
+                    reader.beginArray();
+                    final List<String> credited = new ArrayList<>();
+                    while (reader.hasNext()) {
+                        credited.clear();
+                        final Recording recording = readRecording(reader, credited);
+                        groups.countRow();
+                        for (String artistId : credited) {
+                            groups.add(artistId, recording);
+                        }
+                    }
+                    reader.endArray();
+                }
+                else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        catch (IllegalStateException ex) {
+            throw new IOException("Malformed recording response: " + ex.getMessage(), ex);
+        }
+        return groups;
+    }
+
+    private static Artist readArtist(JsonReader reader) throws IOException {
+        String id = null;
+        String name = null;
+        String type = "N/A";
+        String country = "Unknown";
+        int score = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = nextString(reader, null);
+                    break;
+                case "name":
+                    name = nextString(reader, null);
+                    break;
+                case "type":
+                    type = nextString(reader, type);
+                    break;
+                case "country":
+                    country = nextString(reader, country);
+                    break;
+                case "score":
+                    score = nextInt(reader, score);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (name == null) {
+            throw new IOException("Artist without a name in response.");
+        }
+        return Artist.builder()
+                .id(id != null ? id : UUID.randomUUID().toString())
+                .artistName(name)
+                .type(type)
+                .score(score)
+                .country(country)
+                .build();
+    }
+
+    private static Event readEvent(JsonReader reader) throws IOException {
+        final Event.EventBuilder builder = Event.builder()
+                .name("Unknown Event")
+                .type("Unknown Type")
+                .beginDate("Unknown Begin Date")
+                .endDate("Unknown End Date")
+                .time("Unknown Time")
+                .placeName("Unknown Place")
+                .placeId(UUID.randomUUID().toString())
+                .artistName("Unknown Artist")
+                .artistId(UUID.randomUUID().toString());
+        String id = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = nextString(reader, null);
+                    break;
+                case "name":
+                    builder.name(nextString(reader, "Unknown Event"));
+                    break;
+                case "type":
+                    builder.type(nextString(reader, "Unknown Type"));
+                    break;
+                case "time":
+                    builder.time(nextString(reader, "Unknown Time"));
+                    break;
+                case "score":
+                    builder.score(nextInt(reader, 0));
+                    break;
+                case "life-span":
+                    readLifeSpan(reader, builder);
+                    break;
+                case "place":
+                    readPlace(reader, builder);
+                    break;
+                case "relations":
+                    readArtistRelation(reader, builder);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return builder.id(id != null ? id : UUID.randomUUID().toString()).build();
+    }
+
+    private static void readLifeSpan(JsonReader reader, Event.EventBuilder builder) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "begin":
+                    builder.beginDate(nextString(reader, "Unknown Begin Date"));
+                    break;
+                case "end":
+                    builder.endDate(nextString(reader, "Unknown End Date"));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static void readPlace(JsonReader reader, Event.EventBuilder builder) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "name":
+                    builder.placeName(nextString(reader, "Unknown Place"));
+                    break;
+                case "id":
+                    final String placeId = nextString(reader, null);
+                    if (placeId != null) {
+                        builder.placeId(placeId);
+                    }
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * Take the first relation of type "artist" and skip the rest of the array.
+     */
+    private static void readArtistRelation(JsonReader reader, Event.EventBuilder builder) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return;
+        }
+        boolean found = false;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (found || reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            String relationType = null;
+            String artistName = null;
+            String artistId = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                final String field = reader.nextName();
+                if ("type".equals(field)) {
+                    relationType = nextString(reader, null);
+                }
+                else if ("artist".equals(field) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        final String artistField = reader.nextName();
+                        if ("name".equals(artistField)) {
+                            artistName = nextString(reader, null);
+                        }
+                        else if ("id".equals(artistField)) {
+                            artistId = nextString(reader, null);
+                        }
+                        else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                }
+                else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if ("artist".equals(relationType)) {
+                found = true;
+                if (artistName != null) {
+                    builder.artistName(artistName);
+                }
+                if (artistId != null) {
+                    builder.artistId(artistId);
+                }
+            }
+        }
+        reader.endArray();
+    }
+
+    /**
+     * Read one recording, collecting the credited artist ids into {@code credited} when it is not null.
+     */
+    private static Recording readRecording(JsonReader reader, List<String> credited) throws IOException {
+        String id = null;
+        String title = null;
+        int length = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = nextString(reader, null);
+                    break;
+                case "title":
+                    title = nextString(reader, null);
+                    break;
+                case "length":
+                    length = nextInt(reader, 0);
+                    break;
+                case "artist-credit":
+                    if (credited != null) {
+                        readCreditedArtists(reader, credited);
+                    }
+                    else {
+                        reader.skipValue();
+                    }
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (id == null || title == null) {
+            throw new IOException("Recording without id or title in response.");
+        }
+        return Recording.builder()
+                .id(id)
+                .title(title)
+                .length(length)
+                .build();
+    }
+
+    private static void readCreditedArtists(JsonReader reader, List<String> credited) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("artist".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if ("id".equals(reader.nextName())) {
+                            final String artistId = nextString(reader, null);
+                            if (artistId != null) {
+                                credited.add(artistId);
+                            }
+                        }
+                        else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                }
+                else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        reader.endArray();
+    }
+
+    private static JsonReader open(InputStream body) {
+        return new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+
+    private static String nextString(JsonReader reader, String fallback) throws IOException {
+        final JsonToken token = reader.peek();
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER || token == JsonToken.BOOLEAN) {
+            return token == JsonToken.BOOLEAN ? String.valueOf(reader.nextBoolean()) : reader.nextString();
+        }
+        reader.skipValue();
+        return fallback;
+    }
+
+    private static int nextInt(JsonReader reader, int fallback) throws IOException {
+        final JsonToken token = reader.peek();
+        if (token == JsonToken.NUMBER || token == JsonToken.STRING) {
+            try {
+                return reader.nextInt();
+            }
+            catch (NumberFormatException ex) {
+                reader.skipValue();
+                return fallback;
+            }
+        }
+        reader.skipValue();
+        return fallback;
+    }
+}
@@ -0,0 +1,67 @@
+package data_access;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import Use_case.spelling_correction.SpellingCorrectionDataAccessInterface;
+import search_index.ArtistSearcher;
+import search_index.SymSpellDictionary;
+
+/**
+ * Spelling correction from a SymSpell dictionary of names seen in good search results, optionally seeded
+ * with the most frequent name terms of the local artist index. Seeding runs in the background; the
+ * dictionary answers from whatever it holds so far.
+ */
+public class SymSpellSpellingCorrector implements SpellingCorrectionDataAccessInterface {
+
+    private final SymSpellDictionary dictionary;
+    private final int maxWords;
+
+    /**
+     * Constructor.
+     * @param maxWords vocabulary size after which new words are ignored
+     */
+    public SymSpellSpellingCorrector(int maxWords) {
+        this.dictionary = new SymSpellDictionary(maxWords);
+        this.maxWords = maxWords;
+    }
+
+    /**
+     * Add the most frequent name and alias terms of an index snapshot, on a background thread.
+     * @param searcher the snapshot
+     */
+    public void seedInBackground(ArtistSearcher searcher) {
+        final Thread seeder = new Thread(() -> seed(searcher), "spelling-dictionary-seed");
+        seeder.setDaemon(true);
+        seeder.setPriority(Thread.MIN_PRIORITY);
+        seeder.start();
+    }
+
+    /**
+     * Add the most frequent name and alias terms of an index snapshot.
+     * @param searcher the snapshot
+     */
+    public void seed(ArtistSearcher searcher) {
+        final Map<String, Integer> counts = new HashMap<>();
+        searcher.forEachTerm((term, artists) -> counts.merge(term, artists, Integer::sum));
+        final List<Map.Entry<String, Integer>> byFrequency = new ArrayList<>(counts.entrySet());
+        byFrequency.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+        for (Map.Entry<String, Integer> term : byFrequency.subList(0, Math.min(maxWords, byFrequency.size()))) {
+            dictionary.add(term.getKey(), term.getValue());
+        }
+    }
+
+    @Override
+    public String correct(String query) {
+        return query == null ? null : dictionary.correct(query);
+    }
+
+    @Override
+    public void learn(String name) {
+        if (name != null) {
+            dictionary.addText(name);
+        }
+    }
+}
@@ -0,0 +1,436 @@
+package data_access;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * Bounded in-memory cache with W-TinyLFU admission.
+ * New entries land in a small LRU window (1% of the budget). When the window overflows, its oldest
+ * entry only enters the main segmented LRU if a count-min sketch says it has been asked for more often
+ * than the entry it would displace, so a burst of one-off queries cannot flush the popular ones.
+ * The bound is in weighted bytes; every entry also carries its own time to live.
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class WTinyLfuCache<K, V> {
+
+    private static final int WINDOW_PERCENT = 1;
+    private static final int PROTECTED_PERCENT = 80;
+
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final ToLongBiFunction<K, V> weigher;
+    private final LongSupplier ticker;
+    private final FrequencySketch sketch;
+
+    private final Map<K, Node<K, V>> data = new HashMap<>();
+    // access-ordered, eldest first
+    private final LinkedHashMap<K, Node<K, V>> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Node<K, V>> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Node<K, V>> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long windowWeight;
+    private long probationWeight;
+    private long protectedWeight;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long rejections;
+
+    /**
+     * Constructor.
+     * @param maximumWeight the budget in weighted bytes
+     * @param weigher estimates the retained size of one entry in bytes
+     */
+    public WTinyLfuCache(long maximumWeight, ToLongBiFunction<K, V> weigher) {
+        this(maximumWeight, weigher, System::nanoTime);
+    }
+
+    /**
+     * Constructor.
+     * @param maximumWeight the budget in weighted bytes
+     * @param weigher estimates the retained size of one entry in bytes
+     * @param ticker the nanosecond time source used for expiry
+     */
+    public WTinyLfuCache(long maximumWeight, ToLongBiFunction<K, V> weigher, LongSupplier ticker) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("Cache weight must be positive.");
+        }
+        this.maximumWeight = maximumWeight;
+        this.windowMaximum = Math.max(1, maximumWeight * WINDOW_PERCENT / 100);
+        this.protectedMaximum = (maximumWeight - windowMaximum) * PROTECTED_PERCENT / 100;
+        this.weigher = weigher;
+        this.ticker = ticker;
+        // assume pages of roughly 1 KiB when sizing the sketch
+        this.sketch = new FrequencySketch((int) Math.min(1 << 20, Math.max(64, maximumWeight / 1024)));
+    }
+
+    /**
+     * Return the cached value, or null if it is absent or expired.
+     * @param key the key
+     * @return the value, or null.
+     */
+    public synchronized V getIfPresent(K key) {
+        sketch.increment(key.hashCode());
+        final Node<K, V> node = data.get(key);
+        if (node == null) {
+            misses++;
+            return null;
+        }
+        if (node.isExpired(ticker.getAsLong())) {
+            remove(node);
+            expirations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        onAccess(node);
+        return node.value;
+    }
+
+    /**
+     * Store a value for the given time, evicting colder entries if the budget is exceeded.
+     * Values heavier than the whole budget are not stored.
+     * @param key the key
+     * @param value the value
+     * @param ttlMillis how long the value may be served
+     */
+    public synchronized void put(K key, V value, long ttlMillis) {
+        final long weight = Math.max(1, weigher.applyAsLong(key, value));
+        final long expiresAt = ticker.getAsLong() + ttlMillis * 1_000_000L;
+        final Node<K, V> existing = data.get(key);
+        if (existing != null) {
+            remove(existing);
+        }
+        if (weight > maximumWeight) {
+            rejections++;
+            return;
+        }
+        final Node<K, V> node = new Node<>(key, value, weight, expiresAt);
+        data.put(key, node);
+        node.region = Region.WINDOW;
+        window.put(key, node);
+        windowWeight += weight;
+        evict();
+    }
+
+    /**
+     * Drop one entry.
+     * @param key the key
+     */
+    public synchronized void invalidate(K key) {
+        final Node<K, V> node = data.get(key);
+        if (node != null) {
+            remove(node);
+        }
+    }
+
+    /**
+     * Drop every entry. Frequencies and statistics are kept.
+     */
+    public synchronized void invalidateAll() {
+        data.clear();
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+        windowWeight = 0;
+        probationWeight = 0;
+        protectedWeight = 0;
+    }
+
+    /**
+     * Return a snapshot of the cache counters.
+     * @return the statistics.
+     */
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, expirations, rejections, data.size(), weightedSize(),
+                maximumWeight);
+    }
+
+    private long weightedSize() {
+        return windowWeight + probationWeight + protectedWeight;
+    }
+
+    private void onAccess(Node<K, V> node) {
+        switch (node.region) {
+            case WINDOW:
+                window.get(node.key);
+                break;
+            case PROBATION:
+                // a second hit earns a place in the protected segment
+                probation.remove(node.key);
+                probationWeight -= node.weight;
+                node.region = Region.PROTECTED;
+                protectedSegment.put(node.key, node);
+                protectedWeight += node.weight;
+                demoteProtectedOverflow();
+                break;
+            default:
+                protectedSegment.get(node.key);
+        }
+    }
+
+    private void demoteProtectedOverflow() {
+        final Iterator<Node<K, V>> eldest = protectedSegment.values().iterator();
+        while (protectedWeight > protectedMaximum && eldest.hasNext()) {
+            final Node<K, V> node = eldest.next();
+            eldest.remove();
+            protectedWeight -= node.weight;
+            node.region = Region.PROBATION;
+            probation.put(node.key, node);
+            probationWeight += node.weight;
+        }
+    }
+
+    private void evict() {
+        // window overflow competes for a place in the main segments
+        final Iterator<Node<K, V>> windowEldest = window.values().iterator();
+        while (windowWeight > windowMaximum && windowEldest.hasNext()) {
+            final Node<K, V> candidate = windowEldest.next();
+            windowEldest.remove();
+            windowWeight -= candidate.weight;
+            admit(candidate);
+        }
+        // a single oversized window entry can still leave us over budget
+        while (weightedSize() > maximumWeight) {
+            final Node<K, V> victim = eldestMain();
+            if (victim == null) {
+                evictEldestWindow();
+            }
+            else {
+                evict(victim);
+            }
+        }
+    }
+
+    private void admit(Node<K, V> candidate) {
+        final long now = ticker.getAsLong();
+        final int candidateFrequency = sketch.frequency(candidate.key.hashCode());
+        while (weightedSize() + candidate.weight > maximumWeight) {
+            final Node<K, V> victim = eldestMain();
+            if (victim == null) {
+                break;
+            }
+            if (!victim.isExpired(now) && sketch.frequency(victim.key.hashCode()) >= candidateFrequency) {
+                // the incumbent is at least as popular; drop the newcomer instead
+                data.remove(candidate.key);
+                evictions++;
+                return;
+            }
+            evict(victim);
+        }
+        candidate.region = Region.PROBATION;
+        probation.put(candidate.key, candidate);
+        probationWeight += candidate.weight;
+    }
+
+    private Node<K, V> eldestMain() {
+        if (!probation.isEmpty()) {
+            return probation.values().iterator().next();
+        }
+        if (!protectedSegment.isEmpty()) {
+            return protectedSegment.values().iterator().next();
+        }
+        return null;
+    }
+
+    private void evictEldestWindow() {
+        final Node<K, V> eldest = window.values().iterator().next();
+        evict(eldest);
+    }
+
+    private void evict(Node<K, V> node) {
+        if (node.isExpired(ticker.getAsLong())) {
+            expirations++;
+        }
+        else {
+            evictions++;
+        }
+        remove(node);
+    }
+
+    private void remove(Node<K, V> node) {
+        data.remove(node.key);
+        switch (node.region) {
+            case WINDOW:
+                window.remove(node.key);
+                windowWeight -= node.weight;
+                break;
+            case PROBATION:
+                probation.remove(node.key);
+                probationWeight -= node.weight;
+                break;
+            default:
+                protectedSegment.remove(node.key);
+                protectedWeight -= node.weight;
+        }
+    }
+
+    private enum Region {
+        WINDOW, PROBATION, PROTECTED
+    }
+
+    private static final class Node<K, V> {
+        private final K key;
+        private final V value;
+        private final long weight;
+        private final long expiresAt;
+        private Region region;
+
+        Node(K key, V value, long weight, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+
+    /**
+     * Count-min sketch of four-bit counters, four rows, halved periodically so that old popularity fades.
+     */
+    private static final class FrequencySketch {
+        private static final long RESET_MASK = 0x7777777777777777L;
+        private static final int[] SEEDS = {0x97cb3127, 0xb3ecc5e9, 0x5b4a3d67, 0xcb7d07f5};
+
+        private final long[] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int expectedEntries) {
+            final int width = Integer.highestOneBit(Math.max(16, expectedEntries - 1) << 1);
+            table = new long[width];
+            mask = width - 1;
+            sampleSize = 10 * width;
+        }
+
+        int frequency(int hash) {
+            int frequency = Integer.MAX_VALUE;
+            for (int row = 0; row < SEEDS.length; row++) {
+                final int index = indexOf(hash, row);
+                final int shift = counterOffset(hash, row);
+                frequency = Math.min(frequency, (int) ((table[index] >>> shift) & 0xfL));
+            }
+            return frequency;
+        }
+
+        void increment(int hash) {
+            boolean added = false;
+            for (int row = 0; row < SEEDS.length; row++) {
+                final int index = indexOf(hash, row);
+                final int shift = counterOffset(hash, row);
+                if (((table[index] >>> shift) & 0xfL) != 0xfL) {
+                    table[index] += 1L << shift;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            additions /= 2;
+        }
+
+        private int indexOf(int hash, int row) {
+            int h = (hash ^ (hash >>> 16)) * SEEDS[row];
+            h ^= h >>> 15;
+            return h & mask;
+        }
+
+        private int counterOffset(int hash, int row) {
+            // sixteen counters per long; each row uses its own quarter of the word
+            final int h = hash * 0x9e3779b9 + row;
+            return ((row << 2) + ((h >>> 28) & 3)) << 2;
+        }
+    }
+
+    /**
+     * Point-in-time cache counters.
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+        private final long rejections;
+        private final int entries;
+        private final long weightedSize;
+        private final long maximumWeight;
+
+        Stats(long hits, long misses, long evictions, long expirations, long rejections, int entries,
+              long weightedSize, long maximumWeight) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.rejections = rejections;
+            this.entries = entries;
+            this.weightedSize = weightedSize;
+            this.maximumWeight = maximumWeight;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getExpirations() {
+            return expirations;
+        }
+
+        public long getRejections() {
+            return rejections;
+        }
+
+        public int getEntries() {
+            return entries;
+        }
+
+        public long getWeightedSize() {
+            return weightedSize;
+        }
+
+        public long getMaximumWeight() {
+            return maximumWeight;
+        }
+
+        /**
+         * Return the share of lookups served from the cache.
+         * @return the hit rate between 0 and 1.
+         */
+        public double getHitRate() {
+            final long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d misses=%d hitRate=%.2f evictions=%d expirations=%d entries=%d "
+                    + "weight=%d/%d", hits, misses, getHitRate(), evictions, expirations, entries, weightedSize,
+                    maximumWeight);
+        }
+    }
+}
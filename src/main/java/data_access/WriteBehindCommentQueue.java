@@ -0,0 +1,153 @@
+package data_access;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import Use_case.writer.WriterAsyncDataAccessInterface;
+
+/**
+ * Write-behind queue for reviews. A review waits until a batch is full or the oldest waiting review
+ * has waited the flush delay, and is then written with the rest of the batch in one go, so a burst of
+ * ratings costs a few batch commits rather than one round trip each. A user who reviews the same item
+ * again before the flush replaces their waiting review: only the last one is written, and the replaced
+ * submission is cancelled at once, so a failed write is reported once, for the review that was to be
+ * stored. Batches are written one at a time, in order, on the queue's thread, so a later review never
+ * lands before an earlier one.
+ */
+public class WriteBehindCommentQueue implements WriterAsyncDataAccessInterface, AutoCloseable {
+
+    private final CommentBatchWriter writer;
+    private final int maxBatchSize;
+    private final long flushDelayMillis;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "comment-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // waiting reviews by item and user, in the order they were first submitted
+    private final LinkedHashMap<String, Waiting> waiting = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private CompletableFuture<Void> lastBatch = CompletableFuture.completedFuture(null);
+
+    /**
+     * Constructor.
+     * @param writer stores each batch
+     * @param maxBatchSize most reviews per batch; a full batch is written at once
+     * @param flushDelayMillis longest a review waits for its batch to fill
+     */
+    public WriteBehindCommentQueue(CommentBatchWriter writer, int maxBatchSize, long flushDelayMillis) {
+        this.writer = writer;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.flushDelayMillis = flushDelayMillis;
+    }
+
+    @Override
+    public CompletableFuture<Void> addCommentAsync(String artistId, String username, double rating, String comment) {
+        final CompletableFuture<Void> written = new CompletableFuture<>();
+        final Waiting replaced;
+        final boolean full;
+        synchronized (this) {
+            // replacing keeps the review's place in line
+            replaced = waiting.put(artistId + '\n' + username,
+                    new Waiting(new CommentWrite(artistId, username, rating, comment), written));
+            full = waiting.size() >= maxBatchSize;
+            if (!full && scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(() -> {
+                    flush();
+                }, flushDelayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (replaced != null) {
+            replaced.submission.cancel(false);
+        }
+        if (full) {
+            flush();
+        }
+        return written;
+    }
+
+    /**
+     * Write the waiting reviews now.
+     * @return a future completed once they, and every batch before them, are written; failed if their
+     *         batch failed.
+     */
+    public CompletableFuture<Void> flush() {
+        final List<Waiting> batch;
+        final CompletableFuture<Void> written;
+        synchronized (this) {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            if (waiting.isEmpty()) {
+                return lastBatch;
+            }
+            batch = new ArrayList<>(waiting.values());
+            waiting.clear();
+            final List<CommentWrite> writes = new ArrayList<>();
+            for (Waiting review : batch) {
+                writes.add(review.write);
+            }
+            // the queue's one thread writes the batches in the order they were cut
+            written = CompletableFuture.runAsync(() -> writer.writeComments(writes), scheduler);
+            lastBatch = written;
+        }
+        written.whenComplete((ignored, error) -> {
+            for (Waiting review : batch) {
+                if (error != null) {
+                    review.submission.completeExceptionally(error.getCause() != null ? error.getCause() : error);
+                }
+                else {
+                    review.submission.complete(null);
+                }
+            }
+        });
+        return written;
+    }
+
+    /**
+     * Return how many reviews are waiting for their batch.
+     * @return the count, after coalescing.
+     */
+    public synchronized int waiting() {
+        return waiting.size();
+    }
+
+    /**
+     * Write what is waiting, wait a few seconds for it, and stop the queue's thread.
+     */
+    @Override
+    public void close() {
+        try {
+            flush().get(5, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException | TimeoutException ex) {
+            System.err.println("Error flushing comments: " + ex.getMessage());
+        }
+        scheduler.shutdown();
+    }
+
+    /**
+     * A review waiting for its batch, and the submission it stands for.
+     */
+    private static final class Waiting {
+        private final CommentWrite write;
+        private final CompletableFuture<Void> submission;
+
+        Waiting(CommentWrite write, CompletableFuture<Void> submission) {
+            this.write = write;
+            this.submission = submission;
+        }
+    }
+}
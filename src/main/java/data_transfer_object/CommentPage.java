@@ -0,0 +1,64 @@
+package data_transfer_object;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of the reviews of a content item, newest first, and where the next older page starts.
+ */
+public class CommentPage {
+
+    private final List<Review> reviews;
+    private final String nextCursor;
+
+    /**
+     * Constructor.
+     * @param reviews the reviews on this page, newest first
+     * @param nextCursor where the next older page starts, or null if this is the last page
+     */
+    public CommentPage(List<Review> reviews, String nextCursor) {
+        this.reviews = Collections.unmodifiableList(new ArrayList<>(reviews));
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Return the page of an item nobody has reviewed.
+     * @return an empty last page.
+     */
+    public static CommentPage empty() {
+        return new CommentPage(List.of(), null);
+    }
+
+    public List<Review> getReviews() {
+        return reviews;
+    }
+
+    /**
+     * Return the comments on this page.
+     * @return the comments by username, newest first; reviews without a comment are left out.
+     */
+    public Map<String, String> getComments() {
+        final Map<String, String> comments = new LinkedHashMap<>();
+        for (Review review : reviews) {
+            if (review.getComment() != null) {
+                comments.put(review.getUsername(), review.getComment());
+            }
+        }
+        return comments;
+    }
+
+    /**
+     * Return where the next older page starts.
+     * @return an opaque cursor to read the next page with, or null if this is the last page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
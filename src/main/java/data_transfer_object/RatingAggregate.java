@@ -0,0 +1,128 @@
+package data_transfer_object;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * The running totals of the ratings of one content item: their sum, their count and how many there are
+ * of each score from 0 to 10. Kept next to the reviews so the average can be read without them.
+ */
+public class RatingAggregate {
+
+    public static final int MAX_SCORE = 10;
+
+    private final double sum;
+    private final long count;
+    private final long[] histogram;
+
+    /**
+     * Constructor.
+     * @param sum the sum of all ratings
+     * @param count how many ratings there are
+     * @param histogram how many ratings there are of each score, indexed by score
+     */
+    public RatingAggregate(double sum, long count, long[] histogram) {
+        if (histogram.length != MAX_SCORE + 1) {
+            throw new IllegalArgumentException("Histogram must have one bucket per score from 0 to " + MAX_SCORE + ".");
+        }
+        this.sum = sum;
+        this.count = count;
+        this.histogram = histogram.clone();
+    }
+
+    /**
+     * Return the totals of no ratings.
+     * @return an empty aggregate.
+     */
+    public static RatingAggregate empty() {
+        return new RatingAggregate(0.0, 0, new long[MAX_SCORE + 1]);
+    }
+
+    /**
+     * Compute the totals of reviews stored as username to {rating, comment}.
+     * @param reviews the reviews
+     * @return the aggregate.
+     */
+    public static RatingAggregate of(Map<String, Map<String, Object>> reviews) {
+        RatingAggregate aggregate = empty();
+        for (Map<String, Object> review : reviews.values()) {
+            if (review != null && review.get("rating") instanceof Number) {
+                aggregate = aggregate.replace(null, ((Number) review.get("rating")).doubleValue());
+            }
+        }
+        return aggregate;
+    }
+
+    /**
+     * Return the totals after a user rated, replacing their earlier rating if they had one.
+     * @param previous the user's earlier rating, or null
+     * @param rating the new rating
+     * @return the updated aggregate.
+     */
+    public RatingAggregate replace(Double previous, double rating) {
+        final long[] updated = histogram.clone();
+        double updatedSum = sum + rating;
+        long updatedCount = count + 1;
+        if (previous != null) {
+            updatedSum -= previous;
+            updatedCount--;
+            updated[bucket(previous)] = Math.max(0, updated[bucket(previous)] - 1);
+        }
+        updated[bucket(rating)]++;
+        return new RatingAggregate(updatedSum, updatedCount, updated);
+    }
+
+    /**
+     * Return the totals of these ratings and another set together, e.g. of two shards.
+     * @param other the other totals
+     * @return the combined aggregate.
+     */
+    public RatingAggregate plus(RatingAggregate other) {
+        final long[] combined = histogram.clone();
+        for (int score = 0; score <= MAX_SCORE; score++) {
+            combined[score] += other.histogram[score];
+        }
+        return new RatingAggregate(sum + other.sum, count + other.count, combined);
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Return how many ratings there are of each score.
+     * @return a copy, indexed by score.
+     */
+    public long[] getHistogram() {
+        return histogram.clone();
+    }
+
+    /**
+     * Return the average rating, rounded to one decimal like the one computed from the reviews.
+     * @return the average, or 0.0 if there are no ratings.
+     */
+    public double getAverage() {
+        if (count <= 0) {
+            return 0.0;
+        }
+        return Math.round(sum / count * 10) / 10.0;
+    }
+
+    /**
+     * Return the score a rating is counted under in the histogram.
+     * @param rating the rating
+     * @return the score, rounded and clamped to 0 to 10.
+     */
+    public static int bucket(double rating) {
+        return (int) Math.max(0, Math.min(MAX_SCORE, Math.round(rating)));
+    }
+
+    @Override
+    public String toString() {
+        return "RatingAggregate{sum=" + sum + ", count=" + count + ", histogram=" + Arrays.toString(histogram) + "}";
+    }
+}
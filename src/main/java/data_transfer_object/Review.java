@@ -0,0 +1,42 @@
+package data_transfer_object;
+
+/**
+ * One user's rating of and comment on a content item.
+ */
+public class Review {
+
+    private final String username;
+    private final String comment;
+    private final double rating;
+    private final long postedAtMillis;
+
+    /**
+     * Constructor.
+     * @param username who wrote the review
+     * @param comment the comment, or null if there is none
+     * @param rating the rating
+     * @param postedAtMillis when the review was last written; 0 for reviews older than their timestamps
+     */
+    public Review(String username, String comment, double rating, long postedAtMillis) {
+        this.username = username;
+        this.comment = comment;
+        this.rating = rating;
+        this.postedAtMillis = postedAtMillis;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public double getRating() {
+        return rating;
+    }
+
+    public long getPostedAtMillis() {
+        return postedAtMillis;
+    }
+}
@@ -0,0 +1,128 @@
+package interface_adapter;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs interactors off the Swing event dispatch thread, so a slow Firestore or MusicBrainz call never
+ * freezes the UI. Each interaction gets its own virtual thread when the JVM has them (Java 21+) and a
+ * pooled daemon thread otherwise. Presenters already hand their view updates to the EDT, so nothing
+ * more is needed to get back there.
+ * <p>
+ * The executor counts the interactions of every use case that are running. An interactor that hands its
+ * work to a future is counted until it has done so, not until the presenter has been called.
+ */
+public final class UseCaseExecutor {
+
+    private final Executor executor;
+    private final boolean virtualThreads;
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor; uses virtual threads if the JVM supports them.
+     */
+    public UseCaseExecutor() {
+        final ExecutorService virtual = newVirtualThreadExecutor();
+        this.executor = virtual != null ? virtual : Executors.newCachedThreadPool(new DaemonThreadFactory());
+        this.virtualThreads = virtual != null;
+    }
+
+    /**
+     * Constructor with a given executor.
+     * @param executor runs the interactions
+     */
+    public UseCaseExecutor(Executor executor) {
+        this.executor = executor;
+        this.virtualThreads = false;
+    }
+
+    /**
+     * Return an executor that runs every interaction on the calling thread, as controllers used to.
+     * @return the executor.
+     */
+    public static UseCaseExecutor callerThread() {
+        return new UseCaseExecutor(Runnable::run);
+    }
+
+    /**
+     * Run an interaction in the background.
+     * @param useCase name the interaction is counted under, e.g. "login"
+     * @param interaction the interactor call
+     * @return a future completed when the interactor returns, exceptionally if it threw.
+     */
+    public CompletableFuture<Void> submit(String useCase, Runnable interaction) {
+        final AtomicInteger count = inFlight.computeIfAbsent(useCase, key -> new AtomicInteger());
+        count.incrementAndGet();
+        try {
+            return CompletableFuture.runAsync(interaction, executor)
+                    .whenComplete((ignored, error) -> count.decrementAndGet());
+        }
+        catch (RejectedExecutionException ex) {
+            count.decrementAndGet();
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Return how many interactions of a use case are running.
+     * @param useCase the use case name
+     * @return the in-flight count.
+     */
+    public int inFlight(String useCase) {
+        final AtomicInteger count = inFlight.get(useCase);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * Return the in-flight count of every use case submitted so far.
+     * @return a snapshot by use case name.
+     */
+    public Map<String, Integer> inFlightCounts() {
+        final Map<String, Integer> counts = new TreeMap<>();
+        inFlight.forEach((useCase, count) -> counts.put(useCase, count.get()));
+        return counts;
+    }
+
+    /**
+     * Return whether interactions run on virtual threads.
+     * @return true on Java 21 and later.
+     */
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Look the virtual thread executor up reflectively, since the code is compiled for Java 11.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException | RuntimeException ex) {
+            // before Java 21, or a preview feature that is not enabled
+            return null;
+        }
+    }
+
+    /**
+     * Names the fallback threads and keeps them from holding the JVM open.
+     */
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            final Thread thread = new Thread(runnable, "use-case-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -1,17 +1,35 @@
 package interface_adapter.artist_search;
 
+import java.util.concurrent.CompletableFuture;
+
+import Use_case.RequestHandle;
 import Use_case.artist_search.ArtistSearchInputBoundary;
 import Use_case.artist_search.ArtistSearchInputData;
+import interface_adapter.UseCaseExecutor;
 
 public class ArtistSearchController {
+    public static final String USE_CASE = "artist-search";
+
     private final ArtistSearchInputBoundary interactor;
+    private final UseCaseExecutor executor;
 
     public ArtistSearchController(ArtistSearchInputBoundary inputBoundary) {
+        this(inputBoundary, UseCaseExecutor.callerThread());
+    }
+
+    public ArtistSearchController(ArtistSearchInputBoundary inputBoundary, UseCaseExecutor executor) {
         this.interactor = inputBoundary;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<Void> searchArtists(String artistName, String country, String type, int limit,
+                                                 int offset) {
+        return searchArtists(artistName, country, type, limit, offset, new RequestHandle());
     }
 
-    public void searchArtists(String artistName, String country, int limit, int offset) {
-        ArtistSearchInputData inputData = new ArtistSearchInputData(artistName, country, limit, offset);
-        interactor.execute(inputData);
+    public CompletableFuture<Void> searchArtists(String artistName, String country, String type, int limit,
+                                                 int offset, RequestHandle handle) {
+        ArtistSearchInputData inputData = new ArtistSearchInputData(artistName, country, type, limit, offset);
+        return executor.submit(USE_CASE, () -> interactor.execute(inputData, handle));
     }
 }
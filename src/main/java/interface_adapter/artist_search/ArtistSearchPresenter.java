@@ -1,17 +1,37 @@
 package interface_adapter.artist_search;
 
+import Use_case.RequestHandle;
 import Use_case.artist_search.ArtistSearchOutputBoundary;
 import Use_case.artist_search.ArtistSearchOutputData;
 import view.ArtistListingView;
 
+import javax.swing.SwingUtilities;
+
 public class ArtistSearchPresenter implements ArtistSearchOutputBoundary {
     private final ArtistListingView artistListingView;
     public ArtistSearchPresenter(ArtistListingView artistListingView) {
         this.artistListingView = artistListingView;
     }
 
+    // Results arrive on a network thread; Swing must only be touched on the EDT. A newer search may
+    // have replaced this one while the results waited for the EDT, so they are checked again there.
     @Override
     public void presentResults(ArtistSearchOutputData outputData) {
-        artistListingView.presentResults(outputData.getArtists());
+        SwingUtilities.invokeLater(() -> {
+            if (outputData.isCancelled()) {
+                return;
+            }
+            artistListingView.presentCorrection(outputData.getCorrectedQuery(), outputData.getSuggestedQuery());
+            artistListingView.presentResults(outputData.getArtists());
+        });
+    }
+
+    @Override
+    public void prepareFailView(String errorMessage, RequestHandle handle) {
+        SwingUtilities.invokeLater(() -> {
+            if (!handle.isCancelled()) {
+                artistListingView.presentError(errorMessage);
+            }
+        });
     }
 }
@@ -0,0 +1,16 @@
+package interface_adapter.autocomplete;
+
+import Use_case.autocomplete.AutocompleteInputBoundary;
+import Use_case.autocomplete.AutocompleteInputData;
+
+public class AutocompleteController {
+    private final AutocompleteInputBoundary interactor;
+
+    public AutocompleteController(AutocompleteInputBoundary inputBoundary) {
+        this.interactor = inputBoundary;
+    }
+
+    public void suggestArtists(String prefix, int limit) {
+        interactor.execute(new AutocompleteInputData(prefix, limit));
+    }
+}
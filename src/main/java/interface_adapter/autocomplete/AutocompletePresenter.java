@@ -0,0 +1,22 @@
+package interface_adapter.autocomplete;
+
+import Use_case.autocomplete.AutocompleteOutputBoundary;
+import Use_case.autocomplete.AutocompleteOutputData;
+import view.ArtistListingView;
+
+import javax.swing.SwingUtilities;
+
+public class AutocompletePresenter implements AutocompleteOutputBoundary {
+    private final ArtistListingView artistListingView;
+
+    public AutocompletePresenter(ArtistListingView artistListingView) {
+        this.artistListingView = artistListingView;
+    }
+
+    // Suggestions may complete on a background thread; Swing must only be touched on the EDT.
+    @Override
+    public void presentSuggestions(AutocompleteOutputData outputData) {
+        SwingUtilities.invokeLater(() ->
+                artistListingView.presentSuggestions(outputData.getPrefix(), outputData.getSuggestions()));
+    }
+}
@@ -1,17 +1,34 @@
 package interface_adapter.event_search;
 
+import java.util.concurrent.CompletableFuture;
+
+import Use_case.RequestHandle;
 import Use_case.event_search.EventSearchInputBoundary;
 import Use_case.event_search.EventSearchInputData;
+import interface_adapter.UseCaseExecutor;
 
 public class EventSearchController {
+    public static final String USE_CASE = "event-search";
+
     private final EventSearchInputBoundary interactor;
+    private final UseCaseExecutor executor;
 
     public EventSearchController(EventSearchInputBoundary inputBoundary) {
+        this(inputBoundary, UseCaseExecutor.callerThread());
+    }
+
+    public EventSearchController(EventSearchInputBoundary inputBoundary, UseCaseExecutor executor) {
         this.interactor = inputBoundary;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<Void> searchEvents(String eventName, String location, int limit, int offset) {
+        return searchEvents(eventName, location, limit, offset, new RequestHandle());
     }
 
-    public void searchEvents(String eventName, String location, int limit, int offset) {
+    public CompletableFuture<Void> searchEvents(String eventName, String location, int limit, int offset,
+                                                RequestHandle handle) {
         EventSearchInputData inputData = new EventSearchInputData(eventName, location, limit, offset);
-        interactor.execute(inputData);
+        return executor.submit(USE_CASE, () -> interactor.execute(inputData, handle));
     }
 }
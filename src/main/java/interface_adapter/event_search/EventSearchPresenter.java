@@ -5,6 +5,8 @@ import Use_case.event_search.EventSearchOutputData;
 import data_transfer_object.Event;
 import view.EventListingView;
 
+import javax.swing.SwingUtilities;
+
 public class EventSearchPresenter implements EventSearchOutputBoundary {
     private final EventListingView eventListingView;
 
@@ -12,9 +14,18 @@ public class EventSearchPresenter implements EventSearchOutputBoundary {
         this.eventListingView = eventListingView;
     }
 
+    // Results arrive on a network thread; Swing must only be touched on the EDT.
     @Override
     public void presentResults(EventSearchOutputData outputData) {
         Event[] results = outputData.getEvents();
-        eventListingView.presentResults(results);
+        SwingUtilities.invokeLater(() -> {
+            eventListingView.presentCorrection(outputData.getCorrectedQuery(), outputData.getSuggestedQuery());
+            eventListingView.presentResults(results);
+        });
+    }
+
+    @Override
+    public void prepareFailView(String errorMessage) {
+        SwingUtilities.invokeLater(() -> eventListingView.presentError(errorMessage));
     }
 }
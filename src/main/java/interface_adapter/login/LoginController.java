@@ -1,18 +1,29 @@
 package interface_adapter.login;
 
+import java.util.concurrent.CompletableFuture;
+
 import Use_case.login.LoginInputBoundary;
 import Use_case.login.LoginInputData;
+import interface_adapter.UseCaseExecutor;
 
 public class LoginController {
+    public static final String USE_CASE = "login";
+
     private final LoginInputBoundary loginInteractor;
+    private final UseCaseExecutor executor;
 
     public LoginController(LoginInputBoundary loginInteractor) {
+        this(loginInteractor, UseCaseExecutor.callerThread());
+    }
+
+    public LoginController(LoginInputBoundary loginInteractor, UseCaseExecutor executor) {
         this.loginInteractor = loginInteractor;
+        this.executor = executor;
     }
 
-    public void execute(String username, String password) {
+    public CompletableFuture<Void> execute(String username, String password) {
         final LoginInputData loginInputData = new LoginInputData(username, password);
-        loginInteractor.execute(loginInputData);
+        return executor.submit(USE_CASE, () -> loginInteractor.execute(loginInputData));
     }
 
     public void goSignupView() {
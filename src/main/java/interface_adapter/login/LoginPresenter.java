@@ -4,20 +4,24 @@ package interface_adapter.login;
 import Use_case.login.LoginOutputBoundary;
 import view.LoginView;
 
+import javax.swing.SwingUtilities;
+
 public class LoginPresenter implements LoginOutputBoundary {
     private final LoginView view;
 
     public LoginPresenter(LoginView view) {
         this.view = view;
     }
+
+    // The interactor runs on a use case thread; Swing must only be touched on the EDT.
     @Override
     public void prepareMainMenuView() {
-        view.toMainMenuView();
+        SwingUtilities.invokeLater(view::toMainMenuView);
     }
 
     @Override
     public void prepareFailView() {
-        view.loginFailureView();
+        SwingUtilities.invokeLater(view::loginFailureView);
     }
 
     @Override
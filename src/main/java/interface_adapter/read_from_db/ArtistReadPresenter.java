@@ -4,6 +4,7 @@ import view.ArtistListingView;
 import Use_case.read_from_db.ReadOutputBoundary;
 import Use_case.read_from_db.ReadOutputData;
 
+import javax.swing.SwingUtilities;
 import java.util.Map;
 
 public class ArtistReadPresenter implements ReadOutputBoundary {
@@ -17,8 +18,28 @@ public class ArtistReadPresenter implements ReadOutputBoundary {
 
         Map<String, String> comments = readOutputData.getComments();
         double averageRating = readOutputData.getAverageRating();
-        artistListingView.createArtistDetailView(readOutputData.getRecording(),
-                comments, readOutputData.getArtist(), averageRating);
+        // Songs arrive on a network thread; Swing must only be touched on the EDT.
+        SwingUtilities.invokeLater(() -> artistListingView.createArtistDetailView(readOutputData.getRecording(),
+                comments, readOutputData.getCommentsCursor(), readOutputData.getArtist(), averageRating,
+                readOutputData.getRatingCount()));
 
     }
+
+    @Override
+    public void presentTopSongs(ReadOutputData readOutputData) {
+        SwingUtilities.invokeLater(() -> artistListingView.presentTopSongs(readOutputData.getArtist(),
+                readOutputData.getRecording()));
+    }
+
+    @Override
+    public void presentComments(ReadOutputData readOutputData) {
+        SwingUtilities.invokeLater(() -> artistListingView.presentComments(readOutputData.getArtist(),
+                readOutputData.getComments(), readOutputData.getCommentsCursor()));
+    }
+
+    @Override
+    public void presentOlderComments(ReadOutputData readOutputData) {
+        SwingUtilities.invokeLater(() -> artistListingView.presentOlderComments(readOutputData.getArtist(),
+                readOutputData.getComments(), readOutputData.getCommentsCursor()));
+    }
 }
@@ -1,19 +1,51 @@
 package interface_adapter.read_from_db;
 
+import java.util.concurrent.CompletableFuture;
+
+import Use_case.RequestHandle;
 import Use_case.read_from_db.ReadInputBoundary;
 import Use_case.read_from_db.ReadInputData;
 import data_transfer_object.Artist;
+import interface_adapter.UseCaseExecutor;
 
 public class ReadController {
+    public static final String USE_CASE = "artist-read";
+    public static final String PREFETCH_USE_CASE = "artist-prefetch";
+    public static final String COMMENTS_PAGE_USE_CASE = "artist-comments-page";
+
     private final ReadInputBoundary readInteractor;
+    private final UseCaseExecutor executor;
 
     public ReadController(ReadInputBoundary readInteractor) {
+        this(readInteractor, UseCaseExecutor.callerThread());
+    }
+
+    public ReadController(ReadInputBoundary readInteractor, UseCaseExecutor executor) {
         this.readInteractor = readInteractor;
+        this.executor = executor;
     }
 
-    public void execute(String documentID, Artist artist) {
+    public CompletableFuture<Void> execute(String documentID, Artist artist) {
+        return execute(documentID, artist, new RequestHandle());
+    }
+
+    public CompletableFuture<Void> execute(String documentID, Artist artist, RequestHandle handle) {
         final ReadInputData readInputData = new ReadInputData(documentID, artist);
 
-        readInteractor.execute(readInputData);
+        return executor.submit(USE_CASE, () -> readInteractor.execute(readInputData, handle));
+    }
+
+    public CompletableFuture<Void> prefetch(String documentID, Artist artist) {
+        final ReadInputData readInputData = new ReadInputData(documentID, artist);
+
+        return executor.submit(PREFETCH_USE_CASE, () -> readInteractor.prefetch(readInputData));
+    }
+
+    public CompletableFuture<Void> loadOlderComments(String documentID, Artist artist, String cursor,
+                                                     RequestHandle handle) {
+        final ReadInputData readInputData = new ReadInputData(documentID, artist, cursor,
+                ReadInputData.DEFAULT_COMMENTS_PAGE_SIZE);
+
+        return executor.submit(COMMENTS_PAGE_USE_CASE, () -> readInteractor.readOlderComments(readInputData, handle));
     }
 }
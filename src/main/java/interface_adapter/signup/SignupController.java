@@ -1,14 +1,29 @@
 package interface_adapter.signup;
 
+import java.util.concurrent.CompletableFuture;
+
 import Use_case.signup.SignupInputBoundary;
 import Use_case.signup.SignupInputData;
+import interface_adapter.UseCaseExecutor;
 
 public class SignupController {
+    public static final String USE_CASE = "signup";
 
     private final SignupInputBoundary signupInteractor;
+    private final UseCaseExecutor executor;
 
     public SignupController(SignupInputBoundary signupInteractor) {
+        this(signupInteractor, UseCaseExecutor.callerThread());
+    }
+
+    /**
+     * Constructor.
+     * @param signupInteractor the interactor
+     * @param executor runs the interactor off the calling thread
+     */
+    public SignupController(SignupInputBoundary signupInteractor, UseCaseExecutor executor) {
         this.signupInteractor = signupInteractor;
+        this.executor = executor;
     }
 
     /**
@@ -16,12 +31,13 @@ public class SignupController {
      * @param username the username to sign up
      * @param password1 the password
      * @param password2 the password repeated
+     * @return a future completed when the interactor has returned.
      */
-    public void execute(String username, String password1, String password2) {
+    public CompletableFuture<Void> execute(String username, String password1, String password2) {
         final SignupInputData signupInputData = new SignupInputData(
                 username, password1, password2);
 
-        signupInteractor.execute(signupInputData);
+        return executor.submit(USE_CASE, () -> signupInteractor.execute(signupInputData));
     }
 
     /**
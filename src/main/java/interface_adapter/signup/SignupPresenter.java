@@ -3,25 +3,28 @@ package interface_adapter.signup;
 import Use_case.signup.SignupOutputBoundary;
 import view.SignupView;
 
+import javax.swing.SwingUtilities;
+
 public class SignupPresenter implements SignupOutputBoundary {
     private final SignupView view;
     public SignupPresenter(SignupView view) {
         this.view = view;
     }
 
+    // The interactor runs on a use case thread; Swing must only be touched on the EDT.
     @Override
     public void prepareSuccessView() {
-        view.signupSuccess();
+        SwingUtilities.invokeLater(view::signupSuccess);
     }
 
     @Override
     public void prepareFailView() {
-        view.signupFailure();
+        SwingUtilities.invokeLater(view::signupFailure);
     }
 
     @Override
     public void prepareUnmatchPasswordView() {
-        view.passwordUnmatched();
+        SwingUtilities.invokeLater(view::passwordUnmatched);
     }
 
     @Override
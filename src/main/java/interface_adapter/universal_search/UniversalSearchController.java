@@ -0,0 +1,29 @@
+package interface_adapter.universal_search;
+
+import java.util.concurrent.CompletableFuture;
+
+import Use_case.RequestHandle;
+import Use_case.universal_search.UniversalSearchInputBoundary;
+import Use_case.universal_search.UniversalSearchInputData;
+import interface_adapter.UseCaseExecutor;
+
+public class UniversalSearchController {
+    public static final String USE_CASE = "universal-search";
+
+    private final UniversalSearchInputBoundary interactor;
+    private final UseCaseExecutor executor;
+
+    public UniversalSearchController(UniversalSearchInputBoundary inputBoundary) {
+        this(inputBoundary, UseCaseExecutor.callerThread());
+    }
+
+    public UniversalSearchController(UniversalSearchInputBoundary inputBoundary, UseCaseExecutor executor) {
+        this.interactor = inputBoundary;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<Void> search(String query, int limit, RequestHandle handle) {
+        UniversalSearchInputData inputData = new UniversalSearchInputData(query, limit);
+        return executor.submit(USE_CASE, () -> interactor.execute(inputData, handle));
+    }
+}
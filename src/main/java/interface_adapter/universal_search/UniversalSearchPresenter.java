@@ -0,0 +1,27 @@
+package interface_adapter.universal_search;
+
+import Use_case.universal_search.UniversalSearchOutputBoundary;
+import Use_case.universal_search.UniversalSearchOutputData;
+import view.UniversalSearchView;
+
+import javax.swing.SwingUtilities;
+
+public class UniversalSearchPresenter implements UniversalSearchOutputBoundary {
+    private final UniversalSearchView universalSearchView;
+
+    public UniversalSearchPresenter(UniversalSearchView universalSearchView) {
+        this.universalSearchView = universalSearchView;
+    }
+
+    // Results arrive on a network thread; Swing must only be touched on the EDT.
+    @Override
+    public void presentResults(UniversalSearchOutputData outputData) {
+        SwingUtilities.invokeLater(() -> universalSearchView.presentResults(
+                outputData.getHits(), outputData.isComplete(), outputData.getUnavailableSources()));
+    }
+
+    @Override
+    public void prepareFailView(String errorMessage) {
+        SwingUtilities.invokeLater(() -> universalSearchView.presentError(errorMessage));
+    }
+}
@@ -1,13 +1,30 @@
 package interface_adapter.writer;
 
+import java.util.concurrent.CompletableFuture;
+
 import Use_case.writer.WriterInputBoundary;
 import Use_case.writer.WriterInputData;
+import interface_adapter.UseCaseExecutor;
 
 public class WriterController {
+    public static final String USE_CASE = "comment";
+
     private final WriterInputBoundary writerInteractor;
+    private final UseCaseExecutor executor;
 
     public WriterController(WriterInputBoundary writerInteractor) {
+        this(writerInteractor, UseCaseExecutor.callerThread());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param writerInteractor The interactor.
+     * @param executor         Runs the interactor off the calling thread.
+     */
+    public WriterController(WriterInputBoundary writerInteractor, UseCaseExecutor executor) {
         this.writerInteractor = writerInteractor;
+        this.executor = executor;
     }
 
     /**
@@ -17,9 +34,10 @@ public class WriterController {
      * @param username The username of the user submitting the feedback.
      * @param comment  The comment text.
      * @param rating   The rating value.
+     * @return A future completed when the interactor has returned.
      */
-    public void execute(String artistId, String username, String comment, double rating) {
+    public CompletableFuture<Void> execute(String artistId, String username, String comment, double rating) {
         WriterInputData inputData = new WriterInputData(artistId, username, comment, rating);
-        writerInteractor.executeComment(inputData);
+        return executor.submit(USE_CASE, () -> writerInteractor.executeComment(inputData));
     }
 }
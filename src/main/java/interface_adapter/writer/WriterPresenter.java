@@ -3,19 +3,32 @@ package interface_adapter.writer;
 import Use_case.writer.WriterOutputBoundary;
 import view.ArtistDetailView;
 
+import javax.swing.SwingUtilities;
+
 public class WriterPresenter implements WriterOutputBoundary {
     private final ArtistDetailView artistDetailView;
 
     public WriterPresenter(ArtistDetailView artistDetailView) {
         this.artistDetailView = artistDetailView;
     }
+    // The interactor runs on a use case thread; Swing must only be touched on the EDT.
     @Override
     public void prepareSuccessView(String message) {
-        artistDetailView.commentSuccess(message);
+        SwingUtilities.invokeLater(() -> artistDetailView.commentSuccess(message));
     }
 
     @Override
     public void prepareFailView(String errorMessage) {
-        artistDetailView.commentFailure(errorMessage);
+        SwingUtilities.invokeLater(() -> artistDetailView.commentFailure(errorMessage));
+    }
+
+    @Override
+    public void prepareStoredView(String comment) {
+        SwingUtilities.invokeLater(() -> artistDetailView.commentStored(comment));
+    }
+
+    @Override
+    public void prepareReconcileView(String errorMessage) {
+        SwingUtilities.invokeLater(() -> artistDetailView.commentReverted(errorMessage));
     }
 }
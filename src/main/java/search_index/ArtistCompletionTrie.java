@@ -0,0 +1,322 @@
+package search_index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Prefix completion over artist names and aliases. Keys are folded like index terms, so "bjork" finds
+ * "Björk", and every word of a name is also a key start, so "beat" finds "The Beatles". Keys live in a
+ * radix trie (one node per branching point, edges labelled with whole substrings), and every node keeps
+ * the most popular artists below it, so a lookup costs one walk down the prefix and no search of the
+ * subtree. The trie is immutable once built.
+ */
+public final class ArtistCompletionTrie {
+
+    /** Most suggestions a lookup can return. */
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private static final int[] NO_ARTISTS = new int[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final char[] NO_CHARS = new char[0];
+
+    private final Node root;
+    private final String[] ids;
+    private final String[] names;
+    private final String[] countries;
+    private final String[] types;
+    private final int[] popularity;
+
+    private ArtistCompletionTrie(Node root, String[] ids, String[] names, String[] countries, String[] types,
+                                 int[] popularity) {
+        this.root = root;
+        this.ids = ids;
+        this.names = names;
+        this.countries = countries;
+        this.types = types;
+        this.popularity = popularity;
+    }
+
+    /**
+     * Build completions for every live artist of a searcher snapshot.
+     * @param searcher the snapshot
+     * @return the trie.
+     */
+    public static ArtistCompletionTrie build(ArtistSearcher searcher) {
+        final int size = searcher.size();
+        final String[] ids = new String[size];
+        final String[] names = new String[size];
+        final String[] countries = new String[size];
+        final String[] types = new String[size];
+        final int[] popularity = new int[size];
+        final Node root = new Node("");
+        int artist = 0;
+        for (int s = 0; s < searcher.segments().size(); s++) {
+            final Segment segment = searcher.segments().get(s);
+            final BitSet deleted = searcher.deletions().get(s);
+            for (int doc = 0; doc < segment.docCount(); doc++) {
+                if (deleted.get(doc)) {
+                    continue;
+                }
+                ids[artist] = segment.id(doc);
+                names[artist] = segment.name(doc);
+                countries[artist] = segment.country(doc);
+                types[artist] = segment.type(doc);
+                popularity[artist] = segment.popularity(doc);
+                insertKeys(root, segment.name(doc), artist);
+                for (String alias : segment.aliases(doc)) {
+                    insertKeys(root, alias, artist);
+                }
+                artist++;
+            }
+        }
+        final ArtistCompletionTrie trie = new ArtistCompletionTrie(root, ids, names, countries, types, popularity);
+        trie.rank(root);
+        return trie;
+    }
+
+    /**
+     * Return the most popular artists with a name or alias word starting with the prefix.
+     * @param prefix what has been typed so far
+     * @param limit maximum number of suggestions, at most {@link #MAX_SUGGESTIONS}
+     * @return the suggestions, most popular first.
+     */
+    public List<Completion> complete(String prefix, int limit) {
+        final String key = key(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        final Node node = find(key);
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        final int count = Math.min(limit, node.top.length);
+        final List<Completion> completions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final int artist = node.top[i];
+            completions.add(new Completion(ids[artist], names[artist], countries[artist], types[artist],
+                    popularity[artist]));
+        }
+        return completions;
+    }
+
+    /**
+     * Return how many artists can be suggested.
+     * @return the artist count.
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Walk down to the node whose subtree holds every key starting with the prefix.
+     */
+    private Node find(String prefix) {
+        Node node = root;
+        int matched = 0;
+        while (matched < prefix.length()) {
+            final Node child = node.child(prefix.charAt(matched));
+            if (child == null) {
+                return null;
+            }
+            final String label = child.label;
+            final int common = commonPrefix(label, prefix, matched);
+            if (matched + common == prefix.length()) {
+                // the prefix ends inside or at the end of this edge
+                return child;
+            }
+            if (common < label.length()) {
+                return null;
+            }
+            matched += common;
+            node = child;
+        }
+        return node;
+    }
+
+    private static void insertKeys(Node root, String text, int artist) {
+        final List<String> terms = TextAnalyzer.analyze(text);
+        for (int start = 0; start < terms.size(); start++) {
+            insert(root, String.join(" ", terms.subList(start, terms.size())), artist);
+        }
+    }
+
+    private static void insert(Node root, String key, int artist) {
+        Node node = root;
+        int matched = 0;
+        while (matched < key.length()) {
+            final Node child = node.child(key.charAt(matched));
+            if (child == null) {
+                final Node leaf = new Node(key.substring(matched));
+                leaf.addArtist(artist);
+                node.addChild(leaf);
+                return;
+            }
+            final int common = commonPrefix(child.label, key, matched);
+            if (common < child.label.length()) {
+                // split the edge at the point where the new key leaves it
+                final Node middle = new Node(child.label.substring(0, common));
+                node.replaceChild(child, middle);
+                child.label = child.label.substring(common);
+                middle.addChild(child);
+                node = middle;
+            }
+            else {
+                node = child;
+            }
+            matched += common;
+        }
+        node.addArtist(artist);
+    }
+
+    /**
+     * Fill every node's most popular artists from its own keys and its children's best, bottom up.
+     */
+    private void rank(Node node) {
+        int[] candidates = node.artists == null ? NO_ARTISTS : Arrays.copyOf(node.artists, node.artistCount);
+        for (Node child : node.children) {
+            rank(child);
+            final int[] merged = Arrays.copyOf(candidates, candidates.length + child.top.length);
+            System.arraycopy(child.top, 0, merged, candidates.length, child.top.length);
+            candidates = merged;
+        }
+        node.top = best(candidates);
+        node.artists = null;
+    }
+
+    private int[] best(int[] candidates) {
+        final Integer[] boxed = new Integer[candidates.length];
+        for (int i = 0; i < candidates.length; i++) {
+            boxed[i] = candidates[i];
+        }
+        Arrays.sort(boxed, (a, b) -> popularity[a] != popularity[b]
+                ? Integer.compare(popularity[b], popularity[a])
+                : Integer.compare(a, b));
+        final int[] top = new int[Math.min(MAX_SUGGESTIONS, boxed.length)];
+        int count = 0;
+        for (int i = 0; i < boxed.length && count < top.length; i++) {
+            // an artist reachable through both its name and an alias is listed once
+            if (count == 0 || top[count - 1] != boxed[i]) {
+                top[count++] = boxed[i];
+            }
+        }
+        return count == top.length ? top : Arrays.copyOf(top, count);
+    }
+
+    /**
+     * Fold text the way keys are folded. A trailing separator is kept, so "queen " only completes
+     * names with a word after "queen".
+     */
+    private static String key(String text) {
+        if (text == null) {
+            return "";
+        }
+        final String key = String.join(" ", TextAnalyzer.analyze(text));
+        final boolean trailing = !key.isEmpty() && !Character.isLetterOrDigit(text.charAt(text.length() - 1));
+        return trailing ? key + " " : key;
+    }
+
+    private static int commonPrefix(String label, String key, int keyFrom) {
+        int length = 0;
+        while (length < label.length() && keyFrom + length < key.length()
+                && label.charAt(length) == key.charAt(keyFrom + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * One trie node; the label is the edge leading into it.
+     */
+    private static final class Node {
+        private String label;
+        private char[] firstChars = NO_CHARS;
+        private Node[] children = NO_CHILDREN;
+        // artists whose key ends here; only needed until the trie is ranked
+        private int[] artists;
+        private int artistCount;
+        private int[] top = NO_ARTISTS;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node child(char first) {
+            final int index = Arrays.binarySearch(firstChars, first);
+            return index < 0 ? null : children[index];
+        }
+
+        void addChild(Node child) {
+            final char first = child.label.charAt(0);
+            final int index = -Arrays.binarySearch(firstChars, first) - 1;
+            final char[] chars = new char[firstChars.length + 1];
+            final Node[] nodes = new Node[children.length + 1];
+            System.arraycopy(firstChars, 0, chars, 0, index);
+            System.arraycopy(children, 0, nodes, 0, index);
+            chars[index] = first;
+            nodes[index] = child;
+            System.arraycopy(firstChars, index, chars, index + 1, firstChars.length - index);
+            System.arraycopy(children, index, nodes, index + 1, children.length - index);
+            firstChars = chars;
+            children = nodes;
+        }
+
+        void replaceChild(Node old, Node replacement) {
+            children[Arrays.binarySearch(firstChars, old.label.charAt(0))] = replacement;
+        }
+
+        void addArtist(int artist) {
+            if (artists == null) {
+                artists = new int[1];
+            }
+            else if (artistCount > 0 && artists[artistCount - 1] == artist) {
+                return;
+            }
+            else if (artistCount == artists.length) {
+                artists = Arrays.copyOf(artists, artistCount * 2);
+            }
+            artists[artistCount++] = artist;
+        }
+    }
+
+    /**
+     * One suggested artist.
+     */
+    public static final class Completion {
+        private final String id;
+        private final String name;
+        private final String country;
+        private final String type;
+        private final int popularity;
+
+        Completion(String id, String name, String country, String type, int popularity) {
+            this.id = id;
+            this.name = name;
+            this.country = country;
+            this.type = type;
+            this.popularity = popularity;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getCountry() {
+            return country;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public int getPopularity() {
+            return popularity;
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package search_index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Builds the local artist index from the MusicBrainz artist JSON dump (one artist object per line).
+ * The dump is streamed: one reader thread hands batches of lines through a bounded queue to parser
+ * threads, each of which fills its own in-memory segment and spills it to disk once it reaches a
+ * fixed size. The spilled segments are then merged into the final segment file. At no point is more
+ * than the queue plus one partial segment per thread held in memory.
+ */
+public class ArtistIndexBuilder {
+
+    /** Name of the built segment inside an index directory. */
+    public static final String SEGMENT_FILE = "artists.seg";
+
+    private static final int BATCH_LINES = 512;
+    private static final List<String> END = Collections.emptyList();
+
+    private final int workerCount;
+    private final int segmentDocs;
+
+    /**
+     * Constructor.
+     * @param workerCount parser threads
+     * @param segmentDocs artists per spilled segment
+     */
+    public ArtistIndexBuilder(int workerCount, int segmentDocs) {
+        this.workerCount = Math.max(1, workerCount);
+        this.segmentDocs = Math.max(1, segmentDocs);
+    }
+
+    /**
+     * Build an index.
+     * @param dump the extracted dump file ("mbdump/artist"), optionally gzip-compressed
+     * @param output the segment file to write
+     * @return what was indexed.
+     * @throws IOException if the dump cannot be read or the index cannot be written.
+     */
+    public BuildReport build(Path dump, Path output) throws IOException {
+        final long started = System.nanoTime();
+        final Path workDirectory = Files.createTempDirectory(output.toAbsolutePath().getParent(), "artist-index-");
+        final BlockingQueue<List<String>> queue = new ArrayBlockingQueue<>(workerCount * 4);
+        final List<Path> spilled = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger spillSequence = new AtomicInteger();
+        final AtomicLong indexed = new AtomicLong();
+        final AtomicLong skipped = new AtomicLong();
+        final AtomicBoolean failed = new AtomicBoolean();
+        final ExecutorService workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            final Thread thread = new Thread(runnable, "artist-index-builder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            final List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < workerCount; i++) {
+                results.add(workers.submit(() -> {
+                    try {
+                        parseBatches(queue, workDirectory, spilled, spillSequence, indexed, skipped);
+                    }
+                    catch (IOException | RuntimeException ex) {
+                        failed.set(true);
+                        throw ex;
+                    }
+                    return null;
+                }));
+            }
+            readLines(dump, queue, failed);
+            for (int i = 0; i < workerCount; i++) {
+                hand(queue, END, failed);
+            }
+            for (Future<?> result : results) {
+                await(result);
+            }
+            final List<Path> segments = new ArrayList<>(spilled);
+            Collections.sort(segments);
+            final Path merged = workDirectory.resolve("merged.seg");
+            if (segments.isEmpty()) {
+                new SegmentWriter().writeTo(merged);
+            }
+            else {
+                SegmentMerger.merge(segments, merged);
+            }
+            Files.move(merged, output, StandardCopyOption.REPLACE_EXISTING);
+            return new BuildReport(indexed.get(), skipped.get(), segments.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        }
+        finally {
+            workers.shutdownNow();
+            deleteDirectory(workDirectory);
+        }
+    }
+
+    private void readLines(Path dump, BlockingQueue<List<String>> queue, AtomicBoolean failed) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(openDump(dump), StandardCharsets.UTF_8),
+                1 << 16)) {
+            List<String> batch = new ArrayList<>(BATCH_LINES);
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                batch.add(line);
+                if (batch.size() == BATCH_LINES) {
+                    hand(queue, batch, failed);
+                    batch = new ArrayList<>(BATCH_LINES);
+                }
+            }
+            if (!batch.isEmpty()) {
+                hand(queue, batch, failed);
+            }
+        }
+    }
+
+    private void parseBatches(BlockingQueue<List<String>> queue, Path workDirectory, List<Path> spilled,
+                              AtomicInteger spillSequence, AtomicLong indexed, AtomicLong skipped)
+            throws IOException, InterruptedException {
+        SegmentWriter writer = new SegmentWriter();
+        for (List<String> batch = queue.take(); batch != END; batch = queue.take()) {
+            for (String line : batch) {
+                final IndexedArtist artist = parseArtist(line);
+                if (artist == null) {
+                    skipped.incrementAndGet();
+                    continue;
+                }
+                writer.add(artist);
+                indexed.incrementAndGet();
+                if (writer.size() >= segmentDocs) {
+                    spilled.add(spill(writer, workDirectory, spillSequence));
+                    writer = new SegmentWriter();
+                }
+            }
+        }
+        if (writer.size() > 0) {
+            spilled.add(spill(writer, workDirectory, spillSequence));
+        }
+    }
+
+    private static Path spill(SegmentWriter writer, Path workDirectory, AtomicInteger spillSequence)
+            throws IOException {
+        final Path file = workDirectory.resolve(String.format("part-%06d.seg", spillSequence.incrementAndGet()));
+        writer.writeTo(file);
+        return file;
+    }
+
+    /**
+     * Parse one dump line, reading only the fields the index uses.
+     * @param line one artist JSON object
+     * @return the artist, or null if the line is blank, malformed or lacks an id or name.
+     */
+    static IndexedArtist parseArtist(String line) {
+        if (line.isBlank()) {
+            return null;
+        }
+        String id = null;
+        String name = null;
+        String country = "";
+        String type = "";
+        int popularity = 0;
+        final List<String> aliases = new ArrayList<>();
+        try (JsonReader reader = new JsonReader(new StringReader(line))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "id":
+                        id = nextString(reader);
+                        break;
+                    case "name":
+                        name = nextString(reader);
+                        break;
+                    case "country":
+                        country = orEmpty(nextString(reader));
+                        break;
+                    case "type":
+                        type = orEmpty(nextString(reader));
+                        break;
+                    case "aliases":
+                        readAliases(reader, aliases);
+                        break;
+                    case "rating":
+                        popularity = readVotes(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        catch (IOException | IllegalStateException | NumberFormatException ex) {
+            return null;
+        }
+        if (id == null || id.isEmpty() || name == null) {
+            return null;
+        }
+        return new IndexedArtist(id, name, country, type, popularity, aliases);
+    }
+
+    private static void readAliases(JsonReader reader, List<String> aliases) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("name".equals(reader.nextName())) {
+                    final String alias = nextString(reader);
+                    if (alias != null) {
+                        aliases.add(alias);
+                    }
+                }
+                else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        reader.endArray();
+    }
+
+    private static int readVotes(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return 0;
+        }
+        int votes = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("votes-count".equals(reader.nextName()) && reader.peek() == JsonToken.NUMBER) {
+                votes = reader.nextInt();
+            }
+            else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return votes;
+    }
+
+    private static String nextString(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.STRING) {
+            return reader.nextString();
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    private static String orEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static InputStream openDump(Path dump) throws IOException {
+        final InputStream in = Files.newInputStream(dump);
+        return dump.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(in, 1 << 16) : in;
+    }
+
+    /**
+     * Put a batch on the queue, giving up if a parser thread has died.
+     */
+    private static void hand(BlockingQueue<List<String>> queue, List<String> batch, AtomicBoolean failed)
+            throws IOException {
+        try {
+            while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                if (failed.get()) {
+                    throw new IOException("Artist index build aborted by a parser failure.");
+                }
+            }
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while building the artist index.", ex);
+        }
+    }
+
+    private static void await(Future<?> result) throws IOException {
+        try {
+            result.get();
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while building the artist index.", ex);
+        }
+        catch (ExecutionException ex) {
+            throw new IOException("Artist index build failed: " + ex.getCause().getMessage(), ex.getCause());
+        }
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    /**
+     * Build an index from the command line.
+     * @param args the dump file and the index directory
+     * @throws IOException if the build fails.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: ArtistIndexBuilder <mbdump/artist> <index directory>");
+            System.exit(2);
+        }
+        final Path directory = Paths.get(args[1]);
+        Files.createDirectories(directory);
+        final ArtistIndexBuilder builder = new ArtistIndexBuilder(
+                Runtime.getRuntime().availableProcessors(), 200_000);
+        System.out.println(builder.build(Paths.get(args[0]), directory.resolve(SEGMENT_FILE)));
+    }
+
+    /**
+     * Summary of one index build.
+     */
+    public static final class BuildReport {
+        private final long artists;
+        private final long skippedLines;
+        private final int segments;
+        private final long millis;
+
+        BuildReport(long artists, long skippedLines, int segments, long millis) {
+            this.artists = artists;
+            this.skippedLines = skippedLines;
+            this.segments = segments;
+            this.millis = millis;
+        }
+
+        public long getArtists() {
+            return artists;
+        }
+
+        public long getSkippedLines() {
+            return skippedLines;
+        }
+
+        public int getSegments() {
+            return segments;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("indexed %d artists (%d lines skipped) from %d segments in %d ms",
+                    artists, skippedLines, segments, millis);
+        }
+    }
+}
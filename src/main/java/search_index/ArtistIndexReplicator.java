@@ -0,0 +1,87 @@
+package search_index;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a live artist index current by applying the replication packets that appear in a directory.
+ * Polling, applying and merging all happen on one background thread, so they never overlap each other
+ * and never hold up searches.
+ */
+public class ArtistIndexReplicator implements AutoCloseable {
+
+    private final LiveArtistIndex index;
+    private final Path packetDirectory;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "artist-index-replication");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructor.
+     * @param index the index to keep current
+     * @param packetDirectory where replication packets are dropped
+     */
+    public ArtistIndexReplicator(LiveArtistIndex index, Path packetDirectory) {
+        this.index = index;
+        this.packetDirectory = packetDirectory;
+    }
+
+    /**
+     * Poll for packets now and then every period, in the background.
+     * @param periodSeconds seconds between polls
+     */
+    public void start(long periodSeconds) {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                poll();
+            }
+            catch (IOException | RuntimeException ex) {
+                // recorded in the index status; the next poll retries from the same packet
+                index.recordError(ex.getMessage());
+            }
+        }, 0, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Apply every pending packet in sequence order, then merge segments if needed.
+     * @return how many packets were applied.
+     * @throws IOException if a packet is missing or cannot be applied; earlier packets stay applied.
+     */
+    public int poll() throws IOException {
+        if (!Files.isDirectory(packetDirectory)) {
+            return 0;
+        }
+        final long applied = index.sequence();
+        final List<Path> pending = new ArrayList<>();
+        try (var files = Files.list(packetDirectory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (ReplicationPacket.sequenceOf(file) > applied) {
+                    pending.add(file);
+                }
+            }
+        }
+        pending.sort(Comparator.comparingLong(ReplicationPacket::sequenceOf));
+        int count = 0;
+        for (Path packet : pending) {
+            if (index.apply(packet)) {
+                count++;
+            }
+        }
+        index.mergeIfNeeded();
+        return count;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
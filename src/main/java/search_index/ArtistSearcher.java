@@ -0,0 +1,311 @@
+package search_index;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Ranks artists in a set of segments. Names are scored with BM25; aliases count at half weight and
+ * without length normalisation, so "Ye" still finds Kanye West but below an artist actually called Ye.
+ * Term statistics are combined across segments, which keeps scores comparable however the index was
+ * split. A small popularity prior (MusicBrainz rating votes) breaks near-ties towards well-known artists.
+ * Country and type are exact filters rather than scored terms. Documents superseded or deleted by
+ * replication are skipped but still count towards term statistics until their segment is merged away.
+ */
+public class ArtistSearcher {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double ALIAS_WEIGHT = 0.5;
+    private static final double POPULARITY_WEIGHT = 0.1;
+
+    private static final ThreadLocal<float[]> SCORES = ThreadLocal.withInitial(() -> new float[0]);
+
+    private final List<Segment> segments;
+    private final List<BitSet> deletions;
+    private final int docCount;
+    private final int liveCount;
+    private final double averageNameLength;
+
+    /**
+     * Constructor.
+     * @param segments the segments to search
+     */
+    public ArtistSearcher(List<Segment> segments) {
+        this(segments, Collections.nCopies(segments.size(), new BitSet()));
+    }
+
+    /**
+     * Constructor.
+     * @param segments the segments to search
+     * @param deletions per segment, the documents to leave out
+     */
+    public ArtistSearcher(List<Segment> segments, List<BitSet> deletions) {
+        this.segments = List.copyOf(segments);
+        this.deletions = List.copyOf(deletions);
+        int docs = 0;
+        int deleted = 0;
+        long nameLength = 0;
+        for (int s = 0; s < segments.size(); s++) {
+            docs += segments.get(s).docCount();
+            deleted += deletions.get(s).cardinality();
+            nameLength += segments.get(s).totalNameLength();
+        }
+        this.docCount = docs;
+        this.liveCount = docs - deleted;
+        this.averageNameLength = docs == 0 ? 1.0 : Math.max(1.0, (double) nameLength / docs);
+    }
+
+    /**
+     * Open a searcher over one segment file.
+     * @param file the segment file
+     * @return the searcher.
+     * @throws IOException if the file cannot be read.
+     */
+    public static ArtistSearcher open(Path file) throws IOException {
+        return new ArtistSearcher(Collections.singletonList(Segment.read(file)));
+    }
+
+    List<Segment> segments() {
+        return segments;
+    }
+
+    List<BitSet> deletions() {
+        return deletions;
+    }
+
+    /**
+     * Visit every name and alias term with the number of artists, per segment, that use it.
+     * A term used in several segments is visited once per segment.
+     * @param visitor receives the folded term and its document frequency
+     */
+    public void forEachTerm(ObjIntConsumer<String> visitor) {
+        for (Segment segment : segments) {
+            for (Map.Entry<String, Segment.Postings> term : segment.terms().entrySet()) {
+                final String key = term.getKey();
+                if (key.startsWith(SegmentFormat.NAME) || key.startsWith(SegmentFormat.ALIAS)) {
+                    visitor.accept(key.substring(SegmentFormat.NAME.length()), term.getValue().size());
+                }
+            }
+        }
+    }
+
+    /**
+     * Return how many artists are searchable.
+     * @return the document count.
+     */
+    public int size() {
+        return liveCount;
+    }
+
+    /**
+     * Search for artists.
+     * @param name free-text name query; blank ranks the filtered artists by popularity
+     * @param country ISO country code to filter by, or blank for any
+     * @param type artist type to filter by, or blank for any
+     * @param limit maximum number of hits
+     * @param offset number of leading hits to skip
+     * @return the hits, best first, scored 0-100 relative to the best hit of the query.
+     */
+    public List<Hit> search(String name, String country, String type, int limit, int offset) {
+        final Set<String> terms = new LinkedHashSet<>(TextAnalyzer.analyze(name));
+        final String countryKey = TextAnalyzer.keyword(country);
+        final String typeKey = TextAnalyzer.keyword(type);
+        if (limit <= 0 || terms.isEmpty() && countryKey.isEmpty() && typeKey.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final TopHits top = new TopHits(offset + limit);
+        for (int s = 0; s < segments.size(); s++) {
+            final Segment segment = segments.get(s);
+            if (terms.isEmpty()) {
+                collectByPopularity(s, segment, deletions.get(s), countryKey, typeKey, top);
+            }
+            else {
+                collectByRelevance(s, segment, deletions.get(s), terms, countryKey, typeKey, top);
+            }
+        }
+        return top.page(offset);
+    }
+
+    private void collectByRelevance(int s, Segment segment, BitSet deleted, Set<String> terms, String countryKey,
+                                    String typeKey, TopHits top) {
+        float[] scores = SCORES.get();
+        if (scores.length < segment.docCount()) {
+            scores = new float[segment.docCount()];
+            SCORES.set(scores);
+        }
+        final List<Integer> touched = new ArrayList<>();
+        for (String term : terms) {
+            accumulate(segment, SegmentFormat.NAME + term, scores, touched, true);
+            accumulate(segment, SegmentFormat.ALIAS + term, scores, touched, false);
+        }
+        for (int doc : touched) {
+            final float score = scores[doc];
+            scores[doc] = 0f;
+            if (!deleted.get(doc) && matches(segment, doc, countryKey, typeKey)) {
+                top.offer(s, doc, score * (1.0 + POPULARITY_WEIGHT * Math.log1p(segment.popularity(doc))));
+            }
+        }
+    }
+
+    private void accumulate(Segment segment, String term, float[] scores, List<Integer> touched, boolean name) {
+        final Segment.Postings postings = segment.postings(term);
+        if (postings == null) {
+            return;
+        }
+        final double idf = idf(term);
+        for (int i = 0; i < postings.size(); i++) {
+            final int doc = postings.doc(i);
+            final int tf = postings.freq(i);
+            final double score;
+            if (name) {
+                final double norm = 1 - B + B * segment.nameLength(doc) / averageNameLength;
+                score = idf * tf * (K1 + 1) / (tf + K1 * norm);
+            }
+            else {
+                score = ALIAS_WEIGHT * idf * tf * (K1 + 1) / (tf + K1);
+            }
+            if (scores[doc] == 0f) {
+                touched.add(doc);
+            }
+            scores[doc] += (float) score;
+        }
+    }
+
+    private void collectByPopularity(int s, Segment segment, BitSet deleted, String countryKey, String typeKey,
+                                     TopHits top) {
+        final String filterTerm = countryKey.isEmpty()
+                ? SegmentFormat.TYPE + typeKey
+                : SegmentFormat.COUNTRY + countryKey;
+        final Segment.Postings postings = segment.postings(filterTerm);
+        if (postings == null) {
+            return;
+        }
+        for (int i = 0; i < postings.size(); i++) {
+            final int doc = postings.doc(i);
+            if (!deleted.get(doc) && matches(segment, doc, countryKey, typeKey)) {
+                top.offer(s, doc, segment.popularity(doc));
+            }
+        }
+    }
+
+    private static boolean matches(Segment segment, int doc, String countryKey, String typeKey) {
+        return (countryKey.isEmpty() || countryKey.equals(segment.countryKey(doc)))
+                && (typeKey.isEmpty() || typeKey.equals(segment.typeKey(doc)));
+    }
+
+    private double idf(String term) {
+        int docFrequency = 0;
+        for (Segment segment : segments) {
+            final Segment.Postings postings = segment.postings(term);
+            if (postings != null) {
+                docFrequency += postings.size();
+            }
+        }
+        return Math.log(1 + (docCount - docFrequency + 0.5) / (docFrequency + 0.5));
+    }
+
+    /**
+     * Bounded min-heap holding the best hits seen so far.
+     */
+    private final class TopHits {
+        private final int capacity;
+        private final PriorityQueue<Candidate> heap;
+
+        TopHits(int capacity) {
+            this.capacity = capacity;
+            this.heap = new PriorityQueue<>(Math.max(1, capacity), Candidate.ORDER);
+        }
+
+        void offer(int segment, int doc, double score) {
+            if (heap.size() < capacity) {
+                heap.add(new Candidate(segment, doc, score));
+            }
+            else if (score > heap.peek().score) {
+                heap.poll();
+                heap.add(new Candidate(segment, doc, score));
+            }
+        }
+
+        List<Hit> page(int offset) {
+            final List<Candidate> ranked = new ArrayList<>(heap);
+            ranked.sort(Candidate.ORDER.reversed());
+            if (ranked.isEmpty() || offset >= ranked.size()) {
+                return Collections.emptyList();
+            }
+            final double best = ranked.get(0).score;
+            final List<Hit> hits = new ArrayList<>(ranked.size() - offset);
+            for (Candidate candidate : ranked.subList(offset, ranked.size())) {
+                final Segment segment = segments.get(candidate.segment);
+                final int relative = best <= 0 ? 100 : (int) Math.round(100 * candidate.score / best);
+                hits.add(new Hit(segment.id(candidate.doc), segment.name(candidate.doc),
+                        segment.country(candidate.doc), segment.type(candidate.doc), relative));
+            }
+            return hits;
+        }
+    }
+
+    private static final class Candidate {
+        static final Comparator<Candidate> ORDER = Comparator.comparingDouble((Candidate c) -> c.score)
+                .thenComparing(c -> -c.segment)
+                .thenComparing(c -> -c.doc);
+
+        private final int segment;
+        private final int doc;
+        private final double score;
+
+        Candidate(int segment, int doc, double score) {
+            this.segment = segment;
+            this.doc = doc;
+            this.score = score;
+        }
+    }
+
+    /**
+     * One ranked artist.
+     */
+    public static final class Hit {
+        private final String id;
+        private final String name;
+        private final String country;
+        private final String type;
+        private final int score;
+
+        Hit(String id, String name, String country, String type, int score) {
+            this.id = id;
+            this.name = name;
+            this.country = country;
+            this.type = type;
+            this.score = score;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getCountry() {
+            return country;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public int getScore() {
+            return score;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package search_index;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The committed state of a live index directory: which segment files are current, which deletions
+ * apply to each, and how far replication has got. A new manifest is written beside the old one and
+ * renamed over it, so a crash leaves either the old or the new state, never a mix.
+ * <pre>
+ * generation 7
+ * sequence 1234
+ * timestamp 1760000000000
+ * segment seg-000003.seg seg-000003-7.del
+ * segment seg-000005.seg -
+ * </pre>
+ */
+final class IndexManifest {
+
+    static final String FILE = "manifest";
+    private static final String NO_DELETIONS = "-";
+
+    private final long generation;
+    private final long sequence;
+    private final long timestampMillis;
+    private final List<Entry> segments;
+
+    IndexManifest(long generation, long sequence, long timestampMillis, List<Entry> segments) {
+        this.generation = generation;
+        this.sequence = sequence;
+        this.timestampMillis = timestampMillis;
+        this.segments = List.copyOf(segments);
+    }
+
+    long generation() {
+        return generation;
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    long timestampMillis() {
+        return timestampMillis;
+    }
+
+    List<Entry> segments() {
+        return segments;
+    }
+
+    /**
+     * Read the manifest of a directory.
+     * @return the manifest, or null if the directory has none.
+     */
+    static IndexManifest read(Path directory) throws IOException {
+        long generation = 0;
+        long sequence = 0;
+        long timestamp = 0;
+        final List<Entry> segments = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(directory.resolve(FILE), StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                final String[] fields = line.trim().split(" ");
+                switch (fields[0]) {
+                    case "generation":
+                        generation = Long.parseLong(fields[1]);
+                        break;
+                    case "sequence":
+                        sequence = Long.parseLong(fields[1]);
+                        break;
+                    case "timestamp":
+                        timestamp = Long.parseLong(fields[1]);
+                        break;
+                    case "segment":
+                        segments.add(new Entry(fields[1], NO_DELETIONS.equals(fields[2]) ? null : fields[2]));
+                        break;
+                    default:
+                        // blank lines and unknown keys are ignored
+                }
+            }
+        }
+        catch (NoSuchFileException ex) {
+            return null;
+        }
+        catch (RuntimeException ex) {
+            throw new IOException("Corrupt index manifest in " + directory, ex);
+        }
+        return new IndexManifest(generation, sequence, timestamp, segments);
+    }
+
+    /**
+     * Atomically replace the manifest of a directory with this one.
+     */
+    void write(Path directory) throws IOException {
+        final Path temporary = directory.resolve(FILE + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            writer.write("generation " + generation + "\n");
+            writer.write("sequence " + sequence + "\n");
+            writer.write("timestamp " + timestampMillis + "\n");
+            for (Entry segment : segments) {
+                writer.write("segment " + segment.file + " "
+                        + (segment.deletionsFile == null ? NO_DELETIONS : segment.deletionsFile) + "\n");
+            }
+        }
+        Files.move(temporary, directory.resolve(FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * One segment file and the file of its deleted documents, if any.
+     */
+    static final class Entry {
+        final String file;
+        final String deletionsFile;
+
+        Entry(String file, String deletionsFile) {
+            this.file = file;
+            this.deletionsFile = deletionsFile;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package search_index;
+
+import java.util.List;
+
+/**
+ * One artist as it is stored in the local index.
+ */
+public final class IndexedArtist {
+
+    private final String id;
+    private final String name;
+    private final String country;
+    private final String type;
+    private final int popularity;
+    private final List<String> aliases;
+
+    /**
+     * Constructor.
+     * @param id the MusicBrainz id
+     * @param name the display name
+     * @param country the two-letter country code, or empty
+     * @param type the artist type such as "Group", or empty
+     * @param popularity how many users rated the artist, used as a ranking prior
+     * @param aliases alternative names that should also match
+     */
+    public IndexedArtist(String id, String name, String country, String type, int popularity, List<String> aliases) {
+        this.id = id;
+        this.name = name;
+        this.country = country == null ? "" : country;
+        this.type = type == null ? "" : type;
+        this.popularity = popularity;
+        this.aliases = List.copyOf(aliases);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public int getPopularity() {
+        return popularity;
+    }
+
+    public List<String> getAliases() {
+        return aliases;
+    }
+}
@@ -0,0 +1,311 @@
+package search_index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An artist index directory that stays current through replication packets instead of full rebuilds.
+ * Segments are immutable: a packet adds one new segment holding its new and changed artists, and marks
+ * the older copies of those artists, and any deleted ones, in per-segment deletion files. Small segments
+ * are merged in the background to keep their number bounded and to purge deleted documents.
+ * <p>
+ * Every change is committed by atomically replacing the manifest and then publishing a new immutable
+ * snapshot, so searches never wait for an update and never see half of one. A freshly built
+ * {@value ArtistIndexBuilder#SEGMENT_FILE} that the manifest does not know replaces the replicated state.
+ */
+public class LiveArtistIndex {
+
+    private static final int DELETIONS_MAGIC = 0x4d424944;
+    // merge everything once this share of the index is deleted documents
+    private static final double MAX_DELETED_RATIO = 0.2;
+
+    private final Path directory;
+    private final int maxSegments;
+    // segments are loaded once and shared by every snapshot that lists them; guarded by this
+    private final Map<String, Segment> loaded = new HashMap<>();
+    private volatile Snapshot snapshot;
+    private volatile long lastAppliedAtMillis;
+    private volatile String lastError;
+
+    private LiveArtistIndex(Path directory, int maxSegments) {
+        this.directory = directory;
+        this.maxSegments = Math.max(2, maxSegments);
+    }
+
+    /**
+     * Open an index directory.
+     * @param directory the directory holding the manifest and segments, or a freshly built dump segment
+     * @param maxSegments segment count above which small segments are merged
+     * @return the opened index.
+     * @throws IOException if the directory holds no index or it cannot be read.
+     */
+    public static LiveArtistIndex open(Path directory, int maxSegments) throws IOException {
+        final LiveArtistIndex index = new LiveArtistIndex(directory, maxSegments);
+        synchronized (index) {
+            IndexManifest manifest = IndexManifest.read(directory);
+            final boolean freshDump = Files.exists(directory.resolve(ArtistIndexBuilder.SEGMENT_FILE))
+                    && (manifest == null || !index.references(manifest, ArtistIndexBuilder.SEGMENT_FILE));
+            if (freshDump) {
+                final long generation = manifest == null ? 1 : manifest.generation() + 1;
+                manifest = new IndexManifest(generation, 0, 0, Collections.singletonList(
+                        new IndexManifest.Entry(ArtistIndexBuilder.SEGMENT_FILE, null)));
+            }
+            else if (manifest == null) {
+                throw new IOException("No artist index in " + directory);
+            }
+            index.commit(manifest);
+        }
+        return index;
+    }
+
+    /**
+     * Return a searcher over the current snapshot. It stays valid, and unchanged, however many
+     * updates land after it was taken.
+     * @return the searcher.
+     */
+    public ArtistSearcher searcher() {
+        return snapshot.searcher;
+    }
+
+    /**
+     * Apply one replication packet.
+     * @param packetFile the packet
+     * @return false if the packet was already applied.
+     * @throws IOException if the packet does not follow the last applied one or cannot be applied.
+     */
+    public synchronized boolean apply(Path packetFile) throws IOException {
+        try {
+            final boolean applied = apply(ReplicationPacket.read(packetFile));
+            lastError = null;
+            return applied;
+        }
+        catch (IOException ex) {
+            lastError = ex.getMessage();
+            throw ex;
+        }
+    }
+
+    private boolean apply(ReplicationPacket packet) throws IOException {
+        final Snapshot current = snapshot;
+        final long sequence = current.manifest.sequence();
+        if (packet.getSequence() <= sequence) {
+            return false;
+        }
+        // a dump-based index does not know its sequence, so it accepts any first packet
+        if (sequence != 0 && packet.getSequence() != sequence + 1) {
+            throw new IOException("Replication packet " + packet.getSequence() + " does not follow " + sequence
+                    + "; packets are missing.");
+        }
+        final long generation = current.manifest.generation() + 1;
+        final Set<String> replaced = new HashSet<>(packet.getDeletes());
+        for (IndexedArtist artist : packet.getUpserts()) {
+            replaced.add(artist.getId());
+        }
+        final List<IndexManifest.Entry> entries = new ArrayList<>();
+        for (int s = 0; s < current.segments.size(); s++) {
+            final IndexManifest.Entry entry = current.manifest.segments().get(s);
+            final Segment segment = current.segments.get(s);
+            final BitSet deleted = (BitSet) current.deletions.get(s).clone();
+            for (int doc = 0; doc < segment.docCount(); doc++) {
+                if (!deleted.get(doc) && replaced.contains(segment.id(doc))) {
+                    deleted.set(doc);
+                }
+            }
+            if (deleted.equals(current.deletions.get(s))) {
+                entries.add(entry);
+            }
+            else {
+                final String deletionsFile = baseName(entry.file) + "-" + generation + ".del";
+                writeDeletions(directory.resolve(deletionsFile), deleted);
+                entries.add(new IndexManifest.Entry(entry.file, deletionsFile));
+            }
+        }
+        if (!packet.getUpserts().isEmpty()) {
+            final SegmentWriter writer = new SegmentWriter();
+            for (IndexedArtist artist : packet.getUpserts()) {
+                writer.add(artist);
+            }
+            final String file = segmentName(generation);
+            writer.writeTo(directory.resolve(file));
+            entries.add(new IndexManifest.Entry(file, null));
+        }
+        commit(new IndexManifest(generation, packet.getSequence(), packet.getTimestampMillis(), entries));
+        lastAppliedAtMillis = System.currentTimeMillis();
+        return true;
+    }
+
+    /**
+     * Merge segments if there are too many or too much of the index is deleted documents.
+     * Searches carry on against the previous snapshot while the merge runs.
+     * @return true if a merge happened.
+     * @throws IOException if the merged segment cannot be written.
+     */
+    public synchronized boolean mergeIfNeeded() throws IOException {
+        final Snapshot current = snapshot;
+        final int segmentCount = current.segments.size();
+        final int deleted = current.deletedCount();
+        final int total = current.searcher.size() + deleted;
+        final int from;
+        if (deleted > MAX_DELETED_RATIO * total) {
+            from = 0;
+        }
+        else if (segmentCount > maxSegments) {
+            // keep the large base segment and fold the replication segments after it together
+            from = 1;
+        }
+        else {
+            return false;
+        }
+        final long generation = current.manifest.generation() + 1;
+        final List<Path> inputs = new ArrayList<>();
+        final List<BitSet> deletions = new ArrayList<>();
+        for (int s = from; s < segmentCount; s++) {
+            inputs.add(directory.resolve(current.manifest.segments().get(s).file));
+            deletions.add(current.deletions.get(s));
+        }
+        final String merged = segmentName(generation);
+        SegmentMerger.merge(inputs, deletions, directory.resolve(merged));
+        final List<IndexManifest.Entry> entries = new ArrayList<>(current.manifest.segments().subList(0, from));
+        entries.add(new IndexManifest.Entry(merged, null));
+        commit(new IndexManifest(generation, current.manifest.sequence(), current.manifest.timestampMillis(),
+                entries));
+        return true;
+    }
+
+    /**
+     * Return the current replication state.
+     * @return the status.
+     */
+    public ReplicationStatus status() {
+        final Snapshot current = snapshot;
+        final long timestamp = current.manifest.timestampMillis();
+        return new ReplicationStatus(current.manifest.sequence(),
+                timestamp == 0 ? -1 : Math.max(0, System.currentTimeMillis() - timestamp),
+                current.segments.size(), current.searcher.size(), current.deletedCount(), lastAppliedAtMillis,
+                lastError);
+    }
+
+    long sequence() {
+        return snapshot.manifest.sequence();
+    }
+
+    void recordError(String message) {
+        lastError = message;
+    }
+
+    /**
+     * Make a manifest durable, publish it to searches and remove the files it no longer needs.
+     */
+    private void commit(IndexManifest manifest) throws IOException {
+        final List<Segment> segments = new ArrayList<>();
+        final List<BitSet> deletions = new ArrayList<>();
+        for (IndexManifest.Entry entry : manifest.segments()) {
+            Segment segment = loaded.get(entry.file);
+            if (segment == null) {
+                segment = Segment.read(directory.resolve(entry.file));
+            }
+            segments.add(segment);
+            deletions.add(entry.deletionsFile == null
+                    ? new BitSet()
+                    : readDeletions(directory.resolve(entry.deletionsFile)));
+        }
+        manifest.write(directory);
+        loaded.clear();
+        for (int s = 0; s < segments.size(); s++) {
+            loaded.put(manifest.segments().get(s).file, segments.get(s));
+        }
+        snapshot = new Snapshot(manifest, segments, deletions);
+        removeUnreferencedFiles(manifest);
+    }
+
+    private void removeUnreferencedFiles(IndexManifest manifest) throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                final String name = file.getFileName().toString();
+                if ((name.endsWith(".seg") || name.endsWith(".del")) && !references(manifest, name)) {
+                    // searches hold their segments in memory, so the files can go at once
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private boolean references(IndexManifest manifest, String name) {
+        for (IndexManifest.Entry entry : manifest.segments()) {
+            if (entry.file.equals(name) || name.equals(entry.deletionsFile)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String segmentName(long generation) {
+        return String.format("seg-%06d.seg", generation);
+    }
+
+    private static String baseName(String segmentFile) {
+        return segmentFile.substring(0, segmentFile.length() - ".seg".length());
+    }
+
+    private static void writeDeletions(Path file, BitSet deleted) throws IOException {
+        final long[] words = deleted.toLongArray();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(DELETIONS_MAGIC);
+            out.writeInt(words.length);
+            for (long word : words) {
+                out.writeLong(word);
+            }
+        }
+    }
+
+    private static BitSet readDeletions(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != DELETIONS_MAGIC) {
+                throw new IOException("Not a deletions file: " + file);
+            }
+            final long[] words = new long[in.readInt()];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = in.readLong();
+            }
+            return BitSet.valueOf(words);
+        }
+    }
+
+    /**
+     * One committed, immutable state of the index.
+     */
+    private static final class Snapshot {
+        private final IndexManifest manifest;
+        private final List<Segment> segments;
+        private final List<BitSet> deletions;
+        private final ArtistSearcher searcher;
+
+        Snapshot(IndexManifest manifest, List<Segment> segments, List<BitSet> deletions) {
+            this.manifest = manifest;
+            this.segments = List.copyOf(segments);
+            this.deletions = List.copyOf(deletions);
+            this.searcher = new ArtistSearcher(segments, deletions);
+        }
+
+        int deletedCount() {
+            int deleted = 0;
+            for (BitSet bits : deletions) {
+                deleted += bits.cardinality();
+            }
+            return deleted;
+        }
+    }
+}
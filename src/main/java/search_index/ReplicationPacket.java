@@ -0,0 +1,144 @@
+package search_index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * One incremental change packet for the artist index, named "replication-&lt;sequence&gt;.jsonl"
+ * (optionally ".gz"). The first line is a header, {"sequence": 42, "timestamp": "2026-10-18T09:00:00Z"};
+ * every further line is either a complete artist object in dump format, which adds or replaces that
+ * artist, or {"delete": "&lt;artist id&gt;"}. Later lines win over earlier ones for the same artist.
+ */
+public final class ReplicationPacket {
+
+    private static final Pattern FILE_NAME = Pattern.compile("replication-(\\d+)\\.jsonl(\\.gz)?");
+
+    private final long sequence;
+    private final long timestampMillis;
+    private final Map<String, IndexedArtist> upserts;
+    private final Set<String> deletes;
+
+    private ReplicationPacket(long sequence, long timestampMillis, Map<String, IndexedArtist> upserts,
+                              Set<String> deletes) {
+        this.sequence = sequence;
+        this.timestampMillis = timestampMillis;
+        this.upserts = upserts;
+        this.deletes = deletes;
+    }
+
+    /**
+     * Return the sequence number encoded in a packet file name.
+     * @param file a file in the packet directory
+     * @return the sequence, or -1 if the file is not a packet.
+     */
+    public static long sequenceOf(Path file) {
+        final Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    /**
+     * Read a packet file.
+     * @param file the packet
+     * @return the parsed packet.
+     * @throws IOException if the file cannot be read or its header is invalid.
+     */
+    public static ReplicationPacket read(Path file) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(open(file), StandardCharsets.UTF_8))) {
+            final String header = reader.readLine();
+            if (header == null) {
+                throw new IOException("Empty replication packet " + file);
+            }
+            final long sequence;
+            final long timestamp;
+            try {
+                final JsonObject json = JsonParser.parseString(header).getAsJsonObject();
+                if (!json.has("sequence") || !json.has("timestamp")) {
+                    throw new IOException("Replication packet " + file + " has no sequence or timestamp.");
+                }
+                sequence = json.get("sequence").getAsLong();
+                timestamp = Instant.parse(json.get("timestamp").getAsString()).toEpochMilli();
+            }
+            catch (JsonParseException | IllegalStateException | UnsupportedOperationException
+                   | DateTimeParseException ex) {
+                throw new IOException("Invalid replication packet header in " + file, ex);
+            }
+            final Map<String, IndexedArtist> upserts = new LinkedHashMap<>();
+            final Set<String> deletes = new LinkedHashSet<>();
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                final String deleted = deletedId(line);
+                if (deleted != null) {
+                    upserts.remove(deleted);
+                    deletes.add(deleted);
+                    continue;
+                }
+                final IndexedArtist artist = ArtistIndexBuilder.parseArtist(line);
+                if (artist != null) {
+                    deletes.remove(artist.getId());
+                    upserts.put(artist.getId(), artist);
+                }
+            }
+            return new ReplicationPacket(sequence, timestamp, upserts, deletes);
+        }
+    }
+
+    private static String deletedId(String line) {
+        if (!line.contains("\"delete\"")) {
+            return null;
+        }
+        try {
+            final JsonObject json = JsonParser.parseString(line).getAsJsonObject();
+            return json.has("delete") ? json.get("delete").getAsString() : null;
+        }
+        catch (JsonParseException | IllegalStateException | UnsupportedOperationException ex) {
+            return null;
+        }
+    }
+
+    private static InputStream open(Path file) throws IOException {
+        final InputStream in = Files.newInputStream(file);
+        return file.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(in) : in;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    /**
+     * Return the artists added or changed by the packet.
+     * @return the new versions, one per artist.
+     */
+    public Collection<IndexedArtist> getUpserts() {
+        return upserts.values();
+    }
+
+    /**
+     * Return the ids of artists removed by the packet.
+     * @return the deleted ids.
+     */
+    public Set<String> getDeletes() {
+        return deletes;
+    }
+}
@@ -0,0 +1,80 @@
+package search_index;
+
+/**
+ * Point-in-time view of a live index and its replication progress.
+ */
+public final class ReplicationStatus {
+    private final long sequence;
+    private final long lagMillis;
+    private final int segments;
+    private final int liveArtists;
+    private final int deletedArtists;
+    private final long lastAppliedAtMillis;
+    private final String lastError;
+
+    ReplicationStatus(long sequence, long lagMillis, int segments, int liveArtists, int deletedArtists,
+                      long lastAppliedAtMillis, String lastError) {
+        this.sequence = sequence;
+        this.lagMillis = lagMillis;
+        this.segments = segments;
+        this.liveArtists = liveArtists;
+        this.deletedArtists = deletedArtists;
+        this.lastAppliedAtMillis = lastAppliedAtMillis;
+        this.lastError = lastError;
+    }
+
+    /**
+     * Return the sequence number of the last applied packet.
+     * @return the sequence, or 0 if the index is still the plain dump.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Return how far the index trails MusicBrainz: the age of the newest applied packet.
+     * @return the lag in milliseconds, or -1 if no packet has been applied.
+     */
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    public int getSegments() {
+        return segments;
+    }
+
+    public int getLiveArtists() {
+        return liveArtists;
+    }
+
+    /**
+     * Return how many superseded or deleted artists still occupy segments until the next merge.
+     * @return the deleted document count.
+     */
+    public int getDeletedArtists() {
+        return deletedArtists;
+    }
+
+    /**
+     * Return when the last packet was applied.
+     * @return epoch milliseconds, or 0 if none has been applied since the index was opened.
+     */
+    public long getLastAppliedAtMillis() {
+        return lastAppliedAtMillis;
+    }
+
+    /**
+     * Return why the last replication attempt failed.
+     * @return the message, or null if it succeeded.
+     */
+    public String getLastError() {
+        return lastError;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("sequence %d, lag %s, %d segments, %d artists (%d deleted)%s",
+                sequence, lagMillis < 0 ? "unknown" : lagMillis / 1000 + "s", segments, liveArtists,
+                deletedArtists, lastError == null ? "" : ", last error: " + lastError);
+    }
+}
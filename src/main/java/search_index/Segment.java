@@ -0,0 +1,175 @@
+package search_index;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One immutable segment of the artist index, loaded into memory.
+ */
+public final class Segment {
+
+    private final String[] ids;
+    private final String[] names;
+    private final String[] countries;
+    private final String[] types;
+    private final String[] countryKeys;
+    private final String[] typeKeys;
+    private final int[] popularity;
+    private final int[] nameLengths;
+    private final String[][] aliases;
+    private final long totalNameLength;
+    private final Map<String, Postings> terms;
+
+    private Segment(String[] ids, String[] names, String[] countries, String[] types, int[] popularity,
+                    int[] nameLengths, String[][] aliases, Map<String, Postings> terms) {
+        this.ids = ids;
+        this.names = names;
+        this.countries = countries;
+        this.types = types;
+        this.popularity = popularity;
+        this.nameLengths = nameLengths;
+        this.aliases = aliases;
+        this.terms = terms;
+        this.countryKeys = new String[ids.length];
+        this.typeKeys = new String[ids.length];
+        long nameLength = 0;
+        for (int doc = 0; doc < ids.length; doc++) {
+            countryKeys[doc] = TextAnalyzer.keyword(countries[doc]);
+            typeKeys[doc] = TextAnalyzer.keyword(types[doc]);
+            nameLength += nameLengths[doc];
+        }
+        this.totalNameLength = nameLength;
+    }
+
+    /**
+     * Load a segment file.
+     * @param file the segment file
+     * @return the segment.
+     * @throws IOException if the file cannot be read or is not a segment.
+     */
+    public static Segment read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            final int docCount = SegmentFormat.readHeader(in);
+            final String[] ids = new String[docCount];
+            final String[] names = new String[docCount];
+            final String[] countries = new String[docCount];
+            final String[] types = new String[docCount];
+            final int[] popularity = new int[docCount];
+            final int[] nameLengths = new int[docCount];
+            final String[][] aliases = new String[docCount][];
+            for (int doc = 0; doc < docCount; doc++) {
+                ids[doc] = in.readUTF();
+                names[doc] = in.readUTF();
+                countries[doc] = in.readUTF();
+                types[doc] = in.readUTF();
+                popularity[doc] = in.readInt();
+                nameLengths[doc] = in.readInt();
+                aliases[doc] = new String[SegmentFormat.readVInt(in)];
+                for (int alias = 0; alias < aliases[doc].length; alias++) {
+                    aliases[doc][alias] = in.readUTF();
+                }
+            }
+            final Map<String, Postings> terms = new HashMap<>();
+            for (String term = in.readUTF(); !term.isEmpty(); term = in.readUTF()) {
+                final int docFrequency = in.readInt();
+                final int[] docs = new int[docFrequency];
+                final int[] freqs = new int[docFrequency];
+                int doc = 0;
+                for (int i = 0; i < docFrequency; i++) {
+                    doc += SegmentFormat.readVInt(in);
+                    docs[i] = doc;
+                    freqs[i] = SegmentFormat.readVInt(in);
+                }
+                terms.put(term, new Postings(docs, freqs));
+            }
+            return new Segment(ids, names, countries, types, popularity, nameLengths, aliases, terms);
+        }
+    }
+
+    public int docCount() {
+        return ids.length;
+    }
+
+    public long totalNameLength() {
+        return totalNameLength;
+    }
+
+    /**
+     * Return the postings of a field-prefixed term.
+     * @param term the term, e.g. "n:queen"
+     * @return the postings, or null if no document has the term.
+     */
+    public Postings postings(String term) {
+        return terms.get(term);
+    }
+
+    Map<String, Postings> terms() {
+        return terms;
+    }
+
+    public String id(int doc) {
+        return ids[doc];
+    }
+
+    public String name(int doc) {
+        return names[doc];
+    }
+
+    public String country(int doc) {
+        return countries[doc];
+    }
+
+    public String type(int doc) {
+        return types[doc];
+    }
+
+    String countryKey(int doc) {
+        return countryKeys[doc];
+    }
+
+    String typeKey(int doc) {
+        return typeKeys[doc];
+    }
+
+    public int popularity(int doc) {
+        return popularity[doc];
+    }
+
+    public int nameLength(int doc) {
+        return nameLengths[doc];
+    }
+
+    String[] aliases(int doc) {
+        return aliases[doc];
+    }
+
+    /**
+     * Documents containing a term, in increasing order, with the term's frequency in each.
+     */
+    public static final class Postings {
+        private final int[] docs;
+        private final int[] freqs;
+
+        Postings(int[] docs, int[] freqs) {
+            this.docs = docs;
+            this.freqs = freqs;
+        }
+
+        public int size() {
+            return docs.length;
+        }
+
+        public int doc(int index) {
+            return docs[index];
+        }
+
+        public int freq(int index) {
+            return freqs[index];
+        }
+    }
+}
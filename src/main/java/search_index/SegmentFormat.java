@@ -0,0 +1,65 @@
+package search_index;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Layout shared by segment writers, readers and the merger.
+ * <pre>
+ * int magic, int version, int docCount
+ * docCount x (utf id, utf name, utf country, utf type, int popularity, int nameLength,
+ *             vint aliasCount, aliasCount x utf alias)
+ * sorted terms x (utf term, int docFrequency, docFrequency x (vint docDelta, vint termFrequency))
+ * utf "" (end of terms)
+ * </pre>
+ * Every term carries a field prefix: "n:" name, "a:" alias, "c:" country, "t:" type. Ending the term
+ * list with a marker instead of a leading count lets the merger stream its output.
+ */
+final class SegmentFormat {
+
+    static final int MAGIC = 0x4d424958;
+    static final int VERSION = 2;
+
+    static final String NAME = "n:";
+    static final String ALIAS = "a:";
+    static final String COUNTRY = "c:";
+    static final String TYPE = "t:";
+
+    private SegmentFormat() {
+    }
+
+    static void writeHeader(DataOutput out, int docCount) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(docCount);
+    }
+
+    static int readHeader(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not an artist index segment.");
+        }
+        return in.readInt();
+    }
+
+    static void writeVInt(DataOutput out, int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7f) != 0) {
+            out.writeByte((remaining & 0x7f) | 0x80);
+            remaining >>>= 7;
+        }
+        out.writeByte(remaining);
+    }
+
+    static int readVInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final byte b = in.readByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer.");
+    }
+}
@@ -0,0 +1,207 @@
+package search_index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Merges segment files into one without loading them: documents are copied in input order and the
+ * sorted term lists are combined with a k-way merge, so memory stays flat however large the inputs are.
+ * Deleted documents are dropped and the survivors renumbered.
+ */
+public final class SegmentMerger {
+
+    private SegmentMerger() {
+    }
+
+    /**
+     * Merge segment files.
+     * @param inputs the segments, in the order their documents should appear
+     * @param output the merged segment file
+     * @throws IOException if a segment cannot be read or the output cannot be written.
+     */
+    public static void merge(List<Path> inputs, Path output) throws IOException {
+        merge(inputs, Collections.nCopies(inputs.size(), new BitSet()), output);
+    }
+
+    /**
+     * Merge segment files, leaving out deleted documents.
+     * @param inputs the segments, in the order their documents should appear
+     * @param deletions per input, the documents to drop
+     * @param output the merged segment file
+     * @throws IOException if a segment cannot be read or the output cannot be written.
+     */
+    public static void merge(List<Path> inputs, List<BitSet> deletions, Path output) throws IOException {
+        final int[][] docMaps = new int[inputs.size()][];
+        int docCount = 0;
+        for (int i = 0; i < inputs.size(); i++) {
+            final int docs;
+            try (DataInputStream in = open(inputs.get(i))) {
+                docs = SegmentFormat.readHeader(in);
+            }
+            final BitSet deleted = deletions.get(i);
+            docMaps[i] = new int[docs];
+            for (int doc = 0; doc < docs; doc++) {
+                docMaps[i][doc] = deleted.get(doc) ? -1 : docCount++;
+            }
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(output)))) {
+            SegmentFormat.writeHeader(out, docCount);
+            for (int i = 0; i < inputs.size(); i++) {
+                try (DataInputStream in = open(inputs.get(i))) {
+                    final int docs = SegmentFormat.readHeader(in);
+                    for (int doc = 0; doc < docs; doc++) {
+                        if (docMaps[i][doc] < 0) {
+                            skipDocument(in);
+                        }
+                        else {
+                            copyDocument(in, out);
+                        }
+                    }
+                }
+            }
+            mergeTerms(inputs, docMaps, out);
+            out.writeUTF("");
+        }
+    }
+
+    private static void mergeTerms(List<Path> inputs, int[][] docMaps, DataOutputStream out) throws IOException {
+        final List<TermCursor> cursors = new ArrayList<>();
+        final PriorityQueue<TermCursor> queue = new PriorityQueue<>(
+                Comparator.comparing((TermCursor cursor) -> cursor.term).thenComparingInt(cursor -> cursor.segment));
+        try {
+            for (int i = 0; i < inputs.size(); i++) {
+                final DataInputStream in = open(inputs.get(i));
+                final TermCursor cursor = new TermCursor(i, docMaps[i], in);
+                cursors.add(cursor);
+                final int docs = SegmentFormat.readHeader(in);
+                for (int doc = 0; doc < docs; doc++) {
+                    skipDocument(in);
+                }
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+            final List<TermCursor> sameTerm = new ArrayList<>();
+            int[] docs = new int[64];
+            int[] freqs = new int[64];
+            while (!queue.isEmpty()) {
+                final String term = queue.peek().term;
+                sameTerm.clear();
+                // the queue breaks ties by segment, so postings come out in increasing document order
+                while (!queue.isEmpty() && queue.peek().term.equals(term)) {
+                    sameTerm.add(queue.poll());
+                }
+                // buffer one term's surviving postings, since its document frequency is written first
+                int docFrequency = 0;
+                for (TermCursor cursor : sameTerm) {
+                    int doc = 0;
+                    for (int i = 0; i < cursor.docFrequency; i++) {
+                        doc += SegmentFormat.readVInt(cursor.in);
+                        final int freq = SegmentFormat.readVInt(cursor.in);
+                        final int merged = cursor.docMap[doc];
+                        if (merged < 0) {
+                            continue;
+                        }
+                        if (docFrequency == docs.length) {
+                            docs = Arrays.copyOf(docs, docFrequency * 2);
+                            freqs = Arrays.copyOf(freqs, docFrequency * 2);
+                        }
+                        docs[docFrequency] = merged;
+                        freqs[docFrequency] = freq;
+                        docFrequency++;
+                    }
+                    if (cursor.advance()) {
+                        queue.add(cursor);
+                    }
+                }
+                if (docFrequency == 0) {
+                    continue;
+                }
+                out.writeUTF(term);
+                out.writeInt(docFrequency);
+                int previous = 0;
+                for (int i = 0; i < docFrequency; i++) {
+                    SegmentFormat.writeVInt(out, docs[i] - previous);
+                    SegmentFormat.writeVInt(out, freqs[i]);
+                    previous = docs[i];
+                }
+            }
+        }
+        finally {
+            for (TermCursor cursor : cursors) {
+                cursor.in.close();
+            }
+        }
+    }
+
+    private static void copyDocument(DataInputStream in, DataOutputStream out) throws IOException {
+        out.writeUTF(in.readUTF());
+        out.writeUTF(in.readUTF());
+        out.writeUTF(in.readUTF());
+        out.writeUTF(in.readUTF());
+        out.writeInt(in.readInt());
+        out.writeInt(in.readInt());
+        final int aliases = SegmentFormat.readVInt(in);
+        SegmentFormat.writeVInt(out, aliases);
+        for (int alias = 0; alias < aliases; alias++) {
+            out.writeUTF(in.readUTF());
+        }
+    }
+
+    private static void skipDocument(DataInputStream in) throws IOException {
+        for (int field = 0; field < 4; field++) {
+            in.readUTF();
+        }
+        in.readInt();
+        in.readInt();
+        final int aliases = SegmentFormat.readVInt(in);
+        for (int alias = 0; alias < aliases; alias++) {
+            in.readUTF();
+        }
+    }
+
+    private static DataInputStream open(Path file) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+    }
+
+    /**
+     * Read position in the term list of one input segment.
+     */
+    private static final class TermCursor {
+        private final int segment;
+        private final int[] docMap;
+        private final DataInputStream in;
+        private String term;
+        private int docFrequency;
+
+        TermCursor(int segment, int[] docMap, DataInputStream in) {
+            this.segment = segment;
+            this.docMap = docMap;
+            this.in = in;
+        }
+
+        /**
+         * Move to the next term; its postings must be consumed before advancing again.
+         */
+        boolean advance() throws IOException {
+            term = in.readUTF();
+            if (term.isEmpty()) {
+                return false;
+            }
+            docFrequency = in.readInt();
+            return true;
+        }
+    }
+}
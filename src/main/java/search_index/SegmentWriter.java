@@ -0,0 +1,123 @@
+package search_index;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accumulates artists and their postings in memory and writes them out as one immutable segment.
+ */
+public class SegmentWriter {
+
+    private final List<IndexedArtist> docs = new ArrayList<>();
+    private final Map<String, PostingsBuilder> terms = new HashMap<>();
+    private int[] nameLengths = new int[1024];
+
+    /**
+     * Add an artist as the next document.
+     * @param artist the artist
+     */
+    public void add(IndexedArtist artist) {
+        final int doc = docs.size();
+        docs.add(artist);
+        final List<String> nameTerms = TextAnalyzer.analyze(artist.getName());
+        if (doc == nameLengths.length) {
+            nameLengths = Arrays.copyOf(nameLengths, doc * 2);
+        }
+        nameLengths[doc] = nameTerms.size();
+        for (String term : nameTerms) {
+            addTerm(SegmentFormat.NAME + term, doc);
+        }
+        for (String alias : artist.getAliases()) {
+            for (String term : TextAnalyzer.analyze(alias)) {
+                addTerm(SegmentFormat.ALIAS + term, doc);
+            }
+        }
+        if (!artist.getCountry().isEmpty()) {
+            addTerm(SegmentFormat.COUNTRY + TextAnalyzer.keyword(artist.getCountry()), doc);
+        }
+        if (!artist.getType().isEmpty()) {
+            addTerm(SegmentFormat.TYPE + TextAnalyzer.keyword(artist.getType()), doc);
+        }
+    }
+
+    /**
+     * Return how many artists have been added.
+     * @return the document count.
+     */
+    public int size() {
+        return docs.size();
+    }
+
+    /**
+     * Write the segment file.
+     * @param file the destination
+     * @throws IOException if the file cannot be written.
+     */
+    public void writeTo(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            SegmentFormat.writeHeader(out, docs.size());
+            for (int doc = 0; doc < docs.size(); doc++) {
+                final IndexedArtist artist = docs.get(doc);
+                out.writeUTF(artist.getId());
+                out.writeUTF(artist.getName());
+                out.writeUTF(artist.getCountry());
+                out.writeUTF(artist.getType());
+                out.writeInt(artist.getPopularity());
+                out.writeInt(nameLengths[doc]);
+                SegmentFormat.writeVInt(out, artist.getAliases().size());
+                for (String alias : artist.getAliases()) {
+                    out.writeUTF(alias);
+                }
+            }
+            final String[] sorted = terms.keySet().toArray(new String[0]);
+            Arrays.sort(sorted);
+            for (String term : sorted) {
+                final PostingsBuilder postings = terms.get(term);
+                out.writeUTF(term);
+                out.writeInt(postings.size);
+                int previous = 0;
+                for (int i = 0; i < postings.size; i++) {
+                    SegmentFormat.writeVInt(out, postings.docs[i] - previous);
+                    SegmentFormat.writeVInt(out, postings.freqs[i]);
+                    previous = postings.docs[i];
+                }
+            }
+            out.writeUTF("");
+        }
+    }
+
+    private void addTerm(String term, int doc) {
+        terms.computeIfAbsent(term, key -> new PostingsBuilder()).add(doc);
+    }
+
+    /**
+     * Growable postings list; documents arrive in increasing order.
+     */
+    private static final class PostingsBuilder {
+        private int[] docs = new int[2];
+        private int[] freqs = new int[2];
+        private int size;
+
+        void add(int doc) {
+            if (size > 0 && docs[size - 1] == doc) {
+                freqs[size - 1]++;
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = 1;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package search_index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spelling correction by symmetric deletes (SymSpell). Every known word is stored together with all the
+ * strings reachable from its first few characters by deleting up to two characters; a misspelling is
+ * corrected by generating its own deletes and looking them up, so no edit-distance scan over the
+ * vocabulary is needed and a lookup costs a few dozen hash probes. Candidates are then verified with
+ * the optimal string alignment distance and the closest, most frequent word wins.
+ * <p>
+ * Words are folded like index terms. The dictionary can grow while it is being read.
+ */
+public final class SymSpellDictionary {
+
+    private static final int MAX_EDIT_DISTANCE = 2;
+    // deletes are only generated over this many leading characters, which bounds their number
+    private static final int PREFIX_LENGTH = 7;
+    // shorter words are too ambiguous to correct
+    private static final int MIN_WORD_LENGTH = 3;
+
+    private final int maxWords;
+    private final Map<String, Integer> words = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> deletes = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     * @param maxWords vocabulary size after which new words are ignored
+     */
+    public SymSpellDictionary(int maxWords) {
+        this.maxWords = maxWords;
+    }
+
+    /**
+     * Add occurrences of a word.
+     * @param word a folded term
+     * @param count how often it was seen
+     */
+    public void add(String word, int count) {
+        if (word.length() < MIN_WORD_LENGTH || count <= 0) {
+            return;
+        }
+        if (!words.containsKey(word) && words.size() >= maxWords) {
+            return;
+        }
+        if (words.merge(word, count, Integer::sum) > count) {
+            return;
+        }
+        final String prefix = prefix(word);
+        for (String variant : deletesOf(prefix)) {
+            deletes.computeIfAbsent(variant, key -> ConcurrentHashMap.newKeySet()).add(word);
+        }
+    }
+
+    /**
+     * Add every term of a name once.
+     * @param name a name as displayed
+     */
+    public void addText(String name) {
+        for (String term : TextAnalyzer.analyze(name)) {
+            add(term, 1);
+        }
+    }
+
+    /**
+     * Return how many words are known.
+     * @return the vocabulary size.
+     */
+    public int size() {
+        return words.size();
+    }
+
+    /**
+     * Correct every misspelled term of a query.
+     * @param query the query as typed
+     * @return the corrected, folded query, or null if no term needed or could be given a correction.
+     */
+    public String correct(String query) {
+        final List<String> terms = TextAnalyzer.analyze(query);
+        boolean changed = false;
+        final List<String> corrected = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            final String replacement = lookup(term);
+            if (replacement != null && !replacement.equals(term)) {
+                corrected.add(replacement);
+                changed = true;
+            }
+            else {
+                corrected.add(term);
+            }
+        }
+        return changed ? String.join(" ", corrected) : null;
+    }
+
+    /**
+     * Find the closest known word.
+     * @param term a folded term
+     * @return the term itself if known, the best correction, or null if nothing is close enough.
+     */
+    public String lookup(String term) {
+        if (words.containsKey(term)) {
+            return term;
+        }
+        if (term.length() < MIN_WORD_LENGTH) {
+            return null;
+        }
+        // short words tolerate one edit, longer ones two
+        final int maxDistance = term.length() <= 4 ? 1 : MAX_EDIT_DISTANCE;
+        String best = null;
+        int bestDistance = maxDistance + 1;
+        int bestCount = 0;
+        final Set<String> checked = new HashSet<>();
+        for (String variant : deletesOf(prefix(term))) {
+            final Set<String> candidates = deletes.get(variant);
+            if (candidates == null) {
+                continue;
+            }
+            for (String candidate : candidates) {
+                if (!checked.add(candidate) || Math.abs(candidate.length() - term.length()) > maxDistance) {
+                    continue;
+                }
+                final int distance = distance(term, candidate, bestDistance);
+                final int count = words.getOrDefault(candidate, 0);
+                if (distance < bestDistance || distance == bestDistance && (count > bestCount
+                        || count == bestCount && best != null && candidate.compareTo(best) < 0)) {
+                    best = candidate;
+                    bestDistance = distance;
+                    bestCount = count;
+                }
+            }
+        }
+        return best;
+    }
+
+    private static String prefix(String word) {
+        return word.length() > PREFIX_LENGTH ? word.substring(0, PREFIX_LENGTH) : word;
+    }
+
+    /**
+     * The word and every string obtained from it by deleting up to two characters.
+     */
+    private static Set<String> deletesOf(String word) {
+        final Set<String> variants = new HashSet<>();
+        variants.add(word);
+        List<String> frontier = Collections.singletonList(word);
+        for (int distance = 1; distance <= MAX_EDIT_DISTANCE; distance++) {
+            final List<String> next = new ArrayList<>();
+            for (String current : frontier) {
+                for (int i = 0; i < current.length() && current.length() > 1; i++) {
+                    final String variant = current.substring(0, i) + current.substring(i + 1);
+                    if (variants.add(variant)) {
+                        next.add(variant);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return variants;
+    }
+
+    /**
+     * Optimal string alignment distance (edits plus adjacent transpositions), giving up once it
+     * exceeds the limit.
+     */
+    static int distance(String a, String b, int limit) {
+        final int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            int rowMin = Integer.MAX_VALUE;
+            for (int j = 1; j <= b.length(); j++) {
+                final int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, d[i][j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+}
@@ -0,0 +1,70 @@
+package search_index;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Turns names into index terms: accents are folded ("Björk" matches "bjork"), text is lower-cased
+ * and split on anything that is not a letter or digit.
+ */
+public final class TextAnalyzer {
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * Split text into terms, in order, keeping duplicates.
+     * @param text the text; null is treated as empty
+     * @return the terms.
+     */
+    public static List<String> analyze(String text) {
+        final List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        final String folded = fold(text);
+        final StringBuilder term = new StringBuilder();
+        for (int i = 0; i < folded.length(); i++) {
+            final char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                term.append(c);
+            }
+            else if (term.length() > 0) {
+                terms.add(term.toString());
+                term.setLength(0);
+            }
+        }
+        if (term.length() > 0) {
+            terms.add(term.toString());
+        }
+        return terms;
+    }
+
+    /**
+     * Fold case and strip accents, keeping every other character.
+     * @param text the text
+     * @return the folded text.
+     */
+    public static String fold(String text) {
+        final String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        final StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            final char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                folded.append(c);
+            }
+        }
+        return folded.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Normalise a keyword field such as a country code or artist type.
+     * @param value the raw value; null is treated as empty
+     * @return the keyword.
+     */
+    public static String keyword(String value) {
+        return value == null ? "" : fold(value.trim());
+    }
+}
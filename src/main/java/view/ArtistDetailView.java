@@ -9,16 +9,51 @@ import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.TitledBorder;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 public class ArtistDetailView {
+    // how close to the bottom of the comments, in pixels, the next older page is asked for
+    private static final int OLDER_COMMENTS_THRESHOLD = 60;
+
     final JFrame frame;
     private JPanel commentsPanel;
     private JScrollPane commentsScrollPane;
+    private JScrollPane songsScrollPane;
     private WriterController writeController;
+    private BusyIndicator busy;
+    private final Map<String, String> addedComments = new LinkedHashMap<>();
+    // where the user's own comment is shown, so a newer one replaces it and a failed one can be taken back
+    private JLabel ownCommentLabel;
+    // the user's comment as last known stored, shown again if a newer one is taken back; null for none
+    private String storedComment;
+    private final Set<String> shownCommenters = new HashSet<>();
+    private String commentsCursor;
+    private boolean loadingOlderComments;
+    private Function<String, CompletableFuture<Void>> olderCommentsLoader;
 
     public ArtistDetailView(Recording[] topSongs, Map<String, String> comments,
                            Artist artist, Double averageRating) {
+        this(topSongs, comments, null, artist, averageRating, -1);
+    }
+
+    /**
+     * Constructor.
+     * @param topSongs the top songs, or null while they are still being read
+     * @param comments the newest page of comments, or null while they are still being read
+     * @param commentsCursor where the next older page of comments starts; null if there are no more
+     * @param artist the artist
+     * @param averageRating the average rating
+     * @param ratingCount how many ratings the average is over; -1 if unknown
+     */
+    public ArtistDetailView(Recording[] topSongs, Map<String, String> comments, String commentsCursor,
+                           Artist artist, Double averageRating, long ratingCount) {
         frame = new JFrame(artist.getArtistName() + " — My Music List");
         frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         frame.setSize(1000, 820);
@@ -39,26 +74,27 @@ public class ArtistDetailView {
                 BorderFactory.createLineBorder(Theme.BORDER, 1),
                 new EmptyBorder(Theme.PAD_LARGE, Theme.PAD_LARGE, Theme.PAD_LARGE, Theme.PAD_LARGE)
         ));
-        updateDetailsPanel(detailsPanel, artist, averageRating);
+        updateDetailsPanel(detailsPanel, artist, averageRating, ratingCount);
         center.add(detailsPanel, BorderLayout.CENTER);
 
         JPanel userInputPanel = createUserInputPanel(artist);
         center.add(userInputPanel, BorderLayout.SOUTH);
         frame.add(center, BorderLayout.CENTER);
 
-        loadComments(comments);
+        loadComments(comments, commentsCursor);
         loadSongs(topSongs);
 
         frame.setLocationRelativeTo(null);
         frame.setVisible(true);
     }
 
-    private void updateDetailsPanel(JPanel detailsPanel, Artist artist, Double averageRating) {
+    private void updateDetailsPanel(JPanel detailsPanel, Artist artist, Double averageRating, long ratingCount) {
         detailsPanel.removeAll();
         detailsPanel.add(createDetailRow("Artist", artist.getArtistName()));
         detailsPanel.add(createDetailRow("Country", artist.getCountry()));
         detailsPanel.add(createDetailRow("Type", artist.getType()));
-        detailsPanel.add(createDetailRow("Average rating", String.valueOf(averageRating)));
+        detailsPanel.add(createDetailRow("Average rating", ratingCount < 0 ? String.valueOf(averageRating)
+                : averageRating + " (" + ratingCount + (ratingCount == 1 ? " rating)" : " ratings)")));
         detailsPanel.revalidate();
         detailsPanel.repaint();
     }
@@ -100,6 +136,8 @@ public class ArtistDetailView {
         JButton addButton = Theme.primaryButton("Add comment");
         buttonRow.add(emojiButton);
         buttonRow.add(addButton);
+        busy = new BusyIndicator(frame, addButton);
+        buttonRow.add(busy.getStatusLabel());
         userInputPanel.add(buttonRow);
 
         emojiButton.addActionListener(e -> {
@@ -115,11 +153,16 @@ public class ArtistDetailView {
                 JOptionPane.showMessageDialog(frame, "Please enter a comment.", "Error", JOptionPane.WARNING_MESSAGE);
                 return;
             }
-            writeController.execute(artist.getId(), CurrentUser.username, comment, rating);
-            JLabel newCommentLabel = new JLabel("<html><b>" + CurrentUser.username + ":</b> " + comment + "</html>");
-            newCommentLabel.setFont(Theme.FONT_BODY);
-            newCommentLabel.setBorder(new EmptyBorder(4, 0, 4, 0));
-            commentsPanel.add(newCommentLabel);
+            if (!busy.begin("Saving…")) {
+                return;
+            }
+            busy.endOnFailure(writeController.execute(artist.getId(), CurrentUser.username, comment, rating),
+                    this::commentFailure);
+            addedComments.put(CurrentUser.username, comment);
+            shownCommenters.add(CurrentUser.username);
+            if (ownCommentLabel != null) commentsPanel.remove(ownCommentLabel);
+            ownCommentLabel = createCommentLabel(CurrentUser.username, comment);
+            commentsPanel.add(ownCommentLabel);
             commentsPanel.revalidate();
             commentsPanel.repaint();
             ratingDropdown.setSelectedIndex(0);
@@ -129,8 +172,51 @@ public class ArtistDetailView {
         return userInputPanel;
     }
 
-    private void loadComments(Map<String, String> comments) {
+    public void presentComments(Map<String, String> comments, String commentsCursor) {
+        loadComments(comments, commentsCursor);
+    }
+
+    /**
+     * Add an older page of comments below the ones shown.
+     * @param comments the page's comments by username
+     * @param commentsCursor where the next older page starts; null if there are no more
+     */
+    public void presentOlderComments(Map<String, String> comments, String commentsCursor) {
+        loadingOlderComments = false;
+        this.commentsCursor = commentsCursor;
+        for (Map.Entry<String, String> comment : comments.entrySet()) {
+            final boolean own = comment.getKey().equals(CurrentUser.username);
+            if (own && storedComment == null) {
+                storedComment = comment.getValue();
+            }
+            // a comment added here may also be on an older page
+            if (shownCommenters.add(comment.getKey())) {
+                JLabel item = createCommentLabel(comment.getKey(), comment.getValue());
+                if (own) ownCommentLabel = item;
+                commentsPanel.add(item);
+            }
+        }
+        commentsPanel.revalidate();
+        commentsPanel.repaint();
+    }
+
+    /**
+     * Set what reads the next older page of comments when the comments are scrolled near their end.
+     * @param olderCommentsLoader called with the cursor the shown comments end at
+     */
+    public void setOlderCommentsLoader(Function<String, CompletableFuture<Void>> olderCommentsLoader) {
+        this.olderCommentsLoader = olderCommentsLoader;
+        loadOlderCommentsIfNearEnd();
+    }
+
+    private void loadComments(Map<String, String> comments, String commentsCursor) {
         if (commentsPanel != null) frame.remove(commentsScrollPane);
+        this.commentsCursor = commentsCursor;
+        shownCommenters.clear();
+        ownCommentLabel = null;
+        if (comments != null && comments.containsKey(CurrentUser.username)) {
+            storedComment = comments.get(CurrentUser.username);
+        }
 
         commentsPanel = new JPanel();
         commentsPanel.setLayout(new BoxLayout(commentsPanel, BoxLayout.Y_AXIS));
@@ -139,23 +225,59 @@ public class ArtistDetailView {
                 BorderFactory.createLineBorder(Theme.BORDER), "Comments", 0, 0, Theme.FONT_SUBTITLE, Theme.TEXT_PRIMARY);
         commentsPanel.setBorder(BorderFactory.createCompoundBorder(commentsBorder, new EmptyBorder(Theme.PAD_SMALL, Theme.PAD, Theme.PAD, Theme.PAD)));
 
-        if (!comments.isEmpty()) {
-            for (String key : comments.keySet()) {
-                JLabel item = new JLabel("<html><b>" + key + ":</b> " + comments.get(key) + "</html>");
-                item.setFont(Theme.FONT_BODY);
-                item.setBorder(new EmptyBorder(4, 0, 4, 0));
-                commentsPanel.add(item);
-            }
+        if (comments == null) {
+            commentsPanel.add(Theme.label("Loading comments…", Theme.FONT_BODY));
+        }
+        // comments added here while the others were loading are kept
+        Map<String, String> shown = new LinkedHashMap<>(comments == null ? Map.of() : comments);
+        shown.putAll(addedComments);
+        for (String key : shown.keySet()) {
+            shownCommenters.add(key);
+            JLabel item = createCommentLabel(key, shown.get(key));
+            if (key.equals(CurrentUser.username)) ownCommentLabel = item;
+            commentsPanel.add(item);
         }
         commentsScrollPane = new JScrollPane(commentsPanel);
         commentsScrollPane.setPreferredSize(new Dimension(320, 260));
         commentsScrollPane.getViewport().setBackground(Theme.CARD_BG);
+        // also fires when the comments change size, so a first page shorter than the pane reads the next one
+        commentsScrollPane.getVerticalScrollBar().addAdjustmentListener(e -> loadOlderCommentsIfNearEnd());
         frame.add(commentsScrollPane, BorderLayout.EAST);
         frame.revalidate();
         frame.repaint();
     }
 
+    private void loadOlderCommentsIfNearEnd() {
+        if (commentsCursor == null || loadingOlderComments || olderCommentsLoader == null) {
+            return;
+        }
+        BoundedRangeModel position = commentsScrollPane.getVerticalScrollBar().getModel();
+        if (position.getValue() + position.getExtent() < position.getMaximum() - OLDER_COMMENTS_THRESHOLD) {
+            return;
+        }
+        loadingOlderComments = true;
+        olderCommentsLoader.apply(commentsCursor).whenComplete((ignored, error) -> {
+            if (error != null) {
+                // scrolling again retries
+                SwingUtilities.invokeLater(() -> loadingOlderComments = false);
+            }
+        });
+    }
+
+    private JLabel createCommentLabel(String username, String comment) {
+        JLabel item = new JLabel("<html><b>" + username + ":</b> " + comment + "</html>");
+        item.setFont(Theme.FONT_BODY);
+        item.setBorder(new EmptyBorder(4, 0, 4, 0));
+        return item;
+    }
+
+    public void presentTopSongs(Recording[] topSongs) {
+        loadSongs(topSongs);
+    }
+
     private void loadSongs(Recording[] topSongs) {
+        if (songsScrollPane != null) frame.remove(songsScrollPane);
+
         JPanel songsPanel = new JPanel();
         songsPanel.setLayout(new BoxLayout(songsPanel, BoxLayout.Y_AXIS));
         songsPanel.setBackground(Theme.CARD_BG);
@@ -163,7 +285,9 @@ public class ArtistDetailView {
                 BorderFactory.createLineBorder(Theme.BORDER), "Top songs", 0, 0, Theme.FONT_SUBTITLE, Theme.TEXT_PRIMARY);
         songsPanel.setBorder(BorderFactory.createCompoundBorder(songsBorder, new EmptyBorder(Theme.PAD_SMALL, Theme.PAD, Theme.PAD, Theme.PAD)));
 
-        if (topSongs.length == 0) {
+        if (topSongs == null) {
+            songsPanel.add(Theme.label("Loading songs…", Theme.FONT_BODY));
+        } else if (topSongs.length == 0) {
             songsPanel.add(Theme.label("No songs found.", Theme.FONT_BODY));
         } else {
             for (Recording song : topSongs) {
@@ -172,7 +296,7 @@ public class ArtistDetailView {
                 songsPanel.add(songLabel);
             }
         }
-        JScrollPane songsScrollPane = new JScrollPane(songsPanel);
+        songsScrollPane = new JScrollPane(songsPanel);
         songsScrollPane.setPreferredSize(new Dimension(320, 260));
         songsScrollPane.getViewport().setBackground(Theme.CARD_BG);
         frame.add(songsScrollPane, BorderLayout.WEST);
@@ -189,13 +313,55 @@ public class ArtistDetailView {
     }
 
     public void commentSuccess(String message) {
+        busy.end();
         JOptionPane.showMessageDialog(frame, message, "Done", JOptionPane.INFORMATION_MESSAGE);
     }
 
     public void commentFailure(String message) {
+        busy.end();
         JOptionPane.showMessageDialog(frame, message, "Error", JOptionPane.ERROR_MESSAGE);
     }
 
+    /**
+     * Note that the comment added here, already shown as saved, is now stored.
+     * @param comment the stored comment
+     */
+    public void commentStored(String comment) {
+        storedComment = comment;
+    }
+
+    /**
+     * Take back the comment added here, which was shown as saved but could not be stored, and show the
+     * user's stored comment again, if they had one.
+     * @param message why it could not be stored
+     */
+    public void commentReverted(String message) {
+        addedComments.remove(CurrentUser.username);
+        if (ownCommentLabel != null) {
+            commentsPanel.remove(ownCommentLabel);
+            ownCommentLabel = null;
+        }
+        if (storedComment != null) {
+            ownCommentLabel = createCommentLabel(CurrentUser.username, storedComment);
+            commentsPanel.add(ownCommentLabel);
+        }
+        else {
+            shownCommenters.remove(CurrentUser.username);
+        }
+        commentsPanel.revalidate();
+        commentsPanel.repaint();
+        JOptionPane.showMessageDialog(frame, message, "Error", JOptionPane.ERROR_MESSAGE);
+    }
+
+    public void whenClosed(Runnable action) {
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                action.run();
+            }
+        });
+    }
+
     public void setWriterController(WriterController writerController) {
         this.writeController = writerController;
     }
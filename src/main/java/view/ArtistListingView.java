@@ -1,19 +1,31 @@
 package view;
 
+import Use_case.RequestHandle;
 import app.AppCoordinator;
 import data_transfer_object.Artist;
 import data_transfer_object.Recording;
 import interface_adapter.artist_search.ArtistSearchController;
+import interface_adapter.autocomplete.AutocompleteController;
 import interface_adapter.read_from_db.ReadController;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.HashMap;
 import java.util.Map;
 
 public class ArtistListingView {
+    // wait for a pause in typing before asking for suggestions
+    private static final int SUGGESTION_DELAY_MILLIS = 120;
+    private static final int SUGGESTION_LIMIT = 8;
+    // resting on a card this long suggests a click is coming, so its details are read ahead
+    private static final int HOVER_PREFETCH_DELAY_MILLIS = 150;
     private final JPanel listingPanel;
     private final JButton loadMoreButton;
     private final JTextField searchField;
@@ -27,9 +39,22 @@ public class ArtistListingView {
     private String searchType = "";
     private ArtistSearchController artistSearchController;
     private ReadController readController;
+    private AutocompleteController autocompleteController;
+    private final JPopupMenu suggestionPopup = new JPopupMenu();
+    private final Timer suggestionTimer;
+    private boolean fillingSearchField = false;
+    private final Timer hoverPrefetchTimer;
+    private Artist hoveredArtist;
+    private final JFrame frame;
+    private final BusyIndicator busy;
+    // open detail views, by artist ID, which late top songs and further comment pages are routed to
+    private final Map<String, ArtistDetailView> openDetailViews = new HashMap<>();
+    // the search page this window is waiting for, and detail reads not yet shown, by artist ID
+    private RequestHandle searchRequest = new RequestHandle();
+    private final Map<String, RequestHandle> pendingReads = new HashMap<>();
 
     public ArtistListingView() {
-        JFrame frame = new JFrame("Artist search — My Music List");
+        frame = new JFrame("Artist search — My Music List");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setSize(820, 920);
         Theme.styleFrame(frame);
@@ -43,6 +68,12 @@ public class ArtistListingView {
         searchPanel.setBorder(new EmptyBorder(Theme.PAD_SMALL, Theme.PAD, Theme.PAD_SMALL, Theme.PAD));
 
         searchField = Theme.textField(14);
+        suggestionPopup.setFocusable(false);
+        suggestionTimer = new Timer(SUGGESTION_DELAY_MILLIS, e -> requestSuggestions());
+        suggestionTimer.setRepeats(false);
+        hoverPrefetchTimer = new Timer(HOVER_PREFETCH_DELAY_MILLIS, e -> prefetchHoveredArtist());
+        hoverPrefetchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new SuggestionListener());
         countryField = Theme.textField(8);
         String[] types = {"Any", "Group", "Person", "Other"};
         typeDropdown = new JComboBox<>(types);
@@ -79,8 +110,19 @@ public class ArtistListingView {
         loadMoreButton = Theme.secondaryButton("Load more");
         loadMoreButton.addActionListener(new LoadMoreListener());
         southPanel.add(loadMoreButton);
+        // Search stays enabled: a new search replaces the one still running
+        busy = new BusyIndicator(frame, loadMoreButton);
+        searchPanel.add(busy.getStatusLabel());
         frame.add(southPanel, BorderLayout.SOUTH);
 
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                searchRequest.cancel();
+                cancelPendingReads();
+            }
+        });
+
         frame.setLocationRelativeTo(null);
         frame.setVisible(true);
     }
@@ -109,22 +151,57 @@ public class ArtistListingView {
         artistPanel.addMouseListener(new java.awt.event.MouseAdapter() {
             @Override
             public void mouseClicked(java.awt.event.MouseEvent evt) {
-                readController.execute(artist.getId(), artist);
+                openArtist(artist);
             }
             @Override
             public void mouseEntered(java.awt.event.MouseEvent evt) {
                 artistPanel.setBackground(Theme.LIST_ITEM_HOVER);
+                hoveredArtist = artist;
+                hoverPrefetchTimer.restart();
             }
             @Override
             public void mouseExited(java.awt.event.MouseEvent evt) {
                 artistPanel.setBackground(Theme.LIST_ITEM_BG);
+                if (hoveredArtist == artist) {
+                    hoveredArtist = null;
+                    hoverPrefetchTimer.stop();
+                }
             }
         });
 
         return artistPanel;
     }
 
+    private void openArtist(Artist artist) {
+        if (!pendingReads.isEmpty()) {
+            // a click on another artist replaces the read still running
+            cancelPendingReads();
+            busy.end();
+        }
+        if (!busy.begin("Loading " + artist.getArtistName() + "…")) {
+            return;
+        }
+        RequestHandle read = new RequestHandle();
+        pendingReads.put(artist.getId(), read);
+        busy.endOnFailure(readController.execute(artist.getId(), artist, read), message -> {
+            pendingReads.remove(artist.getId(), read);
+            presentError(message);
+        });
+    }
+
+    private void cancelPendingReads() {
+        pendingReads.values().forEach(RequestHandle::cancel);
+        pendingReads.clear();
+    }
+
+    private void prefetchHoveredArtist() {
+        if (hoveredArtist != null && readController != null) {
+            readController.prefetch(hoveredArtist.getId(), hoveredArtist);
+        }
+    }
+
     public void presentResults(Artist[] artists) {
+        busy.end();
         try {
             if (artists.length == 0 && offset == 0) {
                 JLabel noDataLabel = Theme.label("No artists found. Try different search terms.", Theme.FONT_BODY);
@@ -134,10 +211,8 @@ public class ArtistListingView {
                 loadMoreButton.setEnabled(false);
             } else {
                 for (Artist artist : artists) {
-                    if (searchType.equals("Any") || artist.getType().equalsIgnoreCase(searchType)) {
-                        listingPanel.add(createArtistPanel(artist));
-                        listingPanel.add(Box.createVerticalStrut(8));
-                    }
+                    listingPanel.add(createArtistPanel(artist));
+                    listingPanel.add(Box.createVerticalStrut(8));
                 }
                 offset += LIMIT;
                 listingPanel.revalidate();
@@ -157,11 +232,50 @@ public class ArtistListingView {
         }
     }
 
+    public void presentCorrection(String correctedQuery, String suggestedQuery) {
+        if (correctedQuery != null) {
+            // later pages continue the corrected search
+            searchArtist = correctedQuery;
+            JLabel correctedLabel = Theme.label("<html>Nothing matched as typed; showing results for <b>"
+                    + correctedQuery + "</b>.</html>", Theme.FONT_BODY);
+            correctedLabel.setBorder(new EmptyBorder(0, 0, Theme.PAD_SMALL, 0));
+            listingPanel.add(correctedLabel);
+        }
+        if (suggestedQuery != null) {
+            JLabel suggestionLabel = Theme.label("<html>Did you mean <u><b>" + suggestedQuery + "</b></u>?</html>",
+                    Theme.FONT_BODY);
+            suggestionLabel.setForeground(Theme.ACCENT);
+            suggestionLabel.setBorder(new EmptyBorder(0, 0, Theme.PAD_SMALL, 0));
+            suggestionLabel.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+            suggestionLabel.addMouseListener(new java.awt.event.MouseAdapter() {
+                @Override
+                public void mouseClicked(java.awt.event.MouseEvent evt) {
+                    fillingSearchField = true;
+                    searchField.setText(suggestedQuery);
+                    fillingSearchField = false;
+                    startSearch();
+                }
+            });
+            listingPanel.add(suggestionLabel);
+        }
+    }
+
+    public void presentError(String message) {
+        busy.end();
+        JLabel errorLabel = Theme.label("Error: " + message, Theme.FONT_BODY);
+        errorLabel.setForeground(Theme.ERROR);
+        listingPanel.add(errorLabel);
+        listingPanel.revalidate();
+        listingPanel.repaint();
+    }
+
     private class LoadMoreListener implements ActionListener {
         @Override
         public void actionPerformed(ActionEvent e) {
-            if (hasMore) {
-                artistSearchController.searchArtists(searchArtist, searchCountry, LIMIT, offset);
+            if (hasMore && busy.begin("Loading more…")) {
+                searchRequest = new RequestHandle();
+                busy.endOnFailure(artistSearchController.searchArtists(searchArtist, searchCountry, searchType,
+                        LIMIT, offset, searchRequest), ArtistListingView.this::presentError);
             }
         }
     }
@@ -169,16 +283,83 @@ public class ArtistListingView {
     private class SearchListener implements ActionListener {
         @Override
         public void actionPerformed(ActionEvent e) {
-            searchArtist = searchField.getText().trim();
-            searchCountry = countryField.getText().trim();
-            searchType = (String) typeDropdown.getSelectedItem();
-            offset = 0;
-            hasMore = true;
-            listingPanel.removeAll();
-            loadMoreButton.setText("Load more");
-            loadMoreButton.setEnabled(true);
-            artistSearchController.searchArtists(searchArtist, searchCountry, LIMIT, offset);
+            startSearch();
+        }
+    }
+
+    private void startSearch() {
+        suggestionTimer.stop();
+        suggestionPopup.setVisible(false);
+        // the listing is about to be replaced, so nothing this window still waits for is wanted
+        searchRequest.cancel();
+        cancelPendingReads();
+        busy.end();
+        busy.begin("Searching…");
+        searchRequest = new RequestHandle();
+        searchArtist = searchField.getText().trim();
+        searchCountry = countryField.getText().trim();
+        searchType = "Any".equals(typeDropdown.getSelectedItem()) ? "" : (String) typeDropdown.getSelectedItem();
+        offset = 0;
+        hasMore = true;
+        listingPanel.removeAll();
+        loadMoreButton.setText("Load more");
+        busy.endOnFailure(artistSearchController.searchArtists(searchArtist, searchCountry, searchType, LIMIT,
+                offset, searchRequest), this::presentError);
+    }
+
+    // every keystroke restarts the timer, so only the last one of a burst asks for suggestions
+    private class SuggestionListener implements DocumentListener {
+        @Override
+        public void insertUpdate(DocumentEvent e) {
+            scheduleSuggestions();
+        }
+
+        @Override
+        public void removeUpdate(DocumentEvent e) {
+            scheduleSuggestions();
+        }
+
+        @Override
+        public void changedUpdate(DocumentEvent e) {
+            scheduleSuggestions();
+        }
+    }
+
+    private void scheduleSuggestions() {
+        if (!fillingSearchField && autocompleteController != null) {
+            suggestionTimer.restart();
+        }
+    }
+
+    private void requestSuggestions() {
+        autocompleteController.suggestArtists(searchField.getText(), SUGGESTION_LIMIT);
+    }
+
+    public void presentSuggestions(String prefix, Artist[] suggestions) {
+        // the user has typed on since this lookup started
+        if (!prefix.equals(searchField.getText())) {
+            return;
+        }
+        suggestionPopup.setVisible(false);
+        suggestionPopup.removeAll();
+        if (suggestions.length == 0 || !searchField.isShowing()) {
+            return;
+        }
+        for (Artist artist : suggestions) {
+            JMenuItem item = new JMenuItem(
+                    artist.getArtistName() + " · " + artist.getType() + " · " + artist.getCountry());
+            item.setFont(Theme.FONT_BODY);
+            item.addActionListener(e -> chooseSuggestion(artist));
+            suggestionPopup.add(item);
         }
+        suggestionPopup.show(searchField, 0, searchField.getHeight());
+    }
+
+    private void chooseSuggestion(Artist artist) {
+        fillingSearchField = true;
+        searchField.setText(artist.getArtistName());
+        fillingSearchField = false;
+        startSearch();
     }
 
     public void setArtistSearchController(ArtistSearchController artistSearchController) {
@@ -189,10 +370,48 @@ public class ArtistListingView {
         this.readController = readController;
     }
 
+    public void setAutocompleteController(AutocompleteController autocompleteController) {
+        this.autocompleteController = autocompleteController;
+    }
+
     public void createArtistDetailView(Recording[] topSongs,
-                                      Map<String, String> comments, Artist artist,
-                                      Double averageRating) {
+                                      Map<String, String> comments, String commentsCursor, Artist artist,
+                                      Double averageRating, long ratingCount) {
+        busy.end();
+        RequestHandle pending = pendingReads.remove(artist.getId());
+        RequestHandle read = pending != null ? pending : new RequestHandle();
         AppCoordinator appCoordinator = AppCoordinator.getInstance();
-        appCoordinator.createArtistDetailView(topSongs, comments, artist, averageRating);
+        ArtistDetailView detailView = appCoordinator.createArtistDetailView(topSongs, comments, commentsCursor,
+                artist, averageRating, ratingCount);
+        openDetailViews.put(artist.getId(), detailView);
+        // older comment pages are read under the same handle as the details
+        detailView.setOlderCommentsLoader(cursor -> readController.loadOlderComments(artist.getId(), artist,
+                cursor, read));
+        // closing the view abandons the reads it is still waiting for
+        detailView.whenClosed(() -> {
+            read.cancel();
+            openDetailViews.remove(artist.getId(), detailView);
+        });
+    }
+
+    public void presentTopSongs(Artist artist, Recording[] topSongs) {
+        ArtistDetailView detailView = openDetailViews.get(artist.getId());
+        if (detailView != null) {
+            detailView.presentTopSongs(topSongs);
+        }
+    }
+
+    public void presentComments(Artist artist, Map<String, String> comments, String commentsCursor) {
+        ArtistDetailView detailView = openDetailViews.get(artist.getId());
+        if (detailView != null) {
+            detailView.presentComments(comments, commentsCursor);
+        }
+    }
+
+    public void presentOlderComments(Artist artist, Map<String, String> comments, String commentsCursor) {
+        ArtistDetailView detailView = openDetailViews.get(artist.getId());
+        if (detailView != null) {
+            detailView.presentOlderComments(comments, commentsCursor);
+        }
     }
 }
@@ -0,0 +1,76 @@
+package view;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Shows that a window is waiting for a use case: a wait cursor, a status line, and disabled submit
+ * controls so the same request cannot be sent twice. Only used on the EDT.
+ */
+final class BusyIndicator {
+    private final JFrame frame;
+    private final JComponent[] controls;
+    private final JLabel statusLabel = Theme.label(" ", Theme.FONT_SMALL);
+    private boolean busy;
+
+    BusyIndicator(JFrame frame, JComponent... controls) {
+        this.frame = frame;
+        this.controls = controls;
+        statusLabel.setForeground(Theme.TEXT_SECONDARY);
+    }
+
+    /**
+     * Enter the busy state.
+     * @param status what is being waited for, e.g. "Searching…"
+     * @return false if the window was already busy, in which case the caller must not submit.
+     */
+    boolean begin(String status) {
+        if (busy) {
+            return false;
+        }
+        busy = true;
+        statusLabel.setText(status);
+        frame.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        for (JComponent control : controls) {
+            control.setEnabled(false);
+        }
+        return true;
+    }
+
+    /**
+     * Leave the busy state and enable the controls again.
+     */
+    void end() {
+        busy = false;
+        statusLabel.setText(" ");
+        frame.setCursor(Cursor.getDefaultCursor());
+        for (JComponent control : controls) {
+            control.setEnabled(true);
+        }
+    }
+
+    /**
+     * Leave the busy state if a submission fails before its presenter is called.
+     * @param submission the future returned by a controller
+     * @param onFailure shows the failure message, on the EDT
+     */
+    void endOnFailure(CompletableFuture<Void> submission, Consumer<String> onFailure) {
+        submission.whenComplete((ignored, error) -> {
+            if (error != null) {
+                final Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                SwingUtilities.invokeLater(() -> {
+                    end();
+                    onFailure.accept(String.valueOf(cause.getMessage()));
+                });
+            }
+        });
+    }
+
+    JLabel getStatusLabel() {
+        return statusLabel;
+    }
+}
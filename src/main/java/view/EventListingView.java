@@ -1,5 +1,6 @@
 package view;
 
+import Use_case.RequestHandle;
 import data_transfer_object.Event;
 import interface_adapter.event_search.EventSearchController;
 
@@ -8,6 +9,8 @@ import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.util.Arrays;
 
 public class EventListingView {
@@ -22,6 +25,9 @@ public class EventListingView {
     private String searchEvent = "";
     private String searchLocation = "";
     private EventSearchController eventSearchController;
+    private final BusyIndicator busy;
+    // the search page this window is waiting for
+    private RequestHandle searchRequest = new RequestHandle();
 
     public EventListingView() {
         frame = new JFrame("Event search — My Music List");
@@ -68,6 +74,16 @@ public class EventListingView {
         loadMoreButton.addActionListener(new LoadMoreListener());
         southPanel.add(loadMoreButton);
         frame.add(southPanel, BorderLayout.SOUTH);
+        // Search stays enabled: a new search replaces the one still running
+        busy = new BusyIndicator(frame, loadMoreButton);
+        searchPanel.add(busy.getStatusLabel());
+
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                searchRequest.cancel();
+            }
+        });
 
         frame.setLocationRelativeTo(null);
         frame.setVisible(true);
@@ -78,6 +94,7 @@ public class EventListingView {
     }
 
     public void presentResults(Event[] events) {
+        busy.end();
         if (events.length == 0 && offset == 0) {
             JLabel noDataLabel = Theme.label("No events found. Try different search terms.", Theme.FONT_BODY);
             noDataLabel.setBorder(new EmptyBorder(Theme.PAD, 0, Theme.PAD, 0));
@@ -100,6 +117,41 @@ public class EventListingView {
         }
     }
 
+    public void presentCorrection(String correctedQuery, String suggestedQuery) {
+        if (correctedQuery != null) {
+            // later pages continue the corrected search
+            searchEvent = correctedQuery;
+            JLabel correctedLabel = Theme.label("<html>Nothing matched as typed; showing results for <b>"
+                    + correctedQuery + "</b>.</html>", Theme.FONT_BODY);
+            correctedLabel.setBorder(new EmptyBorder(0, 0, Theme.PAD_SMALL, 0));
+            listingPanel.add(correctedLabel);
+        }
+        if (suggestedQuery != null) {
+            JLabel suggestionLabel = Theme.label("<html>Did you mean <u><b>" + suggestedQuery + "</b></u>?</html>",
+                    Theme.FONT_BODY);
+            suggestionLabel.setForeground(Theme.ACCENT);
+            suggestionLabel.setBorder(new EmptyBorder(0, 0, Theme.PAD_SMALL, 0));
+            suggestionLabel.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+            suggestionLabel.addMouseListener(new java.awt.event.MouseAdapter() {
+                @Override
+                public void mouseClicked(java.awt.event.MouseEvent evt) {
+                    searchField.setText(suggestedQuery);
+                    startSearch();
+                }
+            });
+            listingPanel.add(suggestionLabel);
+        }
+    }
+
+    public void presentError(String message) {
+        busy.end();
+        JLabel errorLabel = Theme.label("Error: " + message, Theme.FONT_BODY);
+        errorLabel.setForeground(Theme.ERROR);
+        listingPanel.add(errorLabel);
+        listingPanel.revalidate();
+        listingPanel.repaint();
+    }
+
     private JPanel createEventPanel(Event event) {
         JPanel eventPanel = new JPanel();
         eventPanel.setLayout(new BoxLayout(eventPanel, BoxLayout.Y_AXIS));
@@ -145,29 +197,39 @@ public class EventListingView {
     private class LoadMoreListener implements ActionListener {
         @Override
         public void actionPerformed(ActionEvent e) {
-            if (hasMore) fetchAndDisplayListings();
+            if (hasMore && busy.begin("Loading more…")) fetchAndDisplayListings();
         }
     }
 
     private class SearchListener implements ActionListener {
         @Override
         public void actionPerformed(ActionEvent e) {
-            searchEvent = searchField.getText().trim();
-            searchLocation = locationField.getText().trim();
-            offset = 0;
-            hasMore = true;
-            listingPanel.removeAll();
-            loadMoreButton.setText("Load more");
-            loadMoreButton.setEnabled(true);
-            fetchAndDisplayListings();
+            startSearch();
         }
     }
 
+    private void startSearch() {
+        // the listing is about to be replaced, so the search still running is not wanted
+        searchRequest.cancel();
+        busy.end();
+        busy.begin("Searching…");
+        searchEvent = searchField.getText().trim();
+        searchLocation = locationField.getText().trim();
+        offset = 0;
+        hasMore = true;
+        listingPanel.removeAll();
+        loadMoreButton.setText("Load more");
+        fetchAndDisplayListings();
+    }
+
     private void fetchAndDisplayListings() {
         if (eventSearchController == null) {
+            busy.end();
             JOptionPane.showMessageDialog(frame, "Search controller not set.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
-        eventSearchController.searchEvents(searchEvent, searchLocation, LIMIT, offset);
+        searchRequest = new RequestHandle();
+        busy.endOnFailure(eventSearchController.searchEvents(searchEvent, searchLocation, LIMIT, offset,
+                searchRequest), this::presentError);
     }
 }
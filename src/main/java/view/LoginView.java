@@ -10,6 +10,7 @@ import java.awt.*;
 public class LoginView {
     private LoginController loginController;
     private JFrame frame;
+    private BusyIndicator busy;
 
     public LoginView() {
         createAndShowGUI();
@@ -58,6 +59,11 @@ public class LoginView {
         buttons.add(loginButton);
         buttons.add(signupButton);
         card.add(buttons);
+        busy = new BusyIndicator(frame, loginButton, signupButton);
+        JLabel statusLabel = busy.getStatusLabel();
+        statusLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        card.add(Box.createVerticalStrut(Theme.PAD_SMALL));
+        card.add(statusLabel);
 
         center.add(card);
         frame.add(center, BorderLayout.CENTER);
@@ -65,7 +71,9 @@ public class LoginView {
         loginButton.addActionListener(e -> {
             String username = usernameField.getText().trim();
             String password = new String(passwordField.getPassword()).trim();
-            loginController.execute(username, password);
+            if (busy.begin("Signing in…")) {
+                busy.endOnFailure(loginController.execute(username, password), this::loginErrorView);
+            }
         });
 
         signupButton.addActionListener(e -> {
@@ -83,11 +91,18 @@ public class LoginView {
     }
 
     public void loginFailureView() {
+        busy.end();
         JOptionPane.showMessageDialog(frame, "Invalid username or password.",
                 "Sign in failed", JOptionPane.ERROR_MESSAGE);
     }
 
+    private void loginErrorView(String message) {
+        JOptionPane.showMessageDialog(frame, "Could not sign in: " + message,
+                "Sign in failed", JOptionPane.ERROR_MESSAGE);
+    }
+
     public void toMainMenuView() {
+        busy.end();
         JOptionPane.showMessageDialog(frame, "Welcome back!");
         AppCoordinator coordinator = AppCoordinator.getInstance();
         coordinator.createMainMenuView();
@@ -19,7 +19,7 @@ public class SearchSelection {
     public SearchSelection() {
         frame = new JFrame("Music Listing — My Music List");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setSize(440, 380);
+        frame.setSize(440, 430);
         Theme.styleFrame(frame);
         frame.setLayout(new BorderLayout(0, 0));
 
@@ -38,6 +38,8 @@ public class SearchSelection {
         artistButton.setAlignmentX(Component.CENTER_ALIGNMENT);
         JButton eventButton = Theme.secondaryButton("Event listings");
         eventButton.setAlignmentX(Component.CENTER_ALIGNMENT);
+        JButton everythingButton = Theme.secondaryButton("Search everything");
+        everythingButton.setAlignmentX(Component.CENTER_ALIGNMENT);
         JButton mainMenuButton = Theme.secondaryButton("Main menu");
         mainMenuButton.setAlignmentX(Component.CENTER_ALIGNMENT);
 
@@ -45,6 +47,8 @@ public class SearchSelection {
         card.add(Box.createVerticalStrut(Theme.GAP));
         card.add(eventButton);
         card.add(Box.createVerticalStrut(Theme.GAP));
+        card.add(everythingButton);
+        card.add(Box.createVerticalStrut(Theme.GAP));
         card.add(mainMenuButton);
 
         center.add(card);
@@ -59,6 +63,10 @@ public class SearchSelection {
             frame.dispose();
             appCoordinator.createEventListingView();
         });
+        everythingButton.addActionListener(e -> {
+            frame.dispose();
+            appCoordinator.createUniversalSearchView();
+        });
         mainMenuButton.addActionListener(e -> {
             frame.dispose();
             appCoordinator.createMainMenuView();
@@ -10,6 +10,7 @@ import java.awt.*;
 public class SignupView {
     private SignupController signupController;
     private final JFrame frame;
+    private final BusyIndicator busy;
 
     public SignupView() {
         frame = new JFrame("Create account — My Music List");
@@ -63,6 +64,11 @@ public class SignupView {
         buttons.add(createAccountButton);
         buttons.add(backButton);
         card.add(buttons);
+        busy = new BusyIndicator(frame, createAccountButton, backButton);
+        JLabel statusLabel = busy.getStatusLabel();
+        statusLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        card.add(Box.createVerticalStrut(Theme.PAD_SMALL));
+        card.add(statusLabel);
 
         center.add(card);
         frame.add(center, BorderLayout.CENTER);
@@ -71,7 +77,11 @@ public class SignupView {
             String username = usernameField.getText().trim();
             String password = new String(passwordField.getPassword());
             String confirmPassword = new String(confirmPasswordField.getPassword());
-            signupController.execute(username, password, confirmPassword);
+            if (busy.begin("Creating account…")) {
+                busy.endOnFailure(signupController.execute(username, password, confirmPassword), message ->
+                        JOptionPane.showMessageDialog(frame, "Could not create the account: " + message,
+                                "Sign up failed", JOptionPane.ERROR_MESSAGE));
+            }
         });
 
         backButton.addActionListener(e -> {
@@ -93,6 +103,7 @@ public class SignupView {
     }
 
     public void signupSuccess() {
+        busy.end();
         JOptionPane.showMessageDialog(frame, "Account created. You can sign in now.");
         frame.dispose();
         AppCoordinator appCoordinator = AppCoordinator.getInstance();
@@ -100,10 +111,12 @@ public class SignupView {
     }
 
     public void signupFailure() {
+        busy.end();
         JOptionPane.showMessageDialog(frame, "That username is already taken.", "Sign up failed", JOptionPane.WARNING_MESSAGE);
     }
 
     public void passwordUnmatched() {
+        busy.end();
         JOptionPane.showMessageDialog(frame, "Passwords do not match.", "Try again", JOptionPane.WARNING_MESSAGE);
     }
 }
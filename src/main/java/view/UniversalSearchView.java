@@ -0,0 +1,167 @@
+package view;
+
+import Use_case.RequestHandle;
+import Use_case.universal_search.SearchHit;
+import interface_adapter.universal_search.UniversalSearchController;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.List;
+
+public class UniversalSearchView {
+    private final JFrame frame;
+    private final JPanel listingPanel;
+    private final JTextField searchField;
+    private final int LIMIT = 10;
+    private int shown = 0;
+    private UniversalSearchController universalSearchController;
+    private final BusyIndicator busy;
+    // the search this window is waiting for
+    private RequestHandle searchRequest = new RequestHandle();
+
+    public UniversalSearchView() {
+        frame = new JFrame("Search everything — My Music List");
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.setSize(820, 920);
+        Theme.styleFrame(frame);
+        frame.setLayout(new BorderLayout(0, 0));
+
+        JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, Theme.GAP, Theme.PAD_SMALL));
+        searchPanel.setBackground(Theme.BACKGROUND);
+        searchPanel.setBorder(new EmptyBorder(Theme.PAD_SMALL, Theme.PAD, Theme.PAD_SMALL, Theme.PAD));
+
+        searchField = Theme.textField(24);
+        searchField.addActionListener(e -> startSearch());
+        JButton searchButton = Theme.primaryButton("Search");
+        searchButton.addActionListener(e -> startSearch());
+
+        searchPanel.add(Theme.label("Artists and events", Theme.FONT_BODY));
+        searchPanel.add(searchField);
+        searchPanel.add(searchButton);
+        frame.add(searchPanel, BorderLayout.NORTH);
+
+        listingPanel = new JPanel();
+        listingPanel.setLayout(new BoxLayout(listingPanel, BoxLayout.Y_AXIS));
+        listingPanel.setBackground(Theme.BACKGROUND);
+        listingPanel.setBorder(new EmptyBorder(Theme.PAD_SMALL, Theme.PAD, Theme.PAD_SMALL, Theme.PAD));
+
+        JScrollPane scrollPane = new JScrollPane(listingPanel,
+                JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED, JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
+        scrollPane.getViewport().setBackground(Theme.BACKGROUND);
+        scrollPane.getVerticalScrollBar().setUnitIncrement(16);
+        scrollPane.setBorder(BorderFactory.createEmptyBorder());
+        frame.add(scrollPane, BorderLayout.CENTER);
+
+        // Search stays enabled: a new search replaces the one still running
+        busy = new BusyIndicator(frame);
+        searchPanel.add(busy.getStatusLabel());
+
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                searchRequest.cancel();
+            }
+        });
+
+        frame.setLocationRelativeTo(null);
+        frame.setVisible(true);
+    }
+
+    public void setUniversalSearchController(UniversalSearchController universalSearchController) {
+        this.universalSearchController = universalSearchController;
+    }
+
+    /**
+     * Append the next results of the ranking.
+     * @param hits results that follow those already shown
+     * @param complete whether every source has answered
+     * @param unavailableSources sources left out, e.g. "events"
+     */
+    public void presentResults(List<SearchHit> hits, boolean complete, List<String> unavailableSources) {
+        for (SearchHit hit : hits) {
+            listingPanel.add(createHitPanel(hit));
+            listingPanel.add(Box.createVerticalStrut(8));
+        }
+        shown += hits.size();
+        if (complete) {
+            busy.end();
+            if (!unavailableSources.isEmpty()) {
+                JLabel partialLabel = Theme.label("Could not search " + String.join(" or ", unavailableSources)
+                        + "; showing the rest.", Theme.FONT_SMALL);
+                partialLabel.setForeground(Theme.ERROR);
+                listingPanel.add(partialLabel);
+            }
+            if (shown == 0) {
+                JLabel noDataLabel = Theme.label("No artists or events found. Try different search terms.",
+                        Theme.FONT_BODY);
+                noDataLabel.setBorder(new EmptyBorder(Theme.PAD, 0, Theme.PAD, 0));
+                listingPanel.add(noDataLabel);
+            }
+        }
+        listingPanel.revalidate();
+        listingPanel.repaint();
+    }
+
+    public void presentError(String message) {
+        busy.end();
+        JLabel errorLabel = Theme.label("Error: " + message, Theme.FONT_BODY);
+        errorLabel.setForeground(Theme.ERROR);
+        listingPanel.add(errorLabel);
+        listingPanel.revalidate();
+        listingPanel.repaint();
+    }
+
+    private JPanel createHitPanel(SearchHit hit) {
+        JPanel hitPanel = new JPanel();
+        hitPanel.setLayout(new BoxLayout(hitPanel, BoxLayout.Y_AXIS));
+        hitPanel.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(Theme.BORDER, 1),
+                new EmptyBorder(Theme.PAD_SMALL, Theme.PAD, Theme.PAD_SMALL, Theme.PAD)
+        ));
+        hitPanel.setMaximumSize(new Dimension(780, 110));
+        hitPanel.setBackground(Theme.LIST_ITEM_BG);
+
+        JLabel nameLabel = new JLabel("<html><b>" + hit.getName() + "</b></html>");
+        nameLabel.setFont(Theme.FONT_SUBTITLE);
+        nameLabel.setForeground(Theme.TEXT_PRIMARY);
+        nameLabel.setBorder(new EmptyBorder(0, 0, 4, 0));
+        hitPanel.add(nameLabel);
+
+        final String details;
+        if (hit.getKind() == SearchHit.Kind.ARTIST) {
+            details = "Artist · " + hit.getArtist().getType() + " · " + hit.getArtist().getCountry();
+        } else {
+            details = "Event · " + hit.getEvent().getType() + " · " + hit.getEvent().getBeginDate()
+                    + " · " + hit.getEvent().getPlaceName();
+        }
+        JLabel infoLabel = new JLabel("<html>" + details + " · Score: " + Math.round(hit.getScore() * 100)
+                + "</html>");
+        infoLabel.setFont(Theme.FONT_SMALL);
+        infoLabel.setForeground(Theme.TEXT_SECONDARY);
+        hitPanel.add(infoLabel);
+
+        hitPanel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        return hitPanel;
+    }
+
+    private void startSearch() {
+        // the listing is about to be replaced, so the search still running is not wanted
+        searchRequest.cancel();
+        busy.end();
+        listingPanel.removeAll();
+        listingPanel.revalidate();
+        listingPanel.repaint();
+        shown = 0;
+        if (universalSearchController == null) {
+            JOptionPane.showMessageDialog(frame, "Search controller not set.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        busy.begin("Searching…");
+        searchRequest = new RequestHandle();
+        busy.endOnFailure(universalSearchController.search(searchField.getText().trim(), LIMIT, searchRequest),
+                this::presentError);
+    }
+}
@@ -1,9 +1,16 @@
 package Use_case.artist_search;
 
+import Use_case.RequestHandle;
+import Use_case.spelling_correction.SpellingCorrectionDataAccessInterface;
 import data_transfer_object.Artist;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 class ArtistSearchInteractorTest {
@@ -38,14 +45,14 @@ class ArtistSearchInteractorTest {
         };
 
         // Mock behavior
-        when(mockRepository.getArtists(artistName, country, limit, offset)).thenReturn(expectedArtists);
+        when(mockRepository.getArtists(artistName, country, "", limit, offset)).thenReturn(expectedArtists);
 
         // Execute use case
         ArtistSearchInputData inputData = new ArtistSearchInputData(artistName, country, limit, offset);
         interactor.execute(inputData);
 
         // Verify repository interaction
-        verify(mockRepository).getArtists(artistName, country, limit, offset);
+        verify(mockRepository).getArtists(artistName, country, "", limit, offset);
 
         // Verify presenter interaction
         verify(mockPresenter).presentResults(argThat(outputData ->
@@ -66,14 +73,14 @@ class ArtistSearchInteractorTest {
         Artist[] expectedArtists = new Artist[0];
 
         // Mock behavior
-        when(mockRepository.getArtists(artistName, country, limit, offset)).thenReturn(expectedArtists);
+        when(mockRepository.getArtists(artistName, country, "", limit, offset)).thenReturn(expectedArtists);
 
         // Execute use case
         ArtistSearchInputData inputData = new ArtistSearchInputData(artistName, country, limit, offset);
         interactor.execute(inputData);
 
         // Verify repository interaction
-        verify(mockRepository).getArtists(artistName, country, limit, offset);
+        verify(mockRepository).getArtists(artistName, country, "", limit, offset);
 
         // Verify presenter interaction
         verify(mockPresenter).presentResults(argThat(outputData ->
@@ -94,16 +101,217 @@ class ArtistSearchInteractorTest {
         };
 
         // Mock behavior
-        when(mockRepository.getArtists(artistName, country, limit, offset)).thenReturn(expectedArtists);
+        when(mockRepository.getArtists(artistName, country, "", limit, offset)).thenReturn(expectedArtists);
 
         // Execute use case
         ArtistSearchInputData inputData = new ArtistSearchInputData(artistName, country, limit, offset);
         interactor.execute(inputData);
 
         // Verify repository interaction
-        verify(mockRepository).getArtists(artistName, country, limit, offset);
+        verify(mockRepository).getArtists(artistName, country, "", limit, offset);
 
         // Verify no extra interactions
         verifyNoMoreInteractions(mockRepository);
     }
+
+    @Test
+    void testTypeFilterIsSentToTheRepository() {
+        // Prepare test data
+        Artist[] groups = {new Artist("1", "Queen", "GB", 100, "Group", false)};
+        when(mockRepository.getArtists("Queen", "GB", "Group", 10, 10)).thenReturn(groups);
+
+        // Execute use case
+        interactor.execute(new ArtistSearchInputData("Queen", "GB", "Group", 10, 10));
+
+        // Verify the filter reaches the query instead of being applied to the fetched page
+        verify(mockRepository).getArtists("Queen", "GB", "Group", 10, 10);
+        verify(mockPresenter).presentResults(argThat(outputData -> outputData.getArtists().length == 1));
+    }
+
+    @Test
+    void testRepositoryFailureShowsFailView() {
+        // Mock behavior
+        when(mockRepository.getArtists("Queen", "UK", "", 10, 0)).thenThrow(new RuntimeException("HTTP 503"));
+
+        // Execute use case
+        interactor.execute(new ArtistSearchInputData("Queen", "UK", 10, 0));
+
+        // Verify presenter interaction
+        verify(mockPresenter).prepareFailView(eq("Artist search failed: HTTP 503"), any(RequestHandle.class));
+        verify(mockPresenter, never()).presentResults(any());
+    }
+
+    @Test
+    void testAsyncResultsArePresentedOnCompletion() {
+        // Prepare an asynchronous repository that has not answered yet
+        ArtistSearchAsyncDataAccessInterface asyncRepository = mock(ArtistSearchAsyncDataAccessInterface.class);
+        CompletableFuture<Artist[]> pending = new CompletableFuture<>();
+        when(asyncRepository.getArtistsAsync("Queen", "UK", "", 10, 0)).thenReturn(pending);
+        ArtistSearchInteractor asyncInteractor = new ArtistSearchInteractor(asyncRepository, mockPresenter, 5_000);
+
+        // Execute use case
+        asyncInteractor.execute(new ArtistSearchInputData("Queen", "UK", 10, 0));
+
+        // Nothing is presented until the repository answers
+        verifyNoInteractions(mockPresenter);
+        pending.complete(new Artist[] {new Artist("3", "Queen", "UK", 90, "group", false)});
+        verify(mockPresenter).presentResults(argThat(outputData ->
+                outputData.getArtists().length == 1 && outputData.getArtists()[0].getArtistName().equals("Queen")));
+    }
+
+    @Test
+    void testTimeoutCancelsTheRequest() {
+        // Prepare an asynchronous repository that never answers
+        ArtistSearchAsyncDataAccessInterface asyncRepository = mock(ArtistSearchAsyncDataAccessInterface.class);
+        CompletableFuture<Artist[]> pending = new CompletableFuture<>();
+        when(asyncRepository.getArtistsAsync("Queen", "UK", "", 10, 0)).thenReturn(pending);
+        ArtistSearchInteractor asyncInteractor = new ArtistSearchInteractor(asyncRepository, mockPresenter, 50);
+
+        // Execute use case
+        asyncInteractor.execute(new ArtistSearchInputData("Queen", "UK", 10, 0));
+
+        // The repository's future itself is completed, so the underlying call can be cancelled
+        verify(mockPresenter, timeout(2_000)).prepareFailView(eq("Artist search failed: the request timed out."),
+                any(RequestHandle.class));
+        assertTrue(pending.isCompletedExceptionally());
+    }
+
+    @Test
+    void testMisspelledQueryWithoutResultsIsCorrectedAndRerun() {
+        // Prepare a corrector that knows the intended name
+        SpellingCorrectionDataAccessInterface corrector = mock(SpellingCorrectionDataAccessInterface.class);
+        when(corrector.correct("Metalica")).thenReturn("metallica");
+        when(mockRepository.getArtists("Metalica", "", "", 10, 0)).thenReturn(new Artist[0]);
+        when(mockRepository.getArtists("metallica", "", "", 10, 0))
+                .thenReturn(new Artist[] {new Artist("1", "Metallica", "US", 100, "Group", false)});
+        ArtistSearchInteractor correctingInteractor = new ArtistSearchInteractor(
+                ArtistSearchAsyncDataAccessInterface.fromBlocking(mockRepository), mockPresenter, 5_000, corrector);
+
+        // Execute use case
+        correctingInteractor.execute(new ArtistSearchInputData("Metalica", "", 10, 0));
+
+        // The corrected results are shown and say what was searched instead
+        verify(mockPresenter).presentResults(argThat(outputData ->
+                outputData.getArtists().length == 1 && "metallica".equals(outputData.getCorrectedQuery())
+                        && outputData.getSuggestedQuery() == null));
+        verify(corrector).learn("Metallica");
+    }
+
+    @Test
+    void testPoorMatchesOnlySuggestACorrection() {
+        // Prepare a first page of weak matches
+        SpellingCorrectionDataAccessInterface corrector = mock(SpellingCorrectionDataAccessInterface.class);
+        when(corrector.correct("Radiohed")).thenReturn("radiohead");
+        when(mockRepository.getArtists("Radiohed", "", "", 10, 0))
+                .thenReturn(new Artist[] {new Artist("1", "Radio Head Band", "US", 30, "Group", false)});
+        ArtistSearchInteractor correctingInteractor = new ArtistSearchInteractor(
+                ArtistSearchAsyncDataAccessInterface.fromBlocking(mockRepository), mockPresenter, 5_000, corrector);
+
+        // Execute use case
+        correctingInteractor.execute(new ArtistSearchInputData("Radiohed", "", 10, 0));
+
+        // The typed query's results stay, with a suggestion and no second request
+        verify(mockRepository).getArtists("Radiohed", "", "", 10, 0);
+        verifyNoMoreInteractions(mockRepository);
+        verify(mockPresenter).presentResults(argThat(outputData ->
+                outputData.getArtists().length == 1 && "radiohead".equals(outputData.getSuggestedQuery())));
+        verify(corrector, never()).learn(any());
+    }
+
+    @Test
+    void testTopHitFarFromTheQuerySuggestsACorrectionWhateverItsScore() {
+        // Prepare a fuzzy top hit that MusicBrainz still scores 100, as scores are relative to the query
+        SpellingCorrectionDataAccessInterface corrector = mock(SpellingCorrectionDataAccessInterface.class);
+        when(corrector.correct("Radiohed")).thenReturn("radiohead");
+        when(mockRepository.getArtists("Radiohed", "", "", 10, 0))
+                .thenReturn(new Artist[] {new Artist("1", "Radio Head Band", "US", 100, "Group", false)});
+        ArtistSearchInteractor correctingInteractor = new ArtistSearchInteractor(
+                ArtistSearchAsyncDataAccessInterface.fromBlocking(mockRepository), mockPresenter, 5_000, corrector);
+
+        // Execute use case
+        correctingInteractor.execute(new ArtistSearchInputData("Radiohed", "", 10, 0));
+
+        // Verify
+        verify(mockPresenter).presentResults(argThat(outputData ->
+                outputData.getArtists().length == 1 && "radiohead".equals(outputData.getSuggestedQuery())));
+        verify(corrector, never()).learn(any());
+    }
+
+    @Test
+    void testCloseTopHitIsLearnedAndNotCorrected() {
+        // Prepare a top hit one edit away from what was typed
+        SpellingCorrectionDataAccessInterface corrector = mock(SpellingCorrectionDataAccessInterface.class);
+        when(mockRepository.getArtists("Metalica", "", "", 10, 0)).thenReturn(new Artist[] {
+                new Artist("1", "Metallica", "US", 100, "Group", false),
+                new Artist("2", "Metal Church", "US", 40, "Group", false)});
+        ArtistSearchInteractor correctingInteractor = new ArtistSearchInteractor(
+                ArtistSearchAsyncDataAccessInterface.fromBlocking(mockRepository), mockPresenter, 5_000, corrector);
+
+        // Execute use case
+        correctingInteractor.execute(new ArtistSearchInputData("Metalica", "", 10, 0));
+
+        // Verify the results stand as they are and their names are remembered
+        verify(mockPresenter).presentResults(argThat(outputData ->
+                outputData.getArtists().length == 2 && outputData.getSuggestedQuery() == null
+                        && outputData.getCorrectedQuery() == null));
+        verify(corrector, never()).correct(any());
+        verify(corrector).learn("Metallica");
+        verify(corrector).learn("Metal Church");
+    }
+
+    @Test
+    void testSearchWithoutANameIsNotCorrected() {
+        // Prepare a search by type alone
+        SpellingCorrectionDataAccessInterface corrector = mock(SpellingCorrectionDataAccessInterface.class);
+        when(mockRepository.getArtists(null, "", "", 10, 0)).thenReturn(new Artist[0]);
+        ArtistSearchInteractor correctingInteractor = new ArtistSearchInteractor(
+                ArtistSearchAsyncDataAccessInterface.fromBlocking(mockRepository), mockPresenter, 5_000, corrector);
+
+        // Execute use case
+        correctingInteractor.execute(new ArtistSearchInputData(null, "", 10, 0));
+
+        // The empty results are shown and the corrector is never asked
+        verify(mockPresenter).presentResults(argThat(outputData -> outputData.getArtists().length == 0));
+        verifyNoInteractions(corrector);
+    }
+
+    @Test
+    void testSupersededSearchIsCancelledAndNotPresented() {
+        // Prepare a search that is still waiting for MusicBrainz
+        ArtistSearchAsyncDataAccessInterface asyncRepository = mock(ArtistSearchAsyncDataAccessInterface.class);
+        CompletableFuture<Artist[]> request = new CompletableFuture<>();
+        when(asyncRepository.getArtistsAsync("Queen", "", "", 10, 0)).thenReturn(request);
+        ArtistSearchInteractor asyncInteractor = new ArtistSearchInteractor(asyncRepository, mockPresenter, 5_000);
+        RequestHandle handle = new RequestHandle();
+
+        // Execute, then give up as a newer search would
+        asyncInteractor.execute(new ArtistSearchInputData("Queen", "", 10, 0), handle);
+        handle.cancel();
+
+        // The request is abandoned and nothing reaches the view, not even an error
+        assertTrue(request.isCancelled());
+        verifyNoInteractions(mockPresenter);
+
+        // A handle cancelled before the use case runs starts no request at all
+        asyncInteractor.execute(new ArtistSearchInputData("Abba", "", 10, 0), handle);
+        verify(asyncRepository, never()).getArtistsAsync(eq("Abba"), any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testResultsKnowWhenTheirSearchIsSuperseded() {
+        // Prepare a search that has answered, whose results have not been shown yet
+        when(mockRepository.getArtists("Queen", "UK", "", 10, 0))
+                .thenReturn(new Artist[] {new Artist("3", "Queen", "UK", 90, "group", false)});
+        RequestHandle handle = new RequestHandle();
+        ArgumentCaptor<ArtistSearchOutputData> output = ArgumentCaptor.forClass(ArtistSearchOutputData.class);
+
+        // Execute use case, then a newer search replaces it
+        interactor.execute(new ArtistSearchInputData("Queen", "UK", 10, 0), handle);
+        verify(mockPresenter).presentResults(output.capture());
+        assertFalse(output.getValue().isCancelled());
+        handle.cancel();
+
+        // Verify the presenter can still tell the results are stale when it gets to show them
+        assertTrue(output.getValue().isCancelled());
+    }
 }
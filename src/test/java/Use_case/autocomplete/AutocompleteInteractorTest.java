@@ -0,0 +1,59 @@
+package Use_case.autocomplete;
+
+import data_transfer_object.Artist;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class AutocompleteInteractorTest {
+
+    private AutocompleteDataAccessInterface mockRepository;
+    private AutocompleteOutputBoundary mockPresenter;
+    private AutocompleteInteractor interactor;
+
+    @BeforeEach
+    void setUp() {
+        mockRepository = mock(AutocompleteDataAccessInterface.class);
+        mockPresenter = mock(AutocompleteOutputBoundary.class);
+        interactor = new AutocompleteInteractor(mockRepository, mockPresenter);
+    }
+
+    @Test
+    void testSuggestionsArePresented() {
+        Artist[] suggestions = {new Artist("1", "Björk", "IS", 100, "Person", false)};
+        when(mockRepository.suggestArtistsAsync("bj", 8)).thenReturn(CompletableFuture.completedFuture(suggestions));
+
+        interactor.execute(new AutocompleteInputData("bj", 8));
+
+        verify(mockPresenter).presentSuggestions(argThat(outputData ->
+                outputData.getPrefix().equals("bj") && outputData.getSuggestions()[0].getId().equals("1")));
+    }
+
+    @Test
+    void testStaleKeystrokeIsCancelledAndNeverPresented() {
+        CompletableFuture<Artist[]> slow = new CompletableFuture<>();
+        Artist[] latest = {new Artist("2", "Björk", "IS", 100, "Person", false)};
+        when(mockRepository.suggestArtistsAsync("b", 8)).thenReturn(slow);
+        when(mockRepository.suggestArtistsAsync("bj", 8)).thenReturn(CompletableFuture.completedFuture(latest));
+
+        interactor.execute(new AutocompleteInputData("b", 8));
+        interactor.execute(new AutocompleteInputData("bj", 8));
+        slow.complete(new Artist[]{new Artist("1", "Blur", "GB", 100, "Group", false)});
+
+        assertTrue(slow.isCancelled());
+        verify(mockPresenter, times(1)).presentSuggestions(any());
+        verify(mockPresenter).presentSuggestions(argThat(outputData -> outputData.getPrefix().equals("bj")));
+    }
+
+    @Test
+    void testBlankPrefixClearsSuggestionsWithoutALookup() {
+        interactor.execute(new AutocompleteInputData("  ", 8));
+
+        verifyNoInteractions(mockRepository);
+        verify(mockPresenter).presentSuggestions(argThat(outputData -> outputData.getSuggestions().length == 0));
+    }
+}
@@ -1,6 +1,7 @@
 package Use_case.event_search;
 
 
+import Use_case.spelling_correction.SpellingCorrectionDataAccessInterface;
 import data_transfer_object.Event;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -110,4 +111,37 @@ public class EventSearchInteractorTest {
         // Verify no extra interactions
         verifyNoMoreInteractions(mockRepository);
     }
+
+    @Test
+    void testRepositoryFailureShowsFailView() {
+        // Mock behavior
+        when(mockRepository.getEvents("Queen", "UK", 10, 0)).thenThrow(new RuntimeException("HTTP 503"));
+
+        // Execute use case
+        interactor.execute(new EventSearchInputData("Queen", "UK", 10, 0));
+
+        // Verify presenter interaction
+        verify(mockPresenter).prepareFailView("Event search failed: HTTP 503");
+        verify(mockPresenter, never()).presentResults(any());
+    }
+
+    @Test
+    void testMisspelledQueryWithoutResultsIsCorrectedAndRerun() {
+        // Prepare a corrector that knows the intended name
+        SpellingCorrectionDataAccessInterface corrector = mock(SpellingCorrectionDataAccessInterface.class);
+        when(corrector.correct("Glastonbery")).thenReturn("glastonbury");
+        when(mockRepository.getEvents("Glastonbery", "", 10, 0)).thenReturn(new Event[0]);
+        when(mockRepository.getEvents("glastonbury", "", 10, 0)).thenReturn(new Event[] {
+                new Event("1", "Glastonbury", "festival", "06.25", "06.29", "", "Pilton", "7", "", "", 100)});
+        EventSearchInteractor correctingInteractor = new EventSearchInteractor(
+                EventSearchAsyncDataAccessInterface.fromBlocking(mockRepository), mockPresenter, 5_000, corrector);
+
+        // Execute use case
+        correctingInteractor.execute(new EventSearchInputData("Glastonbery", "", 10, 0));
+
+        // The corrected results are shown and say what was searched instead
+        verify(mockPresenter).presentResults(argThat(outputData ->
+                outputData.getEvents().length == 1 && "glastonbury".equals(outputData.getCorrectedQuery())));
+        verify(corrector).learn("Glastonbury");
+    }
 }
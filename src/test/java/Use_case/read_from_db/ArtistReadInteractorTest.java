@@ -1,16 +1,26 @@
 package Use_case.read_from_db;
 
+import Use_case.RequestHandle;
 import data_transfer_object.Artist;
+import data_transfer_object.CommentPage;
+import data_transfer_object.RatingAggregate;
 import data_transfer_object.Recording;
+import data_transfer_object.Review;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 public class ArtistReadInteractorTest {
+    private static final int PAGE = ReadInputData.DEFAULT_COMMENTS_PAGE_SIZE;
+
     private ArtistReadInteractor artistReadInteractor;
     private ReadOutputBoundary mockPresenter;
     private ReadDataAccessInterface mockRepository;
@@ -38,20 +48,13 @@ public class ArtistReadInteractorTest {
         String comment2 = "Cool";
         double rating1 = 10;
         double rating2 = 8;
-        Map<String, Object> info1 = new HashMap<>();
-        info1.put("comment", comment1);
-        info1.put("rating", rating1);
-        Map<String, Object> info2 = new HashMap<>();
-        info2.put("comment", comment2);
-        info2.put("rating", rating2);
-        Map<String, Object> Content = new HashMap<>();
-        Content.put(user1, info1);
-        Content.put(user2, info2);
+        CommentPage page = new CommentPage(List.of(new Review(user1, comment1, rating1, 2_000),
+                new Review(user2, comment2, rating2, 1_000)), null);
         Map<String, String> expectedComments = new HashMap<>();
         expectedComments.put(user1, comment1);
         expectedComments.put(user2, comment2);
 
-        when(mockRepository.readContents(documentId)).thenReturn(Content);
+        when(mockRepository.readComments(documentId, null, PAGE)).thenReturn(page);
 
         // Prepare test of readSongRepository
         Artist artist = new Artist("artist", "ZL", "dk", 100, "person", false);
@@ -82,7 +85,7 @@ public class ArtistReadInteractorTest {
         artistReadInteractor.execute(inputData);
 
         // Verify
-        verify(mockRepository).readContents(documentId);
+        verify(mockRepository).readComments(documentId, null, PAGE);
         verify(mockPresenter).prepareArtistDetailedView(argThat(readOutputData ->
                 readOutputData.getArtist().equals(artist) && readOutputData.getRecording().equals(expectedRecordings)
                 && readOutputData.getAverageRating() == 9.0 && readOutputData.getComments().equals(expectedComments)));
@@ -90,5 +93,265 @@ public class ArtistReadInteractorTest {
 
 
 
+    }
+
+    @Test
+    void testSongFailureStillShowsComments() {
+        // Prepare test data
+        String documentId = "1";
+        CommentPage content = page("richard1", "Nice", 7.0);
+        Artist artist = new Artist("artist", "ZL", "dk", 100, "person", false);
+
+        // Mock behavior
+        when(mockRepository.readComments(documentId, null, PAGE)).thenReturn(content);
+        when(mockReadSongRepository.readTopSongs(documentId)).thenThrow(new RuntimeException("HTTP 503"));
+
+        // execute
+        artistReadInteractor.execute(new ReadInputData(documentId, artist));
+
+        // Verify
+        verify(mockPresenter).prepareArtistDetailedView(argThat(readOutputData ->
+                readOutputData.getRecording().length == 0 && readOutputData.getAverageRating() == 7.0
+                        && readOutputData.getComments().get("richard1").equals("Nice")));
+    }
+
+    @Test
+    void testBothSourcesAreReadAtOnce() {
+        // Prepare sources that have not answered yet
+        ReadAsyncDataAccessInterface contents = mock(ReadAsyncDataAccessInterface.class);
+        ReadSongAsyncDataAccessInterface songs = mock(ReadSongAsyncDataAccessInterface.class);
+        when(contents.readCommentsAsync("1", null, PAGE)).thenReturn(new CompletableFuture<>());
+        when(songs.readTopSongsAsync("1")).thenReturn(new CompletableFuture<>());
+        ArtistReadInteractor interactor = new ArtistReadInteractor(mockPresenter, contents, songs, 5_000, 5_000);
+
+        // execute
+        interactor.execute(new ReadInputData("1", new Artist("1", "ZL", "dk", 100, "person", false)));
+
+        // Verify neither read waited for the other
+        verify(contents).readCommentsAsync("1", null, PAGE);
+        verify(songs).readTopSongsAsync("1");
+        verifyNoInteractions(mockPresenter);
+    }
+
+    @Test
+    void testSlowSongsFillInAfterComments() {
+        // Prepare comments that are in and songs that are not
+        CommentPage content = page("richard1", "Nice", 7.0);
+        Artist artist = new Artist("1", "ZL", "dk", 100, "person", false);
+        ReadSongAsyncDataAccessInterface songs = mock(ReadSongAsyncDataAccessInterface.class);
+        CompletableFuture<Recording[]> pendingSongs = new CompletableFuture<>();
+        when(songs.readTopSongsAsync("1")).thenReturn(pendingSongs);
+        when(mockRepository.readComments("1", null, PAGE)).thenReturn(content);
+        ArtistReadInteractor interactor = new ArtistReadInteractor(mockPresenter,
+                ReadAsyncDataAccessInterface.fromBlocking(mockRepository), songs, 5_000, 5_000);
+
+        // execute
+        interactor.execute(new ReadInputData("1", artist));
+
+        // Verify the comments are shown without waiting for the songs
+        verify(mockPresenter).prepareArtistDetailedView(argThat(readOutputData ->
+                readOutputData.isTopSongsPending() && readOutputData.getAverageRating() == 7.0
+                        && readOutputData.getContentsMillis() >= 0 && readOutputData.getTopSongsMillis() == -1));
+        verify(mockPresenter, never()).presentTopSongs(any());
+
+        // The songs fill in when they arrive
+        Recording[] recordings = {Recording.builder().id("a").title("song1").length(5).build()};
+        pendingSongs.complete(recordings);
+        verify(mockPresenter).presentTopSongs(argThat(readOutputData ->
+                readOutputData.getRecording() == recordings && readOutputData.getTopSongsMillis() >= 0
+                        && readOutputData.getComments().get("richard1").equals("Nice")));
+    }
+
+    @Test
+    void testContentsDeadlineStillShowsSongs() {
+        // Prepare a contents read that never answers
+        ReadAsyncDataAccessInterface contents = mock(ReadAsyncDataAccessInterface.class);
+        when(contents.readCommentsAsync("1", null, PAGE)).thenReturn(new CompletableFuture<>());
+        Recording[] recordings = {Recording.builder().id("a").title("song1").length(5).build()};
+        when(mockReadSongRepository.readTopSongs("1")).thenReturn(recordings);
+        ArtistReadInteractor interactor = new ArtistReadInteractor(mockPresenter, contents,
+                ReadSongAsyncDataAccessInterface.fromBlocking(mockReadSongRepository), 50, 5_000);
+
+        // execute
+        interactor.execute(new ReadInputData("1", new Artist("1", "ZL", "dk", 100, "person", false)));
+
+        // Verify the view opens at the contents deadline, with songs and without comments
+        verify(mockPresenter, timeout(2_000)).prepareArtistDetailedView(argThat(readOutputData ->
+                readOutputData.getRecording() == recordings && readOutputData.getComments().isEmpty()
+                        && readOutputData.getAverageRating() == 0.0));
+    }
+
+    @Test
+    void testPrefetchStartsTheReadsAhead() {
+        // Prepare
+        ReadPrefetchDataAccessInterface prefetcher = mock(ReadPrefetchDataAccessInterface.class);
+        ArtistReadInteractor interactor = new ArtistReadInteractor(mockPresenter,
+                ReadAsyncDataAccessInterface.fromBlocking(mockRepository),
+                ReadSongAsyncDataAccessInterface.fromBlocking(mockReadSongRepository), 5_000, 5_000, prefetcher);
+
+        // execute
+        interactor.prefetch(new ReadInputData("1", new Artist("1", "ZL", "dk", 100, "person", false)));
+
+        // Verify nothing is presented until the artist is actually opened
+        verify(prefetcher).prefetch("1", PAGE);
+        verifyNoInteractions(mockPresenter, mockRepository, mockReadSongRepository);
+    }
+
+    @Test
+    void testClosingTheDetailedViewCancelsTheSongsRequest() {
+        // Prepare comments that are in and songs that are not
+        ReadSongAsyncDataAccessInterface songs = mock(ReadSongAsyncDataAccessInterface.class);
+        CompletableFuture<Recording[]> pendingSongs = new CompletableFuture<>();
+        when(songs.readTopSongsAsync("1")).thenReturn(pendingSongs);
+        when(mockRepository.readComments("1", null, PAGE)).thenReturn(CommentPage.empty());
+        ArtistReadInteractor interactor = new ArtistReadInteractor(mockPresenter,
+                ReadAsyncDataAccessInterface.fromBlocking(mockRepository), songs, 5_000, 5_000);
+        RequestHandle handle = new RequestHandle();
+
+        // execute, then close the view the comments opened
+        interactor.execute(new ReadInputData("1", new Artist("1", "ZL", "dk", 100, "person", false)), handle);
+        handle.cancel();
+
+        // Verify the songs request is abandoned and never presented
+        verify(mockPresenter).prepareArtistDetailedView(any());
+        assertTrue(pendingSongs.isCancelled());
+        verify(mockPresenter, never()).presentTopSongs(any());
+    }
+
+    @Test
+    void testRatingTotalsOpenTheViewBeforeComments() {
+        // Prepare totals that are in, comments that are not, and songs that are
+        ReadAsyncDataAccessInterface contents = mock(ReadAsyncDataAccessInterface.class);
+        CompletableFuture<CommentPage> pendingContents = new CompletableFuture<>();
+        when(contents.readCommentsAsync("1", null, PAGE)).thenReturn(pendingContents);
+        ReadRatingAsyncDataAccessInterface ratings = mock(ReadRatingAsyncDataAccessInterface.class);
+        long[] histogram = new long[11];
+        histogram[6] = 1;
+        histogram[9] = 1;
+        when(ratings.readRatingAsync("1")).thenReturn(CompletableFuture.completedFuture(
+                new RatingAggregate(15.0, 2, histogram)));
+        Recording[] recordings = {Recording.builder().id("a").title("song1").length(5).build()};
+        when(mockReadSongRepository.readTopSongs("1")).thenReturn(recordings);
+        ArtistReadInteractor interactor = new ArtistReadInteractor(mockPresenter, contents,
+                ReadSongAsyncDataAccessInterface.fromBlocking(mockReadSongRepository), 5_000, 5_000, null, ratings);
+
+        // execute
+        interactor.execute(new ReadInputData("1", new Artist("1", "ZL", "dk", 100, "person", false)));
+
+        // Verify the view opens with the totals while the comments load
+        verify(mockPresenter).prepareArtistDetailedView(argThat(readOutputData ->
+                readOutputData.isCommentsPending() && readOutputData.getAverageRating() == 7.5
+                        && readOutputData.getRatingCount() == 2 && readOutputData.getRecording() == recordings));
+        verify(mockPresenter, never()).presentComments(any());
+
+        // The comments fill in when they arrive; the totals stay authoritative
+        pendingContents.complete(page("richard1", "Nice", 6.0));
+        verify(mockPresenter).presentComments(argThat(readOutputData ->
+                readOutputData.getComments().get("richard1").equals("Nice")
+                        && readOutputData.getAverageRating() == 7.5));
+        verify(mockPresenter, times(1)).prepareArtistDetailedView(any());
+    }
+
+    @Test
+    void testRatingTotalsWinOverCommentsThatArriveFirst() {
+        // Prepare a prefetched first page of the newest reviews, and totals over every review still on their way
+        ReadAsyncDataAccessInterface contents = mock(ReadAsyncDataAccessInterface.class);
+        when(contents.readCommentsAsync("1", null, PAGE)).thenReturn(CompletableFuture.completedFuture(
+                new CommentPage(List.of(new Review("richard1", "Nice", 10.0, 2_000)), "2:0:richard1")));
+        ReadRatingAsyncDataAccessInterface ratings = mock(ReadRatingAsyncDataAccessInterface.class);
+        CompletableFuture<RatingAggregate> pendingTotals = new CompletableFuture<>();
+        when(ratings.readRatingAsync("1")).thenReturn(pendingTotals);
+        when(mockReadSongRepository.readTopSongs("1")).thenReturn(new Recording[0]);
+        ArtistReadInteractor interactor = new ArtistReadInteractor(mockPresenter, contents,
+                ReadSongAsyncDataAccessInterface.fromBlocking(mockReadSongRepository), 5_000, 5_000, null, ratings);
+
+        // execute
+        interactor.execute(new ReadInputData("1", new Artist("1", "ZL", "dk", 100, "person", false)));
+
+        // Verify the first page alone does not open the view with its own average
+        verify(mockPresenter, never()).prepareArtistDetailedView(any());
+
+        // The totals open it, with the comments already in
+        long[] histogram = new long[11];
+        histogram[10] = 1;
+        histogram[4] = 3;
+        pendingTotals.complete(new RatingAggregate(22.0, 4, histogram));
+        verify(mockPresenter).prepareArtistDetailedView(argThat(readOutputData ->
+                readOutputData.getAverageRating() == 5.5 && readOutputData.getRatingCount() == 4
+                        && readOutputData.getComments().get("richard1").equals("Nice")));
+        verify(mockPresenter, never()).presentComments(any());
+    }
+
+    @Test
+    void testMissingTotalsFallBackToTheCommentsAverage() {
+        // Prepare comments that are in, and an item without totals
+        ReadAsyncDataAccessInterface contents = mock(ReadAsyncDataAccessInterface.class);
+        when(contents.readCommentsAsync("1", null, PAGE)).thenReturn(CompletableFuture.completedFuture(
+                new CommentPage(List.of(new Review("richard1", "Nice", 10.0, 2_000),
+                        new Review("nick1", "Cool", 6.0, 1_000)), null)));
+        ReadRatingAsyncDataAccessInterface ratings = mock(ReadRatingAsyncDataAccessInterface.class);
+        CompletableFuture<RatingAggregate> pendingTotals = new CompletableFuture<>();
+        when(ratings.readRatingAsync("1")).thenReturn(pendingTotals);
+        when(mockReadSongRepository.readTopSongs("1")).thenReturn(new Recording[0]);
+        ArtistReadInteractor interactor = new ArtistReadInteractor(mockPresenter, contents,
+                ReadSongAsyncDataAccessInterface.fromBlocking(mockReadSongRepository), 5_000, 5_000, null, ratings);
+
+        // execute
+        interactor.execute(new ReadInputData("1", new Artist("1", "ZL", "dk", 100, "person", false)));
+        pendingTotals.complete(null);
+
+        // Verify
+        verify(mockPresenter).prepareArtistDetailedView(argThat(readOutputData ->
+                readOutputData.getAverageRating() == 8.0 && readOutputData.getComments().size() == 2));
+    }
+
+    @Test
+    void testOlderCommentsAreReadFromTheCursor() {
+        // Prepare a first page that says there are more, and the page after it
+        ReadAsyncDataAccessInterface contents = mock(ReadAsyncDataAccessInterface.class);
+        when(contents.readCommentsAsync("1", null, PAGE)).thenReturn(CompletableFuture.completedFuture(
+                new CommentPage(List.of(new Review("richard1", "Nice", 7.0, 2_000)), "2:0:richard1")));
+        when(contents.readCommentsAsync("1", "2:0:richard1", PAGE)).thenReturn(CompletableFuture.completedFuture(
+                new CommentPage(List.of(new Review("nick1", "Cool", 9.0, 1_000)), null)));
+        when(mockReadSongRepository.readTopSongs("1")).thenReturn(new Recording[0]);
+        ArtistReadInteractor interactor = new ArtistReadInteractor(mockPresenter, contents,
+                ReadSongAsyncDataAccessInterface.fromBlocking(mockReadSongRepository), 5_000, 5_000);
+        Artist artist = new Artist("1", "ZL", "dk", 100, "person", false);
+
+        // execute
+        interactor.execute(new ReadInputData("1", artist));
+        interactor.readOlderComments(new ReadInputData("1", artist, "2:0:richard1", PAGE), new RequestHandle());
+
+        // Verify the view opens with the first page and where it ends, then gets the next page
+        verify(mockPresenter).prepareArtistDetailedView(argThat(readOutputData ->
+                readOutputData.getComments().keySet().equals(Set.of("richard1"))
+                        && "2:0:richard1".equals(readOutputData.getCommentsCursor())));
+        verify(mockPresenter).presentOlderComments(argThat(readOutputData ->
+                readOutputData.getComments().get("nick1").equals("Cool")
+                        && readOutputData.getCommentsCursor() == null));
+    }
+
+    @Test
+    void testFailedOlderPageKeepsItsCursor() {
+        // Prepare
+        ReadAsyncDataAccessInterface contents = mock(ReadAsyncDataAccessInterface.class);
+        when(contents.readCommentsAsync("1", "2:0:richard1", PAGE))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("UNAVAILABLE")));
+        ArtistReadInteractor interactor = new ArtistReadInteractor(mockPresenter, contents,
+                ReadSongAsyncDataAccessInterface.fromBlocking(mockReadSongRepository), 5_000, 5_000);
+        Artist artist = new Artist("1", "ZL", "dk", 100, "person", false);
+
+        // execute
+        interactor.readOlderComments(new ReadInputData("1", artist, "2:0:richard1", PAGE), new RequestHandle());
+
+        // Verify the page can be asked for again
+        verify(mockPresenter).presentOlderComments(argThat(readOutputData ->
+                readOutputData.getComments().isEmpty()
+                        && "2:0:richard1".equals(readOutputData.getCommentsCursor())));
+        verifyNoInteractions(mockReadSongRepository);
+    }
+
+    private static CommentPage page(String username, String comment, double rating) {
+        return new CommentPage(List.of(new Review(username, comment, rating, 1_000)), null);
     }
 }
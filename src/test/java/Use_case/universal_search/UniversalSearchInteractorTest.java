@@ -0,0 +1,106 @@
+package Use_case.universal_search;
+
+import Use_case.RequestHandle;
+import Use_case.artist_search.ArtistSearchAsyncDataAccessInterface;
+import Use_case.event_search.EventSearchAsyncDataAccessInterface;
+import data_transfer_object.Artist;
+import data_transfer_object.Event;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class UniversalSearchInteractorTest {
+    private ArtistSearchAsyncDataAccessInterface mockArtists;
+    private EventSearchAsyncDataAccessInterface mockEvents;
+    private UniversalSearchOutputBoundary mockPresenter;
+    private UniversalSearchInteractor interactor;
+    private CompletableFuture<Artist[]> artists;
+    private CompletableFuture<Event[]> events;
+
+    @BeforeEach
+    void setUp() {
+        mockArtists = mock(ArtistSearchAsyncDataAccessInterface.class);
+        mockEvents = mock(EventSearchAsyncDataAccessInterface.class);
+        mockPresenter = mock(UniversalSearchOutputBoundary.class);
+        interactor = new UniversalSearchInteractor(mockArtists, mockEvents, mockPresenter, 30_000);
+        artists = new CompletableFuture<>();
+        events = new CompletableFuture<>();
+        when(mockArtists.getArtistsAsync(eq("Glastonbury"), anyString(), anyString(), eq(10), eq(0)))
+                .thenReturn(artists);
+        when(mockEvents.getEventsAsync(eq("Glastonbury"), anyString(), eq(10), eq(0))).thenReturn(events);
+    }
+
+    private static Artist artist(String name, int score) {
+        return new Artist(name, name, "GB", score, "Group", false);
+    }
+
+    private static Event event(String name, int score) {
+        return new Event(name, name, "Festival", "2024-06-26", "2024-06-30", "",
+                "Worthy Farm", "1", "", "", score);
+    }
+
+    private static List<String> names(UniversalSearchOutputData outputData) {
+        return outputData.getHits().stream().map(SearchHit::getName).collect(Collectors.toList());
+    }
+
+    @Test
+    void testBestMatchesStreamBeforeSlowerSourceAndRestIsMerged() {
+        // Execute: both searches start before either answers
+        interactor.execute(new UniversalSearchInputData("Glastonbury", 10));
+        verify(mockArtists).getArtistsAsync(eq("Glastonbury"), anyString(), anyString(), eq(10), eq(0));
+        verify(mockEvents).getEventsAsync(eq("Glastonbury"), anyString(), eq(10), eq(0));
+        events.complete(new Event[]{event("Glastonbury 2024", 100), event("Glastonbury 2019", 60)});
+
+        // Verify: only the perfect match is certain to keep its rank
+        ArgumentCaptor<UniversalSearchOutputData> output = ArgumentCaptor.forClass(UniversalSearchOutputData.class);
+        verify(mockPresenter).presentResults(output.capture());
+        assertEquals(List.of("Glastonbury 2024"), names(output.getValue()));
+        assertFalse(output.getValue().isComplete());
+
+        // Execute: the artists answer last
+        artists.complete(new Artist[]{artist("Glastonbury Band", 80), artist("Glass", 40)});
+
+        // Verify
+        verify(mockPresenter, times(2)).presentResults(output.capture());
+        assertEquals(List.of("Glastonbury Band", "Glastonbury 2019", "Glass"), names(output.getValue()));
+        assertTrue(output.getValue().isComplete());
+        assertTrue(output.getValue().getUnavailableSources().isEmpty());
+    }
+
+    @Test
+    void testFailedSourceIsLeftOut() {
+        // Execute
+        interactor.execute(new UniversalSearchInputData("Glastonbury", 10));
+        artists.completeExceptionally(new RuntimeException("Service unavailable"));
+        events.complete(new Event[]{event("Glastonbury 2019", 60)});
+
+        // Verify
+        verify(mockPresenter).presentResults(argThat(outputData -> outputData.isComplete()
+                && names(outputData).equals(List.of("Glastonbury 2019"))
+                && outputData.getUnavailableSources().equals(List.of("artists"))));
+        verify(mockPresenter, never()).prepareFailView(anyString());
+    }
+
+    @Test
+    void testCancelledSearchPresentsNothing() {
+        // Prepare
+        RequestHandle handle = new RequestHandle();
+
+        // Execute
+        interactor.execute(new UniversalSearchInputData("Glastonbury", 10), handle);
+        handle.cancel();
+
+        // Verify
+        assertTrue(artists.isCancelled());
+        assertTrue(events.isCancelled());
+        verifyNoInteractions(mockPresenter);
+    }
+}
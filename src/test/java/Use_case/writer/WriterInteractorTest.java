@@ -3,6 +3,8 @@ package Use_case.writer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.CompletableFuture;
+
 import static org.mockito.Mockito.*;
 
 class WriterInteractorTest {
@@ -31,6 +33,7 @@ class WriterInteractorTest {
         // Verify interactions
         verify(mockDataAccess).addComment("artist123", "user1", 8, "Great song!");
         verify(mockPresenter).prepareSuccessView("Comment successfully added!");
+        verify(mockPresenter).prepareStoredView("Great song!");
         verifyNoMoreInteractions(mockDataAccess);
         verifyNoMoreInteractions(mockPresenter);
     }
@@ -102,4 +105,61 @@ class WriterInteractorTest {
         verify(mockDataAccess).addComment("artist123", "user1", 8, "Great song!");
         verify(mockPresenter).prepareFailView("Failed to add comment: Database error");
     }
+
+    @Test
+    void testExecuteComment_LaterWriteFailureIsReconciled() {
+        // Prepare a write-behind repository that has not stored the review yet
+        WriterAsyncDataAccessInterface writeBehind = mock(WriterAsyncDataAccessInterface.class);
+        CompletableFuture<Void> stored = new CompletableFuture<>();
+        when(writeBehind.addCommentAsync("artist123", "user1", 8, "Great song!")).thenReturn(stored);
+        WriterInteractor interactor = new WriterInteractor(writeBehind, mockPresenter);
+
+        // Execute use case
+        interactor.executeComment(new WriterInputData("artist123", "user1", "Great song!", 8));
+
+        // Verify success is shown at once, then taken back when the batch fails
+        verify(mockPresenter).prepareSuccessView("Comment successfully added!");
+        verify(mockPresenter, never()).prepareReconcileView(anyString());
+        stored.completeExceptionally(new RuntimeException("Batch rejected"));
+        verify(mockPresenter).prepareReconcileView("Failed to add comment: Batch rejected");
+        verify(mockPresenter, never()).prepareFailView(anyString());
+    }
+
+    @Test
+    void testExecuteComment_ReplacedReviewIsRevertedOnce() {
+        // Prepare two reviews by one user, the first replaced by the second before either is stored
+        WriterAsyncDataAccessInterface writeBehind = mock(WriterAsyncDataAccessInterface.class);
+        CompletableFuture<Void> replaced = new CompletableFuture<>();
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        when(writeBehind.addCommentAsync("artist123", "user1", 4, "Meh")).thenReturn(replaced);
+        when(writeBehind.addCommentAsync("artist123", "user1", 8, "Great song!")).thenReturn(written);
+        WriterInteractor interactor = new WriterInteractor(writeBehind, mockPresenter);
+
+        // Execute use case
+        interactor.executeComment(new WriterInputData("artist123", "user1", "Meh", 4));
+        interactor.executeComment(new WriterInputData("artist123", "user1", "Great song!", 8));
+        replaced.cancel(false);
+        written.completeExceptionally(new RuntimeException("Batch rejected"));
+
+        // Verify the failed write is taken back once, and nothing was confirmed
+        verify(mockPresenter, times(1)).prepareReconcileView("Failed to add comment: Batch rejected");
+        verify(mockPresenter, never()).prepareStoredView(anyString());
+    }
+
+    @Test
+    void testExecuteComment_StoredReviewIsConfirmed() {
+        // Prepare
+        WriterAsyncDataAccessInterface writeBehind = mock(WriterAsyncDataAccessInterface.class);
+        CompletableFuture<Void> stored = new CompletableFuture<>();
+        when(writeBehind.addCommentAsync("artist123", "user1", 8, "Great song!")).thenReturn(stored);
+        WriterInteractor interactor = new WriterInteractor(writeBehind, mockPresenter);
+
+        // Execute use case
+        interactor.executeComment(new WriterInputData("artist123", "user1", "Great song!", 8));
+        stored.complete(null);
+
+        // Verify the view learns what to fall back to if a later review fails
+        verify(mockPresenter).prepareStoredView("Great song!");
+        verify(mockPresenter, never()).prepareReconcileView(anyString());
+    }
 }
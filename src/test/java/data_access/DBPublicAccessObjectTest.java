@@ -0,0 +1,133 @@
+package data_access;
+
+import com.google.api.core.ApiFutures;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FirestoreException;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Precondition;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.WriteBatch;
+import io.grpc.Status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DBPublicAccessObjectTest {
+    private Firestore db;
+    private CollectionReference comments;
+    private DocumentReference totals;
+    private DocumentReference shard;
+    private WriteBatch batch;
+    private DBPublicAccessObject publicAccessObject;
+
+    @BeforeEach
+    void setUp() {
+        db = mock(Firestore.class);
+        // an item with no reviews stored the old way, so nothing needs moving
+        CollectionReference items = mock(CollectionReference.class);
+        DocumentReference item = mock(DocumentReference.class);
+        comments = mock(CollectionReference.class);
+        when(db.collection("Public")).thenReturn(items);
+        when(items.document("1")).thenReturn(item);
+        DocumentSnapshot unreviewed = absent();
+        when(item.get()).thenReturn(ApiFutures.immediateFuture(unreviewed));
+        when(item.collection("Comments")).thenReturn(comments);
+
+        CollectionReference aggregates = mock(CollectionReference.class);
+        CollectionReference shards = mock(CollectionReference.class);
+        totals = mock(DocumentReference.class);
+        shard = mock(DocumentReference.class);
+        when(db.collection("RatingAggregates")).thenReturn(aggregates);
+        when(aggregates.document("1")).thenReturn(totals);
+        when(totals.collection("Shards")).thenReturn(shards);
+        when(shards.document(anyString())).thenReturn(shard);
+
+        batch = mock(WriteBatch.class);
+        when(db.batch()).thenReturn(batch);
+        publicAccessObject = new DBPublicAccessObject(db);
+    }
+
+    @Test
+    void testBatchUpdatesKnownReviewsAndCreatesNewOnes() {
+        // Prepare one review that replaces an earlier one, and one that is new
+        DocumentReference replaced = review("richard1");
+        DocumentReference created = review("nick1");
+        Timestamp readAt = Timestamp.ofTimeSecondsAndNanos(100, 0);
+        DocumentSnapshot earlier = absent();
+        when(earlier.exists()).thenReturn(true);
+        when(earlier.getDouble("rating")).thenReturn(4.0);
+        when(earlier.getUpdateTime()).thenReturn(readAt);
+        List<DocumentSnapshot> read = List.of(earlier, absent(), absent());
+        when(db.getAll(any(DocumentReference[].class))).thenReturn(ApiFutures.immediateFuture(read));
+        when(batch.commit()).thenReturn(ApiFutures.immediateFuture(List.of()));
+
+        // Execute
+        publicAccessObject.writeComments(List.of(new CommentWrite("1", "richard1", 8, "Nice after all"),
+                new CommentWrite("1", "nick1", 9, "Cool")));
+
+        // Verify the replaced review must be unchanged since it was read, and the item's totals move once
+        verify(batch).update(eq(replaced), anyMap(), eq(Precondition.updatedAt(readAt)));
+        verify(batch).create(eq(created), anyMap());
+        verify(batch, times(1)).set(eq(shard), anyMap(), any(SetOptions.class));
+        verify(batch, times(1)).commit();
+    }
+
+    @Test
+    void testBatchThatRacedAnotherWriteIsReadAndSentAgain() {
+        // Prepare
+        review("richard1");
+        List<DocumentSnapshot> read = List.of(absent(), absent());
+        when(db.getAll(any(DocumentReference[].class))).thenReturn(ApiFutures.immediateFuture(read));
+        FirestoreException raced = FirestoreException.forServerRejection(Status.ALREADY_EXISTS,
+                "Document already exists");
+        when(batch.commit())
+                .thenReturn(ApiFutures.immediateFailedFuture(raced))
+                .thenReturn(ApiFutures.immediateFuture(List.of()));
+
+        // Execute
+        publicAccessObject.writeComments(List.of(new CommentWrite("1", "richard1", 8, "Nice")));
+
+        // Verify
+        verify(db, times(2)).getAll(any(DocumentReference[].class));
+        verify(batch, times(2)).commit();
+    }
+
+    @Test
+    void testOtherBatchFailuresAreNotSentAgain() {
+        // Prepare
+        review("richard1");
+        List<DocumentSnapshot> read = List.of(absent(), absent());
+        when(db.getAll(any(DocumentReference[].class))).thenReturn(ApiFutures.immediateFuture(read));
+        FirestoreException denied =
+                FirestoreException.forServerRejection(Status.PERMISSION_DENIED, "Missing or insufficient permissions");
+        when(batch.commit()).thenReturn(ApiFutures.immediateFailedFuture(denied));
+
+        // Execute
+        RuntimeException error = assertThrows(RuntimeException.class, () ->
+                publicAccessObject.writeComments(List.of(new CommentWrite("1", "richard1", 8, "Nice"))));
+
+        // Verify
+        assertTrue(error.getMessage().contains("insufficient permissions"));
+        verify(batch, times(1)).commit();
+    }
+
+    private DocumentReference review(String username) {
+        DocumentReference review = mock(DocumentReference.class);
+        when(comments.document(username)).thenReturn(review);
+        return review;
+    }
+
+    private static DocumentSnapshot absent() {
+        DocumentSnapshot snapshot = mock(DocumentSnapshot.class);
+        when(snapshot.exists()).thenReturn(false);
+        return snapshot;
+    }
+}
@@ -0,0 +1,101 @@
+package data_access;
+
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DBUserAccessObjectTest {
+    private Firestore db;
+    private CollectionReference users;
+    private DBUserAccessObject userAccessObject;
+
+    @BeforeEach
+    void setUp() {
+        db = mock(Firestore.class);
+        users = mock(CollectionReference.class);
+        when(db.collection("Users")).thenReturn(users);
+        userAccessObject = new DBUserAccessObject(db, new WTinyLfuCache<String, User>(64 * 1024,
+                DBUserAccessObject::weigh), 60_000);
+    }
+
+    private DocumentReference stubUser(String username, String... passwords) {
+        DocumentReference document = mock(DocumentReference.class);
+        when(users.document(username)).thenReturn(document);
+        DocumentSnapshot first = snapshot(username, passwords[0]);
+        if (passwords.length == 1) {
+            when(document.get()).thenReturn(ApiFutures.immediateFuture(first));
+        }
+        else {
+            DocumentSnapshot second = snapshot(username, passwords[1]);
+            when(document.get())
+                    .thenReturn(ApiFutures.immediateFuture(first))
+                    .thenReturn(ApiFutures.immediateFuture(second));
+        }
+        return document;
+    }
+
+    private static DocumentSnapshot snapshot(String username, String password) {
+        DocumentSnapshot snapshot = mock(DocumentSnapshot.class);
+        when(snapshot.exists()).thenReturn(password != null);
+        when(snapshot.getString("username")).thenReturn(username);
+        when(snapshot.getString("password")).thenReturn(password);
+        return snapshot;
+    }
+
+    @Test
+    void testLoginReadsOneUserAndCachesIt() {
+        // Prepare
+        verifyNoInteractions(db);
+        DocumentReference document = stubUser("alice", "secret");
+
+        // Execute
+        boolean first = userAccessObject.validateLogin("alice", "secret");
+        boolean second = userAccessObject.validateLogin("alice", "secret");
+
+        // Verify
+        assertTrue(first);
+        assertTrue(second);
+        verify(document, times(1)).get();
+        verify(users, never()).get();
+    }
+
+    @Test
+    void testChangedPasswordIsReadAgain() {
+        // Prepare
+        DocumentReference document = stubUser("alice", "old", "new");
+        assertTrue(userAccessObject.validateLogin("alice", "old"));
+
+        // Execute
+        boolean result = userAccessObject.validateLogin("alice", "new");
+
+        // Verify
+        assertTrue(result);
+        verify(document, times(2)).get();
+    }
+
+    @Test
+    void testAbsentUserIsNotCached() throws Exception {
+        // Prepare
+        DocumentReference document = stubUser("bob", (String) null);
+
+        // Execute
+        boolean first = userAccessObject.userExists("bob");
+        boolean second = userAccessObject.userExists("bob");
+
+        // Verify: a signup made elsewhere in between would have been seen
+        assertFalse(first);
+        assertFalse(second);
+        verify(document, times(2)).get();
+        assertFalse(userAccessObject.validateLogin("bob", "anything"));
+        // a miss is one point read, with no query over the collection
+        verify(users, never()).whereEqualTo(anyString(), any());
+    }
+}
@@ -0,0 +1,78 @@
+package data_access;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiskResponseStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testResponsesSurviveAReopen() throws IOException {
+        try (DiskResponseStore store = DiskResponseStore.open(directory, 64 * 1024)) {
+            store.put("https://mb/artist?query=queen", bytes("{\"artists\":[]}"), "\"v1\"", null, 1_000L);
+            store.put("https://mb/artist?query=queen", bytes("{\"artists\":[1]}"), "\"v2\"", "Mon", 2_000L);
+        }
+
+        try (DiskResponseStore store = DiskResponseStore.open(directory, 64 * 1024)) {
+            DiskResponseStore.Entry entry = store.get("https://mb/artist?query=queen");
+
+            assertEquals(1, store.size());
+            assertEquals("{\"artists\":[1]}", new String(entry.getBody(), StandardCharsets.UTF_8));
+            assertEquals("\"v2\"", entry.getEtag());
+            assertEquals("Mon", entry.getLastModified());
+            assertTrue(entry.isFresh(1_999L));
+            assertFalse(entry.isFresh(2_000L));
+            assertNull(store.get("https://mb/artist?query=abba"));
+        }
+    }
+
+    @Test
+    void testFullFileIsCompactedToTheNewestRecords() throws IOException {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        try (DiskResponseStore store = DiskResponseStore.open(directory, 4 * 1024)) {
+            for (int round = 0; round < 50; round++) {
+                for (int page = 0; page < 3; page++) {
+                    store.put("url" + page, bytes("round " + round), null, null, expiresAt);
+                }
+            }
+
+            assertEquals(3, store.size());
+            assertEquals("round 49", new String(store.get("url1").getBody(), StandardCharsets.UTF_8));
+            assertTrue(store.usedBytes() <= store.capacityBytes());
+        }
+    }
+
+    @Test
+    void testCompactedRecordsSurviveAReopen() throws IOException {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        try (DiskResponseStore store = DiskResponseStore.open(directory, 4 * 1024)) {
+            for (int round = 0; round < 50; round++) {
+                for (int page = 0; page < 3; page++) {
+                    store.put("url" + page, bytes("round " + round), "\"r" + round + "\"", null, expiresAt);
+                }
+            }
+        }
+        // a compaction that crashed before its swap leaves this behind
+        Files.write(directory.resolve("responses.dat.compact"), bytes("torn"));
+
+        try (DiskResponseStore store = DiskResponseStore.open(directory, 4 * 1024)) {
+            assertEquals(3, store.size());
+            assertEquals("round 49", new String(store.get("url2").getBody(), StandardCharsets.UTF_8));
+            assertEquals("\"r49\"", store.get("url2").getEtag());
+        }
+        assertFalse(Files.exists(directory.resolve("responses.dat.compact")));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
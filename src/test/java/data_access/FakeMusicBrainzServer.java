@@ -0,0 +1,250 @@
+package data_access;
+
+import javax.net.ServerSocketFactory;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the MusicBrainz web service, for driving the repositories end to end without the
+ * network. It answers artist, event and recording lookups with the fixtures under
+ * {@code src/test/resources/musicbrainz}, after a configurable latency with jitter, and fails a
+ * configurable share of requests with a 500 or throttles them with a 503 and Retry-After, like the real
+ * service does under load. Failures are drawn from a seeded random, so a run is repeatable in aggregate.
+ */
+final class FakeMusicBrainzServer implements AutoCloseable {
+
+    private static final String ROOT = "/ws/2";
+
+    private final MockWebServer server = new MockWebServer();
+    private final Map<String, String> fixtures = new HashMap<>();
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double errorRate;
+    private final double throttleRate;
+    private final int retryAfterSeconds;
+    private final Random random;
+
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+
+    private FakeMusicBrainzServer(Builder builder) throws IOException {
+        this.latencyMillis = builder.latencyMillis;
+        this.jitterMillis = builder.jitterMillis;
+        this.errorRate = builder.errorRate;
+        this.throttleRate = builder.throttleRate;
+        this.retryAfterSeconds = builder.retryAfterSeconds;
+        this.random = new Random(builder.seed);
+        fixtures.put("artist", fixture("artists.json"));
+        fixtures.put("event", fixture("events.json"));
+        fixtures.put("recording", fixture("recordings.json"));
+        server.setServerSocketFactory(new NoDelayServerSocketFactory());
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return respond(request);
+            }
+        });
+        server.start();
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Return the web service root to hand to {@link MusicBrainzHttpClient}.
+     * @return the root url, without a trailing slash like the real one.
+     */
+    String baseUrl() {
+        final String url = server.url(ROOT).toString();
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    long getServed() {
+        return served.get();
+    }
+
+    long getFailed() {
+        return failed.get();
+    }
+
+    long getThrottled() {
+        return throttled.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+
+    private MockResponse respond(RecordedRequest request) {
+        final List<String> path = request.getRequestUrl().pathSegments();
+        // ws/2/<resource>[/]
+        final String body = path.size() >= 3 ? fixtures.get(path.get(2)) : null;
+        if (body == null) {
+            return new MockResponse().setResponseCode(404);
+        }
+        final double roll;
+        final long delay;
+        synchronized (random) {
+            roll = random.nextDouble();
+            delay = Math.max(0, latencyMillis + (jitterMillis == 0 ? 0
+                    : (long) ((random.nextDouble() * 2 - 1) * jitterMillis)));
+        }
+        final MockResponse response;
+        if (roll < throttleRate) {
+            throttled.incrementAndGet();
+            response = new MockResponse().setResponseCode(503)
+                    .setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        }
+        else if (roll < throttleRate + errorRate) {
+            failed.incrementAndGet();
+            response = new MockResponse().setResponseCode(500);
+        }
+        else {
+            served.incrementAndGet();
+            response = new MockResponse().setResponseCode(200)
+                    .setHeader("Content-Type", "application/json; charset=utf-8")
+                    .setBody(body);
+        }
+        return response.setHeadersDelay(delay, TimeUnit.MILLISECONDS);
+    }
+
+    private static String fixture(String name) {
+        try (InputStream in = FakeMusicBrainzServer.class.getResourceAsStream("/musicbrainz/" + name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing fixture " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Accepts connections with Nagle's algorithm off. MockWebServer writes the headers and the body of a
+     * response separately, and with Nagle on the body waits for the client's delayed ACK of the headers,
+     * which adds about 40 ms to every response that the real service does not have.
+     */
+    private static final class NoDelayServerSocketFactory extends ServerSocketFactory {
+
+        @Override
+        public ServerSocket createServerSocket() throws IOException {
+            return new NoDelayServerSocket();
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port) throws IOException {
+            final ServerSocket socket = new NoDelayServerSocket();
+            socket.bind(new InetSocketAddress(port));
+            return socket;
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+            final ServerSocket socket = new NoDelayServerSocket();
+            socket.bind(new InetSocketAddress(port), backlog);
+            return socket;
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog, InetAddress address) throws IOException {
+            final ServerSocket socket = new NoDelayServerSocket();
+            socket.bind(new InetSocketAddress(address, port), backlog);
+            return socket;
+        }
+    }
+
+    private static final class NoDelayServerSocket extends ServerSocket {
+
+        NoDelayServerSocket() throws IOException {
+            super();
+        }
+
+        @Override
+        public Socket accept() throws IOException {
+            final Socket socket = super.accept();
+            socket.setTcpNoDelay(true);
+            return socket;
+        }
+    }
+
+    static final class Builder {
+        private long latencyMillis;
+        private long jitterMillis;
+        private double errorRate;
+        private double throttleRate;
+        private int retryAfterSeconds = 1;
+        private long seed = 42;
+
+        /**
+         * Delay every response by this much on average.
+         */
+        Builder latencyMillis(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+            return this;
+        }
+
+        /**
+         * Spread response delays uniformly this far either side of the latency.
+         */
+        Builder jitterMillis(long jitterMillis) {
+            this.jitterMillis = jitterMillis;
+            return this;
+        }
+
+        /**
+         * Answer this share of requests with a 500.
+         */
+        Builder errorRate(double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        /**
+         * Answer this share of requests with a 503 and a Retry-After header.
+         */
+        Builder throttleRate(double throttleRate) {
+            this.throttleRate = throttleRate;
+            return this;
+        }
+
+        /**
+         * The Retry-After value sent with a 503. OkHttp itself silently retries a 503 that says 0, so
+         * the client under test only sees throttling with a positive value.
+         */
+        Builder retryAfterSeconds(int retryAfterSeconds) {
+            this.retryAfterSeconds = retryAfterSeconds;
+            return this;
+        }
+
+        Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        FakeMusicBrainzServer start() throws IOException {
+            return new FakeMusicBrainzServer(this);
+        }
+    }
+}
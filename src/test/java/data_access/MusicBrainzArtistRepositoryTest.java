@@ -0,0 +1,146 @@
+package data_access;
+
+import data_transfer_object.Recording;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MusicBrainzArtistRepositoryTest {
+
+    private final List<HttpUrl> requests = new CopyOnWriteArrayList<>();
+    private final Map<String, String> pages = new ConcurrentHashMap<>();
+
+    private MockWebServer server;
+    private MusicBrainzHttpClient client;
+    private MusicBrainzArtistRepository repository;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                final HttpUrl url = request.getRequestUrl();
+                requests.add(url);
+                final String page = pages.get(url.queryParameter("query"));
+                return page != null ? new MockResponse().setBody(page) : new MockResponse().setResponseCode(404);
+            }
+        });
+        server.start();
+        client = new MusicBrainzHttpClient(server.url("/ws/2/").toString(), "test/1.0 (test@example.com)",
+                new MusicBrainzRateGovernor(1_000, 100, 100));
+        repository = new MusicBrainzArtistRepository(client, RequestPriority.INTERACTIVE, "test",
+                new StreamingResponseDecoder());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.shutdown();
+        server.shutdown();
+    }
+
+    @Test
+    void testSeveralArtistsShareOneRecordingSearch() {
+        // Prepare a page that is short of the limit, so a3 has no recordings at all
+        pages.put("arid:\"a1\" OR arid:\"a2\" OR arid:\"a3\"",
+                page(recording("r1", "a1"), recording("r2", "a2"), recording("r3", "a1", "a2")));
+
+        // Execute
+        Map<String, Recording[]> songs = repository.readTopSongsAsync(List.of("a1", "a2", "a3", "a1")).join();
+
+        // Verify one search for the distinct artists, split back per artist in request order
+        assertEquals(1, requests.size());
+        assertEquals("recording", requests.get(0).pathSegments().get(2));
+        assertEquals("100", requests.get(0).queryParameter("limit"));
+        assertEquals(List.of("a1", "a2", "a3"), List.copyOf(songs.keySet()));
+        assertEquals(List.of("r1", "r3"), ids(songs.get("a1")));
+        assertEquals(List.of("r2", "r3"), ids(songs.get("a2")));
+        assertEquals(0, songs.get("a3").length);
+    }
+
+    @Test
+    void testArtistsShortOnAFullPageAreReadOnTheirOwn() {
+        // Prepare a full page where a1 crowds out a2 and leaves a3 nine songs
+        final List<String> rows = new ArrayList<>();
+        for (int i = 0; i < 91; i++) {
+            rows.add(recording("r" + i, "a1"));
+        }
+        for (int i = 0; i < 9; i++) {
+            rows.add(recording("s" + i, "a3"));
+        }
+        pages.put("arid:\"a1\" OR arid:\"a2\" OR arid:\"a3\"", page(rows.toArray(new String[0])));
+        pages.put("arid:\"a2\"", page(recording("own", "a2")));
+        pages.put("arid:\"a3\"", page(recording("s0", "a3"), recording("extra", "a3")));
+
+        // Execute
+        Map<String, Recording[]> songs = repository.readTopSongsAsync(List.of("a1", "a2", "a3")).join();
+
+        // Verify only the short artists were read again, and their own reads replace the page's lists
+        assertEquals(3, requests.size());
+        assertEquals(Set.of("arid:\"a2\"", "arid:\"a3\""), Set.of(requests.get(1).queryParameter("query"),
+                requests.get(2).queryParameter("query")));
+        assertEquals("10", requests.get(1).queryParameter("limit"));
+        assertEquals(10, songs.get("a1").length);
+        assertEquals(List.of("own"), ids(songs.get("a2")));
+        assertEquals(List.of("s0", "extra"), ids(songs.get("a3")));
+    }
+
+    @Test
+    void testArtistsBeyondTenGoToAnotherBatch() {
+        // Prepare eleven artists: ten share one search and the last is read on its own
+        final List<String> artistIDs = new ArrayList<>();
+        final StringBuilder query = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            artistIDs.add("a" + i);
+            query.append(i == 0 ? "" : " OR ").append("arid:\"a").append(i).append('"');
+        }
+        artistIDs.add("b");
+        pages.put(query.toString(), page(recording("r0", "a0")));
+        pages.put("arid:\"b\"", page(recording("rb", "b")));
+
+        // Execute
+        Map<String, Recording[]> songs = repository.readTopSongsAsync(artistIDs).join();
+
+        // Verify
+        assertEquals(2, requests.size());
+        assertEquals(artistIDs, List.copyOf(songs.keySet()));
+        assertEquals(List.of("r0"), ids(songs.get("a0")));
+        assertEquals(List.of("rb"), ids(songs.get("b")));
+    }
+
+    private static String page(String... recordings) {
+        return "{\"recordings\":[" + String.join(",", recordings) + "]}";
+    }
+
+    private static String recording(String id, String... artistIDs) {
+        final List<String> credits = new ArrayList<>();
+        for (String artistID : artistIDs) {
+            credits.add("{\"artist\":{\"id\":\"" + artistID + "\"}}");
+        }
+        return "{\"id\":\"" + id + "\",\"title\":\"" + id + "\",\"length\":1000,\"artist-credit\":["
+                + String.join(",", credits) + "]}";
+    }
+
+    private static List<String> ids(Recording[] recordings) {
+        final List<String> ids = new ArrayList<>();
+        for (Recording recording : recordings) {
+            ids.add(recording.getId());
+        }
+        return ids;
+    }
+}
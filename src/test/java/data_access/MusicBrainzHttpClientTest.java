@@ -0,0 +1,187 @@
+package data_access;
+
+import okhttp3.HttpUrl;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MusicBrainzHttpClientTest {
+
+    @TempDir
+    Path directory;
+
+    private MockWebServer server;
+    private DiskResponseStore store;
+    private MusicBrainzHttpClient client;
+    private HttpUrl url;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        store = DiskResponseStore.open(directory, 64 * 1024);
+        url = server.url("/ws/2/artist/?query=queen&fmt=json");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (client != null) {
+            client.shutdown();
+        }
+        server.shutdown();
+    }
+
+    private void connect(boolean offline) {
+        client = new MusicBrainzHttpClient(server.url("/ws/2/").toString(), "test/1.0 (test@example.com)",
+                new MusicBrainzRateGovernor(1_000, 100, 100), store, offline);
+    }
+
+    @Test
+    void testFreshStoredResponsesSkipTheNetwork() throws IOException {
+        // Prepare
+        store.put(url.toString(), bytes("{\"stored\":1}"), "\"v1\"", null, System.currentTimeMillis() + 60_000);
+        connect(false);
+
+        // Execute
+        String body = read(client.get(url, RequestPriority.INTERACTIVE, "test"));
+
+        // Verify
+        assertEquals("{\"stored\":1}", body);
+        assertEquals(0, server.getRequestCount());
+        assertEquals(1, client.getStoreStats().getFreshHits());
+    }
+
+    @Test
+    void testStaleResponsesAreRevalidatedAndRefreshedOnNotModified() throws Exception {
+        // Prepare
+        store.put(url.toString(), bytes("{\"stored\":1}"), "\"v1\"", "Mon, 01 Jan 2024 00:00:00 GMT", 0L);
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader("ETag", "\"v2\"")
+                .setHeader("Cache-Control", "max-age=60"));
+        connect(false);
+
+        // Execute
+        String body = read(client.get(url, RequestPriority.INTERACTIVE, "test"));
+
+        // Verify the validators were sent, and the stored body is served and fresh again
+        RecordedRequest request = server.takeRequest(1, TimeUnit.SECONDS);
+        assertEquals("\"v1\"", request.getHeader("If-None-Match"));
+        assertEquals("Mon, 01 Jan 2024 00:00:00 GMT", request.getHeader("If-Modified-Since"));
+        assertEquals("{\"stored\":1}", body);
+        assertEquals(1, client.getStoreStats().getRevalidations());
+        DiskResponseStore.Entry refreshed = store.get(url.toString());
+        assertEquals("\"v2\"", refreshed.getEtag());
+        assertTrue(refreshed.isFresh(System.currentTimeMillis()));
+        assertEquals("{\"stored\":1}", read(client.get(url, RequestPriority.INTERACTIVE, "test")));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void testChangedResponsesReplaceTheStoredOne() throws Exception {
+        // Prepare
+        store.put(url.toString(), bytes("{\"stored\":1}"), "\"v1\"", null, 0L);
+        server.enqueue(new MockResponse().setBody("{\"stored\":2}").setHeader("ETag", "\"v2\""));
+        connect(false);
+
+        // Execute
+        String body = client.getAsync(url, RequestPriority.INTERACTIVE, "test", response -> response.body().string())
+                .get(5, TimeUnit.SECONDS);
+
+        // Verify
+        assertEquals("\"v1\"", server.takeRequest(1, TimeUnit.SECONDS).getHeader("If-None-Match"));
+        assertEquals("{\"stored\":2}", body);
+        assertEquals("\"v2\"", store.get(url.toString()).getEtag());
+        assertEquals("{\"stored\":2}", new String(store.get(url.toString()).getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testBodiesAreStoredOnceReadEvenWhenTheReaderStopsEarly() throws IOException {
+        // Prepare a document followed by whitespace that a decoder never reads
+        server.enqueue(new MockResponse().setBody("{\"a\":1}\n  \n"));
+        connect(false);
+
+        // Execute
+        String document;
+        try (Response response = client.get(url, RequestPriority.INTERACTIVE, "test")) {
+            document = response.body().source().readUtf8(7);
+            assertNull(store.get(url.toString()));
+        }
+
+        // Verify the whole body was kept once the response was closed
+        assertEquals("{\"a\":1}", document);
+        assertEquals("{\"a\":1}\n  \n", new String(store.get(url.toString()).getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testLargeBodiesAreStreamedWithoutBeingStored() throws IOException {
+        // Prepare a store with room for the body, and a body over the size limit
+        store.close();
+        store = DiskResponseStore.open(directory.resolve("large"), 4 * 1024 * 1024);
+        String large = "{\"padding\":\"" + "x".repeat(1536 * 1024) + "\"}";
+        server.enqueue(new MockResponse().setBody(large));
+        connect(false);
+
+        // Execute
+        String body = read(client.get(url, RequestPriority.INTERACTIVE, "test"));
+
+        // Verify
+        assertEquals(large, body);
+        assertNull(store.get(url.toString()));
+    }
+
+    @Test
+    void testStaleResponsesAreServedWhenMusicBrainzFails() throws Exception {
+        // Prepare
+        store.put(url.toString(), bytes("{\"stored\":1}"), "\"v1\"", null, 0L);
+        server.enqueue(new MockResponse().setResponseCode(500));
+        connect(false);
+
+        // Execute: a server error, then no server at all
+        String afterError = read(client.get(url, RequestPriority.INTERACTIVE, "test"));
+        server.shutdown();
+        String afterOutage = client.getAsync(url, RequestPriority.INTERACTIVE, "test",
+                response -> response.body().string()).get(5, TimeUnit.SECONDS);
+
+        // Verify
+        assertEquals("{\"stored\":1}", afterError);
+        assertEquals("{\"stored\":1}", afterOutage);
+        assertEquals(2, client.getStoreStats().getStaleServed());
+    }
+
+    @Test
+    void testOfflineServesOnlyStoredResponses() throws IOException {
+        // Prepare
+        store.put(url.toString(), bytes("{\"stored\":1}"), "\"v1\"", null, 0L);
+        connect(true);
+
+        // Execute
+        String body = read(client.get(url, RequestPriority.INTERACTIVE, "test"));
+
+        // Verify a stale response is served as is and anything else fails without a request
+        assertEquals("{\"stored\":1}", body);
+        assertThrows(IOException.class, () -> client.get(server.url("/ws/2/artist/?query=abba&fmt=json"),
+                RequestPriority.INTERACTIVE, "test"));
+        assertEquals(0, server.getRequestCount());
+    }
+
+    private static String read(Response response) throws IOException {
+        try (response) {
+            return response.body().string();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,202 @@
+package data_access;
+
+import data_transfer_object.Artist;
+import data_transfer_object.Event;
+import data_transfer_object.Recording;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives the MusicBrainz repositories end to end against {@link FakeMusicBrainzServer} and reports
+ * latency percentiles and throughput. The small runs are part of the normal build; the full run is
+ * opt-in: {@code mvn test -Dtest=MusicBrainzLoadTest -Dmusicbrainz.load=true}, tuned with
+ * {@code -Dmusicbrainz.load.requests}, {@code .concurrency}, {@code .latency}, {@code .jitter},
+ * {@code .errorRate} and {@code .throttleRate}.
+ */
+class MusicBrainzLoadTest {
+
+    private static final String BEATLES = "b10bbbfc-cf9e-42e0-be17-e2c3e1d2600d";
+
+    private FakeMusicBrainzServer server;
+    private MusicBrainzHttpClient client;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (client != null) {
+            client.shutdown();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    private void start(FakeMusicBrainzServer.Builder builder) throws IOException {
+        server = builder.start();
+        // the real governor allows one request per second; here it only has to stay out of the way
+        client = new MusicBrainzHttpClient(server.baseUrl(), "load-test/1.0 (test@example.com)",
+                new MusicBrainzRateGovernor(100_000, 1_000, 100_000));
+    }
+
+    @Test
+    void testRepositoriesDecodeStandInResponses() throws Exception {
+        // Prepare
+        start(FakeMusicBrainzServer.builder().latencyMillis(2).jitterMillis(1));
+        MusicBrainzArtistRepository artists = new MusicBrainzArtistRepository(client, RequestPriority.INTERACTIVE,
+                "load-test");
+        MusicBrainzEventRepository events = new MusicBrainzEventRepository(client, RequestPriority.INTERACTIVE,
+                "load-test");
+
+        // Execute
+        Artist[] foundArtists = artists.getArtistsAsync("Beatles", "", "", 10, 0).get(10, TimeUnit.SECONDS);
+        Event[] foundEvents = events.getEventsAsync("Glastonbury", "", 10, 0).get(10, TimeUnit.SECONDS);
+        Recording[] topSongs = artists.readTopSongsAsync(BEATLES).get(10, TimeUnit.SECONDS);
+
+        // Verify
+        assertEquals(3, foundArtists.length);
+        assertEquals("The Beatles", foundArtists[0].getArtistName());
+        assertEquals(100, foundArtists[0].getScore());
+        assertEquals("Glastonbury Festival 2019", foundEvents[0].getName());
+        assertEquals("Worthy Farm", foundEvents[0].getPlaceName());
+        assertEquals(3, topSongs.length);
+        assertEquals(3, server.getServed());
+    }
+
+    @Test
+    void testConcurrentSearchesReportLatencyAndThroughput() throws Exception {
+        // Prepare
+        start(FakeMusicBrainzServer.builder().latencyMillis(5).jitterMillis(3));
+        MusicBrainzArtistRepository artists = new MusicBrainzArtistRepository(client, RequestPriority.INTERACTIVE,
+                "load-test");
+        MusicBrainzEventRepository events = new MusicBrainzEventRepository(client, RequestPriority.INTERACTIVE,
+                "load-test");
+
+        // Execute
+        LoadReport artistReport = run("artist search", 200, 8,
+                () -> artists.getArtistsAsync("Beatles", "", "", 10, 0));
+        LoadReport eventReport = run("event search", 100, 8, () -> events.getEventsAsync("Glastonbury", "", 10, 0));
+
+        // Verify
+        assertEquals(0, artistReport.failed);
+        assertEquals(0, eventReport.failed);
+        assertTrue(artistReport.p50Millis <= artistReport.p99Millis);
+        assertTrue(artistReport.p50Millis >= 2, "responses are delayed by the stand-in");
+        assertEquals(300, server.getServed());
+    }
+
+    @Test
+    void testThrottlingIsRetriedAndErrorsAreCounted() throws Exception {
+        // Prepare
+        start(FakeMusicBrainzServer.builder().latencyMillis(1).throttleRate(0.03).errorRate(0.1));
+        MusicBrainzArtistRepository artists = new MusicBrainzArtistRepository(client, RequestPriority.INTERACTIVE,
+                "load-test");
+
+        // Execute
+        LoadReport report = run("artist search with faults", 100, 4,
+                () -> artists.getArtistsAsync("Beatles", "", "", 10, 0));
+
+        // Verify: a 503 is retried after backing off, a 500 is not
+        assertTrue(server.getThrottled() > 0);
+        assertTrue(client.getGovernor().getStats().getThrottled() > 0);
+        assertTrue(report.failed > 0);
+        assertTrue(report.failed <= server.getFailed() + server.getThrottled());
+        assertEquals(100, report.succeeded + report.failed);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "musicbrainz.load", matches = "true")
+    void testFullLoad() throws Exception {
+        // Prepare
+        int requests = Integer.getInteger("musicbrainz.load.requests", 2_000);
+        int concurrency = Integer.getInteger("musicbrainz.load.concurrency", 32);
+        start(FakeMusicBrainzServer.builder()
+                .latencyMillis(Long.getLong("musicbrainz.load.latency", 40))
+                .jitterMillis(Long.getLong("musicbrainz.load.jitter", 20))
+                .errorRate(Double.parseDouble(System.getProperty("musicbrainz.load.errorRate", "0.01")))
+                .throttleRate(Double.parseDouble(System.getProperty("musicbrainz.load.throttleRate", "0.02"))));
+        MusicBrainzArtistRepository artists = new MusicBrainzArtistRepository(client, RequestPriority.INTERACTIVE,
+                "load-test");
+        MusicBrainzEventRepository events = new MusicBrainzEventRepository(client, RequestPriority.INTERACTIVE,
+                "load-test");
+
+        // Execute
+        run("artist search", requests, concurrency, () -> artists.getArtistsAsync("Beatles", "", "", 10, 0));
+        run("event search", requests, concurrency, () -> events.getEventsAsync("Glastonbury", "", 10, 0));
+        run("top songs", requests, concurrency, () -> artists.readTopSongsAsync(BEATLES));
+
+        // Verify
+        System.out.println("pool: " + client.getPoolStats() + "; governor: " + client.getGovernor().getStats());
+        assertTrue(server.getServed() > 0);
+    }
+
+    /**
+     * Issue requests with at most the given number in flight and time each one.
+     */
+    private static LoadReport run(String name, int requests, int concurrency,
+                                  Supplier<CompletableFuture<?>> request) throws InterruptedException {
+        final long[] latencies = new long[requests];
+        final AtomicInteger failed = new AtomicInteger();
+        final Semaphore inFlight = new Semaphore(concurrency);
+        final CountDownLatch done = new CountDownLatch(requests);
+        final long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            final int index = i;
+            final long sent = System.nanoTime();
+            request.get().whenComplete((result, error) -> {
+                latencies[index] = System.nanoTime() - sent;
+                if (error != null) {
+                    failed.incrementAndGet();
+                }
+                inFlight.release();
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(2, TimeUnit.MINUTES), name + " did not finish");
+        final LoadReport report = new LoadReport(latencies, failed.get(), System.nanoTime() - start);
+        System.out.println(name + ": " + report);
+        return report;
+    }
+
+    /**
+     * Latency percentiles and throughput of one run.
+     */
+    private static final class LoadReport {
+        final int succeeded;
+        final int failed;
+        final double p50Millis;
+        final double p99Millis;
+        final double requestsPerSecond;
+
+        LoadReport(long[] latencies, int failed, long elapsedNanos) {
+            final long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            this.failed = failed;
+            this.succeeded = sorted.length - failed;
+            this.p50Millis = percentile(sorted, 0.50) / 1e6;
+            this.p99Millis = percentile(sorted, 0.99) / 1e6;
+            this.requestsPerSecond = sorted.length / (elapsedNanos / 1e9);
+        }
+
+        private static long percentile(long[] sorted, double rank) {
+            return sorted[Math.min(sorted.length - 1, (int) Math.ceil(rank * sorted.length) - 1)];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d ok, %d failed, p50 %.1f ms, p99 %.1f ms, %.0f req/s",
+                    succeeded, failed, p50Millis, p99Millis, requestsPerSecond);
+        }
+    }
+}
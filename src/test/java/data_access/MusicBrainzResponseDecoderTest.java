@@ -0,0 +1,113 @@
+package data_access;
+
+import data_transfer_object.Artist;
+import data_transfer_object.Event;
+import data_transfer_object.Recording;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MusicBrainzResponseDecoderTest {
+
+    private static final String ARTISTS = "{\"created\":\"2024-01-01T00:00:00.000Z\",\"count\":2,\"offset\":0,"
+            + "\"artists\":[{\"id\":\"a1\",\"type\":\"Group\",\"score\":100,\"name\":\"Björk Band\",\"country\":\"IS\","
+            + "\"life-span\":{\"begin\":\"1990\",\"ended\":null},\"aliases\":[{\"name\":\"BB\",\"locale\":null}],"
+            + "\"tags\":[{\"count\":3,\"name\":\"pop\"}]},"
+            + "{\"id\":\"a2\",\"score\":\"87\",\"name\":\"Solo\",\"type\":null}]}";
+
+    private static final String EVENTS = "{\"events\":[{\"id\":\"e1\",\"name\":\"Fest\",\"type\":\"Festival\","
+            + "\"score\":90,\"time\":\"20:00\",\"life-span\":{\"begin\":\"2020-05-01\",\"end\":\"2020-05-03\"},"
+            + "\"place\":{\"id\":\"p1\",\"name\":\"Arena\"},\"relations\":[{\"type\":\"main performer\","
+            + "\"artist\":{\"id\":\"x\",\"name\":\"Other\"}},{\"type\":\"artist\",\"artist\":{\"id\":\"a9\","
+            + "\"name\":\"Headliner\"}}]}]}";
+
+    private static final String RECORDINGS = "{\"recording-count\":2,\"recordings\":[{\"id\":\"r1\",\"title\":\"One\","
+            + "\"length\":215000,\"video\":false},{\"id\":\"r2\",\"title\":\"Two\",\"length\":null}]}";
+
+    private static final String MIXED_RECORDINGS = "{\"recordings\":[{\"id\":\"r1\",\"title\":\"One\","
+            + "\"artist-credit\":[{\"name\":\"A\",\"artist\":{\"id\":\"a1\",\"name\":\"A\"}}]},"
+            + "{\"id\":\"r2\",\"title\":\"Duet\",\"artist-credit\":[{\"artist\":{\"id\":\"a1\"},"
+            + "\"joinphrase\":\" & \"},{\"artist\":{\"id\":\"a2\"}}]},"
+            + "{\"id\":\"r3\",\"title\":\"Three\",\"artist-credit\":[{\"artist\":{\"id\":\"a1\"}}]},"
+            + "{\"id\":\"r4\",\"title\":\"Guest\",\"artist-credit\":[{\"artist\":{\"id\":\"zz\"}}]}]}";
+
+    private final MusicBrainzResponseDecoder tree = new JsonTreeResponseDecoder();
+    private final MusicBrainzResponseDecoder streaming = new StreamingResponseDecoder();
+
+    @Test
+    void testDecodersAgreeOnArtists() throws IOException {
+        Artist[] expected = tree.decodeArtists(stream(ARTISTS));
+        Artist[] actual = streaming.decodeArtists(stream(ARTISTS));
+
+        assertEquals(2, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i].getId(), actual[i].getId());
+            assertEquals(expected[i].getArtistName(), actual[i].getArtistName());
+            assertEquals(expected[i].getType(), actual[i].getType());
+            assertEquals(expected[i].getCountry(), actual[i].getCountry());
+            assertEquals(expected[i].getScore(), actual[i].getScore());
+        }
+        assertEquals("Björk Band", actual[0].getArtistName());
+        assertEquals(87, actual[1].getScore());
+        assertEquals("Unknown", actual[1].getCountry());
+    }
+
+    @Test
+    void testDecodersAgreeOnEvents() throws IOException {
+        Event expected = tree.decodeEvents(stream(EVENTS))[0];
+        Event actual = streaming.decodeEvents(stream(EVENTS))[0];
+
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getBeginDate(), actual.getBeginDate());
+        assertEquals(expected.getEndDate(), actual.getEndDate());
+        assertEquals(expected.getPlaceName(), actual.getPlaceName());
+        assertEquals(expected.getArtistName(), actual.getArtistName());
+        assertEquals("2020-05-01", actual.getBeginDate());
+        assertEquals("Headliner", actual.getArtistName());
+        assertEquals("a9", actual.getArtistId());
+    }
+
+    @Test
+    void testDecodersAgreeOnRecordings() throws IOException {
+        Recording[] expected = tree.decodeRecordings(stream(RECORDINGS));
+        Recording[] actual = streaming.decodeRecordings(stream(RECORDINGS));
+
+        assertEquals(expected.length, actual.length);
+        assertEquals("3:35", actual[0].getFormattedLength());
+        assertEquals(expected[1].getFormattedLength(), actual[1].getFormattedLength());
+    }
+
+    @Test
+    void testMixedRecordingPageIsSplitPerArtist() throws IOException {
+        List<String> artists = List.of("a1", "a2", "a3");
+        for (MusicBrainzResponseDecoder decoder : List.of(tree, streaming)) {
+            RecordingGroups page = decoder.decodeRecordingsByArtist(stream(MIXED_RECORDINGS), artists, 2);
+            Map<String, Recording[]> grouped = page.toMap();
+
+            assertEquals(List.of("a1", "a2", "a3"), List.copyOf(grouped.keySet()));
+            assertEquals(2, grouped.get("a1").length);
+            assertEquals("r1", grouped.get("a1")[0].getId());
+            assertEquals("r2", grouped.get("a1")[1].getId());
+            assertEquals("Duet", grouped.get("a2")[0].getTitle());
+            assertEquals(0, grouped.get("a3").length);
+            assertEquals(4, page.rows());
+        }
+    }
+
+    @Test
+    void testMalformedBodyIsAnIOException() {
+        assertThrows(IOException.class, () -> streaming.decodeArtists(stream("{\"artists\":[{\"id\":")));
+        assertThrows(IOException.class, () -> tree.decodeArtists(stream("{\"artists\":[{\"id\":")));
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,122 @@
+package data_access;
+
+import Use_case.read_from_db.ReadAsyncDataAccessInterface;
+import Use_case.read_from_db.ReadSongAsyncDataAccessInterface;
+import data_transfer_object.CommentPage;
+import data_transfer_object.Recording;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PrefetchingArtistDetailRepositoryTest {
+
+    private static final int PAGE = 20;
+
+    private ReadAsyncDataAccessInterface contents;
+    private ReadSongAsyncDataAccessInterface interactiveSongs;
+    private ReadSongAsyncDataAccessInterface prefetchSongs;
+    private PrefetchStats stats;
+    private AtomicLong now;
+    private PrefetchingArtistDetailRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        contents = mock(ReadAsyncDataAccessInterface.class);
+        interactiveSongs = mock(ReadSongAsyncDataAccessInterface.class);
+        prefetchSongs = mock(ReadSongAsyncDataAccessInterface.class);
+        stats = new PrefetchStats();
+        now = new AtomicLong();
+        repository = new PrefetchingArtistDetailRepository(contents, interactiveSongs, contents, prefetchSongs,
+                new ArtistDetailCache(30_000, 4, stats, now::get));
+    }
+
+    @Test
+    void testClickAfterHoverIsServedFromThePrefetch() {
+        // Prepare
+        CommentPage document = CommentPage.empty();
+        Recording[] songs = {Recording.builder().id("a").title("song1").length(5).build()};
+        when(contents.readCommentsAsync("1", null, PAGE)).thenReturn(CompletableFuture.completedFuture(document));
+        when(prefetchSongs.readTopSongsAsync("1")).thenReturn(CompletableFuture.completedFuture(songs));
+
+        // Execute: hover twice, then click
+        repository.prefetch("1", PAGE);
+        repository.prefetch("1", PAGE);
+        CommentPage readComments = repository.readCommentsAsync("1", null, PAGE).join();
+        Recording[] readSongs = repository.readTopSongsAsync("1").join();
+
+        // Verify only the prefetch lane was used, once per source
+        assertSame(document, readComments);
+        assertSame(songs, readSongs);
+        verify(contents, times(1)).readCommentsAsync("1", null, PAGE);
+        verify(prefetchSongs, times(1)).readTopSongsAsync("1");
+        verifyNoInteractions(interactiveSongs);
+        assertEquals(2, stats.getIssued());
+        assertEquals(2, stats.getHits());
+    }
+
+    @Test
+    void testPrefetchIsHandedOutOnce() {
+        // Prepare
+        Recording[] prefetched = new Recording[0];
+        Recording[] fresh = new Recording[0];
+        when(contents.readCommentsAsync("1", null, PAGE)).thenReturn(CompletableFuture.completedFuture(null));
+        when(prefetchSongs.readTopSongsAsync("1")).thenReturn(CompletableFuture.completedFuture(prefetched));
+        when(interactiveSongs.readTopSongsAsync("1")).thenReturn(CompletableFuture.completedFuture(fresh));
+
+        // Execute
+        repository.prefetch("1", PAGE);
+        Recording[] first = repository.readTopSongsAsync("1").join();
+        Recording[] second = repository.readTopSongsAsync("1").join();
+
+        // Verify
+        assertSame(prefetched, first);
+        assertSame(fresh, second);
+        assertEquals(1, stats.getMisses());
+    }
+
+    @Test
+    void testExpiredAndFailedPrefetchesAreReadAgain() {
+        // Prepare
+        CompletableFuture<Recording[]> slow = new CompletableFuture<>();
+        Recording[] fresh = new Recording[0];
+        when(contents.readCommentsAsync(anyString(), isNull(), anyInt()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("UNAVAILABLE")));
+        when(prefetchSongs.readTopSongsAsync("1")).thenReturn(slow);
+        when(interactiveSongs.readTopSongsAsync("1")).thenReturn(CompletableFuture.completedFuture(fresh));
+
+        // Execute: the hover is older than the time to live when the click comes
+        repository.prefetch("1", PAGE);
+        now.addAndGet(30_000);
+
+        // Verify the stale read was cancelled and both sources are read on demand
+        assertSame(fresh, repository.readTopSongsAsync("1").join());
+        assertTrue(slow.isCancelled());
+        assertThrows(RuntimeException.class, () -> repository.readCommentsAsync("1", null, PAGE).join());
+        verify(contents, times(2)).readCommentsAsync("1", null, PAGE);
+        assertEquals(0, stats.getHits());
+    }
+
+    @Test
+    void testOlderPagesAreAlwaysReadOnDemand() {
+        // Prepare
+        CommentPage prefetched = CommentPage.empty();
+        CommentPage older = CommentPage.empty();
+        when(contents.readCommentsAsync("1", null, PAGE)).thenReturn(CompletableFuture.completedFuture(prefetched));
+        when(contents.readCommentsAsync("1", "5:0:nick1", PAGE)).thenReturn(CompletableFuture.completedFuture(older));
+        when(prefetchSongs.readTopSongsAsync("1")).thenReturn(new CompletableFuture<>());
+
+        // Execute
+        repository.prefetch("1", PAGE);
+        CommentPage read = repository.readCommentsAsync("1", "5:0:nick1", PAGE).join();
+
+        // Verify the prefetched first page is still waiting for the click
+        assertSame(older, read);
+        assertSame(prefetched, repository.readCommentsAsync("1", null, PAGE).join());
+        assertEquals(1, stats.getHits());
+    }
+}
@@ -0,0 +1,123 @@
+package data_access;
+
+import Use_case.artist_search.ArtistSearchAsyncDataAccessInterface;
+import data_transfer_object.Artist;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PrefetchingArtistRepositoryTest {
+
+    private ArtistSearchAsyncDataAccessInterface interactive;
+    private ArtistSearchAsyncDataAccessInterface background;
+    private PrefetchStats stats;
+    private PrefetchingArtistRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        interactive = mock(ArtistSearchAsyncDataAccessInterface.class);
+        background = mock(ArtistSearchAsyncDataAccessInterface.class);
+        stats = new PrefetchStats();
+        repository = new PrefetchingArtistRepository(interactive, background, new SearchPagePrefetcher<>(1, stats));
+    }
+
+    @Test
+    void testLoadMoreIsServedFromThePrefetchedPage() {
+        // Prepare
+        Artist[] firstPage = page("a", 2);
+        Artist[] secondPage = page("b", 1);
+        when(interactive.getArtistsAsync("Queen", "GB", "", 2, 0))
+                .thenReturn(CompletableFuture.completedFuture(firstPage));
+        when(background.getArtistsAsync("Queen", "GB", "", 2, 2))
+                .thenReturn(CompletableFuture.completedFuture(secondPage));
+
+        // Execute
+        repository.getArtistsAsync("Queen", "GB", "", 2, 0).join();
+        Artist[] loaded = repository.getArtistsAsync("Queen", "GB", "", 2, 2).join();
+
+        // Verify
+        assertSame(secondPage, loaded);
+        verify(interactive, never()).getArtistsAsync(anyString(), anyString(), anyString(), anyInt(), eq(2));
+        // a short page is the last one, so nothing further is prefetched
+        verify(background, never()).getArtistsAsync(anyString(), anyString(), anyString(), anyInt(), eq(4));
+        assertEquals(1, stats.getHits());
+        assertEquals(1.0, stats.getHitRate());
+    }
+
+    @Test
+    void testANewSearchDiscardsThePreviousPrefetch() {
+        // Prepare
+        CompletableFuture<Artist[]> pending = new CompletableFuture<>();
+        when(interactive.getArtistsAsync("Queen", "", "", 2, 0))
+                .thenReturn(CompletableFuture.completedFuture(page("a", 2)));
+        when(background.getArtistsAsync("Queen", "", "", 2, 2)).thenReturn(pending);
+        when(interactive.getArtistsAsync("Abba", "", "", 2, 0))
+                .thenReturn(CompletableFuture.completedFuture(page("c", 0)));
+
+        // Execute
+        repository.getArtistsAsync("Queen", "", "", 2, 0).join();
+        repository.getArtistsAsync("Abba", "", "", 2, 0).join();
+
+        // Verify
+        assertTrue(pending.isCancelled());
+        assertEquals(1, stats.getDiscarded());
+    }
+
+    @Test
+    void testLoadMoreDoesNotFailWhenItsPrefetchIsDropped() {
+        // Prepare a prefetch still queued in the low-priority lane
+        CompletableFuture<Artist[]> prefetched = new CompletableFuture<>();
+        Artist[] secondPage = page("b", 1);
+        when(interactive.getArtistsAsync("Queen", "", "", 2, 0))
+                .thenReturn(CompletableFuture.completedFuture(page("a", 2)));
+        when(background.getArtistsAsync("Queen", "", "", 2, 2)).thenReturn(prefetched);
+        CompletableFuture<Artist[]> onDemand = new CompletableFuture<>();
+        when(interactive.getArtistsAsync("Queen", "", "", 2, 2)).thenReturn(onDemand);
+
+        // Execute: "Load more", then the governor drops the prefetch for someone else's search
+        repository.getArtistsAsync("Queen", "", "", 2, 0).join();
+        CompletableFuture<Artist[]> loaded = repository.getArtistsAsync("Queen", "", "", 2, 2);
+        prefetched.completeExceptionally(
+                new RejectedExecutionException("Dropped in favour of an interactive request."));
+
+        // Verify the page asked for in the user's lane still arrives
+        assertFalse(loaded.isDone());
+        onDemand.complete(secondPage);
+        assertSame(secondPage, loaded.join());
+    }
+
+    @Test
+    void testAPrefetchThatArrivesFirstReleasesTheInteractiveRequest() {
+        // Prepare
+        CompletableFuture<Artist[]> prefetched = new CompletableFuture<>();
+        Artist[] secondPage = page("b", 1);
+        when(interactive.getArtistsAsync("Queen", "", "", 2, 0))
+                .thenReturn(CompletableFuture.completedFuture(page("a", 2)));
+        when(background.getArtistsAsync("Queen", "", "", 2, 2)).thenReturn(prefetched);
+        CompletableFuture<Artist[]> onDemand = new CompletableFuture<>();
+        when(interactive.getArtistsAsync("Queen", "", "", 2, 2)).thenReturn(onDemand);
+
+        // Execute
+        repository.getArtistsAsync("Queen", "", "", 2, 0).join();
+        CompletableFuture<Artist[]> loaded = repository.getArtistsAsync("Queen", "", "", 2, 2);
+        prefetched.complete(secondPage);
+
+        // Verify the interactive request gives up its place in the queue
+        assertSame(secondPage, loaded.join());
+        assertTrue(onDemand.isCancelled());
+    }
+
+    private static Artist[] page(String prefix, int size) {
+        Artist[] artists = new Artist[size];
+        for (int i = 0; i < size; i++) {
+            artists[i] = Artist.builder().id(prefix + i).artistName(prefix + i).build();
+        }
+        return artists;
+    }
+}
@@ -0,0 +1,164 @@
+package data_access;
+
+import com.google.api.core.ApiFutures;
+import com.google.api.core.SettableApiFuture;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.Transaction;
+import data_transfer_object.RatingAggregate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ShardedRatingCounterTest {
+    private Firestore db;
+    private CollectionReference aggregates;
+    private AtomicLong now;
+    private ShardedRatingCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        db = mock(Firestore.class);
+        aggregates = mock(CollectionReference.class);
+        when(db.collection("RatingAggregates")).thenReturn(aggregates);
+        now = new AtomicLong(1_000_000);
+        counter = new ShardedRatingCounter(db, 8, 1.0,
+                new WTinyLfuCache<>(64 * 1024, ShardedRatingCounter::weigh), 60_000, now::get);
+    }
+
+    @Test
+    void testHotItemsGetMoreShards() {
+        // Execute: one write every ten seconds, then twenty writes a second for ten seconds
+        int quiet = 0;
+        for (int i = 0; i < 5; i++) {
+            now.addAndGet(10_000);
+            quiet = counter.recordWrite("quiet");
+        }
+        int hot = 0;
+        for (int i = 0; i < 200; i++) {
+            now.addAndGet(50);
+            hot = counter.recordWrite("hot");
+        }
+
+        // Verify the quiet item keeps one shard and the hot one is capped at the maximum
+        assertEquals(1, quiet);
+        assertEquals(8, hot);
+    }
+
+    @Test
+    void testReadAddsUpTheShardsAndCachesTheTotal() {
+        // Prepare totals from before sharding and two shards, one of which took a rating back
+        DocumentSnapshot base = aggregate(DocumentSnapshot.class, 14.0, 2, Map.of("7", 2L));
+        QueryDocumentSnapshot first = aggregate(QueryDocumentSnapshot.class, 9.0, 1, Map.of("9", 1L));
+        QueryDocumentSnapshot second = aggregate(QueryDocumentSnapshot.class, 3.0, 0, Map.of("7", -1L, "10", 1L));
+        QuerySnapshot shards = mock(QuerySnapshot.class);
+        when(shards.isEmpty()).thenReturn(false);
+        when(shards.iterator()).thenReturn(List.of(first, second).iterator());
+        DocumentReference totals = mock(DocumentReference.class);
+        CollectionReference shardCollection = mock(CollectionReference.class);
+        when(aggregates.document("1")).thenReturn(totals);
+        when(totals.get()).thenReturn(ApiFutures.immediateFuture(base));
+        when(totals.collection("Shards")).thenReturn(shardCollection);
+        when(shardCollection.get()).thenReturn(ApiFutures.immediateFuture(shards));
+
+        // Execute
+        RatingAggregate total = counter.readAsync("1").join();
+        RatingAggregate cached = counter.readAsync("1").join();
+
+        // Verify
+        assertEquals(3, total.getCount());
+        assertEquals(26.0, total.getSum());
+        assertEquals(1, total.getHistogram()[7]);
+        assertEquals(1, total.getHistogram()[10]);
+        assertSame(total, cached);
+        verify(shardCollection, times(1)).get();
+
+        // A write drops the cached total
+        counter.recordWrite("1");
+        when(shards.iterator()).thenReturn(List.of(first, second).iterator());
+        counter.readAsync("1").join();
+        verify(shardCollection, times(2)).get();
+    }
+
+    @Test
+    void testReadOverlappingAWriteIsNotCached() {
+        // Prepare shards whose read is still in flight
+        DocumentSnapshot base = aggregate(DocumentSnapshot.class, 8.0, 1, Map.of("8", 1L));
+        QuerySnapshot shards = mock(QuerySnapshot.class);
+        when(shards.isEmpty()).thenReturn(true);
+        when(shards.iterator()).thenAnswer(invocation -> List.<QueryDocumentSnapshot>of().iterator());
+        SettableApiFuture<QuerySnapshot> inFlight = SettableApiFuture.create();
+        DocumentReference totals = mock(DocumentReference.class);
+        CollectionReference shardCollection = mock(CollectionReference.class);
+        when(aggregates.document("1")).thenReturn(totals);
+        when(totals.get()).thenReturn(ApiFutures.immediateFuture(base));
+        when(totals.collection("Shards")).thenReturn(shardCollection);
+        when(shardCollection.get())
+                .thenReturn(inFlight)
+                .thenReturn(ApiFutures.immediateFuture(shards));
+
+        // Execute: a rating is committed while the read is out, and the read finishes afterwards
+        CompletableFuture<RatingAggregate> before = counter.readAsync("1");
+        counter.recordWrite("1");
+        inFlight.set(shards);
+        before.join();
+        counter.readAsync("1").join();
+
+        // Verify the totals from before the write were not served again
+        verify(shardCollection, times(2)).get();
+    }
+
+    @Test
+    void testShardCountIsOnlyEverRaised() throws Exception {
+        // Prepare an item another client has already given more shards than this one wants
+        DocumentReference totals = mock(DocumentReference.class);
+        when(aggregates.document("1")).thenReturn(totals);
+        DocumentSnapshot stored = mock(DocumentSnapshot.class);
+        when(stored.exists()).thenReturn(true);
+        when(stored.getLong("shards")).thenReturn(6L);
+        Transaction transaction = mock(Transaction.class);
+        when(transaction.get(totals)).thenReturn(ApiFutures.immediateFuture(stored));
+        when(db.runTransaction(any())).thenAnswer(invocation -> ApiFutures.immediateFuture(
+                invocation.<Transaction.Function<?>>getArgument(0).updateCallback(transaction)));
+
+        // Execute
+        counter.grow("1", 4);
+        counter.grow("1", 8);
+
+        // Verify only the higher count is written
+        verify(transaction, never()).set(eq(totals), eq(Map.of("shards", 4)), any(SetOptions.class));
+        verify(transaction).set(eq(totals), eq(Map.of("shards", 8)), any(SetOptions.class));
+    }
+
+    @Test
+    void testQuietWritesDoNotTouchTheShardCount() {
+        // Execute
+        now.addAndGet(10_000);
+        counter.recordCommitted("1", 1);
+
+        // Verify
+        verify(db, never()).runTransaction(any());
+    }
+
+    private static <T extends DocumentSnapshot> T aggregate(Class<T> type, double sum, long count,
+                                                            Map<String, Long> histogram) {
+        T snapshot = mock(type);
+        when(snapshot.exists()).thenReturn(true);
+        when(snapshot.getDouble("sum")).thenReturn(sum);
+        when(snapshot.getLong("count")).thenReturn(count);
+        when(snapshot.get("histogram")).thenReturn(histogram);
+        return snapshot;
+    }
+}
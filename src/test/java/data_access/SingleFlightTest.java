@@ -0,0 +1,58 @@
+package data_access;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<SearchQueryKey, String[]> singleFlight = new SingleFlight<>();
+
+    @Test
+    void testIdenticalQueriesShareOneRequest() {
+        // Prepare a load that has not answered yet
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String[]> upstream = new CompletableFuture<>();
+
+        // Two callers whose queries differ only in case and whitespace
+        CompletableFuture<String[]> first = singleFlight.execute(
+                new SearchQueryKey("artist", "Queen", "GB", 10, 0), () -> {
+                    loads.incrementAndGet();
+                    return upstream;
+                });
+        CompletableFuture<String[]> second = singleFlight.execute(
+                new SearchQueryKey("artist", "  queen ", "gb", 10, 0), () -> {
+                    loads.incrementAndGet();
+                    return new CompletableFuture<>();
+                });
+        upstream.complete(new String[] {"Queen"});
+
+        // Verify
+        assertEquals(1, loads.get());
+        assertEquals(1, singleFlight.getCoalescedCount());
+        assertSame(first.join(), second.join());
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+
+    @Test
+    void testUpstreamIsCancelledOnlyWhenEveryCallerGivesUp() {
+        // Prepare a load that has not answered yet
+        CompletableFuture<String[]> upstream = new CompletableFuture<>();
+        SearchQueryKey key = new SearchQueryKey("event", "Fest", "", 10, 0);
+
+        CompletableFuture<String[]> first = singleFlight.execute(key, () -> upstream);
+        CompletableFuture<String[]> second = singleFlight.execute(key, () -> upstream);
+
+        // One caller leaving keeps the request alive for the other
+        first.cancel(true);
+        assertFalse(upstream.isDone());
+
+        // The last caller leaving cancels the request and frees the key
+        second.cancel(true);
+        assertTrue(upstream.isCancelled());
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+}
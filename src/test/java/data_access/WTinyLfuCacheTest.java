@@ -0,0 +1,59 @@
+package data_access;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WTinyLfuCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    // every entry weighs 10, so the cache holds ten of them
+    private final WTinyLfuCache<String, String> cache = new WTinyLfuCache<>(100, (key, value) -> 10, now::get);
+
+    @Test
+    void testHitsAndMissesAreCounted() {
+        cache.put("queen", "page", 60_000);
+
+        assertEquals("page", cache.getIfPresent("queen"));
+        assertNull(cache.getIfPresent("abba"));
+        assertEquals(1, cache.getStats().getHits());
+        assertEquals(1, cache.getStats().getMisses());
+    }
+
+    @Test
+    void testEntriesExpireAfterTheirOwnTtl() {
+        cache.put("long", "page", 60_000);
+        cache.put("short", "empty", 1_000);
+
+        now.addAndGet(2_000_000_000L);
+
+        assertEquals("page", cache.getIfPresent("long"));
+        assertNull(cache.getIfPresent("short"));
+        assertEquals(1, cache.getStats().getExpirations());
+    }
+
+    @Test
+    void testPopularEntriesSurviveAScanOfOneOffQueries() {
+        for (int i = 0; i < 5; i++) {
+            cache.put("popular" + i, "page", 60_000);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 5; i++) {
+                cache.getIfPresent("popular" + i);
+            }
+        }
+
+        for (int i = 0; i < 100; i++) {
+            cache.getIfPresent("scan" + i);
+            cache.put("scan" + i, "page", 60_000);
+        }
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("page", cache.getIfPresent("popular" + i));
+        }
+        assertTrue(cache.getStats().getWeightedSize() <= 100);
+        assertTrue(cache.getStats().getEvictions() > 0);
+    }
+}
@@ -0,0 +1,77 @@
+package data_access;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindCommentQueueTest {
+
+    private final List<List<CommentWrite>> batches = new CopyOnWriteArrayList<>();
+
+    @Test
+    void testRepeatedReviewsAreCoalescedIntoOneWrite() throws Exception {
+        // Prepare a queue that only flushes when asked
+        WriteBehindCommentQueue queue = new WriteBehindCommentQueue(batches::add, 100, 60_000);
+
+        // Execute: one user changes their mind before the flush
+        CompletableFuture<Void> first = queue.addCommentAsync("1", "richard1", 4, "Meh");
+        CompletableFuture<Void> second = queue.addCommentAsync("1", "nick1", 9, "Cool");
+        CompletableFuture<Void> third = queue.addCommentAsync("1", "richard1", 8, "Nice after all");
+        assertEquals(2, queue.waiting());
+        queue.flush().get(2, TimeUnit.SECONDS);
+
+        // Verify one batch with the last review of each user; the replaced submission is cancelled, so only
+        // the written one reports how the write went
+        assertEquals(1, batches.size());
+        List<CommentWrite> batch = batches.get(0);
+        assertEquals(2, batch.size());
+        assertEquals("richard1", batch.get(0).getUsername());
+        assertEquals(8, batch.get(0).getRating());
+        assertEquals("Nice after all", batch.get(0).getComment());
+        assertTrue(first.isCancelled());
+        CompletableFuture.allOf(second, third).get(2, TimeUnit.SECONDS);
+        queue.close();
+    }
+
+    @Test
+    void testFullBatchAndFlushDelayBothWrite() throws Exception {
+        // Prepare
+        WriteBehindCommentQueue full = new WriteBehindCommentQueue(batches::add, 2, 60_000);
+        WriteBehindCommentQueue timed = new WriteBehindCommentQueue(batches::add, 100, 20);
+
+        // Execute
+        CompletableFuture<Void> filled = full.addCommentAsync("1", "a", 5, "x");
+        full.addCommentAsync("1", "b", 6, "y");
+        CompletableFuture<Void> waited = timed.addCommentAsync("2", "c", 7, "z");
+
+        // Verify neither needed an explicit flush
+        filled.get(2, TimeUnit.SECONDS);
+        waited.get(2, TimeUnit.SECONDS);
+        assertEquals(2, batches.size());
+        assertEquals(0, full.waiting());
+        full.close();
+        timed.close();
+    }
+
+    @Test
+    void testFailedBatchFailsItsSubmissions() {
+        // Prepare
+        WriteBehindCommentQueue queue = new WriteBehindCommentQueue(writes -> {
+            throw new RuntimeException("RESOURCE_EXHAUSTED");
+        }, 100, 60_000);
+
+        // Execute
+        CompletableFuture<Void> submission = queue.addCommentAsync("1", "richard1", 8, "Nice");
+        queue.flush();
+
+        // Verify the caller can take back what it showed
+        Exception error = assertThrows(Exception.class, () -> submission.get(2, TimeUnit.SECONDS));
+        assertEquals("RESOURCE_EXHAUSTED", error.getCause().getMessage());
+        queue.close();
+    }
+}
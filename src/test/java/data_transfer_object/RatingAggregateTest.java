@@ -0,0 +1,49 @@
+package data_transfer_object;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RatingAggregateTest {
+
+    @Test
+    void testTotalsMatchTheReviewsAndReplaceARepeatedRating() {
+        // Prepare
+        Map<String, Map<String, Object>> reviews = new HashMap<>();
+        reviews.put("richard1", Map.of("rating", 7.0, "comment", "Nice"));
+        reviews.put("nick1", Map.of("rating", 8.0, "comment", "Great"));
+
+        // Execute
+        RatingAggregate aggregate = RatingAggregate.of(reviews);
+        RatingAggregate rerated = aggregate.replace(7.0, 10.0);
+
+        // Verify
+        assertEquals(2, aggregate.getCount());
+        assertEquals(7.5, aggregate.getAverage());
+        assertEquals(1, aggregate.getHistogram()[7]);
+        assertEquals(2, rerated.getCount());
+        assertEquals(9.0, rerated.getAverage());
+        assertEquals(0, rerated.getHistogram()[7]);
+        assertEquals(1, rerated.getHistogram()[10]);
+        assertEquals(0.0, RatingAggregate.empty().getAverage());
+    }
+
+    @Test
+    void testShardTotalsAddUp() {
+        // Prepare
+        RatingAggregate first = RatingAggregate.empty().replace(null, 6.0);
+        RatingAggregate second = RatingAggregate.empty().replace(null, 9.0).replace(null, 9.0);
+
+        // Execute
+        RatingAggregate total = first.plus(second);
+
+        // Verify
+        assertEquals(3, total.getCount());
+        assertEquals(8.0, total.getAverage());
+        assertEquals(2, total.getHistogram()[9]);
+        assertEquals(1, first.getCount());
+    }
+}
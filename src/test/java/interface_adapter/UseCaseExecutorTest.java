@@ -0,0 +1,64 @@
+package interface_adapter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UseCaseExecutorTest {
+
+    @Test
+    void testInteractionsRunOffTheCallingThreadAndAreCounted() throws Exception {
+        UseCaseExecutor executor = new UseCaseExecutor();
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread caller = Thread.currentThread();
+        Thread[] ranOn = new Thread[1];
+
+        CompletableFuture<Void> first = executor.submit("login", () -> {
+            ranOn[0] = Thread.currentThread();
+            started.countDown();
+            await(release);
+        });
+        CompletableFuture<Void> second = executor.submit("login", () -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // both block at once, so neither waited for the other
+        assertEquals(2, executor.inFlight("login"));
+        assertEquals(0, executor.inFlight("artist-search"));
+        assertEquals(2, executor.inFlightCounts().get("login"));
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertNotSame(caller, ranOn[0]);
+        assertEquals(0, executor.inFlight("login"));
+    }
+
+    @Test
+    void testFailuresCompleteTheFutureAndReleaseTheCount() {
+        UseCaseExecutor executor = UseCaseExecutor.callerThread();
+
+        CompletableFuture<Void> submission = executor.submit("comment", () -> {
+            throw new IllegalStateException("Firestore unavailable");
+        });
+
+        assertTrue(submission.isCompletedExceptionally());
+        assertEquals(0, executor.inFlight("comment"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
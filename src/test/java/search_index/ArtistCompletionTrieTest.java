@@ -0,0 +1,54 @@
+package search_index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArtistCompletionTrieTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testPrefixesCompleteToMostPopularArtists() throws IOException {
+        ArtistCompletionTrie trie = build(
+                new IndexedArtist("1", "Björk", "IS", "Person", 700, Collections.emptyList()),
+                new IndexedArtist("2", "The Beatles", "GB", "Group", 900, Collections.singletonList("Fab Four")),
+                new IndexedArtist("3", "Beat Happening", "US", "Group", 50, Collections.emptyList()),
+                new IndexedArtist("4", "Beatles Revival", "", "", 5, Collections.singletonList("The Beatles Tribute")),
+                new IndexedArtist("5", "Bjorn Again", "AU", "Group", 80, Collections.emptyList()));
+
+        assertEquals(5, trie.size());
+        assertEquals(Arrays.asList("1", "5"), ids(trie.complete("bj", 10)));
+        assertEquals(Collections.singletonList("1"), ids(trie.complete("BJÖRK", 10)));
+        assertEquals(Arrays.asList("2", "3", "4"), ids(trie.complete("beat", 10)));
+        assertEquals(Arrays.asList("2", "4"), ids(trie.complete("the beat", 10)));
+        assertEquals(Collections.singletonList("2"), ids(trie.complete("fab f", 10)));
+        assertEquals(Arrays.asList("2", "3"), ids(trie.complete("beat", 2)));
+        assertEquals(Collections.singletonList("3"), ids(trie.complete("beat ", 10)));
+        assertTrue(trie.complete("zz", 10).isEmpty());
+        assertTrue(trie.complete("  ", 10).isEmpty());
+    }
+
+    private ArtistCompletionTrie build(IndexedArtist... artists) throws IOException {
+        SegmentWriter writer = new SegmentWriter();
+        for (IndexedArtist artist : artists) {
+            writer.add(artist);
+        }
+        Path file = directory.resolve("artists.seg");
+        writer.writeTo(file);
+        return ArtistCompletionTrie.build(ArtistSearcher.open(file));
+    }
+
+    private static List<String> ids(List<ArtistCompletionTrie.Completion> completions) {
+        return completions.stream().map(ArtistCompletionTrie.Completion::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,86 @@
+package search_index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArtistIndexBuilderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSpilledSegmentsMergeIntoOneSearchableIndex() throws IOException {
+        Path dump = writeDump(
+                artist("1", "Queen", "GB", "Group", 900, "Queen (band)"),
+                artist("2", "Queen Latifah", "US", "Person", 300),
+                artist("3", "Queen + Adam Lambert", "US", "Group", 400, "QAL"),
+                "{\"name\":\"no id\"}",
+                "not json",
+                artist("4", "Björk", "IS", "Person", 700),
+                artist("5", "Kanye West", "US", "Person", 800, "Ye"),
+                artist("6", "Ye", "", "", 1));
+        Path index = directory.resolve("artists.seg");
+
+        ArtistIndexBuilder.BuildReport report = new ArtistIndexBuilder(2, 2).build(dump, index);
+        ArtistSearcher searcher = ArtistSearcher.open(index);
+
+        assertEquals(6, report.getArtists());
+        assertEquals(2, report.getSkippedLines());
+        assertTrue(report.getSegments() >= 3);
+        assertEquals(6, searcher.size());
+
+        List<ArtistSearcher.Hit> queen = searcher.search("queen", "", "", 10, 0);
+        assertEquals(Arrays.asList("1", "2", "3"), ids(queen));
+        assertEquals(100, queen.get(0).getScore());
+
+        assertEquals(Arrays.asList("2", "3"), ids(searcher.search("queen", "us", "", 10, 0)));
+        assertEquals(Arrays.asList("3"), ids(searcher.search("queen", "", "group", 10, 1)));
+        assertEquals(Arrays.asList("4"), ids(searcher.search("bjork", "", "", 10, 0)));
+        assertEquals(Arrays.asList("5", "3", "2"), ids(searcher.search("", "US", "", 10, 0)));
+    }
+
+    @Test
+    void testNameMatchOutranksAliasMatch() throws IOException {
+        Path dump = writeDump(
+                artist("5", "Kanye West", "US", "Person", 800, "Ye"),
+                artist("6", "Ye", "", "", 1));
+        Path index = directory.resolve("artists.seg");
+        new ArtistIndexBuilder(1, 100).build(dump, index);
+
+        List<ArtistSearcher.Hit> hits = ArtistSearcher.open(index).search("Ye", "", "", 10, 0);
+
+        assertEquals(Arrays.asList("6", "5"), ids(hits));
+        assertEquals("", hits.get(0).getCountry());
+    }
+
+    private Path writeDump(String... lines) throws IOException {
+        Path dump = directory.resolve("artist");
+        Files.write(dump, Arrays.asList(lines), StandardCharsets.UTF_8);
+        return dump;
+    }
+
+    private static String artist(String id, String name, String country, String type, int votes, String... aliases) {
+        StringBuilder json = new StringBuilder("{\"id\":\"").append(id).append("\",\"name\":\"").append(name)
+                .append("\",\"country\":").append(country.isEmpty() ? "null" : "\"" + country + "\"")
+                .append(",\"type\":").append(type.isEmpty() ? "null" : "\"" + type + "\"")
+                .append(",\"rating\":{\"value\":null,\"votes-count\":").append(votes).append("},\"aliases\":[");
+        for (int i = 0; i < aliases.length; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"name\":\"").append(aliases[i]).append("\",\"locale\":null}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private static List<String> ids(List<ArtistSearcher.Hit> hits) {
+        return hits.stream().map(ArtistSearcher.Hit::getId).collect(Collectors.toList());
+    }
+}
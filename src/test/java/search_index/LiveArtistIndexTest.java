@@ -0,0 +1,122 @@
+package search_index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiveArtistIndexTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testPacketsReplaceAndDeleteArtistsInNewSegments() throws IOException {
+        buildDump(artist("1", "Queen", 900), artist("2", "Abba", 800), artist("3", "Blur", 700),
+                artist("10", "Filler One", 1), artist("11", "Filler Two", 1), artist("12", "Filler Three", 1),
+                artist("13", "Filler Four", 1), artist("14", "Filler Five", 1), artist("15", "Filler Six", 1),
+                artist("16", "Filler Seven", 1), artist("17", "Filler Eight", 1));
+        LiveArtistIndex index = LiveArtistIndex.open(directory, 8);
+        ArtistSearcher before = index.searcher();
+
+        writePacket(7, "2026-10-18T09:00:00Z",
+                artist("2", "ABBA Gold", 810),
+                artist("4", "Oasis", 600),
+                "{\"delete\":\"3\"}");
+        ArtistIndexReplicator replicator = new ArtistIndexReplicator(index, directory.resolve("replication"));
+
+        assertEquals(1, replicator.poll());
+        assertEquals(Collections.singletonList("2"), ids(index.searcher().search("gold", "", "", 10, 0)));
+        assertEquals(Collections.singletonList("2"), ids(index.searcher().search("abba", "", "", 10, 0)));
+        assertTrue(index.searcher().search("blur", "", "", 10, 0).isEmpty());
+        assertEquals(Collections.singletonList("4"), ids(index.searcher().search("oasis", "", "", 10, 0)));
+        // a search that started earlier keeps its own snapshot
+        assertEquals(Collections.singletonList("3"), ids(before.search("blur", "", "", 10, 0)));
+
+        ReplicationStatus status = index.status();
+        assertEquals(7, status.getSequence());
+        assertEquals(2, status.getSegments());
+        assertEquals(11, status.getLiveArtists());
+        assertEquals(2, status.getDeletedArtists());
+        assertTrue(status.getLagMillis() >= 0);
+        assertEquals(0, replicator.poll());
+
+        LiveArtistIndex reopened = LiveArtistIndex.open(directory, 8);
+        assertEquals(7, reopened.status().getSequence());
+        assertEquals(Collections.singletonList("2"), ids(reopened.searcher().search("abba", "", "", 10, 0)));
+    }
+
+    @Test
+    void testMissingPacketIsReported() throws IOException {
+        buildDump(artist("1", "Queen", 900));
+        LiveArtistIndex index = LiveArtistIndex.open(directory, 8);
+        writePacket(3, "2026-10-18T09:00:00Z", artist("2", "Abba", 800));
+        writePacket(5, "2026-10-18T10:00:00Z", artist("3", "Blur", 700));
+
+        ArtistIndexReplicator replicator = new ArtistIndexReplicator(index, directory.resolve("replication"));
+        assertThrows(IOException.class, replicator::poll);
+        assertEquals(3, index.status().getSequence());
+        assertNotNull(index.status().getLastError());
+        assertEquals(Collections.singletonList("2"), ids(index.searcher().search("abba", "", "", 10, 0)));
+    }
+
+    @Test
+    void testMergePurgesDeletedArtistsAndBoundsSegments() throws IOException {
+        buildDump(artist("1", "Queen", 900), artist("2", "Abba", 800), artist("3", "Blur", 700),
+                artist("4", "Oasis", 600), artist("5", "Pulp", 500));
+        LiveArtistIndex index = LiveArtistIndex.open(directory, 2);
+        for (int sequence = 1; sequence <= 3; sequence++) {
+            writePacket(sequence, "2026-10-18T09:00:00Z", artist("1" + sequence, "Replica " + sequence, sequence));
+        }
+        ArtistIndexReplicator replicator = new ArtistIndexReplicator(index, directory.resolve("replication"));
+
+        assertEquals(3, replicator.poll());
+        assertEquals(2, index.status().getSegments());
+        assertEquals(8, index.status().getLiveArtists());
+        assertEquals(3, index.searcher().search("replica", "", "", 10, 0).size());
+
+        writePacket(4, "2026-10-18T10:00:00Z", "{\"delete\":\"1\"}", "{\"delete\":\"2\"}");
+        assertEquals(1, replicator.poll());
+
+        ReplicationStatus status = index.status();
+        assertEquals(1, status.getSegments());
+        assertEquals(6, status.getLiveArtists());
+        assertEquals(0, status.getDeletedArtists());
+        assertEquals(Arrays.asList("seg-000007.seg", "manifest"), Files.list(directory)
+                .map(file -> file.getFileName().toString())
+                .filter(name -> !name.equals("replication"))
+                .sorted(Collections.reverseOrder())
+                .collect(Collectors.toList()));
+    }
+
+    private void buildDump(String... lines) throws IOException {
+        Path dump = directory.resolve("artist.jsonl");
+        Files.write(dump, Arrays.asList(lines), StandardCharsets.UTF_8);
+        new ArtistIndexBuilder(1, 100).build(dump, directory.resolve(ArtistIndexBuilder.SEGMENT_FILE));
+        Files.delete(dump);
+    }
+
+    private void writePacket(long sequence, String timestamp, String... lines) throws IOException {
+        Path packets = Files.createDirectories(directory.resolve("replication"));
+        String header = "{\"sequence\":" + sequence + ",\"timestamp\":\"" + timestamp + "\"}";
+        Files.write(packets.resolve("replication-" + sequence + ".jsonl"),
+                (header + "\n" + String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String artist(String id, String name, int votes) {
+        return "{\"id\":\"" + id + "\",\"name\":\"" + name + "\",\"rating\":{\"votes-count\":" + votes + "}}";
+    }
+
+    private static List<String> ids(List<ArtistSearcher.Hit> hits) {
+        return hits.stream().map(ArtistSearcher.Hit::getId).collect(Collectors.toList());
+    }
+}
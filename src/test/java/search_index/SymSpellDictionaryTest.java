@@ -0,0 +1,45 @@
+package search_index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymSpellDictionaryTest {
+
+    @Test
+    void testMisspellingsAreCorrectedToTheClosestFrequentWord() {
+        SymSpellDictionary dictionary = new SymSpellDictionary(100);
+        dictionary.addText("Metallica");
+        dictionary.addText("Radiohead");
+        dictionary.addText("Red Hot Chili Peppers");
+        dictionary.add("metalcore", 1);
+        dictionary.add("hot", 5);
+
+        assertEquals("metallica", dictionary.lookup("metalica"));
+        assertEquals("metallica", dictionary.lookup("mteallica"));
+        assertEquals("radiohead", dictionary.lookup("radiohed"));
+        assertEquals("peppers", dictionary.lookup("pepers"));
+        assertNull(dictionary.lookup("abba"));
+        assertEquals("red hot chili peppers", dictionary.correct("Red Hot Chilli Pepers"));
+        assertNull(dictionary.correct("Radiohead"));
+        assertNull(dictionary.correct("Unknownband"));
+    }
+
+    @Test
+    void testVocabularyIsBounded() {
+        SymSpellDictionary dictionary = new SymSpellDictionary(2);
+        dictionary.addText("alpha beta gamma");
+        dictionary.add("alpha", 3);
+
+        assertEquals(2, dictionary.size());
+        assertNull(dictionary.lookup("gama"));
+        assertEquals("alpha", dictionary.lookup("alpah"));
+    }
+
+    @Test
+    void testDistanceCountsTranspositionsAsOneEdit() {
+        assertEquals(1, SymSpellDictionary.distance("ab", "ba", 2));
+        assertEquals(2, SymSpellDictionary.distance("kitten", "sittin", 2));
+        assertEquals(3, SymSpellDictionary.distance("kitten", "sitting", 2));
+    }
+}